@@ -1,7 +1,25 @@
 package comportamentais.chainofresponsibility.compadrao;
 
+import comportamentais.chainofresponsibility.compadrao.classes.CacheDecisoes;
+import comportamentais.chainofresponsibility.compadrao.classes.CadeiaCompilada;
+import comportamentais.chainofresponsibility.compadrao.classes.CadeiaRecarregavel;
+import comportamentais.chainofresponsibility.compadrao.classes.CompiladorCadeia;
+import comportamentais.chainofresponsibility.compadrao.classes.Decisao;
+import comportamentais.chainofresponsibility.compadrao.classes.OrcamentoAprovacao;
+import comportamentais.chainofresponsibility.compadrao.classes.PipelineAprovacao;
+import comportamentais.chainofresponsibility.compadrao.classes.SolicitacaoDespesa;
 import comportamentais.chainofresponsibility.compadrao.interfaces.Handler;
 import comportamentais.chainofresponsibility.compadrao.handlers.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Sistema de aprovação de despesas COM o padrão Chain of Responsibility
@@ -16,7 +34,7 @@ public class SistemaAprovacaoComChain {
     
     private Handler primeiroHandler;
     
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         SistemaAprovacaoComChain sistema = new SistemaAprovacaoComChain();
         sistema.configurarCadeia();
         
@@ -30,6 +48,20 @@ public class SistemaAprovacaoComChain {
         
         System.out.println("\n=== DEMONSTRAÇÃO DE FLEXIBILIDADE ===");
         sistema.demonstrarFlexibilidade();
+        
+        System.out.println("\n=== PROCESSAMENTO EM LOTE E EM FLUXO ===");
+        sistema.configurarCadeia();
+        sistema.demonstrarPipeline(200_000);
+        
+        System.out.println("\n=== CADEIA CONFIGURADA POR ARQUIVO ===");
+        sistema.demonstrarRecarga();
+        
+        System.out.println("\n=== REENVIOS COM CACHE DE DECISÕES ===");
+        sistema.configurarCadeia();
+        sistema.demonstrarIdempotencia();
+        
+        System.out.println("\n=== ORÇAMENTO POR APROVADOR ===");
+        sistema.demonstrarOrcamento();
     }
     
     /**
@@ -78,6 +110,118 @@ public class SistemaAprovacaoComChain {
         processarDespesa("Material escritório", 50.0);
     }
     
+    /**
+     * Processa muitas despesas em paralelo pela mesma cadeia
+     * Sem impressão por handler: só as métricas no final
+     * A cadeia é compilada antes: os handlers de limite viram uma tabela
+     * com busca binária, sem percorrer a lista a cada despesa
+     * @param quantidade número de despesas em cada modo
+     */
+    private void demonstrarPipeline(int quantidade) {
+        List<SolicitacaoDespesa> lote = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            // Valores de R$ 1 a R$ 60.000, alguns acima de todos os limites
+            double valor = 1 + (i * 7919L) % 60000;
+            lote.add(new SolicitacaoDespesa("func-" + (i % 500), "Despesa " + i, valor));
+        }
+        
+        CadeiaCompilada cadeia = CompiladorCadeia.compilar(primeiroHandler);
+        System.out.println("Cadeia compilada: " + cadeia + " (" + cadeia.getNiveisEmTabela() + " níveis em tabela)");
+        
+        try (PipelineAprovacao pipeline = new PipelineAprovacao(cadeia)) {
+            long inicio = System.nanoTime();
+            List<Decisao> decisoes = pipeline.processarLote(lote);
+            long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+            System.out.println("Lote: " + decisoes.size() + " decisões em " + duracaoMs + " ms");
+            System.out.println("Primeira: " + decisoes.get(0));
+            pipeline.exibirMetricas();
+            
+            pipeline.zerarMetricas();
+            LongAdder aprovadas = new LongAdder();
+            inicio = System.nanoTime();
+            CompletableFuture<Long> concluido;
+            // Fechar o publisher encerra o fluxo: o join vem depois do bloco
+            try (SubmissionPublisher<SolicitacaoDespesa> publisher = new SubmissionPublisher<>()) {
+                concluido = pipeline.processar(publisher, decisao -> {
+                    if (decisao.isAprovada()) {
+                        aprovadas.increment();
+                    }
+                });
+                lote.forEach(publisher::submit);
+            }
+            long total = concluido.join();
+            duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+            System.out.println("\nFluxo: " + total + " decisões (" + aprovadas.sum() + " aprovadas) em " + duracaoMs + " ms");
+            pipeline.exibirMetricas();
+        }
+    }
+    
+    /**
+     * Carrega níveis e limites de um arquivo e troca a cadeia em execução
+     * Solicitações em curso terminam na cadeia antiga; as seguintes usam a nova
+     */
+    private void demonstrarRecarga() throws IOException {
+        Path arquivo = Files.createTempFile("cadeia-aprovacao", ".conf");
+        try {
+            Files.write(arquivo, List.of("# nível = limite de aprovação (R$)",
+                    "SUPERVISOR=100", "GERENTE=5000", "DIRETOR=50000"), StandardCharsets.UTF_8);
+            
+            try (CadeiaRecarregavel cadeia = new CadeiaRecarregavel(arquivo)) {
+                this.primeiroHandler = cadeia;
+                System.out.println("Versão " + cadeia.getVersao() + ": " + cadeia.getConfiguracao());
+                processarDespesa("Notebook", 2500.0);
+                
+                // Nova política: gerente aprova menos e surge um nível acima do diretor
+                Files.write(arquivo, List.of("SUPERVISOR=100", "GERENTE=2000", "DIRETOR=50000", "PRESIDENTE=1000000"),
+                        StandardCharsets.UTF_8);
+                cadeia.recarregar();
+                System.out.println("\nVersão " + cadeia.getVersao() + ": " + cadeia.getConfiguracao());
+                processarDespesa("Notebook", 2500.0);
+                processarDespesa("Aquisição empresa", 500000.0);
+            }
+        } finally {
+            Files.deleteIfExists(arquivo);
+        }
+    }
+    
+    /**
+     * Reenvios da mesma despesa devolvem a decisão anterior
+     * A cadeia não é percorrida de novo e o LOG não se repete
+     */
+    private void demonstrarIdempotencia() {
+        CacheDecisoes cache = new CacheDecisoes(primeiroHandler, 10_000, 5, TimeUnit.MINUTES);
+        this.primeiroHandler = cache;
+        
+        processarDespesa("Notebook", 2500.0);
+        processarDespesa("Notebook", 2500.0); // reenvio
+        
+        SolicitacaoDespesa solicitacao = new SolicitacaoDespesa("ana", "Passagens", 1800.0);
+        System.out.println("\nChave pedido-42: " + cache.processar("pedido-42", solicitacao));
+        System.out.println("Chave pedido-42 (reenvio): " + cache.processar("pedido-42", solicitacao));
+        cache.exibirEstatisticas();
+    }
+    
+    /**
+     * Gerente com orçamento de R$ 10.000 por minuto
+     * Esgotado o orçamento, a despesa sobe para o Diretor
+     */
+    private void demonstrarOrcamento() {
+        SupervisorHandler supervisor = new SupervisorHandler();
+        GerenteHandler gerente = new GerenteHandler();
+        DiretorHandler diretor = new DiretorHandler();
+        supervisor.setProximo(gerente);
+        gerente.setProximo(diretor);
+        
+        OrcamentoAprovacao orcamento = new OrcamentoAprovacao(10_000, 1, TimeUnit.MINUTES);
+        gerente.setOrcamento(orcamento);
+        this.primeiroHandler = supervisor;
+        
+        processarDespesa("Monitor", 4000.0);
+        processarDespesa("Cadeira", 4000.0);
+        processarDespesa("Impressora", 4000.0); // excede o orçamento do gerente
+        System.out.println("\nGerente: " + orcamento);
+    }
+    
     /*
      * VANTAGENS DO PADRÃO CHAIN OF RESPONSIBILITY:
      * 
@@ -0,0 +1,118 @@
+package comportamentais.chainofresponsibility.compadrao.benchmark;
+
+import comportamentais.chainofresponsibility.compadrao.classes.AuditoriaArquivo;
+import comportamentais.chainofresponsibility.compadrao.classes.AuditoriaConsole;
+import comportamentais.chainofresponsibility.compadrao.classes.HandlerBase;
+import comportamentais.chainofresponsibility.compadrao.handlers.DiretorHandler;
+import comportamentais.chainofresponsibility.compadrao.handlers.GerenteHandler;
+import comportamentais.chainofresponsibility.compadrao.handlers.SupervisorHandler;
+import comportamentais.chainofresponsibility.compadrao.interfaces.DestinoAuditoria;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Benchmark da auditoria dos handlers: impressão síncrona x arquivo assíncrono
+ *
+ * Envia as mesmas solicitações pela cadeia Supervisor -> Gerente -> Diretor
+ * em três modos:
+ * - SÍNCRONO: auditoria original (AuditoriaConsole); o LOG é impresso com
+ *   System.out.println na thread da solicitação (aqui redirecionado para
+ *   um arquivo com autoflush, como um console). As mensagens de aprovação
+ *   ficam desligadas, como nos outros modos: só o destino da auditoria muda
+ * - ASSÍNCRONO: sem eco no console, auditoria em AuditoriaArquivo
+ * - ASSÍNCRONO + FORCE: idem, forçando cada lote para o disco
+ *
+ * Mede a vazão vista pela thread da solicitação e a vazão até o último
+ * registro estar gravado (descarregar).
+ *
+ * Uso: BenchmarkAuditoria [solicitacoes]
+ */
+public class BenchmarkAuditoria {
+
+    public static void main(String[] args) throws Exception {
+        int solicitacoes = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Path diretorio = Files.createTempDirectory("auditoria");
+
+        System.out.println("=== BENCHMARK: AUDITORIA DOS HANDLERS ===");
+        System.out.println("Solicitações por rodada: " + solicitacoes + ", arquivos em " + diretorio);
+        System.out.printf("%-20s %-16s %-18s %-10s%n", "Modo", "Solicitações/s", "Até gravado (/s)", "Lotes");
+
+        // Aquecimento
+        medirSincrono(diretorio, solicitacoes / 4, false);
+        medirAssincrono(diretorio, solicitacoes / 4, false, false);
+
+        medirSincrono(diretorio, solicitacoes, true);
+        medirAssincrono(diretorio, solicitacoes, false, true);
+        medirAssincrono(diretorio, solicitacoes, true, true);
+    }
+
+    private static void medirSincrono(Path diretorio, int solicitacoes, boolean exibir) throws IOException {
+        Path arquivo = diretorio.resolve("sincrono.log");
+        Files.deleteIfExists(arquivo);
+        PrintStream saidaOriginal = System.out;
+        double porSegundo;
+        try (PrintStream saida = new PrintStream(new FileOutputStream(arquivo.toFile()), true, StandardCharsets.UTF_8)) {
+            System.setOut(saida);
+            HandlerBase cadeia = criarCadeia(AuditoriaConsole.INSTANCIA, false);
+            long inicio = System.nanoTime();
+            processar(cadeia, solicitacoes);
+            porSegundo = solicitacoes / ((System.nanoTime() - inicio) / 1e9);
+        } finally {
+            System.setOut(saidaOriginal);
+        }
+        if (exibir) {
+            // println com autoflush: quando retorna, a linha já foi escrita
+            System.out.printf("%-20s %-16.0f %-18.0f %-10s%n", "SÍNCRONO", porSegundo, porSegundo, "-");
+        }
+    }
+
+    private static void medirAssincrono(Path diretorio, int solicitacoes, boolean forcarDisco, boolean exibir)
+            throws IOException {
+        Path arquivo = diretorio.resolve(forcarDisco ? "assincrono-force.jsonl" : "assincrono.jsonl");
+        Files.deleteIfExists(arquivo);
+        double porSegundo;
+        double ateGravado;
+        long lotes;
+        try (AuditoriaArquivo auditoria = new AuditoriaArquivo(arquivo, AuditoriaArquivo.CAPACIDADE_PADRAO,
+                AuditoriaArquivo.PoliticaBuffer.BLOQUEAR, forcarDisco)) {
+            HandlerBase cadeia = criarCadeia(auditoria, false);
+            long inicio = System.nanoTime();
+            processar(cadeia, solicitacoes);
+            long fimProcessamento = System.nanoTime();
+            auditoria.descarregar();
+            long fimGravacao = System.nanoTime();
+
+            porSegundo = solicitacoes / ((fimProcessamento - inicio) / 1e9);
+            ateGravado = solicitacoes / ((fimGravacao - inicio) / 1e9);
+            lotes = auditoria.getLotesGravados();
+        }
+        if (exibir) {
+            System.out.printf("%-20s %-16.0f %-18.0f %-10d%n",
+                    forcarDisco ? "ASSÍNCRONO + FORCE" : "ASSÍNCRONO", porSegundo, ateGravado, lotes);
+        }
+    }
+
+    private static HandlerBase criarCadeia(DestinoAuditoria auditoria, boolean ecoConsole) {
+        HandlerBase supervisor = new SupervisorHandler();
+        HandlerBase gerente = new GerenteHandler();
+        HandlerBase diretor = new DiretorHandler();
+        supervisor.setProximo(gerente);
+        gerente.setProximo(diretor);
+        for (HandlerBase handler : new HandlerBase[] {supervisor, gerente, diretor}) {
+            handler.setAuditoria(auditoria);
+            handler.setEcoConsole(ecoConsole);
+        }
+        return supervisor;
+    }
+
+    private static void processar(HandlerBase cadeia, int solicitacoes) {
+        for (int i = 0; i < solicitacoes; i++) {
+            // Valores de R$ 1 a R$ 60.000, alguns acima de todos os limites
+            cadeia.processar("Despesa", 1 + (i * 7919L) % 60000);
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package comportamentais.chainofresponsibility.compadrao.classes;
+
+import comportamentais.chainofresponsibility.compadrao.interfaces.DestinoAuditoria;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Auditoria assíncrona em arquivo, gravada em lotes
+ *
+ * BUFFER LIMITADO:
+ * Os registros vão para um anel de capacidade fixa (vetores paralelos
+ * pré-alocados); a thread que processa a solicitação só copia os campos
+ * e segue. Uma thread escritora retira tudo o que estiver no anel, grava
+ * o lote de uma vez e, opcionalmente, força o conteúdo para o disco.
+ *
+ * BACKPRESSURE:
+ * Com o anel cheio, a política decide:
+ * - BLOQUEAR: quem registra espera espaço (nenhum registro perdido; a
+ *   espera não é interrompível e o interrupt é mantido para depois)
+ * - DESCARTAR: o registro é descartado e contado em getDescartados
+ *
+ * FALHA:
+ * Qualquer erro da thread escritora (de E/S ou não) fecha a auditoria:
+ * registros pendentes são contados como descartados, quem espera espaço
+ * é acordado e registrar passa a lançar IllegalStateException.
+ *
+ * FORMATO:
+ * Uma linha JSON por registro (JSON Lines), em UTF-8, anexada ao arquivo:
+ * {"instante":1700000000000,"status":"APROVADO - GERENTE","item":"Notebook","valor":2500.0}
+ */
+public class AuditoriaArquivo implements DestinoAuditoria {
+
+    public enum PoliticaBuffer { BLOQUEAR, DESCARTAR }
+
+    public static final int CAPACIDADE_PADRAO = 8192;
+
+    private final Path arquivo;
+    private final FileChannel canal;
+    private final PoliticaBuffer politica;
+    private final boolean sincronizarDisco;
+
+    // Anel: protegido por "trava"
+    private final long[] instantes;
+    private final String[] itens;
+    private final double[] valores;
+    private final String[] status;
+    private int inicio;
+    private int tamanho;
+    private long aceitos;
+    private long gravados;
+    private long descartados;
+    private long lotes;
+    private boolean aberto;
+    private Throwable erro;
+
+    private final ReentrantLock trava;
+    private final Condition temRegistros;
+    private final Condition temEspaco;
+    private final Condition gravou;
+
+    // Cópia do lote: usada somente pela thread escritora
+    private final long[] loteInstantes;
+    private final String[] loteItens;
+    private final double[] loteValores;
+    private final String[] loteStatus;
+    private final StringBuilder texto;
+
+    private final Thread escritor;
+
+    public AuditoriaArquivo(Path arquivo) throws IOException {
+        this(arquivo, CAPACIDADE_PADRAO, PoliticaBuffer.BLOQUEAR, false);
+    }
+
+    /**
+     * @param arquivo arquivo de auditoria (criado se não existir; registros são anexados)
+     * @param capacidade registros aguardando gravação antes de aplicar a política
+     * @param politica o que fazer com o buffer cheio
+     * @param sincronizarDisco força cada lote para o disco (FileChannel.force)
+     */
+    public AuditoriaArquivo(Path arquivo, int capacidade, PoliticaBuffer politica, boolean sincronizarDisco)
+            throws IOException {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("Capacidade deve ser positiva: " + capacidade);
+        }
+        this.arquivo = arquivo;
+        this.canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        this.politica = politica;
+        this.sincronizarDisco = sincronizarDisco;
+
+        this.instantes = new long[capacidade];
+        this.itens = new String[capacidade];
+        this.valores = new double[capacidade];
+        this.status = new String[capacidade];
+        this.loteInstantes = new long[capacidade];
+        this.loteItens = new String[capacidade];
+        this.loteValores = new double[capacidade];
+        this.loteStatus = new String[capacidade];
+        this.texto = new StringBuilder(256);
+
+        this.trava = new ReentrantLock();
+        this.temRegistros = trava.newCondition();
+        this.temEspaco = trava.newCondition();
+        this.gravou = trava.newCondition();
+        this.aberto = true;
+
+        this.escritor = new Thread(this::gravarLotes, "auditoria-" + arquivo.getFileName());
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    // ==================== REGISTRO ====================
+
+    /**
+     * Coloca o registro no buffer; a gravação acontece na thread escritora
+     *
+     * @throws IllegalStateException se a auditoria foi encerrada ou falhou ao gravar
+     */
+    @Override
+    public void registrar(String item, double valor, String statusRegistro) {
+        long instante = System.currentTimeMillis();
+        trava.lock();
+        try {
+            verificarAberto();
+            while (tamanho == instantes.length) {
+                if (politica == PoliticaBuffer.DESCARTAR) {
+                    descartados++;
+                    return;
+                }
+                // Sem perda: um interrupt não descarta o registro (awaitUninterruptibly o mantém)
+                temEspaco.awaitUninterruptibly();
+                verificarAberto();
+            }
+            int posicao = (inicio + tamanho) % instantes.length;
+            instantes[posicao] = instante;
+            itens[posicao] = item;
+            valores[posicao] = valor;
+            status[posicao] = statusRegistro;
+            if (tamanho++ == 0) {
+                temRegistros.signal();
+            }
+            aceitos++;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    private void verificarAberto() {
+        if (!aberto) {
+            throw new IllegalStateException("Auditoria encerrada: " + arquivo, erro);
+        }
+    }
+
+    /**
+     * Aguarda a gravação de todos os registros aceitos até agora
+     *
+     * @throws UncheckedIOException se a gravação falhou por E/S
+     * @throws IllegalStateException se a thread escritora falhou por outro erro
+     */
+    @Override
+    public void descarregar() {
+        trava.lock();
+        try {
+            long alvo = aceitos;
+            while (gravados < alvo && erro == null && escritor.isAlive()) {
+                gravou.awaitUninterruptibly();
+            }
+            if (erro instanceof IOException) {
+                throw new UncheckedIOException("Falha ao gravar auditoria: " + arquivo, (IOException) erro);
+            } else if (erro != null) {
+                throw new IllegalStateException("Falha ao gravar auditoria: " + arquivo, erro);
+            }
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Para de aceitar registros, grava os pendentes e fecha o arquivo
+     */
+    @Override
+    public void close() {
+        trava.lock();
+        try {
+            aberto = false;
+            temRegistros.signal();
+            temEspaco.signalAll();
+        } finally {
+            trava.unlock();
+        }
+        boolean interrompida = false;
+        while (escritor.isAlive()) {
+            try {
+                escritor.join();
+            } catch (InterruptedException e) {
+                interrompida = true;
+            }
+        }
+        try {
+            canal.close();
+        } catch (IOException e) {
+            // Lotes já gravados; nada a recuperar
+        }
+        if (interrompida) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ==================== THREAD ESCRITORA ====================
+
+    private void gravarLotes() {
+        while (true) {
+            int quantidade;
+            trava.lock();
+            try {
+                while (tamanho == 0 && aberto) {
+                    temRegistros.awaitUninterruptibly();
+                }
+                if (tamanho == 0) {
+                    break;
+                }
+                quantidade = tamanho;
+                for (int i = 0; i < quantidade; i++) {
+                    int posicao = (inicio + i) % instantes.length;
+                    loteInstantes[i] = instantes[posicao];
+                    loteItens[i] = itens[posicao];
+                    loteValores[i] = valores[posicao];
+                    loteStatus[i] = status[posicao];
+                    itens[posicao] = null;
+                    status[posicao] = null;
+                }
+                inicio = (inicio + quantidade) % instantes.length;
+                tamanho = 0;
+                temEspaco.signalAll();
+            } finally {
+                trava.unlock();
+            }
+
+            // Qualquer falha fecha a auditoria: sem isso, um erro inesperado
+            // encerraria a thread com "aberto" ainda true e BLOQUEAR esperaria para sempre
+            Throwable falha = null;
+            try {
+                gravar(quantidade);
+            } catch (IOException | RuntimeException | Error e) {
+                falha = e;
+            }
+
+            trava.lock();
+            try {
+                if (falha != null) {
+                    erro = falha;
+                    aberto = false;
+                    descartados += quantidade + tamanho;
+                    tamanho = 0;
+                    temEspaco.signalAll();
+                    gravou.signalAll();
+                    if (falha instanceof Error) {
+                        throw (Error) falha;
+                    }
+                    return;
+                }
+                gravados += quantidade;
+                lotes++;
+                gravou.signalAll();
+            } finally {
+                trava.unlock();
+            }
+        }
+        trava.lock();
+        try {
+            gravou.signalAll();
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    private void gravar(int quantidade) throws IOException {
+        texto.setLength(0);
+        for (int i = 0; i < quantidade; i++) {
+            texto.append("{\"instante\":").append(loteInstantes[i]).append(",\"status\":");
+            anexarTextoJson(loteStatus[i]);
+            texto.append(",\"item\":");
+            anexarTextoJson(loteItens[i]);
+            texto.append(",\"valor\":").append(loteValores[i]).append("}\n");
+            loteItens[i] = null;
+            loteStatus[i] = null;
+        }
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(texto));
+        while (bytes.hasRemaining()) {
+            canal.write(bytes);
+        }
+        if (sincronizarDisco) {
+            canal.force(false);
+        }
+    }
+
+    private void anexarTextoJson(String valor) {
+        if (valor == null) {
+            texto.append("null");
+            return;
+        }
+        texto.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"': texto.append("\\\""); break;
+                case '\\': texto.append("\\\\"); break;
+                case '\n': texto.append("\\n"); break;
+                case '\r': texto.append("\\r"); break;
+                case '\t': texto.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        texto.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        texto.append(c);
+                    }
+            }
+        }
+        texto.append('"');
+    }
+
+    // ==================== CONSULTA ====================
+
+    public Path getArquivo() {
+        return arquivo;
+    }
+
+    public long getAceitos() {
+        trava.lock();
+        try {
+            return aceitos;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    public long getGravados() {
+        trava.lock();
+        try {
+            return gravados;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    public long getDescartados() {
+        trava.lock();
+        try {
+            return descartados;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    public long getLotesGravados() {
+        trava.lock();
+        try {
+            return lotes;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AuditoriaArquivo[" + arquivo + ", aceitos=" + getAceitos() + ", gravados=" + getGravados()
+                + ", descartados=" + getDescartados() + ", lotes=" + getLotesGravados() + "]";
+    }
+}
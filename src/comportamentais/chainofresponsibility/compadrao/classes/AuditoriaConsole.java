@@ -0,0 +1,20 @@
+package comportamentais.chainofresponsibility.compadrao.classes;
+
+import comportamentais.chainofresponsibility.compadrao.interfaces.DestinoAuditoria;
+
+/**
+ * Auditoria no console, síncrona (comportamento original de registrarLog)
+ * Cada registro é impresso na thread que processa a solicitação
+ */
+public final class AuditoriaConsole implements DestinoAuditoria {
+    
+    public static final AuditoriaConsole INSTANCIA = new AuditoriaConsole();
+    
+    private AuditoriaConsole() {
+    }
+    
+    @Override
+    public void registrar(String item, double valor, String status) {
+        System.out.println("LOG: " + status + " - " + item + " - R$ " + valor);
+    }
+}
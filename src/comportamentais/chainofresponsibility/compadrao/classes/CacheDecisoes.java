@@ -0,0 +1,333 @@
+package comportamentais.chainofresponsibility.compadrao.classes;
+
+import comportamentais.chainofresponsibility.compadrao.interfaces.Handler;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache de decisões com chave de idempotência, na frente de uma cadeia
+ *
+ * Reenvios da mesma solicitação (mesma chave) devolvem a decisão já
+ * tomada sem percorrer a cadeia de novo, portanto sem imprimir nem gravar
+ * auditoria duplicada. A chave é explícita (processar(chave, solicitacao))
+ * ou, em processar(item, valor) e avaliar, o trio (solicitante, item,
+ * valor); processar(item, valor) usa o solicitante anônimo. A decisão
+ * devolvida leva sempre a solicitação de quem chamou.
+ *
+ * EXATAMENTE UMA VEZ:
+ * Reenvios simultâneos da mesma chave esperam a primeira execução em vez
+ * de executar também. Se a execução falhar, a entrada é removida e o
+ * próximo envio executa de novo.
+ *
+ * REMOÇÃO:
+ * - por tempo: a decisão vale por "validade" a partir da execução
+ * - por tamanho: acima de "maxEntradas", as mais antigas saem primeiro
+ *
+ * AVALIAR:
+ * avaliar também consome orçamento na cadeia (a decisão é definitiva),
+ * por isso guarda o resultado: uma avaliação posterior do mesmo
+ * solicitante, item e valor devolve essa decisão em vez de debitar de
+ * novo. Solicitantes diferentes nunca compartilham uma decisão. Só não
+ * imprime nem grava auditoria.
+ */
+public class CacheDecisoes implements Handler {
+
+    /**
+     * Chave padrão: solicitante, item e valor da solicitação
+     */
+    private static final class ChaveSolicitacao {
+        final String solicitante;
+        final String item;
+        final double valor;
+
+        ChaveSolicitacao(SolicitacaoDespesa solicitacao) {
+            this.solicitante = solicitacao.getSolicitante();
+            this.item = solicitacao.getItem();
+            this.valor = solicitacao.getValor();
+        }
+
+        @Override
+        public boolean equals(Object outro) {
+            if (!(outro instanceof ChaveSolicitacao)) {
+                return false;
+            }
+            ChaveSolicitacao chave = (ChaveSolicitacao) outro;
+            return Double.compare(valor, chave.valor) == 0
+                    && Objects.equals(solicitante, chave.solicitante)
+                    && Objects.equals(item, chave.item);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * Objects.hashCode(solicitante) + Objects.hashCode(item)) + Double.hashCode(valor);
+        }
+    }
+
+    /**
+     * Decisão (ou execução em andamento) de uma chave
+     */
+    private static final class Entrada {
+        final Object chave;
+        final long expiraEmNanos;
+        final CompletableFuture<Decisao> resultado = new CompletableFuture<>();
+
+        Entrada(Object chave, long expiraEmNanos) {
+            this.chave = chave;
+            this.expiraEmNanos = expiraEmNanos;
+        }
+
+        boolean expirada(long agora) {
+            return agora - expiraEmNanos >= 0;
+        }
+
+        Decisao aguardar() {
+            try {
+                return resultado.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private final Handler delegado;
+    // Último handler da cadeia delegada (na criação do cache): recebe o setProximo
+    private final Handler fimDelegado;
+    private final int maxEntradas;
+    private final long validadeNanos;
+
+    private final ConcurrentHashMap<Object, Entrada> entradas;
+    // Ordem de inserção, para remover as mais antigas (pode conter entradas já removidas)
+    private final ConcurrentLinkedQueue<Entrada> ordem;
+    private final AtomicInteger tamanho;
+
+    private final LongAdder acertos;
+    private final LongAdder falhas;
+    private final LongAdder expiradas;
+    private final LongAdder removidasPorTamanho;
+
+    private volatile boolean ecoConsole = true;
+
+    /**
+     * @param delegado cadeia que decide as solicitações novas
+     * @param maxEntradas máximo de decisões guardadas
+     * @param validade tempo de validade de cada decisão
+     */
+    public CacheDecisoes(Handler delegado, int maxEntradas, long validade, TimeUnit unidade) {
+        if (delegado == null) {
+            throw new IllegalArgumentException("Cadeia de aprovação não pode ser nula");
+        }
+        if (maxEntradas <= 0 || validade <= 0) {
+            throw new IllegalArgumentException("Tamanho e validade devem ser positivos: " + maxEntradas + ", " + validade);
+        }
+        this.delegado = delegado;
+        this.fimDelegado = fimDaCadeia(delegado);
+        this.maxEntradas = maxEntradas;
+        this.validadeNanos = unidade.toNanos(validade);
+        this.entradas = new ConcurrentHashMap<>();
+        this.ordem = new ConcurrentLinkedQueue<>();
+        this.tamanho = new AtomicInteger();
+        this.acertos = new LongAdder();
+        this.falhas = new LongAdder();
+        this.expiradas = new LongAdder();
+        this.removidasPorTamanho = new LongAdder();
+    }
+
+    // ==================== HANDLER ====================
+
+    /**
+     * Processa a solicitação, usando (solicitante anônimo, item, valor) como chave de idempotência
+     */
+    @Override
+    public Decisao processar(String item, double valor) {
+        SolicitacaoDespesa solicitacao = new SolicitacaoDespesa(SolicitacaoDespesa.SOLICITANTE_ANONIMO, item, valor);
+        return processar(new ChaveSolicitacao(solicitacao), solicitacao, false);
+    }
+
+    /**
+     * Processa a solicitação com chave de idempotência explícita
+     *
+     * @param chaveIdempotencia identifica o envio (igual em todos os reenvios)
+     * @return decisão tomada agora ou no primeiro envio com esta chave
+     */
+    public Decisao processar(String chaveIdempotencia, SolicitacaoDespesa solicitacao) {
+        if (chaveIdempotencia == null) {
+            throw new IllegalArgumentException("Chave de idempotência não pode ser nula");
+        }
+        return processar((Object) chaveIdempotencia, solicitacao, false);
+    }
+
+    /**
+     * Decisão do cache para o mesmo solicitante, item e valor, se houver;
+     * senão avalia na cadeia e guarda o resultado
+     */
+    @Override
+    public Decisao avaliar(SolicitacaoDespesa solicitacao) {
+        return processar(new ChaveSolicitacao(solicitacao), solicitacao, true);
+    }
+
+    /**
+     * Define o handler seguinte ao fim da cadeia delegada
+     *
+     * O último handler da cadeia (ou o primeiro fora de HandlerBase, como
+     * uma CadeiaCompilada, que guarda o próximo sem alterar os handlers
+     * compilados) passa a ter este próximo. Decisões já guardadas
+     * continuam valendo até expirar: reenvios de uma chave devolvem a
+     * decisão do primeiro envio.
+     */
+    @Override
+    public void setProximo(Handler proximoHandler) {
+        fimDelegado.setProximo(proximoHandler);
+    }
+
+    private static Handler fimDaCadeia(Handler inicio) {
+        Handler fim = inicio;
+        while (fim instanceof HandlerBase && ((HandlerBase) fim).proximoHandler != null) {
+            fim = ((HandlerBase) fim).proximoHandler;
+        }
+        return fim;
+    }
+
+    /**
+     * @param silencioso true em avaliar: decide por delegado.avaliar e não imprime a repetição
+     */
+    private Decisao processar(Object chave, SolicitacaoDespesa solicitacao, boolean silencioso) {
+        long agora = System.nanoTime();
+        Entrada existente = entradas.get(chave);
+        if (existente != null && existente.expirada(agora)) {
+            if (remover(existente)) {
+                expiradas.increment();
+            }
+            existente = null;
+        }
+        if (existente == null) {
+            Entrada nova = new Entrada(chave, agora + validadeNanos);
+            existente = entradas.putIfAbsent(chave, nova);
+            if (existente == null) {
+                falhas.increment();
+                tamanho.incrementAndGet();
+                ordem.add(nova);
+                removerExcedentes(agora);
+                return executar(nova, solicitacao, silencioso);
+            }
+        }
+
+        acertos.increment();
+        Decisao decisao = daSolicitacao(existente.aguardar(), solicitacao);
+        if (ecoConsole && !silencioso) {
+            System.out.println("DECISÃO REPETIDA (idempotência): " + decisao);
+        }
+        return decisao;
+    }
+
+    private Decisao executar(Entrada entrada, SolicitacaoDespesa solicitacao, boolean silencioso) {
+        try {
+            Decisao decisao = silencioso
+                    ? delegado.avaliar(solicitacao)
+                    : delegado.processar(solicitacao.getItem(), solicitacao.getValor());
+            // A cadeia só recebe item e valor: a decisão guardada leva a solicitação completa
+            decisao = daSolicitacao(decisao, solicitacao);
+            entrada.resultado.complete(decisao);
+            return decisao;
+        } catch (Throwable e) {
+            // Também com Error: quem espera esta entrada não pode ficar preso
+            remover(entrada);
+            entrada.resultado.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * A mesma decisão (nível ou rejeição) para a solicitação de quem chamou
+     */
+    private static Decisao daSolicitacao(Decisao decisao, SolicitacaoDespesa solicitacao) {
+        if (decisao.getSolicitacao() == solicitacao) {
+            return decisao;
+        }
+        return decisao.isAprovada()
+                ? Decisao.aprovada(solicitacao, decisao.getNivel())
+                : Decisao.rejeitada(solicitacao);
+    }
+
+    /**
+     * Remove expiradas do início da fila e as mais antigas acima do limite
+     */
+    private void removerExcedentes(long agora) {
+        Entrada maisAntiga;
+        while ((maisAntiga = ordem.peek()) != null
+                && (tamanho.get() > maxEntradas || maisAntiga.expirada(agora))) {
+            if (ordem.remove(maisAntiga) && remover(maisAntiga)) {
+                if (maisAntiga.expirada(agora)) {
+                    expiradas.increment();
+                } else {
+                    removidasPorTamanho.increment();
+                }
+            }
+        }
+    }
+
+    private boolean remover(Entrada entrada) {
+        if (entradas.remove(entrada.chave, entrada)) {
+            tamanho.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    // ==================== CONFIGURAÇÃO E CONSULTA ====================
+
+    /**
+     * Liga/desliga a mensagem no console quando uma decisão repetida é devolvida
+     */
+    public void setEcoConsole(boolean ecoConsole) {
+        this.ecoConsole = ecoConsole;
+    }
+
+    public long getAcertos() {
+        return acertos.sum();
+    }
+
+    public long getFalhas() {
+        return falhas.sum();
+    }
+
+    public double getTaxaAcerto() {
+        long acertos = getAcertos();
+        long total = acertos + getFalhas();
+        return total == 0 ? 0.0 : acertos / (double) total;
+    }
+
+    public long getExpiradas() {
+        return expiradas.sum();
+    }
+
+    public long getRemovidasPorTamanho() {
+        return removidasPorTamanho.sum();
+    }
+
+    public int getTamanho() {
+        return tamanho.get();
+    }
+
+    /**
+     * Exibe contadores do cache
+     */
+    public void exibirEstatisticas() {
+        System.out.println("\n=== CACHE DE DECISÕES ===");
+        System.out.printf("Acertos: %d | Falhas: %d | Taxa de acerto: %.1f%%%n",
+                getAcertos(), getFalhas(), getTaxaAcerto() * 100);
+        System.out.println("Entradas: " + getTamanho() + "/" + maxEntradas
+                + " | Expiradas: " + getExpiradas() + " | Removidas por tamanho: " + getRemovidasPorTamanho());
+    }
+}
@@ -0,0 +1,211 @@
+package comportamentais.chainofresponsibility.compadrao.classes;
+
+import comportamentais.chainofresponsibility.compadrao.interfaces.Handler;
+import java.util.Arrays;
+
+/**
+ * Cadeia de aprovação compilada pelo CompiladorCadeia
+ *
+ * A cadeia é uma sequência de etapas:
+ * - TABELA: handlers de limite consecutivos viram um vetor de limites
+ *   crescentes; o handler que aprova é achado por busca binária, em
+ *   O(log n) em vez de percorrer n handlers
+ * - HANDLER: handler com regra própria (podeProcessar qualquer), testado
+ *   como na cadeia original
+ *
+ * Se a cadeia chega a um Handler que não estende HandlerBase, a partir
+ * dele segue o percurso normal (processar/avaliar desse handler).
+ *
+ * O resultado é o mesmo da cadeia original: aprova o mesmo handler (com
+ * o seu próprio aprovar) ou rejeita pelo rejeitar do último handler.
+ * Handlers com orçamento esgotado são pulados, como na cadeia original.
+ *
+ * A compilação é um retrato da cadeia: mudanças posteriores em setProximo
+ * dos handlers originais exigem compilar de novo. setProximo da própria
+ * cadeia compilada define para onde vai o que ela rejeitaria (ver abaixo).
+ */
+public final class CadeiaCompilada implements Handler {
+
+    /**
+     * Etapa da cadeia compilada
+     */
+    abstract static class Etapa {
+
+        /**
+         * @param informar imprime encaminhamentos por orçamento esgotado
+         * @return handler que aprova o valor nesta etapa (orçamento já reservado), ou null
+         */
+        abstract HandlerBase resolver(double valor, boolean informar);
+    }
+
+    /**
+     * Handlers de limite consecutivos, em tabela ordenada
+     */
+    static final class Tabela extends Etapa {
+        final double[] limites;
+        final HandlerLimite[] handlers;
+
+        Tabela(double[] limites, HandlerLimite[] handlers) {
+            this.limites = limites;
+            this.handlers = handlers;
+        }
+
+        @Override
+        HandlerBase resolver(double valor, boolean informar) {
+            // Primeiro limite >= valor
+            int inicio = 0;
+            int fim = limites.length;
+            while (inicio < fim) {
+                int meio = (inicio + fim) >>> 1;
+                if (limites[meio] < valor) {
+                    inicio = meio + 1;
+                } else {
+                    fim = meio;
+                }
+            }
+            // A comparação direta também descarta NaN, como podeProcessar
+            if (inicio == limites.length || !(valor <= limites[inicio])) {
+                return null;
+            }
+            // Orçamento esgotado: os limites seguintes também cobrem o valor
+            for (int i = inicio; i < handlers.length; i++) {
+                if (handlers[i].reservarOrcamento(valor, informar)) {
+                    return handlers[i];
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return "Tabela" + Arrays.toString(limites);
+        }
+    }
+
+    /**
+     * Handler com regra própria, testado individualmente
+     */
+    static final class Individual extends Etapa {
+        final HandlerBase handler;
+
+        Individual(HandlerBase handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        HandlerBase resolver(double valor, boolean informar) {
+            return handler.podeProcessar(valor) && handler.reservarOrcamento(valor, informar) ? handler : null;
+        }
+
+        @Override
+        public String toString() {
+            return handler.getNivel();
+        }
+    }
+
+    private final Etapa[] etapas;
+    private final Handler restante;
+    private final HandlerBase ultimo;
+    private final int niveisEmTabela;
+    // Recebe o que a cadeia rejeitaria (null: rejeita pelo último handler)
+    private volatile Handler proximo;
+
+    /**
+     * @param etapas etapas na ordem da cadeia
+     * @param restante handler fora de HandlerBase onde a cadeia continua, ou null
+     * @param ultimo último HandlerBase da cadeia (rejeita quando não há restante)
+     */
+    CadeiaCompilada(Etapa[] etapas, Handler restante, HandlerBase ultimo) {
+        this.etapas = etapas;
+        this.restante = restante;
+        this.ultimo = ultimo;
+        int emTabela = 0;
+        for (Etapa etapa : etapas) {
+            if (etapa instanceof Tabela) {
+                emTabela += ((Tabela) etapa).limites.length;
+            }
+        }
+        this.niveisEmTabela = emTabela;
+    }
+
+    private HandlerBase resolver(double valor, boolean informar) {
+        for (Etapa etapa : etapas) {
+            HandlerBase handler = etapa.resolver(valor, informar);
+            if (handler != null) {
+                return handler;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Decisao processar(String item, double valor) {
+        long inicio = System.nanoTime();
+        HandlerBase handler = resolver(valor, true);
+        if (handler != null) {
+            handler.aprovarReservado(item, valor, inicio);
+            return Decisao.aprovada(new SolicitacaoDespesa(SolicitacaoDespesa.SOLICITANTE_ANONIMO, item, valor), handler.getNivel());
+        }
+        Handler proximo = this.proximo;
+        if (restante != null) {
+            Decisao decisao = restante.processar(item, valor);
+            return decisao.isAprovada() || proximo == null ? decisao : proximo.processar(item, valor);
+        } else if (proximo != null) {
+            return proximo.processar(item, valor);
+        } else {
+            ultimo.rejeitar(item, valor);
+            return Decisao.rejeitada(new SolicitacaoDespesa(SolicitacaoDespesa.SOLICITANTE_ANONIMO, item, valor));
+        }
+    }
+
+    @Override
+    public Decisao avaliar(SolicitacaoDespesa solicitacao) {
+        HandlerBase handler = resolver(solicitacao.getValor(), false);
+        if (handler != null) {
+            return Decisao.aprovada(solicitacao, handler.getNivel());
+        }
+        Handler proximo = this.proximo;
+        if (restante != null) {
+            Decisao decisao = restante.avaliar(solicitacao);
+            return decisao.isAprovada() || proximo == null ? decisao : proximo.avaliar(solicitacao);
+        } else if (proximo != null) {
+            return proximo.avaliar(solicitacao);
+        } else {
+            return Decisao.rejeitada(solicitacao);
+        }
+    }
+
+    /**
+     * Define o handler seguinte ao fim da cadeia compilada
+     *
+     * O que nenhuma etapa aprova passa a ir para ele, em vez de ser
+     * rejeitado pelo último handler. Se a cadeia termina em um handler
+     * fora de HandlerBase, o que ele rejeita vai para o próximo (em
+     * processar, a rejeição dele já foi impressa).
+     * As etapas compiladas não mudam; os handlers originais não são alterados.
+     */
+    @Override
+    public void setProximo(Handler proximoHandler) {
+        this.proximo = proximoHandler;
+    }
+
+    /**
+     * Handlers de limite resolvidos por busca binária (sem os inalcançáveis)
+     */
+    public int getNiveisEmTabela() {
+        return niveisEmTabela;
+    }
+
+    public int getTotalEtapas() {
+        return etapas.length;
+    }
+
+    @Override
+    public String toString() {
+        String descricao = Arrays.toString(etapas);
+        if (restante != null) {
+            descricao += " -> " + restante;
+        }
+        return proximo != null ? descricao + " -> " + proximo : descricao;
+    }
+}
@@ -0,0 +1,237 @@
+package comportamentais.chainofresponsibility.compadrao.classes;
+
+import comportamentais.chainofresponsibility.compadrao.interfaces.DestinoAuditoria;
+import comportamentais.chainofresponsibility.compadrao.interfaces.Handler;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cadeia de aprovação configurada por arquivo e trocada em tempo de execução
+ *
+ * COPY-ON-WRITE:
+ * A cadeia em uso (níveis, limites e ordem) fica em um AtomicReference.
+ * Recarregar monta uma cadeia nova, compila (CompiladorCadeia) e troca a
+ * referência de uma vez; a cadeia antiga nunca é alterada. Cada chamada
+ * de processar/avaliar lê a referência uma única vez: chamadas em curso
+ * terminam na cadeia antiga e as seguintes usam a nova. O caminho da
+ * solicitação não usa locks.
+ *
+ * Se o arquivo novo for inválido, a cadeia atual continua em uso e o erro
+ * fica disponível em getUltimoErro.
+ *
+ * O handler definido em setProximo recebe o que a cadeia rejeitaria, em
+ * todas as versões (é ligado a cada cadeia compilada na recarga).
+ *
+ * MONITORAMENTO:
+ * monitorar(intervalo) verifica periodicamente a data de modificação e o
+ * tamanho do arquivo e recarrega quando mudam. Os atributos são lidos
+ * antes do conteúdo, mas só guardados depois de uma leitura válida: um
+ * arquivo lido no meio da escrita é rejeitado e relido na verificação
+ * seguinte; para evitar o erro, grave em um arquivo temporário e mova-o
+ * sobre o original.
+ */
+public class CadeiaRecarregavel implements Handler, AutoCloseable {
+
+    /**
+     * Cadeia publicada com a configuração que a gerou
+     */
+    private static final class Versao {
+        final ConfiguracaoCadeia configuracao;
+        final CadeiaCompilada cadeia;
+        final int numero;
+
+        Versao(ConfiguracaoCadeia configuracao, CadeiaCompilada cadeia, int numero) {
+            this.configuracao = configuracao;
+            this.cadeia = cadeia;
+            this.numero = numero;
+        }
+    }
+
+    private final Path arquivo;
+    private final DestinoAuditoria auditoria;
+    private final boolean ecoConsole;
+    private final AtomicReference<Versao> atual;
+
+    // Usados somente por recarregar (synchronized)
+    private FileTime modificacaoLida;
+    private long tamanhoLido;
+
+    // Recebe o que a cadeia rejeitaria (null: rejeita pelo último nível)
+    private volatile Handler proximo;
+
+    private volatile Exception ultimoErro;
+    private ScheduledExecutorService monitor;
+
+    /**
+     * Carrega a configuração inicial
+     *
+     * @throws IOException se o arquivo não puder ser lido
+     * @throws IllegalArgumentException se a configuração for inválida
+     */
+    public CadeiaRecarregavel(Path arquivo) throws IOException {
+        this(arquivo, AuditoriaConsole.INSTANCIA, true);
+    }
+
+    /**
+     * @param auditoria destino dos registros dos handlers de todas as versões
+     * @param ecoConsole mensagens de aprovação/rejeição no console
+     */
+    public CadeiaRecarregavel(Path arquivo, DestinoAuditoria auditoria, boolean ecoConsole) throws IOException {
+        this.arquivo = arquivo;
+        this.auditoria = auditoria;
+        this.ecoConsole = ecoConsole;
+        this.atual = new AtomicReference<>();
+        FileTime modificacao = Files.getLastModifiedTime(arquivo);
+        long tamanho = Files.size(arquivo);
+        publicar(ConfiguracaoCadeia.carregar(arquivo));
+        registrarAtributos(modificacao, tamanho);
+    }
+
+    // ==================== CAMINHO DA SOLICITAÇÃO ====================
+
+    @Override
+    public Decisao processar(String item, double valor) {
+        return atual.get().cadeia.processar(item, valor);
+    }
+
+    @Override
+    public Decisao avaliar(SolicitacaoDespesa solicitacao) {
+        return atual.get().cadeia.avaliar(solicitacao);
+    }
+
+    /**
+     * Define o handler seguinte ao último nível do arquivo, nesta e nas próximas versões
+     * A ordem dos níveis continua vindo do arquivo
+     */
+    @Override
+    public synchronized void setProximo(Handler proximoHandler) {
+        this.proximo = proximoHandler;
+        atual.get().cadeia.setProximo(proximoHandler);
+    }
+
+    // ==================== RECARGA ====================
+
+    /**
+     * Lê o arquivo e publica a nova cadeia, se a configuração mudou
+     *
+     * @return true se uma nova cadeia foi publicada
+     */
+    public synchronized boolean recarregar() {
+        try {
+            // Lidos antes do conteúdo: uma escrita durante a leitura muda os atributos e força nova leitura
+            FileTime modificacao = Files.getLastModifiedTime(arquivo);
+            long tamanho = Files.size(arquivo);
+            ConfiguracaoCadeia configuracao = ConfiguracaoCadeia.carregar(arquivo);
+            registrarAtributos(modificacao, tamanho);
+            ultimoErro = null;
+            if (configuracao.equals(atual.get().configuracao)) {
+                return false;
+            }
+            publicar(configuracao);
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            ultimoErro = e;
+            System.out.println("ERRO ao recarregar cadeia (mantida versão " + getVersao() + "): " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void publicar(ConfiguracaoCadeia configuracao) {
+        Versao anterior = atual.get();
+        int numero = anterior == null ? 1 : anterior.numero + 1;
+        HandlerBase primeiro = configuracao.criarCadeia(auditoria, ecoConsole);
+        CadeiaCompilada cadeia = CompiladorCadeia.compilar(primeiro);
+        cadeia.setProximo(proximo);
+        atual.set(new Versao(configuracao, cadeia, numero));
+    }
+
+    /**
+     * Guarda os atributos do arquivo só depois de uma leitura válida
+     */
+    private void registrarAtributos(FileTime modificacao, long tamanho) {
+        modificacaoLida = modificacao;
+        tamanhoLido = tamanho;
+    }
+
+    /**
+     * Recarrega quando data de modificação ou tamanho do arquivo mudam
+     */
+    private synchronized void verificarArquivo() {
+        try {
+            if (Files.getLastModifiedTime(arquivo).equals(modificacaoLida) && Files.size(arquivo) == tamanhoLido) {
+                return;
+            }
+        } catch (IOException e) {
+            ultimoErro = e;
+            return;
+        }
+        if (recarregar()) {
+            System.out.println("Cadeia de aprovação recarregada (versão " + getVersao() + "): " + getConfiguracao());
+        }
+    }
+
+    /**
+     * Passa a verificar o arquivo periodicamente
+     *
+     * @param intervaloMs intervalo entre verificações
+     */
+    public synchronized void monitorar(long intervaloMs) {
+        if (monitor != null) {
+            throw new IllegalStateException("Arquivo já monitorado: " + arquivo);
+        }
+        monitor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "monitor-cadeia-" + arquivo.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        monitor.scheduleWithFixedDelay(this::verificarArquivo, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Para o monitoramento (a cadeia atual continua utilizável)
+     */
+    @Override
+    public synchronized void close() {
+        if (monitor != null) {
+            monitor.shutdownNow();
+            monitor = null;
+        }
+    }
+
+    // ==================== CONSULTA ====================
+
+    /**
+     * Número da cadeia em uso (1 na criação, +1 a cada recarga com mudança)
+     */
+    public int getVersao() {
+        return atual.get().numero;
+    }
+
+    public ConfiguracaoCadeia getConfiguracao() {
+        return atual.get().configuracao;
+    }
+
+    /**
+     * Cadeia compilada em uso (retrato: não muda em recargas posteriores)
+     */
+    public CadeiaCompilada getCadeia() {
+        return atual.get().cadeia;
+    }
+
+    /**
+     * Erro da última recarga, ou null se ela funcionou
+     */
+    public Exception getUltimoErro() {
+        return ultimoErro;
+    }
+
+    public Path getArquivo() {
+        return arquivo;
+    }
+}
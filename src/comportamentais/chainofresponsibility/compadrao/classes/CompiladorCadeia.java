@@ -0,0 +1,100 @@
+package comportamentais.chainofresponsibility.compadrao.classes;
+
+import comportamentais.chainofresponsibility.compadrao.interfaces.Handler;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compila uma cadeia de aprovação em uma CadeiaCompilada
+ *
+ * Handlers de limite (HandlerLimite) consecutivos viram uma tabela:
+ * na cadeia, o primeiro handler com limite >= valor aprova, então só
+ * importam os handlers cujo limite supera o de todos os anteriores.
+ * Os demais nunca aprovariam nada e são descartados; os que sobram têm
+ * limites crescentes e são achados por busca binária.
+ *
+ * Um handler com orçamento (setOrcamento) pode recusar por saldo, e aí
+ * os handlers seguintes voltam a ser alcançáveis: ele fecha a sua tabela
+ * e o descarte recomeça depois dele. Orçamentos definidos depois da
+ * compilação também são respeitados, mas os handlers já descartados
+ * não voltam para a cadeia compilada.
+ *
+ * Handlers com regra própria são mantidos como etapas individuais, na
+ * mesma posição. Se a cadeia chega a um Handler que não estende
+ * HandlerBase, a compilação para ali e o resto segue o percurso normal.
+ */
+public final class CompiladorCadeia {
+
+    private CompiladorCadeia() {
+    }
+
+    /**
+     * @param primeiroHandler início da cadeia
+     * @return cadeia equivalente, com os handlers de limite em tabela
+     * @throws IllegalArgumentException se a cadeia tiver ciclo
+     */
+    public static CadeiaCompilada compilar(Handler primeiroHandler) {
+        if (primeiroHandler == null) {
+            throw new IllegalArgumentException("Cadeia de aprovação não pode ser nula");
+        }
+        List<CadeiaCompilada.Etapa> etapas = new ArrayList<>();
+        List<HandlerLimite> sequencia = new ArrayList<>();
+        Map<Handler, Boolean> visitados = new IdentityHashMap<>();
+        HandlerBase ultimo = null;
+        Handler atual = primeiroHandler;
+
+        while (atual instanceof HandlerBase) {
+            if (visitados.put(atual, Boolean.TRUE) != null) {
+                throw new IllegalArgumentException("Cadeia de aprovação com ciclo em " + ((HandlerBase) atual).getNivel());
+            }
+            HandlerBase handler = (HandlerBase) atual;
+            if (handler instanceof HandlerLimite) {
+                sequencia.add((HandlerLimite) handler);
+                if (handler.getOrcamento() != null) {
+                    fecharTabela(sequencia, etapas);
+                }
+            } else {
+                fecharTabela(sequencia, etapas);
+                etapas.add(new CadeiaCompilada.Individual(handler));
+            }
+            ultimo = handler;
+            atual = handler.proximoHandler;
+        }
+        fecharTabela(sequencia, etapas);
+
+        return new CadeiaCompilada(etapas.toArray(new CadeiaCompilada.Etapa[0]), atual, ultimo);
+    }
+
+    /**
+     * Converte a sequência de handlers de limite em tabela e a esvazia
+     */
+    private static void fecharTabela(List<HandlerLimite> sequencia, List<CadeiaCompilada.Etapa> etapas) {
+        if (sequencia.isEmpty()) {
+            return;
+        }
+        List<HandlerLimite> alcancaveis = new ArrayList<>();
+        double maior = Double.NEGATIVE_INFINITY;
+        for (HandlerLimite handler : sequencia) {
+            double limite = handler.getLimiteAprovacao();
+            // Limite <= a um anterior (ou NaN): o anterior sempre aprova antes
+            if (alcancaveis.isEmpty() ? !Double.isNaN(limite) : limite > maior) {
+                alcancaveis.add(handler);
+                maior = limite;
+            }
+        }
+        sequencia.clear();
+        if (alcancaveis.isEmpty()) {
+            return;
+        }
+
+        double[] limites = new double[alcancaveis.size()];
+        HandlerLimite[] handlers = new HandlerLimite[alcancaveis.size()];
+        for (int i = 0; i < limites.length; i++) {
+            handlers[i] = alcancaveis.get(i);
+            limites[i] = handlers[i].getLimiteAprovacao();
+        }
+        etapas.add(new CadeiaCompilada.Tabela(limites, handlers));
+    }
+}
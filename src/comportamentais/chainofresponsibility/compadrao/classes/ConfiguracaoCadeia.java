@@ -0,0 +1,129 @@
+package comportamentais.chainofresponsibility.compadrao.classes;
+
+import comportamentais.chainofresponsibility.compadrao.handlers.NivelConfiguradoHandler;
+import comportamentais.chainofresponsibility.compadrao.interfaces.DestinoAuditoria;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuração imutável de uma cadeia de aprovação
+ *
+ * FORMATO DO ARQUIVO (UTF-8):
+ * Uma linha "NIVEL=limite" por handler, na ordem da cadeia; linhas em
+ * branco e iniciadas por "#" são ignoradas.
+ *
+ *   # nível = limite de aprovação (R$)
+ *   SUPERVISOR=100
+ *   GERENTE=5000
+ *   DIRETOR=50000
+ */
+public final class ConfiguracaoCadeia {
+
+    private final Map<String, Double> limites;
+
+    private ConfiguracaoCadeia(Map<String, Double> limites) {
+        this.limites = Collections.unmodifiableMap(limites);
+    }
+
+    /**
+     * Lê e valida a configuração
+     *
+     * @throws IOException se o arquivo não puder ser lido
+     * @throws IllegalArgumentException se alguma linha for inválida (com o número da linha)
+     */
+    public static ConfiguracaoCadeia carregar(Path arquivo) throws IOException {
+        return interpretar(Files.readAllLines(arquivo, StandardCharsets.UTF_8), arquivo.toString());
+    }
+
+    /**
+     * Interpreta as linhas no formato do arquivo
+     *
+     * @param origem nome usado nas mensagens de erro
+     */
+    public static ConfiguracaoCadeia interpretar(List<String> linhas, String origem) {
+        Map<String, Double> limites = new LinkedHashMap<>();
+        for (int i = 0; i < linhas.size(); i++) {
+            String linha = linhas.get(i).trim();
+            if (linha.isEmpty() || linha.startsWith("#")) {
+                continue;
+            }
+            int separador = linha.indexOf('=');
+            if (separador <= 0) {
+                throw erro(origem, i, "esperado NIVEL=limite: " + linha);
+            }
+            String nivel = linha.substring(0, separador).trim().toUpperCase();
+            double limite;
+            try {
+                limite = Double.parseDouble(linha.substring(separador + 1).trim());
+            } catch (NumberFormatException e) {
+                throw erro(origem, i, "limite inválido: " + linha);
+            }
+            if (nivel.isEmpty() || Double.isNaN(limite) || limite < 0) {
+                throw erro(origem, i, "nível vazio ou limite negativo: " + linha);
+            }
+            if (limites.containsKey(nivel)) {
+                throw erro(origem, i, "nível repetido: " + nivel);
+            }
+            limites.put(nivel, limite);
+        }
+        if (limites.isEmpty()) {
+            throw new IllegalArgumentException("Configuração sem níveis: " + origem);
+        }
+        return new ConfiguracaoCadeia(limites);
+    }
+
+    private static IllegalArgumentException erro(String origem, int indice, String mensagem) {
+        return new IllegalArgumentException(origem + ":" + (indice + 1) + ": " + mensagem);
+    }
+
+    /**
+     * Níveis e limites na ordem da cadeia
+     */
+    public Map<String, Double> getLimites() {
+        return limites;
+    }
+
+    /**
+     * Monta uma cadeia nova com um handler por nível
+     *
+     * @param auditoria destino dos registros dos handlers
+     * @param ecoConsole mensagens de aprovação/rejeição no console
+     * @return primeiro handler da cadeia
+     */
+    public HandlerBase criarCadeia(DestinoAuditoria auditoria, boolean ecoConsole) {
+        List<HandlerBase> handlers = new ArrayList<>(limites.size());
+        for (Map.Entry<String, Double> entrada : limites.entrySet()) {
+            HandlerBase handler = new NivelConfiguradoHandler(entrada.getKey(), entrada.getValue());
+            handler.setAuditoria(auditoria);
+            handler.setEcoConsole(ecoConsole);
+            if (!handlers.isEmpty()) {
+                handlers.get(handlers.size() - 1).setProximo(handler);
+            }
+            handlers.add(handler);
+        }
+        return handlers.get(0);
+    }
+
+    @Override
+    public boolean equals(Object outro) {
+        return outro instanceof ConfiguracaoCadeia
+                && new ArrayList<>(limites.entrySet()).equals(new ArrayList<>(((ConfiguracaoCadeia) outro).limites.entrySet()));
+    }
+
+    @Override
+    public int hashCode() {
+        return new ArrayList<>(limites.entrySet()).hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return limites.toString();
+    }
+}
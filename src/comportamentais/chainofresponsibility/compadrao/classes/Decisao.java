@@ -0,0 +1,49 @@
+package comportamentais.chainofresponsibility.compadrao.classes;
+
+/**
+ * Resultado da avaliação de uma solicitação pela cadeia
+ *
+ * Imutável. Produzido por Handler.avaliar, que percorre a cadeia como
+ * processar (o handler que aprova consome o seu orçamento), mas sem
+ * imprimir nada. Um CacheDecisoes pode devolver a decisão de um envio
+ * anterior; ela leva sempre a solicitação de quem chamou.
+ */
+public final class Decisao {
+
+    /**
+     * Nível usado quando nenhum handler pode aprovar
+     */
+    public static final String REJEITADO = "REJEITADO";
+
+    private final SolicitacaoDespesa solicitacao;
+    private final String nivel;
+    private final boolean aprovada;
+
+    private Decisao(SolicitacaoDespesa solicitacao, String nivel, boolean aprovada) {
+        this.solicitacao = solicitacao;
+        this.nivel = nivel;
+        this.aprovada = aprovada;
+    }
+
+    public static Decisao aprovada(SolicitacaoDespesa solicitacao, String nivel) {
+        return new Decisao(solicitacao, nivel, true);
+    }
+
+    public static Decisao rejeitada(SolicitacaoDespesa solicitacao) {
+        return new Decisao(solicitacao, REJEITADO, false);
+    }
+
+    public SolicitacaoDespesa getSolicitacao() { return solicitacao; }
+
+    /**
+     * Nível do handler que aprovou (ex.: "SUPERVISOR"), ou REJEITADO
+     */
+    public String getNivel() { return nivel; }
+
+    public boolean isAprovada() { return aprovada; }
+
+    @Override
+    public String toString() {
+        return (aprovada ? "APROVADO - " + nivel : REJEITADO) + " - " + solicitacao;
+    }
+}
@@ -1,5 +1,6 @@
 package comportamentais.chainofresponsibility.compadrao.classes;
 
+import comportamentais.chainofresponsibility.compadrao.interfaces.DestinoAuditoria;
 import comportamentais.chainofresponsibility.compadrao.interfaces.Handler;
 
 /**
@@ -10,19 +11,101 @@ public abstract class HandlerBase implements Handler {
     
     protected Handler proximoHandler;
     
+    private final String nivel = nivelPadrao(getClass());
+    
+    // Destino de registrarLog (padrão: console, síncrono)
+    private volatile DestinoAuditoria auditoria = AuditoriaConsole.INSTANCIA;
+    
+    // Mensagens de aprovação/rejeição no console (o registro de auditoria independe disto)
+    private volatile boolean ecoConsole = true;
+    
+    // Valor máximo aprovado por janela de tempo (null: sem limite)
+    private volatile OrcamentoAprovacao orcamento;
+    
     @Override
     public void setProximo(Handler proximoHandler) {
         this.proximoHandler = proximoHandler;
     }
     
     @Override
-    public void processar(String item, double valor) {
-        if (podeProcessar(valor)) {
-            aprovar(item, valor);
+    public Decisao processar(String item, double valor) {
+        long inicio = System.nanoTime();
+        if (podeProcessar(valor) && reservarOrcamento(valor, true)) {
+            aprovarReservado(item, valor, inicio);
+            return Decisao.aprovada(new SolicitacaoDespesa(SolicitacaoDespesa.SOLICITANTE_ANONIMO, item, valor), getNivel());
         } else if (proximoHandler != null) {
-            proximoHandler.processar(item, valor);
+            return proximoHandler.processar(item, valor);
         } else {
             rejeitar(item, valor);
+            return Decisao.rejeitada(new SolicitacaoDespesa(SolicitacaoDespesa.SOLICITANTE_ANONIMO, item, valor));
+        }
+    }
+    
+    /**
+     * Também consome orçamento: a decisão é definitiva, só não imprime
+     * nem registra auditoria
+     */
+    @Override
+    public Decisao avaliar(SolicitacaoDespesa solicitacao) {
+        if (podeProcessar(solicitacao.getValor()) && reservarOrcamento(solicitacao.getValor(), false)) {
+            return Decisao.aprovada(solicitacao, getNivel());
+        } else if (proximoHandler != null) {
+            return proximoHandler.avaliar(solicitacao);
+        } else {
+            return Decisao.rejeitada(solicitacao);
+        }
+    }
+    
+    /**
+     * Nível de aprovação deste handler, usado nas decisões e métricas
+     * Padrão: nome da classe sem o sufixo "Handler", em maiúsculas
+     * @return nível (ex.: "SUPERVISOR")
+     */
+    public String getNivel() {
+        return nivel;
+    }
+    
+    private static String nivelPadrao(Class<?> classe) {
+        String nome = classe.getSimpleName();
+        if (nome.endsWith("Handler") && nome.length() > "Handler".length()) {
+            nome = nome.substring(0, nome.length() - "Handler".length());
+        }
+        return nome.toUpperCase();
+    }
+    
+    /**
+     * Reserva o valor no orçamento deste handler, se houver
+     * Chamado só depois de podeProcessar: sem saldo, a solicitação segue
+     * para o próximo handler
+     * @param valor valor da despesa
+     * @param informar imprime o encaminhamento (se ecoConsole)
+     * @return true se não há orçamento ou se havia saldo
+     */
+    boolean reservarOrcamento(double valor, boolean informar) {
+        OrcamentoAprovacao orcamento = this.orcamento;
+        if (orcamento == null || orcamento.reservar(valor)) {
+            return true;
+        }
+        if (informar && ecoConsole) {
+            System.out.println("Orçamento de " + getNivel() + " esgotado na janela - encaminhando");
+        }
+        return false;
+    }
+    
+    /**
+     * Aprova um valor já reservado; se aprovar falhar (ex.: auditoria
+     * encerrada), a reserva volta ao orçamento antes de a exceção sair
+     * @param inicio System.nanoTime() lido antes de reservarOrcamento
+     */
+    void aprovarReservado(String item, double valor, long inicio) {
+        try {
+            aprovar(item, valor);
+        } catch (RuntimeException | Error e) {
+            OrcamentoAprovacao orcamento = this.orcamento;
+            if (orcamento != null) {
+                orcamento.liberar(valor, inicio);
+            }
+            throw e;
         }
     }
     
@@ -35,6 +118,8 @@ public abstract class HandlerBase implements Handler {
     
     /**
      * Aprova a solicitação
+     * Registra a auditoria (registrarLog) antes de imprimir: se o destino
+     * recusar o registro, a exceção sai sem a aprovação ter sido anunciada
      * @param item descrição do item
      * @param valor valor da despesa
      */
@@ -46,18 +131,64 @@ public abstract class HandlerBase implements Handler {
      * @param valor valor da despesa
      */
     protected void rejeitar(String item, double valor) {
-        System.out.println("REJEITADO");
-        System.out.println("Motivo: Valor R$ " + valor + " excede todos os limites de aprovação");
         registrarLog(item, valor, "REJEITADO");
+        if (ecoConsole) {
+            System.out.println("REJEITADO");
+            System.out.println("Motivo: Valor R$ " + valor + " excede todos os limites de aprovação");
+        }
     }
     
     /**
      * Registra log da operação
+     * @throws IllegalStateException se o destino de auditoria foi encerrado ou falhou
      * @param item descrição do item
      * @param valor valor da despesa
      * @param status status da aprovação
      */
     protected void registrarLog(String item, double valor, String status) {
-        System.out.println("LOG: " + status + " - " + item + " - R$ " + valor);
+        auditoria.registrar(item, valor, status);
+    }
+    
+    /**
+     * Define para onde vão os registros de auditoria deste handler
+     * Ex.: AuditoriaArquivo grava em lotes fora da thread da solicitação
+     * @param auditoria destino dos registros
+     */
+    public void setAuditoria(DestinoAuditoria auditoria) {
+        if (auditoria == null) {
+            throw new IllegalArgumentException("Destino de auditoria não pode ser nulo");
+        }
+        this.auditoria = auditoria;
+    }
+    
+    public DestinoAuditoria getAuditoria() {
+        return auditoria;
+    }
+    
+    /**
+     * Liga/desliga as mensagens de aprovação e rejeição no console
+     * Com auditoria em arquivo e alto volume, o console limitaria a vazão
+     * @param ecoConsole true para imprimir as mensagens
+     */
+    public void setEcoConsole(boolean ecoConsole) {
+        this.ecoConsole = ecoConsole;
+    }
+    
+    public boolean isEcoConsole() {
+        return ecoConsole;
+    }
+    
+    /**
+     * Limita o valor total que este handler aprova por janela de tempo
+     * Acima do orçamento, as solicitações seguem para o próximo handler
+     * Para cadeias compiladas, defina antes de compilar (CompiladorCadeia)
+     * @param orcamento orçamento do handler, ou null para não limitar
+     */
+    public void setOrcamento(OrcamentoAprovacao orcamento) {
+        this.orcamento = orcamento;
+    }
+    
+    public OrcamentoAprovacao getOrcamento() {
+        return orcamento;
     }
 }
\ No newline at end of file
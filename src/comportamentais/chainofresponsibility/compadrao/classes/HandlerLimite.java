@@ -0,0 +1,34 @@
+package comportamentais.chainofresponsibility.compadrao.classes;
+
+/**
+ * Handler que aprova por limite de valor
+ * Aprova toda despesa com valor até o limite (inclusive)
+ * 
+ * Como a regra é apenas um limite, o CompiladorCadeia consegue trocar
+ * uma sequência destes handlers por uma tabela de limites ordenada
+ * com busca binária
+ */
+public abstract class HandlerLimite extends HandlerBase {
+    
+    private final double limiteAprovacao;
+    
+    /**
+     * @param limiteAprovacao maior valor que este handler aprova
+     */
+    protected HandlerLimite(double limiteAprovacao) {
+        this.limiteAprovacao = limiteAprovacao;
+    }
+    
+    public double getLimiteAprovacao() {
+        return limiteAprovacao;
+    }
+    
+    /**
+     * Final: handlers com regra diferente devem estender HandlerBase,
+     * senão a tabela compilada divergiria da cadeia
+     */
+    @Override
+    protected final boolean podeProcessar(double valor) {
+        return valor <= limiteAprovacao;
+    }
+}
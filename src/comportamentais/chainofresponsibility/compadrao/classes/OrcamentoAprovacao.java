@@ -0,0 +1,234 @@
+package comportamentais.chainofresponsibility.compadrao.classes;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Orçamento de aprovação de um handler: valor total por janela de tempo
+ *
+ * Cada aprovação reserva o seu valor no orçamento da janela atual; sem
+ * saldo, o handler encaminha a solicitação ao próximo da cadeia. As
+ * janelas são fixas (ex.: cada minuto) e recomeçam com o orçamento cheio.
+ *
+ * FAIXAS (STRIPES):
+ * O saldo da janela fica em uma reserva central e em faixas, uma por
+ * grupo de threads, com espaçamento para não dividirem linha de cache.
+ * Uma aprovação debita da faixa da sua thread com um CAS; quando a faixa
+ * não tem saldo, retira um lote da reserva central. Só perto do fim do
+ * orçamento as sobras das faixas são devolvidas à reserva, para que a
+ * última parte também possa ser usada. O orçamento nunca é excedido.
+ *
+ * Valores são contados em centavos.
+ */
+public class OrcamentoAprovacao {
+
+    // Posições do vetor entre duas faixas (16 longs = 128 bytes)
+    private static final int ESPACAMENTO = 16;
+
+    /**
+     * Saldo de uma janela; substituído inteiro quando a janela vira
+     */
+    private static final class Janela {
+        final long indice;
+        final AtomicLong reserva;
+        final AtomicLongArray faixas;
+
+        Janela(long indice, long limite, int numeroFaixas) {
+            this.indice = indice;
+            this.reserva = new AtomicLong(limite);
+            this.faixas = new AtomicLongArray(numeroFaixas * ESPACAMENTO);
+        }
+    }
+
+    private final long limiteCentavos;
+    private final long janelaNanos;
+    private final long origemNanos;
+    private final int mascaraFaixas;
+    private final long loteCentavos;
+    private final AtomicReference<Janela> janela;
+
+    private final LongAdder aprovadoCentavos;
+    private final LongAdder aprovacoes;
+    private final LongAdder recusadas;
+
+    /**
+     * @param valorPorJanela valor total que pode ser aprovado em cada janela
+     * @param janela duração da janela
+     */
+    public OrcamentoAprovacao(double valorPorJanela, long janela, TimeUnit unidade) {
+        if (!(valorPorJanela >= 0) || janela <= 0) {
+            throw new IllegalArgumentException("Orçamento e janela devem ser positivos: " + valorPorJanela + ", " + janela);
+        }
+        this.limiteCentavos = emCentavos(valorPorJanela);
+        this.janelaNanos = unidade.toNanos(janela);
+        this.origemNanos = System.nanoTime();
+
+        int faixas = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1));
+        this.mascaraFaixas = faixas - 1;
+        this.loteCentavos = Math.max(1, limiteCentavos / (faixas * 4L));
+
+        this.janela = new AtomicReference<>(new Janela(0, limiteCentavos, faixas));
+        this.aprovadoCentavos = new LongAdder();
+        this.aprovacoes = new LongAdder();
+        this.recusadas = new LongAdder();
+    }
+
+    // ==================== RESERVA ====================
+
+    /**
+     * Reserva o valor no orçamento da janela atual
+     *
+     * @return true se havia saldo (o valor foi debitado); false se não
+     */
+    public boolean reservar(double valor) {
+        long centavos = emCentavos(valor);
+        if (centavos <= 0) {
+            return true;
+        }
+        Janela atual = janelaAtual();
+        int faixa = faixaDaThread();
+
+        boolean reservado = debitarFaixa(atual, faixa, centavos) || retirarDaReserva(atual, faixa, centavos);
+        if (!reservado) {
+            recolherFaixas(atual);
+            reservado = retirarDaReserva(atual, faixa, centavos);
+        }
+        if (reservado) {
+            aprovadoCentavos.add(centavos);
+            aprovacoes.increment();
+            return true;
+        }
+        recusadas.increment();
+        return false;
+    }
+
+    /**
+     * Devolve um valor reservado e não usado (ex.: a aprovação falhou)
+     *
+     * O valor volta à faixa da thread se a janela atual ainda é a do
+     * instante anterior ao reservar; se a janela virou, nada é devolvido
+     * (a janela nova começou com o orçamento cheio) e o orçamento nunca é
+     * excedido.
+     *
+     * @param antesDaReservaNanos System.nanoTime() lido antes do reservar
+     */
+    public void liberar(double valor, long antesDaReservaNanos) {
+        long centavos = emCentavos(valor);
+        if (centavos <= 0) {
+            return;
+        }
+        Janela atual = janela.get();
+        if (atual.indice == (antesDaReservaNanos - origemNanos) / janelaNanos) {
+            atual.faixas.addAndGet(faixaDaThread(), centavos);
+        }
+        aprovadoCentavos.add(-centavos);
+        aprovacoes.decrement();
+    }
+
+    private static boolean debitarFaixa(Janela janela, int faixa, long centavos) {
+        while (true) {
+            long saldo = janela.faixas.get(faixa);
+            if (saldo < centavos) {
+                return false;
+            }
+            if (janela.faixas.compareAndSet(faixa, saldo, saldo - centavos)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Retira da reserva central o valor e, se houver, um lote extra para a faixa
+     */
+    private boolean retirarDaReserva(Janela janela, int faixa, long centavos) {
+        while (true) {
+            long saldo = janela.reserva.get();
+            if (saldo < centavos) {
+                return false;
+            }
+            long retirada = Math.min(saldo, Math.max(centavos, loteCentavos));
+            if (janela.reserva.compareAndSet(saldo, saldo - retirada)) {
+                if (retirada > centavos) {
+                    janela.faixas.addAndGet(faixa, retirada - centavos);
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Devolve à reserva as sobras de todas as faixas (caminho raro, perto do fim do orçamento)
+     */
+    private void recolherFaixas(Janela janela) {
+        for (int i = 0; i <= mascaraFaixas; i++) {
+            long sobra = janela.faixas.getAndSet(i * ESPACAMENTO, 0);
+            if (sobra > 0) {
+                janela.reserva.addAndGet(sobra);
+            }
+        }
+    }
+
+    private Janela janelaAtual() {
+        long indice = (System.nanoTime() - origemNanos) / janelaNanos;
+        Janela atual = janela.get();
+        if (atual.indice >= indice) {
+            return atual;
+        }
+        Janela nova = new Janela(indice, limiteCentavos, mascaraFaixas + 1);
+        return janela.compareAndSet(atual, nova) ? nova : janela.get();
+    }
+
+    private int faixaDaThread() {
+        long id = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return ((int) (id >>> 32) & mascaraFaixas) * ESPACAMENTO;
+    }
+
+    private static long emCentavos(double valor) {
+        return Math.round(valor * 100);
+    }
+
+    // ==================== CONSULTA ====================
+
+    public double getLimitePorJanela() {
+        return limiteCentavos / 100.0;
+    }
+
+    /**
+     * Saldo ainda disponível na janela atual
+     */
+    public double getSaldo() {
+        Janela atual = janelaAtual();
+        long saldo = atual.reserva.get();
+        for (int i = 0; i <= mascaraFaixas; i++) {
+            saldo += atual.faixas.get(i * ESPACAMENTO);
+        }
+        return saldo / 100.0;
+    }
+
+    /**
+     * Valor aprovado desde a criação, em todas as janelas
+     */
+    public double getTotalAprovado() {
+        return aprovadoCentavos.sum() / 100.0;
+    }
+
+    public long getAprovacoes() {
+        return aprovacoes.sum();
+    }
+
+    /**
+     * Reservas recusadas por falta de saldo (solicitações encaminhadas adiante)
+     */
+    public long getRecusadas() {
+        return recusadas.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Orçamento R$ %.2f por %d ms (saldo R$ %.2f, recusadas %d)",
+                getLimitePorJanela(), TimeUnit.NANOSECONDS.toMillis(janelaNanos), getSaldo(), getRecusadas());
+    }
+}
@@ -0,0 +1,324 @@
+package comportamentais.chainofresponsibility.compadrao.classes;
+
+import comportamentais.chainofresponsibility.compadrao.interfaces.Handler;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Processamento concorrente de solicitações pela cadeia de aprovação
+ *
+ * Usa Handler.avaliar (sem impressão por handler) para aprovar grandes
+ * volumes de despesas em paralelo, em dois modos:
+ *
+ * - LOTE (processarLote): a lista é dividida em faixas contíguas, uma
+ *   por pista; as decisões voltam na ordem da entrada, portanto também
+ *   na ordem de cada solicitante.
+ * - FLUXO (processar(Flow.Publisher, ...)): cada solicitante é fixado,
+ *   pelo hash do nome, a uma pista servida por uma única thread. As
+ *   decisões de um solicitante são entregues na ordem de chegada;
+ *   solicitantes de pistas diferentes são processados em paralelo. O
+ *   publisher recebe demanda limitada (no máximo "emVoo" solicitações
+ *   pendentes), o que dá backpressure natural.
+ *
+ * MÉTRICAS:
+ * Aprovações por nível (ex.: SUPERVISOR, GERENTE) e rejeições são
+ * contadas em LongAdder; a taxa por segundo é medida desde a criação
+ * ou a última zeragem.
+ *
+ * A cadeia é compartilhada entre as pistas: o estado que os handlers
+ * alteram em avaliar precisa ser seguro para várias threads (o orçamento
+ * dos handlers padrão fica em um OrcamentoAprovacao; um CacheDecisoes na
+ * frente da cadeia guarda decisões por solicitante, item e valor).
+ */
+public class PipelineAprovacao implements AutoCloseable {
+
+    private static final int EM_VOO_PADRAO = 4096;
+
+    private final Handler primeiroHandler;
+    private final ExecutorService[] pistas;
+    private final ConcurrentHashMap<String, LongAdder> decisoesPorNivel;
+    private final LongAdder totalProcessadas;
+    private volatile long inicioJanelaNanos;
+
+    /**
+     * Cria pipeline com uma pista por núcleo
+     */
+    public PipelineAprovacao(Handler primeiroHandler) {
+        this(primeiroHandler, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param primeiroHandler início da cadeia de aprovação
+     * @param numeroPistas threads que avaliam as solicitações
+     */
+    public PipelineAprovacao(Handler primeiroHandler, int numeroPistas) {
+        if (primeiroHandler == null) {
+            throw new IllegalArgumentException("Cadeia de aprovação não pode ser nula");
+        }
+        if (numeroPistas <= 0) {
+            throw new IllegalArgumentException("Número de pistas deve ser positivo: " + numeroPistas);
+        }
+        this.primeiroHandler = primeiroHandler;
+        this.pistas = new ExecutorService[numeroPistas];
+        for (int i = 0; i < numeroPistas; i++) {
+            int indice = i;
+            pistas[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "pista-aprovacao-" + indice);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        this.decisoesPorNivel = new ConcurrentHashMap<>();
+        this.totalProcessadas = new LongAdder();
+        this.inicioJanelaNanos = System.nanoTime();
+    }
+
+    // ==================== LOTE ====================
+
+    /**
+     * Avalia um lote em paralelo
+     *
+     * @return decisões na mesma ordem das solicitações
+     */
+    public List<Decisao> processarLote(List<SolicitacaoDespesa> solicitacoes) {
+        SolicitacaoDespesa[] entrada = solicitacoes.toArray(new SolicitacaoDespesa[0]);
+        Decisao[] saida = new Decisao[entrada.length];
+        int faixas = Math.min(pistas.length, entrada.length);
+        CompletableFuture<?>[] futuros = new CompletableFuture<?>[faixas];
+
+        for (int f = 0; f < faixas; f++) {
+            int inicio = (int) ((long) entrada.length * f / faixas);
+            int fim = (int) ((long) entrada.length * (f + 1) / faixas);
+            futuros[f] = CompletableFuture.runAsync(() -> {
+                for (int i = inicio; i < fim; i++) {
+                    saida[i] = avaliar(entrada[i]);
+                }
+            }, pistas[f]);
+        }
+        CompletableFuture.allOf(futuros).join();
+        return Arrays.asList(saida);
+    }
+
+    // ==================== FLUXO ====================
+
+    /**
+     * Assina o publisher e avalia cada solicitação na pista do solicitante
+     *
+     * @param destino recebe as decisões (na ordem de cada solicitante; pode
+     *                ser chamado por várias threads, uma por pista)
+     * @return futuro concluído com o total de decisões quando o publisher
+     *         termina e todas as pistas entregam o que receberam
+     */
+    public CompletableFuture<Long> processar(Flow.Publisher<SolicitacaoDespesa> publisher, Consumer<Decisao> destino) {
+        return processar(publisher, destino, EM_VOO_PADRAO);
+    }
+
+    /**
+     * @param emVoo máximo de solicitações pedidas ao publisher e ainda não decididas
+     */
+    public CompletableFuture<Long> processar(Flow.Publisher<SolicitacaoDespesa> publisher, Consumer<Decisao> destino,
+                                             int emVoo) {
+        if (emVoo <= 0) {
+            throw new IllegalArgumentException("Limite em voo deve ser positivo: " + emVoo);
+        }
+        Assinante assinante = new Assinante(destino, emVoo);
+        publisher.subscribe(assinante);
+        return assinante.resultado;
+    }
+
+    /**
+     * Assinante do fluxo: distribui as solicitações pelas pistas
+     *
+     * onNext/onComplete/onError são chamados em sequência pelo publisher
+     * (regra do Flow). As decisões concluídas devolvem demanda em lotes de
+     * metade do limite em voo; request e cancel são serializados, como o
+     * Flow exige, mesmo vindo de pistas diferentes.
+     */
+    private final class Assinante implements Flow.Subscriber<SolicitacaoDespesa> {
+
+        final Consumer<Decisao> destino;
+        final int emVoo;
+        final int loteDemanda;
+        final AtomicInteger concluidas = new AtomicInteger();
+        final CompletableFuture<Long> resultado = new CompletableFuture<>();
+        final LongAdder entregues = new LongAdder();
+        final AtomicBoolean falhou = new AtomicBoolean();
+        volatile Flow.Subscription assinatura;
+
+        Assinante(Consumer<Decisao> destino, int emVoo) {
+            this.destino = destino;
+            this.emVoo = emVoo;
+            this.loteDemanda = Math.max(1, emVoo / 2);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription assinatura) {
+            this.assinatura = assinatura;
+            synchronized (this) {
+                assinatura.request(emVoo);
+            }
+        }
+
+        @Override
+        public void onNext(SolicitacaoDespesa solicitacao) {
+            try {
+                pistaDe(solicitacao.getSolicitante()).execute(() -> entregar(solicitacao));
+            } catch (RejectedExecutionException e) {
+                falhar(new IllegalStateException("Pipeline de aprovação encerrado", e));
+            }
+        }
+
+        private void entregar(SolicitacaoDespesa solicitacao) {
+            if (falhou.get()) {
+                return;
+            }
+            try {
+                destino.accept(avaliar(solicitacao));
+                entregues.increment();
+                devolverDemanda();
+            } catch (RuntimeException e) {
+                falhar(e);
+            }
+        }
+
+        private void devolverDemanda() {
+            if (concluidas.incrementAndGet() >= loteDemanda) {
+                int lote = concluidas.getAndSet(0);
+                if (lote > 0) {
+                    synchronized (this) {
+                        assinatura.request(lote);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable erro) {
+            aposPistas(() -> resultado.completeExceptionally(erro));
+        }
+
+        @Override
+        public void onComplete() {
+            aposPistas(() -> resultado.complete(entregues.sum()));
+        }
+
+        /**
+         * Executa a ação depois de todas as tarefas já enviadas às pistas
+         */
+        private void aposPistas(Runnable acao) {
+            CompletableFuture<?>[] marcas = new CompletableFuture<?>[pistas.length];
+            try {
+                for (int i = 0; i < pistas.length; i++) {
+                    marcas[i] = CompletableFuture.runAsync(() -> { }, pistas[i]);
+                }
+            } catch (RejectedExecutionException e) {
+                falhar(new IllegalStateException("Pipeline de aprovação encerrado", e));
+                return;
+            }
+            CompletableFuture.allOf(marcas).thenRun(acao);
+        }
+
+        private void falhar(Throwable erro) {
+            if (falhou.compareAndSet(false, true)) {
+                Flow.Subscription s = assinatura;
+                if (s != null) {
+                    synchronized (this) {
+                        s.cancel();
+                    }
+                }
+                resultado.completeExceptionally(erro);
+            }
+        }
+    }
+
+    // ==================== AVALIAÇÃO E MÉTRICAS ====================
+
+    private Decisao avaliar(SolicitacaoDespesa solicitacao) {
+        Decisao decisao = primeiroHandler.avaliar(solicitacao);
+        contador(decisao.getNivel()).increment();
+        totalProcessadas.increment();
+        return decisao;
+    }
+
+    private ExecutorService pistaDe(String solicitante) {
+        return pistas[Math.floorMod(solicitante.hashCode(), pistas.length)];
+    }
+
+    private LongAdder contador(String nivel) {
+        LongAdder contador = decisoesPorNivel.get(nivel);
+        return contador != null ? contador : decisoesPorNivel.computeIfAbsent(nivel, n -> new LongAdder());
+    }
+
+    public long getTotalProcessadas() {
+        return totalProcessadas.sum();
+    }
+
+    /**
+     * Decisões por nível (inclui REJEITADO) desde a criação ou última zeragem
+     */
+    public Map<String, Long> getDecisoesPorNivel() {
+        Map<String, Long> resultado = new LinkedHashMap<>();
+        decisoesPorNivel.forEach((nivel, contador) -> resultado.put(nivel, contador.sum()));
+        return resultado;
+    }
+
+    /**
+     * Aprovações por segundo de cada nível (inclui REJEITADO) na janela atual
+     */
+    public Map<String, Double> getAprovacoesPorSegundo() {
+        double segundos = Math.max(1, System.nanoTime() - inicioJanelaNanos) / 1e9;
+        Map<String, Double> resultado = new LinkedHashMap<>();
+        decisoesPorNivel.forEach((nivel, contador) -> resultado.put(nivel, contador.sum() / segundos));
+        return resultado;
+    }
+
+    /**
+     * Zera contadores e reinicia a janela de medição da taxa
+     * Os contadores são zerados no lugar, não removidos: lanes em andamento
+     * podem estar com a referência de um deles e continuar contando nele
+     */
+    public void zerarMetricas() {
+        decisoesPorNivel.values().forEach(LongAdder::reset);
+        totalProcessadas.reset();
+        inicioJanelaNanos = System.nanoTime();
+    }
+
+    /**
+     * Exibe totais e taxa por nível
+     */
+    public void exibirMetricas() {
+        Map<String, Long> totais = getDecisoesPorNivel();
+        Map<String, Double> taxas = getAprovacoesPorSegundo();
+        List<String> niveis = new ArrayList<>(totais.keySet());
+        niveis.sort(null);
+
+        System.out.println("\n=== MÉTRICAS DO PIPELINE DE APROVAÇÃO ===");
+        System.out.println("Pistas: " + pistas.length + " | Total processadas: " + getTotalProcessadas());
+        for (String nivel : niveis) {
+            System.out.printf("%-12s %10d  (%.0f/s)%n", nivel, totais.get(nivel), taxas.getOrDefault(nivel, 0.0));
+        }
+    }
+
+    /**
+     * Encerra as pistas depois das solicitações já recebidas
+     */
+    @Override
+    public void close() {
+        for (ExecutorService pista : pistas) {
+            pista.shutdown();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package comportamentais.chainofresponsibility.compadrao.classes;
+
+/**
+ * Solicitação de despesa enviada em lote ou em fluxo ao PipelineAprovacao
+ *
+ * Imutável. O solicitante define a ordem: decisões de um mesmo
+ * solicitante são entregues na ordem em que as solicitações chegaram.
+ */
+public final class SolicitacaoDespesa {
+
+    /**
+     * Solicitante das solicitações recebidas só com item e valor (Handler.processar)
+     */
+    public static final String SOLICITANTE_ANONIMO = "anônimo";
+
+    private final String solicitante;
+    private final String item;
+    private final double valor;
+
+    public SolicitacaoDespesa(String solicitante, String item, double valor) {
+        if (solicitante == null) {
+            throw new IllegalArgumentException("Solicitante não pode ser nulo");
+        }
+        this.solicitante = solicitante;
+        this.item = item;
+        this.valor = valor;
+    }
+
+    public String getSolicitante() { return solicitante; }
+    public String getItem() { return item; }
+    public double getValor() { return valor; }
+
+    @Override
+    public String toString() {
+        return solicitante + ": " + item + " - R$ " + valor;
+    }
+}
@@ -1,24 +1,25 @@
 package comportamentais.chainofresponsibility.compadrao.handlers;
 
-import comportamentais.chainofresponsibility.compadrao.classes.HandlerBase;
+import comportamentais.chainofresponsibility.compadrao.classes.HandlerLimite;
 
 /**
  * Handler concreto para aprovação de despesas pelo Diretor
  * Pode aprovar despesas até R$ 50.000
  */
-public class DiretorHandler extends HandlerBase {
+public class DiretorHandler extends HandlerLimite {
     
     private static final double LIMITE_APROVACAO = 50000.0;
     
-    @Override
-    protected boolean podeProcessar(double valor) {
-        return valor <= LIMITE_APROVACAO;
+    public DiretorHandler() {
+        super(LIMITE_APROVACAO);
     }
     
     @Override
     protected void aprovar(String item, double valor) {
-        System.out.println("APROVADO pelo Diretor");
-        System.out.println("Motivo: Valor R$ " + valor + " dentro do limite (até R$ " + LIMITE_APROVACAO + ")");
         registrarLog(item, valor, "APROVADO - DIRETOR");
+        if (isEcoConsole()) {
+            System.out.println("APROVADO pelo Diretor");
+            System.out.println("Motivo: Valor R$ " + valor + " dentro do limite (até R$ " + LIMITE_APROVACAO + ")");
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package comportamentais.chainofresponsibility.compadrao.handlers;
+
+import comportamentais.chainofresponsibility.compadrao.classes.HandlerLimite;
+
+/**
+ * Handler concreto com nível e limite definidos em configuração
+ * Usado pela ConfiguracaoCadeia para montar cadeias lidas de arquivo
+ * As mensagens seguem o formato dos handlers fixos (ex.: "APROVADO pelo Gerente")
+ */
+public class NivelConfiguradoHandler extends HandlerLimite {
+    
+    private final String nivel;
+    private final String nome;
+    private final String statusAprovado;
+    
+    /**
+     * @param nivel nível de aprovação (ex.: "GERENTE")
+     * @param limiteAprovacao maior valor que este nível aprova
+     */
+    public NivelConfiguradoHandler(String nivel, double limiteAprovacao) {
+        super(limiteAprovacao);
+        this.nivel = nivel.toUpperCase();
+        this.nome = this.nivel.charAt(0) + this.nivel.substring(1).toLowerCase();
+        this.statusAprovado = "APROVADO - " + this.nivel;
+    }
+    
+    @Override
+    public String getNivel() {
+        return nivel;
+    }
+    
+    @Override
+    protected void aprovar(String item, double valor) {
+        registrarLog(item, valor, statusAprovado);
+        if (isEcoConsole()) {
+            System.out.println("APROVADO pelo " + nome);
+            System.out.println("Motivo: Valor R$ " + valor + " dentro do limite (até R$ " + getLimiteAprovacao() + ")");
+        }
+    }
+}
@@ -1,24 +1,25 @@
 package comportamentais.chainofresponsibility.compadrao.handlers;
 
-import comportamentais.chainofresponsibility.compadrao.classes.HandlerBase;
+import comportamentais.chainofresponsibility.compadrao.classes.HandlerLimite;
 
 /**
  * Handler concreto para aprovação de despesas pelo Supervisor
  * Pode aprovar despesas até R$ 100
  */
-public class SupervisorHandler extends HandlerBase {
+public class SupervisorHandler extends HandlerLimite {
     
     private static final double LIMITE_APROVACAO = 100.0;
     
-    @Override
-    protected boolean podeProcessar(double valor) {
-        return valor <= LIMITE_APROVACAO;
+    public SupervisorHandler() {
+        super(LIMITE_APROVACAO);
     }
     
     @Override
     protected void aprovar(String item, double valor) {
-        System.out.println("APROVADO pelo Supervisor");
-        System.out.println("Motivo: Valor R$ " + valor + " dentro do limite (até R$ " + LIMITE_APROVACAO + ")");
         registrarLog(item, valor, "APROVADO - SUPERVISOR");
+        if (isEcoConsole()) {
+            System.out.println("APROVADO pelo Supervisor");
+            System.out.println("Motivo: Valor R$ " + valor + " dentro do limite (até R$ " + LIMITE_APROVACAO + ")");
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package comportamentais.chainofresponsibility.compadrao.interfaces;
+
+/**
+ * Destino dos registros de auditoria dos handlers
+ * Recebe cada decisão (aprovação ou rejeição) registrada por HandlerBase
+ */
+public interface DestinoAuditoria extends AutoCloseable {
+    
+    /**
+     * Registra uma decisão
+     * @param item descrição do item
+     * @param valor valor da despesa
+     * @param status status da aprovação (ex.: "APROVADO - GERENTE")
+     */
+    void registrar(String item, double valor, String status);
+    
+    /**
+     * Aguarda até que os registros já aceitos estejam gravados
+     */
+    default void descarregar() {
+    }
+    
+    /**
+     * Grava o que estiver pendente e libera recursos
+     */
+    @Override
+    default void close() {
+    }
+}
@@ -1,5 +1,8 @@
 package comportamentais.chainofresponsibility.compadrao.interfaces;
 
+import comportamentais.chainofresponsibility.compadrao.classes.Decisao;
+import comportamentais.chainofresponsibility.compadrao.classes.SolicitacaoDespesa;
+
 /**
  * Interface Handler do padrão Chain of Responsibility
  * Define o contrato para processamento de solicitações
@@ -16,6 +19,17 @@ public interface Handler {
      * Processa a solicitação de despesa
      * @param item descrição do item
      * @param valor valor da despesa
+     * @return decisão tomada (nível que aprovou, ou rejeição)
+     */
+    Decisao processar(String item, double valor);
+    
+    /**
+     * Avalia a solicitação percorrendo a cadeia, sem imprimir nem registrar auditoria
+     * A decisão é definitiva: o handler que aprova consome o seu orçamento
+     * (setOrcamento) como em processar
+     * Usado no processamento em lote (PipelineAprovacao)
+     * @param solicitacao solicitação de despesa
+     * @return decisão do handler que aprovou, ou rejeição
      */
-    void processar(String item, double valor);
+    Decisao avaliar(SolicitacaoDespesa solicitacao);
 }
\ No newline at end of file
@@ -157,6 +157,7 @@ public class JogoLabirintoComCommand {
         // Cria RECEIVERS
         jogador = new Jogador("Herói", 100, 50);
         sistema = new SistemaJogo();
+        sistema.setEcoEventos(true);
         
         // Cria INVOKER
         gerenciador = new GerenciadorComandos();
@@ -0,0 +1,183 @@
+package comportamentais.command.compadrao.benchmark;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import comportamentais.command.compadrao.classes.GerenciadorComandos;
+import comportamentais.command.compadrao.classes.Jogador;
+import comportamentais.command.compadrao.classes.SistemaJogo;
+import comportamentais.command.compadrao.commands.ComandosMovimentoCompartilhados;
+import comportamentais.command.compadrao.commands.RecuperacaoJournal;
+import comportamentais.command.compadrao.interfaces.Command;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Benchmark de alocação e pausas de GC em sessões só de movimentos
+ *
+ * Executa a mesma sequência de movimentos (norte, leste, sul, oeste) pelo
+ * GerenciadorComandos, desfazendo e refazendo a cada 10 movimentos, com:
+ * - um comando novo por movimento (MovimentoCommandFactory)
+ * - comandos compartilhados (ComandosMovimentoCompartilhados)
+ *
+ * Para cada variante mostra bytes alocados por movimento, número de
+ * coletas, tempo total e pausa máxima de GC. A saída dos comandos é
+ * descartada e o eco de eventos desligado durante a medição.
+ *
+ * Uso: BenchmarkAlocacaoMovimento [movimentos]
+ * Sugestão: executar com heap pequeno (ex.: -Xmx64m) para evidenciar o GC.
+ */
+public class BenchmarkAlocacaoMovimento {
+
+    private static final String[] DIRECOES = {"norte", "leste", "sul", "oeste"};
+    private static final String[] CODIGOS = {"mover:norte", "mover:leste", "mover:sul", "mover:oeste"};
+    private static final int RODADAS_AQUECIMENTO = 2;
+
+    public static void main(String[] args) throws Exception {
+        int movimentos = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+
+        MonitorGc monitor = new MonitorGc();
+
+        System.out.println("=== BENCHMARK: ALOCAÇÃO EM MOVIMENTOS ===");
+        System.out.println("Movimentos por variante: " + movimentos);
+        System.out.printf("%-16s %-12s %-14s %-10s %-14s %-14s%n",
+                "Variante", "ns/mov", "bytes/mov", "Coletas", "GC total (ms)", "Pausa máx (ms)");
+
+        medir("novo/movimento", movimentos, monitor,
+                (jogo) -> i -> RecuperacaoJournal.criarComando(CODIGOS[i], jogo.jogador, jogo.sistema));
+        medir("compartilhado", movimentos, monitor,
+                (jogo) -> {
+                    ComandosMovimentoCompartilhados comandos =
+                            new ComandosMovimentoCompartilhados(jogo.jogador, jogo.sistema, jogo.gerenciador);
+                    return i -> comandos.getComando(DIRECOES[i]);
+                });
+
+        monitor.encerrar();
+    }
+
+    /**
+     * Mede uma variante: aquecimento e, em seguida, uma rodada medida
+     *
+     * @param fabrica cria, para um jogo, a função índice da direção -> comando
+     */
+    private static void medir(String variante, int movimentos, MonitorGc monitor,
+                              Function<Jogo, IntFunction<Command>> fabrica) {
+        for (int i = 0; i < RODADAS_AQUECIMENTO; i++) {
+            executarSessao(new Jogo(), fabrica, movimentos / 4);
+        }
+        System.gc();
+
+        Jogo jogo = new Jogo();
+        long alocadoAntes = bytesAlocados();
+        monitor.zerar();
+        long inicio = System.nanoTime();
+
+        executarSessao(jogo, fabrica, movimentos);
+
+        long duracao = System.nanoTime() - inicio;
+        long alocado = bytesAlocados() - alocadoAntes;
+
+        System.out.printf("%-16s %-12.1f %-14s %-10d %-14d %-14d%n", variante,
+                duracao / (double) movimentos,
+                alocadoAntes < 0 ? "n/d" : String.format("%.1f", alocado / (double) movimentos),
+                monitor.getColetas(), monitor.getTempoTotalMs(), monitor.getPausaMaximaMs());
+    }
+
+    private static void executarSessao(Jogo jogo, Function<Jogo, IntFunction<Command>> fabrica, int movimentos) {
+        IntFunction<Command> comandos = fabrica.apply(jogo);
+        PrintStream saidaOriginal = System.out;
+        System.setOut(new SaidaDescartada());
+        try {
+            for (int i = 0; i < movimentos; i++) {
+                jogo.gerenciador.executarComando(comandos.apply(i & 3));
+                if (i % 10 == 9) {
+                    jogo.gerenciador.desfazerUltimoComando();
+                    jogo.gerenciador.refazerUltimoComando();
+                }
+            }
+        } finally {
+            System.setOut(saidaOriginal);
+            jogo.gerenciador.finalizar();
+        }
+    }
+
+    /**
+     * Bytes alocados pela thread atual, ou -1 se a JVM não informar
+     */
+    private static long bytesAlocados() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * Receivers e invoker de uma sessão, com a saída no console desligada
+     */
+    private static class Jogo {
+        final Jogador jogador = new Jogador("Bot", 0, 0);
+        final SistemaJogo sistema = new SistemaJogo("Benchmark");
+        final GerenciadorComandos gerenciador = new GerenciadorComandos();
+
+        Jogo() {
+            jogador.setEcoMovimentos(false);
+            sistema.setEcoEventos(false);
+        }
+    }
+
+    /**
+     * Acumula coletas e pausas a partir das notificações dos coletores
+     */
+    private static class MonitorGc implements NotificationListener {
+
+        private final AtomicLong coletas = new AtomicLong();
+        private final AtomicLong tempoTotalMs = new AtomicLong();
+        private final AtomicLong pausaMaximaMs = new AtomicLong();
+
+        MonitorGc() {
+            for (GarbageCollectorMXBean coletor : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (coletor instanceof NotificationEmitter) {
+                    ((NotificationEmitter) coletor).addNotificationListener(this, null, null);
+                }
+            }
+        }
+
+        @Override
+        public void handleNotification(Notification notificacao, Object contexto) {
+            if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notificacao.getType())) {
+                return;
+            }
+            GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) notificacao.getUserData());
+            long duracao = info.getGcInfo().getDuration();
+            coletas.incrementAndGet();
+            tempoTotalMs.addAndGet(duracao);
+            pausaMaximaMs.accumulateAndGet(duracao, Math::max);
+        }
+
+        void zerar() {
+            coletas.set(0);
+            tempoTotalMs.set(0);
+            pausaMaximaMs.set(0);
+        }
+
+        long getColetas() { return coletas.get(); }
+        long getTempoTotalMs() { return tempoTotalMs.get(); }
+        long getPausaMaximaMs() { return pausaMaximaMs.get(); }
+
+        void encerrar() throws Exception {
+            for (GarbageCollectorMXBean coletor : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (coletor instanceof NotificationEmitter) {
+                    ((NotificationEmitter) coletor).removeNotificationListener(this);
+                }
+            }
+        }
+    }
+}
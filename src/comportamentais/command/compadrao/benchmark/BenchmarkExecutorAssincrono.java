@@ -0,0 +1,102 @@
+package comportamentais.command.compadrao.benchmark;
+
+import comportamentais.command.compadrao.classes.EstrategiaExecutor;
+import comportamentais.command.compadrao.classes.GerenciadorComandos;
+import comportamentais.command.compadrao.interfaces.Command;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Comparação de vazão entre estratégias de executor assíncrono
+ *
+ * Submete N comandos com I/O simulado (Thread.sleep, como em
+ * SistemaJogo.salvarJogo) via executarComandoAssincrono e mede o tempo
+ * até todos concluírem, para cada EstrategiaExecutor.
+ *
+ * Uso: BenchmarkExecutorAssincrono [comandos] [latenciaIoMs]
+ * Padrão: 10.000 comandos com 10 ms de I/O (com POOL_FIXO, ~33 s).
+ */
+public class BenchmarkExecutorAssincrono {
+
+    public static void main(String[] args) throws Exception {
+        int comandos = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        long latenciaIoMs = args.length > 1 ? Long.parseLong(args[1]) : 10;
+
+        System.out.println("=== BENCHMARK: EXECUTOR ASSÍNCRONO ===");
+        System.out.println("Comandos: " + comandos + " | I/O simulado: " + latenciaIoMs + " ms");
+
+        for (EstrategiaExecutor estrategia : EstrategiaExecutor.values()) {
+            double segundos = medir(estrategia, comandos, latenciaIoMs);
+            System.out.printf("%-16s %8.2f s %12.0f comandos/s%n", estrategia, segundos, comandos / segundos);
+        }
+    }
+
+    private static double medir(EstrategiaExecutor estrategia, int comandos, long latenciaIoMs) throws Exception {
+        GerenciadorComandos gerenciador = new GerenciadorComandos(estrategia);
+        List<Future<Boolean>> resultados = new ArrayList<>(comandos);
+
+        // Silencia o log por comando do gerenciador durante a medição
+        PrintStream saidaOriginal = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        long inicio = System.nanoTime();
+        try {
+            for (int i = 0; i < comandos; i++) {
+                resultados.add(gerenciador.executarComandoAssincrono(new ComandoIoSimulado(latenciaIoMs)));
+            }
+            for (Future<Boolean> resultado : resultados) {
+                resultado.get();
+            }
+        } finally {
+            System.setOut(saidaOriginal);
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            gerenciador.finalizar();
+        } finally {
+            System.setOut(saidaOriginal);
+        }
+        return segundos;
+    }
+
+    /**
+     * Comando que apenas bloqueia, simulando I/O
+     */
+    private static class ComandoIoSimulado implements Command {
+
+        private final long latenciaMs;
+        private final long timestamp = System.currentTimeMillis();
+
+        ComandoIoSimulado(long latenciaMs) {
+            this.latenciaMs = latenciaMs;
+        }
+
+        @Override
+        public boolean executar() {
+            try {
+                Thread.sleep(latenciaMs);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        @Override
+        public boolean desfazer() { return false; }
+
+        @Override
+        public boolean podeSerDesfeito() { return false; }
+
+        @Override
+        public String getDescricao() { return "I/O simulado (" + latenciaMs + " ms)"; }
+
+        @Override
+        public long getTimestamp() { return timestamp; }
+    }
+}
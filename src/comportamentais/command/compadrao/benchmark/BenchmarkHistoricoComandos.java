@@ -0,0 +1,121 @@
+package comportamentais.command.compadrao.benchmark;
+
+import comportamentais.command.compadrao.classes.HistoricoComandos;
+import comportamentais.command.compadrao.interfaces.Command;
+import java.util.function.Predicate;
+
+/**
+ * Benchmark do histórico circular de comandos
+ *
+ * Mede a latência média de registrar, desfazer e refazer com o histórico
+ * cheio, para capacidades de 50, 10.000 e 1.000.000 comandos.
+ * Com o buffer circular a latência deve permanecer estável entre as
+ * capacidades (O(1)); na versão anterior, baseada em Stack, cada registro
+ * com histórico cheio custava O(n).
+ *
+ * Harness simples com main (o projeto não possui build com JMH):
+ * executa rodadas de aquecimento antes das rodadas medidas.
+ */
+public class BenchmarkHistoricoComandos {
+
+    private static final int[] CAPACIDADES = {50, 10_000, 1_000_000};
+    private static final int OPERACOES = 2_000_000;
+    private static final int RODADAS_AQUECIMENTO = 3;
+    private static final int RODADAS_MEDIDAS = 5;
+    private static final Predicate<Command> TODOS = c -> true;
+
+    public static void main(String[] args) {
+        System.out.println("=== BENCHMARK: HISTÓRICO CIRCULAR DE COMANDOS ===");
+        System.out.printf("%-12s %-18s %-18s %-18s%n", "Capacidade", "registrar (ns/op)", "desfazer (ns/op)", "refazer (ns/op)");
+
+        for (int capacidade : CAPACIDADES) {
+            HistoricoComandos historico = new HistoricoComandos(capacidade);
+            Command comando = new ComandoVazio();
+
+            // Preenche o histórico para medir no regime de descarte do mais antigo
+            for (int i = 0; i < capacidade; i++) {
+                historico.registrar(comando);
+            }
+
+            for (int i = 0; i < RODADAS_AQUECIMENTO; i++) {
+                medirRegistrar(historico, comando);
+                medirDesfazerRefazer(historico);
+            }
+
+            double registrar = 0;
+            double[] desfazerRefazer = new double[2];
+            for (int i = 0; i < RODADAS_MEDIDAS; i++) {
+                registrar += medirRegistrar(historico, comando);
+                double[] rodada = medirDesfazerRefazer(historico);
+                desfazerRefazer[0] += rodada[0];
+                desfazerRefazer[1] += rodada[1];
+            }
+
+            System.out.printf("%-12d %-18.1f %-18.1f %-18.1f%n", capacidade,
+                    registrar / RODADAS_MEDIDAS,
+                    desfazerRefazer[0] / RODADAS_MEDIDAS,
+                    desfazerRefazer[1] / RODADAS_MEDIDAS);
+        }
+    }
+
+    private static double medirRegistrar(HistoricoComandos historico, Command comando) {
+        long inicio = System.nanoTime();
+        for (int i = 0; i < OPERACOES; i++) {
+            historico.registrar(comando);
+        }
+        return (System.nanoTime() - inicio) / (double) OPERACOES;
+    }
+
+    /**
+     * Desfaz e refaz o histórico inteiro repetidamente, até OPERACOES de cada tipo
+     *
+     * @return latência média de desfazer e de refazer, em ns/op
+     */
+    private static double[] medirDesfazerRefazer(HistoricoComandos historico) {
+        int tamanho = historico.getTamanhoHistorico();
+        int ciclos = Math.max(1, OPERACOES / tamanho);
+        long tempoDesfazer = 0;
+        long tempoRefazer = 0;
+
+        for (int c = 0; c < ciclos; c++) {
+            long inicio = System.nanoTime();
+            for (int i = 0; i < tamanho; i++) {
+                historico.moverParaRedo(TODOS);
+            }
+            long meio = System.nanoTime();
+            for (int i = 0; i < tamanho; i++) {
+                historico.moverParaHistorico();
+            }
+            long fim = System.nanoTime();
+
+            tempoDesfazer += meio - inicio;
+            tempoRefazer += fim - meio;
+        }
+
+        double operacoes = (double) ciclos * tamanho;
+        return new double[]{tempoDesfazer / operacoes, tempoRefazer / operacoes};
+    }
+
+    /**
+     * Comando sem efeito, para medir apenas o custo do histórico
+     */
+    private static class ComandoVazio implements Command {
+
+        private final long timestamp = System.currentTimeMillis();
+
+        @Override
+        public boolean executar() { return true; }
+
+        @Override
+        public boolean desfazer() { return true; }
+
+        @Override
+        public boolean podeSerDesfeito() { return true; }
+
+        @Override
+        public String getDescricao() { return "Comando vazio"; }
+
+        @Override
+        public long getTimestamp() { return timestamp; }
+    }
+}
@@ -0,0 +1,82 @@
+package comportamentais.command.compadrao.benchmark;
+
+import comportamentais.command.compadrao.classes.JournalComandos;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark do journal de comandos por janela de group commit
+ *
+ * Mede duas vazões para cada janela:
+ * - anexar: threads anexam sem esperar o fsync (como o GerenciadorComandos);
+ *   a durabilidade atrasa no máximo uma janela. Com janela 0 cada registro
+ *   paga seu próprio fsync no caminho do comando.
+ * - durável: cada thread aguarda a persistência de cada registro; com
+ *   janelas maiores um fsync cobre os registros de todas as threads.
+ *
+ * Uso: BenchmarkJournalComandos [threads] [registrosPorThread] [diretorio]
+ */
+public class BenchmarkJournalComandos {
+
+    private static final long[] JANELAS_MS = {0, 1, 2, 5, 10};
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int registrosPorThread = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        Path diretorio = Paths.get(args.length > 2 ? args[2] : System.getProperty("java.io.tmpdir"));
+
+        System.out.println("=== BENCHMARK: JOURNAL DE COMANDOS (GROUP COMMIT) ===");
+        System.out.println("Threads: " + threads + " | Registros por thread: " + registrosPorThread + " | Diretório: " + diretorio);
+        System.out.printf("%-14s %18s %18s%n", "Janela (ms)", "anexar (cmd/s)", "durável (cmd/s)");
+
+        for (long janela : JANELAS_MS) {
+            double anexar = medirEmArquivoTemporario(diretorio, janela, threads, registrosPorThread, false);
+            double duravel = medirEmArquivoTemporario(diretorio, janela, threads, registrosPorThread, true);
+            System.out.printf("%-14d %18.0f %18.0f%n", janela, anexar, duravel);
+        }
+    }
+
+    private static double medirEmArquivoTemporario(Path diretorio, long janelaMs, int threads,
+                                                   int registrosPorThread, boolean aguardar) throws Exception {
+        Path arquivo = Files.createTempFile(diretorio, "journal-benchmark", ".bin");
+        try {
+            return medir(arquivo, janelaMs, threads, registrosPorThread, aguardar);
+        } finally {
+            Files.deleteIfExists(arquivo);
+        }
+    }
+
+    private static double medir(Path arquivo, long janelaMs, int threads, int registrosPorThread,
+                                boolean aguardar) throws Exception {
+        try (JournalComandos journal = new JournalComandos(arquivo, janelaMs)) {
+            List<Thread> escritores = new ArrayList<>(threads);
+
+            long inicio = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                Thread escritor = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < registrosPorThread; i++) {
+                            long sequencia = journal.anexar(JournalComandos.Operacao.EXECUTAR, "mover:norte");
+                            if (aguardar) {
+                                journal.aguardarPersistencia(sequencia);
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                escritores.add(escritor);
+                escritor.start();
+            }
+            for (Thread escritor : escritores) {
+                escritor.join();
+            }
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+
+            return (threads * (long) registrosPorThread) / segundos;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package comportamentais.command.compadrao.benchmark;
+
+import comportamentais.command.compadrao.classes.GerenciadorComandos;
+import comportamentais.command.compadrao.classes.Jogador;
+import comportamentais.command.compadrao.classes.SistemaJogo;
+import comportamentais.command.compadrao.commands.ComandoAcao;
+import comportamentais.command.compadrao.commands.ComandoComposto;
+import comportamentais.command.compadrao.interfaces.Command;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Macro com ramos paralelos (ComandoComposto.adicionarComandoIndependente)
+ *
+ * Cada arena tem o seu Jogador e o seu SistemaJogo, então comandos de
+ * arenas diferentes não têm receivers em comum e formam um estágio
+ * paralelo. Mede a latência de um macro que sincroniza N arenas (I/O
+ * simulado) em três formas:
+ * - sequencial: adicionarComando
+ * - paralelo: adicionarComandoIndependente, uma arena por ramo
+ * - mesma arena: ramos independentes do mesmo jogo, que caem para
+ *   sequencial por alterarem os mesmos receivers
+ *
+ * Em seguida, executa e desfaz uma rodada de ataques (ComandoAcao) em
+ * paralelo, uma arena por ramo.
+ *
+ * Uso: BenchmarkMacroParalelo [arenas] [latenciaIoMs]
+ */
+public class BenchmarkMacroParalelo {
+
+    public static void main(String[] args) {
+        int arenas = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        long latenciaIoMs = args.length > 1 ? Long.parseLong(args[1]) : 50;
+
+        System.out.println("=== BENCHMARK: MACRO COM RAMOS PARALELOS ===");
+        System.out.println("Arenas: " + arenas + " | I/O simulado por arena: " + latenciaIoMs + " ms");
+
+        Jogador[] jogadores = new Jogador[arenas];
+        SistemaJogo[] sistemas = new SistemaJogo[arenas];
+        for (int i = 0; i < arenas; i++) {
+            jogadores[i] = new Jogador("Jogador " + (i + 1), 0, 0);
+            sistemas[i] = new SistemaJogo("Arena " + (i + 1));
+        }
+
+        GerenciadorComandos gerenciador = new GerenciadorComandos();
+        try {
+            System.out.printf("%-14s %8d ms%n", "sequencial", medir(gerenciador, jogadores, sistemas, latenciaIoMs, false, false));
+            System.out.printf("%-14s %8d ms%n", "paralelo", medir(gerenciador, jogadores, sistemas, latenciaIoMs, true, false));
+            System.out.printf("%-14s %8d ms%n", "mesma arena", medir(gerenciador, jogadores, sistemas, latenciaIoMs, true, true));
+
+            rodadaDeAtaques(gerenciador, jogadores, sistemas);
+        } finally {
+            silenciar(gerenciador::finalizar);
+        }
+    }
+
+    private static long medir(GerenciadorComandos gerenciador, Jogador[] jogadores, SistemaJogo[] sistemas,
+                              long latenciaIoMs, boolean independentes, boolean mesmaArena) {
+        ComandoComposto macro = gerenciador.criarMacro("Sincronizar arenas");
+        for (int i = 0; i < jogadores.length; i++) {
+            int arena = mesmaArena ? 0 : i;
+            Command comando = new ComandoSincronizarArena(jogadores[arena], sistemas[arena], latenciaIoMs);
+            if (independentes) {
+                macro.adicionarComandoIndependente(comando);
+            } else {
+                macro.adicionarComando(comando);
+            }
+        }
+
+        long inicio = System.nanoTime();
+        silenciar(() -> gerenciador.executarComando(macro));
+        return (System.nanoTime() - inicio) / 1_000_000;
+    }
+
+    /**
+     * Um ataque por arena no mesmo estágio paralelo; o undo desfaz todos
+     */
+    private static void rodadaDeAtaques(GerenciadorComandos gerenciador, Jogador[] jogadores, SistemaJogo[] sistemas) {
+        ComandoComposto rodada = gerenciador.criarMacro("Rodada de ataques");
+        for (int i = 0; i < jogadores.length; i++) {
+            rodada.adicionarComandoIndependente(ComandoAcao.criar("atacar", jogadores[i], sistemas[i]));
+        }
+
+        boolean[] resultado = new boolean[2];
+        silenciar(() -> resultado[0] = gerenciador.executarComando(rodada));
+        int pontos = somarPontuacao(sistemas);
+        silenciar(() -> resultado[1] = gerenciador.desfazerUltimoComando());
+
+        System.out.println("\nRodada de ataques: " + (resultado[0] ? "executada" : "FALHOU") +
+                           " (" + pontos + " pontos nas arenas), desfeita: " + resultado[1] +
+                           " (" + somarPontuacao(sistemas) + " pontos)");
+    }
+
+    private static int somarPontuacao(SistemaJogo[] sistemas) {
+        int total = 0;
+        for (SistemaJogo sistema : sistemas) {
+            total += sistema.getPontuacao();
+        }
+        return total;
+    }
+
+    /**
+     * Executa sem o log por comando do gerenciador e dos receivers
+     */
+    private static void silenciar(Runnable tarefa) {
+        PrintStream saidaOriginal = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            tarefa.run();
+        } finally {
+            System.setOut(saidaOriginal);
+        }
+    }
+
+    /**
+     * Sincroniza uma arena com o servidor (I/O simulado)
+     * Não altera o estado do jogo: desfazer não tem o que reverter
+     */
+    private static class ComandoSincronizarArena implements Command {
+
+        private final List<Object> receptores;
+        private final String descricao;
+        private final long latenciaMs;
+        private final long timestamp = System.currentTimeMillis();
+
+        ComandoSincronizarArena(Jogador jogador, SistemaJogo sistema, long latenciaMs) {
+            this.receptores = Arrays.asList(jogador, sistema);
+            this.descricao = "Sincronizar " + sistema.getNomeJogo();
+            this.latenciaMs = latenciaMs;
+        }
+
+        @Override
+        public boolean executar() {
+            try {
+                Thread.sleep(latenciaMs);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        @Override
+        public boolean desfazer() { return true; }
+
+        @Override
+        public boolean podeSerDesfeito() { return true; }
+
+        @Override
+        public String getDescricao() { return descricao; }
+
+        @Override
+        public long getTimestamp() { return timestamp; }
+
+        @Override
+        public List<Object> getReceptores() { return receptores; }
+    }
+}
@@ -0,0 +1,112 @@
+package comportamentais.command.compadrao.benchmark;
+
+import comportamentais.command.compadrao.classes.GerenciadorSessoes;
+import comportamentais.command.compadrao.classes.PlacarJogadores;
+import comportamentais.command.compadrao.classes.SessaoJogador;
+import comportamentais.command.compadrao.commands.ComandosMovimentoCompartilhados;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Benchmark de vazão do GerenciadorSessoes
+ *
+ * Cria milhares de sessões e envia movimentos (com um undo/redo a cada 10)
+ * de várias threads produtoras, medindo comandos por segundo com 1, 2, 4...
+ * shards até o número de núcleos. Como cada sessão é servida por um único
+ * shard sem locks, a vazão deve crescer com o número de shards.
+ *
+ * Uso: BenchmarkSessoes [jogadores] [comandosPorJogador]
+ */
+public class BenchmarkSessoes {
+
+    private static final String[] DIRECOES = {"norte", "leste", "sul", "oeste"};
+
+    public static void main(String[] args) throws Exception {
+        int jogadores = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int comandosPorJogador = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int nucleos = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("=== BENCHMARK: SESSÕES COM SHARDS ===");
+        System.out.println("Jogadores: " + jogadores + ", comandos por jogador: " + comandosPorJogador +
+                           ", núcleos: " + nucleos);
+        System.out.printf("%-8s %-14s %-14s%n", "Shards", "Comandos/s", "Tempo (ms)");
+
+        // Aquecimento
+        medir(nucleos, jogadores, comandosPorJogador / 4, false);
+
+        for (int shards = 1; shards <= nucleos; shards *= 2) {
+            medir(shards, jogadores, comandosPorJogador, true);
+        }
+        if (Integer.bitCount(nucleos) != 1) {
+            medir(nucleos, jogadores, comandosPorJogador, true);
+        }
+    }
+
+    private static void medir(int shards, int jogadores, int comandosPorJogador, boolean exibir) throws Exception {
+        PrintStream saidaOriginal = System.out;
+        System.setOut(new SaidaDescartada());
+        PlacarJogadores placar;
+        double comandosPorSegundo;
+        long duracaoMs;
+
+        try (GerenciadorSessoes gerenciador = new GerenciadorSessoes(shards, 100)) {
+            String[] ids = new String[jogadores];
+            ComandosMovimentoCompartilhados[] comandos = new ComandosMovimentoCompartilhados[jogadores];
+            for (int i = 0; i < jogadores; i++) {
+                ids[i] = "j" + i;
+                SessaoJogador sessao = gerenciador.criarSessao(ids[i], "Jogador " + i, 0, 0);
+                comandos[i] = new ComandosMovimentoCompartilhados(sessao.getJogador(), sessao.getSistema(),
+                        sessao.getGerenciador());
+                comandos[i].setEcoConsole(false);
+            }
+
+            int produtores = shards;
+            List<Thread> threads = new ArrayList<>(produtores);
+            long inicio = System.nanoTime();
+
+            for (int p = 0; p < produtores; p++) {
+                int primeiro = p;
+                Thread thread = new Thread(() -> {
+                    for (int c = 0; c < comandosPorJogador; c++) {
+                        String direcao = DIRECOES[c & 3];
+                        for (int j = primeiro; j < jogadores; j += produtores) {
+                            ComandosMovimentoCompartilhados movimentos = comandos[j];
+                            gerenciador.executar(ids[j], s -> movimentos.getComando(direcao));
+                            if (c % 10 == 9) {
+                                gerenciador.desfazer(ids[j]);
+                                gerenciador.refazer(ids[j]);
+                            }
+                        }
+                    }
+                }, "produtor-" + p);
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            // Uma operação final em cada sessão garante que todas as filas foram drenadas
+            List<CompletableFuture<?>> finais = new ArrayList<>(jogadores);
+            for (String id : ids) {
+                finais.add(gerenciador.noShard(id, s -> null));
+            }
+            CompletableFuture.allOf(finais.toArray(new CompletableFuture<?>[0])).join();
+
+            long duracao = System.nanoTime() - inicio;
+            duracaoMs = duracao / 1_000_000;
+            comandosPorSegundo = gerenciador.getTotalComandos() / (duracao / 1e9);
+            placar = gerenciador.atualizarPlacar().join();
+        } finally {
+            System.setOut(saidaOriginal);
+        }
+
+        if (exibir) {
+            System.out.printf("%-8d %-14.0f %-14d%n", shards, comandosPorSegundo, duracaoMs);
+            if (shards == 1) {
+                placar.exibir(3);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package comportamentais.command.compadrao.benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Saída que descarta o texto sem codificá-lo
+ *
+ * Os comandos do jogo escrevem no console a cada execução. Nos benchmarks
+ * essa saída é descartada; um PrintStream sobre nullOutputStream ainda
+ * converteria cada linha para bytes, alocando buffers e distorcendo a
+ * medição.
+ */
+class SaidaDescartada extends PrintStream {
+
+    SaidaDescartada() {
+        super(OutputStream.nullOutputStream());
+    }
+
+    @Override
+    public void print(String texto) { }
+
+    @Override
+    public void println(String texto) { }
+
+    @Override
+    public void println(Object objeto) { }
+
+    @Override
+    public void println() { }
+}
@@ -0,0 +1,239 @@
+package comportamentais.command.compadrao.classes;
+
+import comportamentais.command.compadrao.interfaces.Command;
+import comportamentais.command.compadrao.interfaces.PriorityCommand;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Agendador de comandos por prioridade - estrutura de apoio do INVOKER
+ *
+ * PADRÃO COMMAND - ESCALONAMENTO:
+ * Comandos agendados são despachados por prioridade (PriorityCommand),
+ * e não pela ordem de chegada. Comandos comuns têm prioridade 0.
+ *
+ * ENVELHECIMENTO (AGING):
+ * A cada "intervaloEnvelhecimento" de espera, a prioridade efetiva de um
+ * comando sobe 1 ponto, evitando que comandos de baixa prioridade fiquem
+ * parados indefinidamente. A ordem entre dois comandos com prioridade
+ * efetiva "prioridade + espera / intervalo" não muda com o passar do tempo,
+ * então basta ordenar pela chave fixa:
+ *
+ *   chave = instanteEnfileiramento - prioridade * intervaloEnvelhecimento
+ *
+ * CONCORRÊNCIA:
+ * Vários produtores podem agendar ao mesmo tempo (PriorityBlockingQueue).
+ * Uma thread despachante consome a fila e executa cada comando.
+ *
+ * CICLO DE VIDA:
+ * NOVO -> ATIVO -> FINALIZADO, com transições por CAS. O despachante é
+ * criado no primeiro agendamento; depois de finalizar, o agendador não
+ * volta a ser iniciado e novos agendamentos são rejeitados.
+ */
+public class AgendadorComandos {
+
+    /**
+     * Comando na fila do agendador
+     */
+    private static final class ComandoAgendado implements Comparable<ComandoAgendado> {
+        final Command comando;
+        final long chave;
+        final long sequencia;
+        final long instanteEnfileiramento;
+
+        ComandoAgendado(Command comando, long chave, long sequencia, long instanteEnfileiramento) {
+            this.comando = comando;
+            this.chave = chave;
+            this.sequencia = sequencia;
+            this.instanteEnfileiramento = instanteEnfileiramento;
+        }
+
+        @Override
+        public int compareTo(ComandoAgendado outro) {
+            int comparacao = Long.compare(chave, outro.chave);
+            return comparacao != 0 ? comparacao : Long.compare(sequencia, outro.sequencia);
+        }
+    }
+
+    private final PriorityBlockingQueue<ComandoAgendado> fila;
+    private final Predicate<Command> executor;
+    private final long intervaloEnvelhecimentoNanos;
+    private final AtomicLong sequencia;
+
+    private static final int NOVO = 0;
+    private static final int ATIVO = 1;
+    private static final int FINALIZADO = 2;
+
+    private final AtomicInteger estado;
+    private volatile Thread despachante;
+
+    // Métricas
+    private final AtomicLong totalAgendados;
+    private final AtomicLong totalDespachados;
+    private final AtomicLong tempoEsperaTotalNanos;
+    private final AtomicLong tempoEsperaMaximoNanos;
+    private volatile LongConsumer observadorEspera;
+
+    /**
+     * Cria agendador
+     *
+     * @param executor função que executa o comando despachado
+     * @param intervaloEnvelhecimentoMs espera necessária para ganhar 1 ponto de prioridade
+     */
+    public AgendadorComandos(Predicate<Command> executor, long intervaloEnvelhecimentoMs) {
+        if (intervaloEnvelhecimentoMs <= 0) {
+            throw new IllegalArgumentException("Intervalo de envelhecimento deve ser positivo: " + intervaloEnvelhecimentoMs);
+        }
+        this.fila = new PriorityBlockingQueue<>();
+        this.executor = executor;
+        this.intervaloEnvelhecimentoNanos = TimeUnit.MILLISECONDS.toNanos(intervaloEnvelhecimentoMs);
+        this.sequencia = new AtomicLong();
+        this.estado = new AtomicInteger(NOVO);
+        this.totalAgendados = new AtomicLong();
+        this.totalDespachados = new AtomicLong();
+        this.tempoEsperaTotalNanos = new AtomicLong();
+        this.tempoEsperaMaximoNanos = new AtomicLong();
+    }
+
+    /**
+     * Agenda comando para execução (seguro para vários produtores)
+     *
+     * @throws RejectedExecutionException se o agendador já foi finalizado
+     */
+    public void agendar(Command comando) {
+        if (estado.get() == FINALIZADO) {
+            throw new RejectedExecutionException("Agendador finalizado: " + comando.getDescricao());
+        }
+
+        int prioridade = comando instanceof PriorityCommand
+                ? ((PriorityCommand) comando).getPrioridade()
+                : 0;
+
+        long agora = System.nanoTime();
+        long chave = agora - prioridade * intervaloEnvelhecimentoNanos;
+
+        ComandoAgendado agendado = new ComandoAgendado(comando, chave, sequencia.getAndIncrement(), agora);
+        fila.offer(agendado);
+
+        if (estado.get() == FINALIZADO) {
+            // finalizar correu com o offer: se o comando ainda está na fila, não será despachado
+            if (fila.remove(agendado)) {
+                throw new RejectedExecutionException("Agendador finalizado: " + comando.getDescricao());
+            }
+            return;
+        }
+        totalAgendados.incrementAndGet();
+        iniciar();
+    }
+
+    /**
+     * Inicia a thread despachante, se o agendador ainda não foi iniciado nem finalizado
+     */
+    public void iniciar() {
+        if (!estado.compareAndSet(NOVO, ATIVO)) {
+            return;
+        }
+        Thread thread = new Thread(this::despachar, "agendador-comandos");
+        thread.setDaemon(true);
+        despachante = thread;
+        thread.start();
+    }
+
+    /**
+     * Laço da thread despachante
+     */
+    private void despachar() {
+        while (estado.get() == ATIVO) {
+            ComandoAgendado agendado;
+            try {
+                agendado = fila.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            if (agendado == null) {
+                continue;
+            }
+
+            registrarEspera(System.nanoTime() - agendado.instanteEnfileiramento);
+
+            try {
+                executor.test(agendado.comando);
+            } catch (Exception e) {
+                System.out.println("ERRO no comando agendado: " + e.getMessage());
+            }
+        }
+    }
+
+    private void registrarEspera(long esperaNanos) {
+        totalDespachados.incrementAndGet();
+        tempoEsperaTotalNanos.addAndGet(esperaNanos);
+        tempoEsperaMaximoNanos.accumulateAndGet(esperaNanos, Math::max);
+        LongConsumer observador = observadorEspera;
+        if (observador != null) {
+            observador.accept(esperaNanos);
+        }
+    }
+
+    /**
+     * Para a thread despachante; comandos ainda na fila são descartados
+     * Definitivo: o agendador não pode ser iniciado de novo
+     *
+     * @return número de comandos descartados
+     */
+    public int finalizar() {
+        if (estado.getAndSet(FINALIZADO) == FINALIZADO) {
+            return 0;
+        }
+        Thread thread = despachante;
+        if (thread != null) {
+            // Sem interrupt: o comando em execução termina normalmente
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        int descartados = 0;
+        while (fila.poll() != null) {
+            descartados++;
+        }
+        return descartados;
+    }
+
+    // Métricas
+
+    /**
+     * Recebe a espera (em ns) de cada comando despachado, ex.: para histogramas
+     */
+    public void setObservadorEspera(LongConsumer observadorEspera) {
+        this.observadorEspera = observadorEspera;
+    }
+
+    public int getProfundidadeFila() {
+        return fila.size();
+    }
+
+    public long getTotalAgendados() {
+        return totalAgendados.get();
+    }
+
+    public long getTotalDespachados() {
+        return totalDespachados.get();
+    }
+
+    public double getTempoEsperaMedioMs() {
+        long despachados = totalDespachados.get();
+        return despachados == 0 ? 0.0 : tempoEsperaTotalNanos.get() / (despachados * 1_000_000.0);
+    }
+
+    public double getTempoEsperaMaximoMs() {
+        return tempoEsperaMaximoNanos.get() / 1_000_000.0;
+    }
+}
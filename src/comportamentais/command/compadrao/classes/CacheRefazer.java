@@ -0,0 +1,93 @@
+package comportamentais.command.compadrao.classes;
+
+/**
+ * Cache de redo por estado de um comando
+ *
+ * Em vez de executar o comando de novo, o redo reaplica o estado que
+ * jogador e sistema tinham imediatamente antes do undo. A validação usa
+ * os carimbos de versão de Jogador e SistemaJogo: o estado só é
+ * reaplicado se nada mudou desde o undo.
+ *
+ * ENCADEAMENTO:
+ * O redo volta também às versões capturadas antes do undo. Assim, ao
+ * refazer vários comandos seguidos, cada um encontra exatamente as
+ * versões que o undo seguinte havia deixado, e percorrer o histórico
+ * (undo/redo em sequência) custa O(1) por passo.
+ *
+ * Se a validação falhar (outra alteração no meio), o gerenciador volta
+ * a executar o comando normalmente.
+ *
+ * Sem alocação após a construção; não é thread-safe (o gerenciador
+ * chama os métodos sob o histórico de comandos).
+ */
+public class CacheRefazer {
+
+    private final Jogador jogador;
+    private final SistemaJogo sistema;
+    private final int[] estado;
+
+    // Versões imediatamente antes do undo (reaplicadas no redo)
+    private long versaoJogadorAntes;
+    private long versaoSistemaAntes;
+
+    // Versões deixadas pelo undo (condição para reaplicar)
+    private long versaoJogadorDesfeito;
+    private long versaoSistemaDesfeito;
+
+    private boolean valido;
+
+    public CacheRefazer(Jogador jogador, SistemaJogo sistema) {
+        this.jogador = jogador;
+        this.sistema = sistema;
+        this.estado = new int[Jogador.CAMPOS_ESTADO + SistemaJogo.CAMPOS_ESTADO];
+    }
+
+    /**
+     * Captura estado e versões antes do undo
+     */
+    public void antesDeDesfazer() {
+        valido = false;
+        jogador.capturarEstado(estado, 0);
+        sistema.capturarEstado(estado, Jogador.CAMPOS_ESTADO);
+        versaoJogadorAntes = jogador.getVersao();
+        versaoSistemaAntes = sistema.getVersao();
+    }
+
+    /**
+     * Undo concluído: guarda as versões que o redo deve encontrar
+     */
+    public void aposDesfazer() {
+        versaoJogadorDesfeito = jogador.getVersao();
+        versaoSistemaDesfeito = sistema.getVersao();
+        valido = true;
+    }
+
+    /**
+     * Descarta o estado capturado (execução normal ou undo com falha)
+     */
+    public void invalidar() {
+        valido = false;
+    }
+
+    /**
+     * Reaplica o estado capturado, se o mundo não divergiu desde o undo
+     *
+     * @return true se reaplicou; false se o comando precisa ser executado de novo
+     */
+    public boolean reaplicar() {
+        if (!valido
+                || jogador.getVersao() != versaoJogadorDesfeito
+                || sistema.getVersao() != versaoSistemaDesfeito) {
+            valido = false;
+            return false;
+        }
+        jogador.reaplicarEstado(estado, 0, versaoJogadorAntes);
+        sistema.reaplicarEstado(estado, Jogador.CAMPOS_ESTADO, versaoSistemaAntes);
+        valido = false;
+        return true;
+    }
+
+    public boolean isValido() {
+        return valido;
+    }
+}
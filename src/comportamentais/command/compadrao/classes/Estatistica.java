@@ -0,0 +1,47 @@
+package comportamentais.command.compadrao.classes;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Estatísticas conhecidas do SistemaJogo
+ *
+ * Cada estatística tem um contador primitivo próprio, indexado pelo
+ * ordinal, evitando busca por String e boxing a cada incremento.
+ */
+public enum Estatistica {
+
+    MOVIMENTOS("movimentos"),
+    ATAQUES("ataques"),
+    ITENS_USADOS("itens_usados"),
+    DANO_CAUSADO("dano_causado"),
+    DANO_RECEBIDO("dano_recebido"),
+    SAVES_REALIZADOS("saves_realizados");
+
+    private static final Map<String, Estatistica> POR_CHAVE = new HashMap<>();
+
+    static {
+        for (Estatistica estatistica : values()) {
+            POR_CHAVE.put(estatistica.chave, estatistica);
+        }
+    }
+
+    private final String chave;
+
+    Estatistica(String chave) {
+        this.chave = chave;
+    }
+
+    public String getChave() {
+        return chave;
+    }
+
+    /**
+     * Busca estatística pela chave textual
+     *
+     * @return estatística correspondente ou null se a chave não for conhecida
+     */
+    public static Estatistica porChave(String chave) {
+        return POR_CHAVE.get(chave);
+    }
+}
@@ -0,0 +1,40 @@
+package comportamentais.command.compadrao.classes;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Estratégias de executor para comandos assíncronos
+ *
+ * PADRÃO STRATEGY + COMMAND:
+ * O GerenciadorComandos não decide sozinho como executar comandos
+ * assíncronos; ele recebe uma estratégia que cria o ExecutorService.
+ *
+ * - POOL_FIXO: 3 threads de plataforma (comportamento original).
+ *   Limita a 3 comandos em andamento; comandos com I/O bloqueante
+ *   (ex.: ComandoSalvarJogo) formam fila atrás das 3 threads.
+ * - THREAD_VIRTUAL: uma thread virtual por comando. Bloquear em I/O
+ *   (Thread.sleep, arquivos, rede) libera a thread de plataforma,
+ *   então milhares de comandos podem aguardar I/O ao mesmo tempo.
+ */
+public enum EstrategiaExecutor {
+
+    POOL_FIXO {
+        @Override
+        public ExecutorService criarExecutor() {
+            return Executors.newFixedThreadPool(3);
+        }
+    },
+
+    THREAD_VIRTUAL {
+        @Override
+        public ExecutorService criarExecutor() {
+            return Executors.newVirtualThreadPerTaskExecutor();
+        }
+    };
+
+    /**
+     * Cria o executor usado pelos comandos assíncronos
+     */
+    public abstract ExecutorService criarExecutor();
+}
@@ -1,8 +1,15 @@
 package comportamentais.command.compadrao.classes;
 
+import comportamentais.command.compadrao.commands.ComandoAssincrono;
+import comportamentais.command.compadrao.commands.ComandoComposto;
+import comportamentais.command.compadrao.interfaces.AsyncCommand;
+import comportamentais.command.compadrao.interfaces.ComandoJornalizavel;
 import comportamentais.command.compadrao.interfaces.Command;
+import comportamentais.command.compadrao.interfaces.RefazivelPorEstado;
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Gerenciador de Comandos - INVOKER no padrão Command
@@ -24,40 +31,94 @@ import java.util.concurrent.*;
  */
 public class GerenciadorComandos {
     
-    // Histórico de comandos executados
-    private final Stack<Command> historicoComandos;
-    
-    // Pilha de comandos desfeitos (para redo)
-    private final Stack<Command> pilhaRedo;
+    // Histórico de comandos executados e desfeitos (buffer circular undo/redo)
+    private final HistoricoComandos historico;
     
     // Fila de comandos pendentes
     private final Queue<Command> filaPendentes;
     
-    // Executor para comandos assíncronos
-    private final ExecutorService executorAssincrono;
+    // Executor para comandos assíncronos (definido pela estratégia; null se compartilhado)
+    private volatile ExecutorService executorAssincrono;
+    private volatile EstrategiaExecutor estrategiaExecutor;
+    // false enquanto o executor for compartilhado: quem o criou o encerra
+    private volatile boolean executorProprio;
+    
+    // Ramos paralelos dos macros: separado do executor assíncrono, que pode estar executando o próprio macro
+    private final ExecutorService poolRamosMacro;
+    private final boolean poolRamosProprio;
+    
+    // Agendador por prioridade (PriorityCommand) com envelhecimento
+    private final AgendadorComandos agendador;
+    
+    // Journal persistente de comandos (opcional)
+    private volatile JournalComandos journal;
+    
+    // Torna cada mudança do histórico e o seu registro no journal um único passo:
+    // a ordem do journal é a ordem do histórico, mesmo com execução assíncrona
+    private final Object travaRegistro = new Object();
+    
+    // Snapshots periódicos com compactação do journal (opcional)
+    private volatile GerenciadorSnapshots snapshots;
     
     // Configurações
-    private int tamanhoMaximoHistorico;
-    private boolean modoDebug;
+    private volatile boolean modoDebug;
+    
+    // Métricas detalhadas (desligadas por padrão)
+    private final MetricasComandos metricas;
     
-    // Estatísticas
-    private int totalComandosExecutados;
-    private int totalComandosDesfeitos;
-    private int totalComandosRefeitos;
+    // Estatísticas (atualizadas também pelas threads do executor assíncrono)
+    private final AtomicInteger totalComandosExecutados;
+    private final AtomicInteger totalComandosDesfeitos;
+    private final AtomicInteger totalComandosRefeitos;
+    private final AtomicInteger totalRefeitosPorEstado;
     
     /**
      * Construtor do gerenciador
      */
     public GerenciadorComandos() {
-        this.historicoComandos = new Stack<>();
-        this.pilhaRedo = new Stack<>();
+        this(EstrategiaExecutor.POOL_FIXO);
+    }
+    
+    /**
+     * Construtor com estratégia de executor para comandos assíncronos
+     * 
+     * @param estrategiaExecutor estratégia que cria o executor assíncrono
+     */
+    public GerenciadorComandos(EstrategiaExecutor estrategiaExecutor) {
+        this(estrategiaExecutor, estrategiaExecutor.criarExecutor(), true, criarPoolRamosMacro(), true);
+    }
+    
+    /**
+     * Construtor com executores compartilhados entre vários gerenciadores (ex.: sessões de jogadores)
+     * 
+     * Os executores continuam sendo de quem os criou: finalizar não os
+     * encerra. Trocar a estratégia passa a usar um executor próprio, sem
+     * encerrar o compartilhado.
+     * 
+     * @param executorAssincrono executor dos comandos assíncronos
+     * @param poolRamosMacro executor dos ramos paralelos dos macros (sem limite de threads; ver criarPoolRamosMacro)
+     */
+    public GerenciadorComandos(ExecutorService executorAssincrono, ExecutorService poolRamosMacro) {
+        this(null, executorAssincrono, false, poolRamosMacro, false);
+    }
+    
+    private GerenciadorComandos(EstrategiaExecutor estrategiaExecutor, ExecutorService executorAssincrono,
+                                boolean executorProprio, ExecutorService poolRamosMacro, boolean poolRamosProprio) {
+        this.historico = new HistoricoComandos(50);
         this.filaPendentes = new LinkedList<>();
-        this.executorAssincrono = Executors.newFixedThreadPool(3);
-        this.tamanhoMaximoHistorico = 50;
+        this.estrategiaExecutor = estrategiaExecutor;
+        this.executorAssincrono = executorAssincrono;
+        this.executorProprio = executorProprio;
+        this.poolRamosMacro = poolRamosMacro;
+        this.poolRamosProprio = poolRamosProprio;
+        this.agendador = new AgendadorComandos(this::executarComando, 50);
+        this.metricas = new MetricasComandos(this::tamanhoPoolAssincrono);
+        this.agendador.setObservadorEspera(metricas::registrarEsperaAgendador);
         this.modoDebug = false;
-        this.totalComandosExecutados = 0;
-        this.totalComandosDesfeitos = 0;
-        this.totalComandosRefeitos = 0;
+        this.totalComandosExecutados = new AtomicInteger();
+        this.totalComandosDesfeitos = new AtomicInteger();
+        this.totalComandosRefeitos = new AtomicInteger();
+        this.totalRefeitosPorEstado = new AtomicInteger();
     }
     
     /**
@@ -76,17 +137,17 @@ public class GerenciadorComandos {
             System.out.println("\n🔍 [DEBUG] Executando: " + comando.getDescricao());
         }
         
+        long inicio = metricas.iniciar();
+        boolean sucesso;
         try {
-            boolean sucesso = comando.executar();
+            sucesso = comando.executar();
+            metricas.registrar(MetricasComandos.Operacao.EXECUTAR, comando, inicio, sucesso);
             
             if (sucesso) {
-                // Adiciona ao histórico
-                adicionarAoHistorico(comando);
-                
-                // Limpa pilha de redo (nova ação invalida redos)
-                pilhaRedo.clear();
+                // Adiciona ao histórico (nova ação invalida redos)
+                registrarExecutado(comando);
                 
-                totalComandosExecutados++;
+                totalComandosExecutados.incrementAndGet();
                 
                 if (modoDebug) {
                     System.out.println("DEBUG: Comando executado com sucesso!");
@@ -97,15 +158,20 @@ public class GerenciadorComandos {
                 }
             }
             
-            return sucesso;
-            
         } catch (Exception e) {
+            metricas.registrar(MetricasComandos.Operacao.EXECUTAR, comando, inicio, false);
             System.out.println("ERRO na execução do comando: " + e.getMessage());
             if (modoDebug) {
                 e.printStackTrace();
             }
             return false;
         }
+        
+        // Fora do try: o comando já foi aplicado, um erro no snapshot não o torna falho
+        if (sucesso) {
+            verificarSnapshot();
+        }
+        return sucesso;
     }
     
     /**
@@ -155,47 +221,181 @@ public class GerenciadorComandos {
         return sucessos;
     }
     
+    /**
+     * Executa os comandos da fila em lotes
+     * 
+     * MODO LOTE:
+     * Cada lote de até N comandos é tratado como uma unidade: os comandos
+     * bem-sucedidos entram no histórico em um único passo e apenas um
+     * registro de resumo é escrito por lote. Evita o custo de log, debug e
+     * contabilidade por comando em filas grandes (ex.: replay de partidas):
+     * os comandos executam sem eco (executarSemEco) e os jogadores
+     * envolvidos ficam sem eco de movimentos durante o lote. As métricas
+     * (EXECUTAR) continuam registradas por comando, como nos outros caminhos.
+     * 
+     * Assim como executarFilaPendentes, uma falha não interrompe o lote.
+     * 
+     * @param tamanhoLote número máximo de comandos por lote
+     * @return número de comandos executados com sucesso
+     */
+    public int executarFilaEmLotes(int tamanhoLote) {
+        if (tamanhoLote <= 0) {
+            throw new IllegalArgumentException("Tamanho do lote deve ser positivo: " + tamanhoLote);
+        }
+        
+        if (filaPendentes.isEmpty()) {
+            System.out.println("INFO: Nenhum comando pendente na fila.");
+            return 0;
+        }
+        
+        int sucessosTotal = 0;
+        int numeroLote = 0;
+        List<Command> executados = new ArrayList<>(tamanhoLote);
+        
+        while (!filaPendentes.isEmpty()) {
+            numeroLote++;
+            executados.clear();
+            int falhas = 0;
+            long inicio = System.nanoTime();
+            
+            // Sem mensagens por comando: só o resumo do lote vai ao console
+            Map<Jogador, Boolean> ecoJogadores = new IdentityHashMap<>();
+            try {
+                for (int i = 0; i < tamanhoLote && !filaPendentes.isEmpty(); i++) {
+                    Command comando = filaPendentes.poll();
+                    if (comando == null) {
+                        falhas++;
+                        continue;
+                    }
+                    silenciarJogadores(comando, ecoJogadores);
+                    
+                    long inicioComando = metricas.iniciar();
+                    try {
+                        boolean sucesso = comando.executarSemEco();
+                        metricas.registrar(MetricasComandos.Operacao.EXECUTAR, comando, inicioComando, sucesso);
+                        if (sucesso) {
+                            executados.add(comando);
+                        } else {
+                            falhas++;
+                        }
+                    } catch (Exception e) {
+                        metricas.registrar(MetricasComandos.Operacao.EXECUTAR, comando, inicioComando, false);
+                        falhas++;
+                    }
+                }
+            } finally {
+                ecoJogadores.forEach(Jogador::setEcoMovimentos);
+            }
+            
+            // Contabilidade do lote inteiro em um único passo
+            synchronized (travaRegistro) {
+                historico.registrarLote(executados);
+                for (Command executado : executados) {
+                    registrarNoJournal(JournalComandos.Operacao.EXECUTAR, executado);
+                }
+            }
+            totalComandosExecutados.addAndGet(executados.size());
+            sucessosTotal += executados.size();
+            verificarSnapshot();
+            
+            long duracaoMicros = (System.nanoTime() - inicio) / 1_000;
+            System.out.println("LOTE " + numeroLote + ": " + executados.size() + " sucessos, " + 
+                             falhas + " falhas em " + duracaoMicros + " µs");
+        }
+        
+        return sucessosTotal;
+    }
+    
+    /**
+     * Desliga o eco de movimentos dos jogadores do comando, guardando o valor anterior
+     */
+    private static void silenciarJogadores(Command comando, Map<Jogador, Boolean> ecoAnterior) {
+        List<Object> receptores = comando.getReceptores();
+        if (receptores == null) {
+            return;
+        }
+        for (Object receptor : receptores) {
+            if (receptor instanceof Jogador && !ecoAnterior.containsKey(receptor)) {
+                Jogador jogador = (Jogador) receptor;
+                ecoAnterior.put(jogador, jogador.isEcoMovimentos());
+                jogador.setEcoMovimentos(false);
+            }
+        }
+    }
+    
     /**
      * Desfaz o último comando executado
      * 
+     * O desfazer e o seu registro no journal acontecem sob a trava de
+     * registro, sem que outro comando entre no histórico no meio.
+     * 
      * @return true se desfeito com sucesso
      */
     public boolean desfazerUltimoComando() {
-        if (historicoComandos.isEmpty()) {
+        synchronized (travaRegistro) {
+            return desfazerComTrava();
+        }
+    }
+    
+    private boolean desfazerComTrava() {
+        Command ultimoComando = historico.ultimoExecutado();
+        
+        if (ultimoComando == null) {
             System.out.println("INFO: Nenhum comando para desfazer.");
             return false;
         }
         
-        Command ultimoComando = historicoComandos.peek();
-        
         if (!ultimoComando.podeSerDesfeito()) {
             System.out.println("ERRO: O último comando não pode ser desfeito: " + ultimoComando.getDescricao());
             return false;
         }
         
+        // Move comando do histórico para o redo antes de desfazer, para que
+        // outra thread não desfaça o mesmo comando em paralelo
+        ultimoComando = historico.moverParaRedo(Command::podeSerDesfeito);
+        if (ultimoComando == null) {
+            System.out.println("INFO: Nenhum comando para desfazer.");
+            return false;
+        }
+        
         if (modoDebug) {
             System.out.println("\n🔍 [DEBUG] Desfazendo: " + ultimoComando.getDescricao());
         }
         
+        CacheRefazer cache = cacheRefazer(ultimoComando);
+        long inicio = metricas.iniciar();
         try {
+            if (cache != null) {
+                cache.antesDeDesfazer();
+            }
             boolean sucesso = ultimoComando.desfazer();
+            metricas.registrar(MetricasComandos.Operacao.DESFAZER, ultimoComando, inicio, sucesso);
             
             if (sucesso) {
-                // Move comando do histórico para pilha de redo
-                Command comando = historicoComandos.pop();
-                pilhaRedo.push(comando);
-                
-                totalComandosDesfeitos++;
+                if (cache != null) {
+                    cache.aposDesfazer();
+                }
+                registrarNoJournal(JournalComandos.Operacao.DESFAZER, ultimoComando);
+                totalComandosDesfeitos.incrementAndGet();
                 
                 if (modoDebug) {
                     System.out.println("DEBUG: Comando desfeito com sucesso!");
                 }
+            } else {
+                // Se falhou, coloca de volta no histórico
+                historico.devolverAoHistorico(ultimoComando);
             }
             
             return sucesso;
             
         } catch (Exception e) {
+            metricas.registrar(MetricasComandos.Operacao.DESFAZER, ultimoComando, inicio, false);
+            if (cache != null) {
+                cache.invalidar();
+            }
             System.out.println("ERRO ao desfazer comando: " + e.getMessage());
+            // Coloca de volta no histórico
+            historico.devolverAoHistorico(ultimoComando);
             if (modoDebug) {
                 e.printStackTrace();
             }
@@ -206,42 +406,56 @@ public class GerenciadorComandos {
     /**
      * Refaz o último comando desfeito
      * 
+     * Se o comando tem cache de redo e o jogo não mudou desde o undo, o
+     * estado anterior ao undo é reaplicado em O(1); caso contrário, o
+     * comando é executado de novo.
+     * 
      * @return true se refeito com sucesso
      */
     public boolean refazerUltimoComando() {
-        if (pilhaRedo.isEmpty()) {
+        synchronized (travaRegistro) {
+            return refazerComTrava();
+        }
+    }
+    
+    private boolean refazerComTrava() {
+        
+        // Move comando de volta para o histórico
+        Command comando = historico.moverParaHistorico();
+        
+        if (comando == null) {
             System.out.println("INFO: Nenhum comando para refazer.");
             return false;
         }
         
-        Command comando = pilhaRedo.pop();
-        
         if (modoDebug) {
             System.out.println("\n🔍 [DEBUG] Refazendo: " + comando.getDescricao());
         }
         
+        long inicio = metricas.iniciar();
         try {
-            boolean sucesso = comando.executar();
+            boolean sucesso = reaplicarEstado(comando) || comando.executar();
+            metricas.registrar(MetricasComandos.Operacao.REFAZER, comando, inicio, sucesso);
             
             if (sucesso) {
-                // Move comando de volta para o histórico
-                adicionarAoHistorico(comando);
-                totalComandosRefeitos++;
+                registrarNoJournal(JournalComandos.Operacao.REFAZER, comando);
+                totalComandosRefeitos.incrementAndGet();
                 
                 if (modoDebug) {
                     System.out.println("DEBUG: Comando refeito com sucesso!");
                 }
             } else {
                 // Se falhou, coloca de volta na pilha de redo
-                pilhaRedo.push(comando);
+                historico.devolverAoRedo(comando);
             }
             
             return sucesso;
             
         } catch (Exception e) {
+            metricas.registrar(MetricasComandos.Operacao.REFAZER, comando, inicio, false);
             System.out.println("ERRO ao refazer comando: " + e.getMessage());
             // Coloca de volta na pilha de redo
-            pilhaRedo.push(comando);
+            historico.devolverAoRedo(comando);
             if (modoDebug) {
                 e.printStackTrace();
             }
@@ -262,17 +476,15 @@ public class GerenciadorComandos {
         
         System.out.println("Executando comando assíncrono: " + comando.getDescricao());
         
-        return executorAssincrono.submit(() -> {
+        return submeter(metricas.instrumentar(() -> {
+            long inicio = metricas.iniciar();
             try {
                 boolean sucesso = comando.executar();
+                metricas.registrar(MetricasComandos.Operacao.EXECUTAR, comando, inicio, sucesso);
                 
                 if (sucesso) {
-                    // Sincroniza acesso ao histórico
-                    synchronized (this) {
-                        adicionarAoHistorico(comando);
-                        pilhaRedo.clear();
-                        totalComandosExecutados++;
-                    }
+                    registrarExecutado(comando);
+                    totalComandosExecutados.incrementAndGet();
                     
                     System.out.println("SUCESSO: Comando assíncrono concluído: " + comando.getDescricao());
                 } else {
@@ -282,70 +494,142 @@ public class GerenciadorComandos {
                 return sucesso;
                 
             } catch (Exception e) {
+                metricas.registrar(MetricasComandos.Operacao.EXECUTAR, comando, inicio, false);
                 System.out.println("ERRO no comando assíncrono: " + e.getMessage());
                 return false;
             }
-        });
+        }));
     }
     
     /**
-     * Executa múltiplos comandos em sequência (macro)
+     * Cria versão assíncrona de um comando, ligada ao executor do gerenciador
      * 
-     * @param comandos Lista de comandos
-     * @return número de comandos executados com sucesso
+     * O comando retornado pode ser passado para executarAsync e cancelado
+     * com cancelar() enquanto estiver em andamento.
+     * 
+     * @param comando Comando a ser executado de forma assíncrona
+     * @return comando assíncrono
      */
-    public int executarMacro(List<Command> comandos) {
-        if (comandos == null || comandos.isEmpty()) {
-            System.out.println("INFO: Macro vazio ou inválido.");
-            return 0;
+    public AsyncCommand criarComandoAssincrono(Command comando) {
+        // Resolve o executor a cada tarefa: respeita troca de estratégia
+        return new ComandoAssincrono(comando, tarefa -> executarNoPool(metricas.instrumentar(tarefa)));
+    }
+    
+    /**
+     * Executa comando assíncrono retornando CompletableFuture encadeável
+     * 
+     * Diferente de executarComandoAssincrono, nenhuma thread fica bloqueada
+     * aguardando o resultado: o chamador pode encadear (thenCompose),
+     * combinar (allOf) ou cancelar (AsyncCommand.cancelar) o comando.
+     * Em caso de sucesso, o comando entra no histórico.
+     * 
+     * @param comando Comando a ser executado (envolvido em ComandoAssincrono se necessário)
+     * @return futuro com o resultado da execução
+     */
+    public CompletableFuture<Boolean> executarAsync(Command comando) {
+        if (comando == null) {
+            return CompletableFuture.completedFuture(false);
         }
         
-        System.out.println("\nExecutando macro com " + comandos.size() + " comandos...");
+        AsyncCommand assincrono = comando instanceof AsyncCommand
+                ? (AsyncCommand) comando
+                : criarComandoAssincrono(comando);
         
-        int sucessos = 0;
+        if (modoDebug) {
+            System.out.println("\n🔍 [DEBUG] Executando assíncrono: " + assincrono.getDescricao());
+        }
         
-        for (int i = 0; i < comandos.size(); i++) {
-            Command comando = comandos.get(i);
-            System.out.println("\nComando " + (i + 1) + "/" + comandos.size() + ":");
-            
-            if (executarComando(comando)) {
-                sucessos++;
-            } else {
-                System.out.println("AVISO: Macro interrompido devido a falha no comando " + (i + 1));
-                break;
+        long inicio = metricas.iniciar();
+        return assincrono.executarAsync().whenComplete((sucesso, erro) ->
+                metricas.registrar(MetricasComandos.Operacao.ASSINCRONO, assincrono, inicio,
+                        erro == null && Boolean.TRUE.equals(sucesso))
+        ).thenApply(sucesso -> {
+            if (sucesso) {
+                registrarExecutado(assincrono);
+                totalComandosExecutados.incrementAndGet();
             }
+            return sucesso;
+        });
+    }
+    
+    /**
+     * Agenda comando para execução por prioridade
+     * 
+     * Diferente de enfileirarComando (FIFO, execução manual), comandos
+     * agendados são despachados automaticamente por uma thread do agendador,
+     * em ordem de prioridade (PriorityCommand). Pode ser chamado por várias
+     * threads ao mesmo tempo. Comandos que esperam muito ganham prioridade
+     * (envelhecimento), então nenhum comando fica parado indefinidamente.
+     * 
+     * @param comando Comando a ser agendado
+     */
+    public void agendarComando(Command comando) {
+        if (comando == null) {
+            System.out.println("ERRO: Não é possível agendar comando inválido!");
+            return;
         }
         
-        System.out.println("\n🏁 Macro concluído: " + sucessos + "/" + comandos.size() + " sucessos");
-        return sucessos;
+        try {
+            agendador.agendar(comando);
+        } catch (RejectedExecutionException e) {
+            System.out.println("ERRO: " + e.getMessage());
+            return;
+        }
+        
+        if (modoDebug) {
+            System.out.println("🔍 [DEBUG] Agendado: " + comando.getDescricao() + 
+                             " (fila: " + agendador.getProfundidadeFila() + ")");
+        }
     }
     
     /**
-     * Adiciona comando ao histórico, respeitando limite
+     * Cria macro vazio cujos estágios paralelos usam o pool de ramos do gerenciador
+     * 
+     * Comandos adicionados com adicionarComandoIndependente executam em
+     * paralelo com os independentes adjacentes, se não alterarem os mesmos
+     * receivers. O pool de ramos é elástico e separado do executor
+     * assíncrono: um macro submetido com executarComandoAssincrono não
+     * espera por threads do próprio executor.
+     * 
+     * @param descricao descrição do macro
+     * @return comando composto
      */
-    private void adicionarAoHistorico(Command comando) {
-        historicoComandos.push(comando);
+    public ComandoComposto criarMacro(String descricao) {
+        // Resolve o executor a cada tarefa: respeita troca de estratégia
+        return new ComandoComposto(descricao, tarefa -> poolRamosMacro.execute(metricas.instrumentar(tarefa)));
+    }
+    
+    /**
+     * Executa múltiplos comandos em sequência (macro)
+     * 
+     * O macro é atômico: entra no histórico como uma única entrada e, se
+     * algum comando falhar, os anteriores são desfeitos.
+     * 
+     * @param comandos Lista de comandos
+     * @return número de comandos executados com sucesso (todos ou nenhum)
+     */
+    public int executarMacro(List<Command> comandos) {
+        if (comandos == null || comandos.isEmpty()) {
+            System.out.println("INFO: Macro vazio ou inválido.");
+            return 0;
+        }
         
-        // Remove comandos antigos se exceder limite
-        while (historicoComandos.size() > tamanhoMaximoHistorico) {
-            // Remove do fundo da pilha (mais antigo)
-            Stack<Command> temp = new Stack<>();
-            while (historicoComandos.size() > 1) {
-                temp.push(historicoComandos.pop());
-            }
-            historicoComandos.pop(); // Remove o mais antigo
-            while (!temp.isEmpty()) {
-                historicoComandos.push(temp.pop());
-            }
+        ComandoComposto macro = criarMacro("Macro");
+        for (Command comando : comandos) {
+            macro.adicionarComando(comando);
         }
+        
+        int sucessos = executarComando(macro) ? comandos.size() : 0;
+        
+        System.out.println("\n🏁 Macro concluído: " + sucessos + "/" + comandos.size() + " sucessos");
+        return sucessos;
     }
     
     /**
      * Limpa todo o histórico
      */
     public void limparHistorico() {
-        historicoComandos.clear();
-        pilhaRedo.clear();
+        historico.limpar();
         System.out.println("🧹 Histórico de comandos limpo.");
     }
     
@@ -356,30 +640,24 @@ public class GerenciadorComandos {
         System.out.println("\nHISTÓRICO DE COMANDOS:");
         System.out.println("═══════════════════════════════════════");
         
-        if (historicoComandos.isEmpty()) {
+        List<Command> comandos = historico.getComandosHistorico();
+        
+        if (comandos.isEmpty()) {
             System.out.println("   (Nenhum comando executado)");
         } else {
-            Stack<Command> temp = new Stack<>();
-            int contador = historicoComandos.size();
-            
             // Mostra do mais recente para o mais antigo
-            while (!historicoComandos.isEmpty()) {
-                Command cmd = historicoComandos.pop();
-                temp.push(cmd);
+            for (int i = comandos.size() - 1; i >= 0; i--) {
+                Command cmd = comandos.get(i);
                 
                 String status = cmd.podeSerDesfeito() ? "[REVERSÍVEL]" : "[IRREVERSÍVEL]";
-                System.out.printf("%2d. %s %s\n", contador--, cmd.getDescricao(), status);
+                System.out.printf("%2d. %s %s\n", i + 1, cmd.getDescricao(), status);
                 System.out.println("    Timestamp: " + new Date(cmd.getTimestamp()));
             }
-            
-            // Restaura histórico
-            while (!temp.isEmpty()) {
-                historicoComandos.push(temp.pop());
-            }
         }
         
-        if (!pilhaRedo.isEmpty()) {
-            System.out.println("\nCOMANDOS DISPONÍVEIS PARA REDO: " + pilhaRedo.size());
+        int tamanhoRedo = historico.getTamanhoRedo();
+        if (tamanhoRedo > 0) {
+            System.out.println("\nCOMANDOS DISPONÍVEIS PARA REDO: " + tamanhoRedo);
         }
         
         if (!filaPendentes.isEmpty()) {
@@ -393,24 +671,34 @@ public class GerenciadorComandos {
     public void exibirEstatisticas() {
         System.out.println("\nESTATÍSTICAS DO GERENCIADOR:");
         System.out.println("═══════════════════════════════════════");
-        System.out.println("Total de comandos executados: " + totalComandosExecutados);
-        System.out.println("Total de comandos desfeitos: " + totalComandosDesfeitos);
-        System.out.println("Total de comandos refeitos: " + totalComandosRefeitos);
-        System.out.println("Comandos no histórico: " + historicoComandos.size());
-        System.out.println("Comandos disponíveis para redo: " + pilhaRedo.size());
+        System.out.println("Total de comandos executados: " + totalComandosExecutados.get());
+        System.out.println("Total de comandos desfeitos: " + totalComandosDesfeitos.get());
+        System.out.println("Total de comandos refeitos: " + totalComandosRefeitos.get()
+                + " (" + totalRefeitosPorEstado.get() + " por estado)");
+        System.out.println("Comandos no histórico: " + historico.getTamanhoHistorico());
+        System.out.println("Comandos disponíveis para redo: " + historico.getTamanhoRedo());
         System.out.println("Comandos na fila: " + filaPendentes.size());
-         System.out.println("Tamanho máximo do histórico: " + tamanhoMaximoHistorico);
+         System.out.println("Tamanho máximo do histórico: " + historico.getCapacidade());
          System.out.println("Modo debug: " + (modoDebug ? "ATIVO" : "INATIVO"));
+        System.out.println("Executor assíncrono: " + (executorProprio ? estrategiaExecutor : "compartilhado"));
+        System.out.println("Comandos agendados aguardando: " + agendador.getProfundidadeFila());
+        System.out.println("Comandos agendados despachados: " + agendador.getTotalDespachados());
+        System.out.printf("Espera no agendador: média %.2f ms | máxima %.2f ms\n",
+                agendador.getTempoEsperaMedioMs(), agendador.getTempoEsperaMaximoMs());
+        
+        if (metricas.isHabilitado()) {
+            metricas.exibir();
+        }
     }
     
     // Getters e Setters
     public int getTamanhoMaximoHistorico() {
-        return tamanhoMaximoHistorico;
+        return historico.getCapacidade();
     }
     
     public void setTamanhoMaximoHistorico(int tamanho) {
         if (tamanho > 0) {
-            this.tamanhoMaximoHistorico = tamanho;
+            historico.redimensionar(tamanho);
             System.out.println("📏 Tamanho máximo do histórico alterado para: " + tamanho);
         }
     }
@@ -425,41 +713,297 @@ public class GerenciadorComandos {
     }
     
     public int getTotalComandosExecutados() {
-        return totalComandosExecutados;
+        return totalComandosExecutados.get();
     }
     
     public int getTamanhoHistorico() {
-        return historicoComandos.size();
+        return historico.getTamanhoHistorico();
     }
     
     public int getTamanhoFilaPendentes() {
         return filaPendentes.size();
     }
     
+    /**
+     * Métricas detalhadas por tipo de comando (ligar com setHabilitado(true))
+     */
+    public MetricasComandos getMetricas() {
+        return metricas;
+    }
+    
+    /**
+     * Threads do executor assíncrono, ou 0 se o pool não tem tamanho fixo
+     */
+    private int tamanhoPoolAssincrono() {
+        ExecutorService executor = executorAssincrono;
+        if (executor instanceof ThreadPoolExecutor) {
+            int maximo = ((ThreadPoolExecutor) executor).getMaximumPoolSize();
+            return maximo == Integer.MAX_VALUE ? 0 : maximo;
+        }
+        return 0;
+    }
+    
+    public AgendadorComandos getAgendador() {
+        return agendador;
+    }
+    
     public boolean temComandosParaDesfazer() {
-        return !historicoComandos.isEmpty() && 
-               historicoComandos.peek().podeSerDesfeito();
+        Command ultimo = historico.ultimoExecutado();
+        return ultimo != null && ultimo.podeSerDesfeito();
     }
     
     public boolean temComandosParaRefazer() {
-        return !pilhaRedo.isEmpty();
+        return historico.getTamanhoRedo() > 0;
     }
     
     /**
-     * Finaliza o gerenciador e libera recursos
+     * Cache de redo do comando, ou null se o redo sempre executa de novo
      */
-    public void finalizar() {
-        System.out.println("\n🔚 Finalizando gerenciador de comandos...");
+    private static CacheRefazer cacheRefazer(Command comando) {
+        return comando instanceof RefazivelPorEstado
+                ? ((RefazivelPorEstado) comando).getCacheRefazer()
+                : null;
+    }
+    
+    /**
+     * Tenta refazer reaplicando o estado capturado antes do undo
+     * 
+     * @return false se o comando precisa ser executado de novo
+     */
+    private boolean reaplicarEstado(Command comando) {
+        if (!(comando instanceof RefazivelPorEstado)) {
+            return false;
+        }
+        RefazivelPorEstado refazivel = (RefazivelPorEstado) comando;
+        CacheRefazer cache = refazivel.getCacheRefazer();
+        if (cache == null || !cache.reaplicar()) {
+            return false;
+        }
+        refazivel.marcarRefeito();
+        totalRefeitosPorEstado.incrementAndGet();
+        if (modoDebug) {
+            System.out.println("DEBUG: Estado reaplicado sem executar o comando");
+        }
+        return true;
+    }
+    
+    /**
+     * Registra comando executado no histórico e no journal, em um único passo
+     */
+    private void registrarExecutado(Command comando) {
+        synchronized (travaRegistro) {
+            historico.registrar(comando);
+            registrarNoJournal(JournalComandos.Operacao.EXECUTAR, comando);
+        }
+    }
+    
+    /**
+     * Grava operação no journal, se houver journal (chamado com a trava de registro)
+     * 
+     * Não aguarda o fsync: a durabilidade vem com o próximo group commit.
+     * O comando já foi aplicado: uma falha ao gravar é informada, mas não
+     * desfaz o comando nem o faz ser tratado como falho.
+     */
+    private void registrarNoJournal(JournalComandos.Operacao operacao, Command comando) {
+        JournalComandos journal = this.journal;
+        if (journal == null) {
+            return;
+        }
+        
+        Command alvo = comando instanceof ComandoAssincrono
+                ? ((ComandoAssincrono) comando).getComando()
+                : comando;
+        
+        String codigo = alvo instanceof ComandoJornalizavel
+                ? ((ComandoJornalizavel) alvo).getCodigoJournal()
+                : null;
+        if (codigo == null) {
+            System.out.println("AVISO: Comando fora do journal (não será reproduzido na recuperação): "
+                    + comando.getDescricao());
+            return;
+        }
+        
+        GerenciadorSnapshots snapshots = this.snapshots;
+        if (snapshots != null && !snapshots.registrarOperacao(operacao)) {
+            // Undo/redo de comando anterior ao snapshot: o novo snapshot já inclui o efeito
+            criarSnapshot(snapshots);
+            return;
+        }
+        
+        try {
+            journal.anexar(operacao, codigo);
+        } catch (RuntimeException e) {
+            System.out.println("ERRO ao gravar no journal (" + operacao + " " + codigo + "): " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Cria snapshot periódico, se configurado (apenas no caminho síncrono)
+     * 
+     * O comando já foi aplicado e registrado: uma falha no snapshot é
+     * informada, mas não faz o comando ser tratado como falho.
+     */
+    private void verificarSnapshot() {
+        GerenciadorSnapshots snapshots = this.snapshots;
+        if (snapshots == null) {
+            return;
+        }
+        synchronized (travaRegistro) {
+            try {
+                snapshots.verificarSnapshot();
+            } catch (RuntimeException e) {
+                System.out.println("ERRO ao criar snapshot: " + e.getMessage());
+            }
+        }
+    }
+    
+    private void criarSnapshot(GerenciadorSnapshots snapshots) {
+        try {
+            snapshots.criarSnapshot();
+        } catch (IOException | RuntimeException e) {
+            System.out.println("ERRO ao criar snapshot: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Define gerenciador de snapshots (chamado pelo próprio GerenciadorSnapshots)
+     */
+    void setGerenciadorSnapshots(GerenciadorSnapshots snapshots) {
+        this.snapshots = snapshots;
+    }
+    
+    public JournalComandos getJournal() {
+        return journal;
+    }
+    
+    /**
+     * Define journal onde execuções, undos e redos serão gravados
+     * 
+     * @param journal journal de comandos (null desliga a gravação)
+     */
+    public void setJournal(JournalComandos journal) {
+        this.journal = journal;
+    }
+    
+    /**
+     * @return estratégia do executor assíncrono, ou null se ele é compartilhado
+     */
+    public EstrategiaExecutor getEstrategiaExecutor() {
+        return estrategiaExecutor;
+    }
+    
+    /**
+     * Troca a estratégia de executor dos comandos assíncronos
+     * 
+     * Novos comandos passam a usar o novo executor imediatamente. O executor
+     * anterior recebe shutdown (sem interrupção): comandos já submetidos
+     * terminam nele, e submissões concorrentes à troca que ele rejeitar são
+     * reenviadas ao novo.
+     * 
+     * @param estrategia nova estratégia de executor
+     */
+    public synchronized void setEstrategiaExecutor(EstrategiaExecutor estrategia) {
+        if (estrategia == null || estrategia == estrategiaExecutor) {
+            return;
+        }
+        
+        ExecutorService anterior = executorAssincrono;
+        boolean anteriorProprio = executorProprio;
+        this.executorAssincrono = estrategia.criarExecutor();
+        this.estrategiaExecutor = estrategia;
+        this.executorProprio = true;
+        if (anteriorProprio) {
+            anterior.shutdown();
+        }
         
-        // Para executor assíncrono
-        executorAssincrono.shutdown();
+        System.out.println("Estratégia de executor alterada para: " + estrategia);
+    }
+    
+    /**
+     * Pool elástico de threads daemon para os ramos dos macros
+     * (macros aninhados também esperam por ramos, então o pool não pode ser limitado)
+     */
+    public static ExecutorService criarPoolRamosMacro() {
+        AtomicInteger contador = new AtomicInteger();
+        return Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "ramo-macro-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Submete tarefa ao executor atual; se foi rejeitada por um executor já trocado, tenta no novo
+     */
+    private <T> Future<T> submeter(Callable<T> tarefa) {
+        while (true) {
+            ExecutorService atual = executorAssincrono;
+            try {
+                return atual.submit(tarefa);
+            } catch (RejectedExecutionException e) {
+                if (atual == executorAssincrono) {
+                    throw e;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Executa tarefa no executor atual; se foi rejeitada por um executor já trocado, tenta no novo
+     */
+    private void executarNoPool(Runnable tarefa) {
+        while (true) {
+            ExecutorService atual = executorAssincrono;
+            try {
+                atual.execute(tarefa);
+                return;
+            } catch (RejectedExecutionException e) {
+                if (atual == executorAssincrono) {
+                    throw e;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Encerra executor aguardando até 5 s os comandos em andamento
+     * Os que não terminarem nesse prazo são interrompidos (shutdownNow)
+     */
+    private void encerrarExecutor(ExecutorService executor) {
+        executor.shutdown();
         try {
-            if (!executorAssincrono.awaitTermination(5, TimeUnit.SECONDS)) {
-                executorAssincrono.shutdownNow();
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
             }
         } catch (InterruptedException e) {
-            executorAssincrono.shutdownNow();
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
         }
+    }
+    
+    /**
+     * Finaliza o gerenciador e libera recursos
+     */
+    public void finalizar() {
+        System.out.println("\n🔚 Finalizando gerenciador de comandos...");
+        
+        // Para agendador de prioridade
+        int descartados = agendador.finalizar();
+        if (descartados > 0) {
+            System.out.println("AVISO: " + descartados + " comandos agendados descartados");
+        }
+        
+        // Para executor assíncrono (comandos que passarem de 5 s são interrompidos)
+        // Executores compartilhados são encerrados por quem os criou
+        if (executorProprio) {
+            encerrarExecutor(executorAssincrono);
+        }
+        if (poolRamosProprio) {
+            encerrarExecutor(poolRamosMacro);
+        }
+        
+        // Remove métricas do JMX, se registradas
+        metricas.removerJmx();
         
         // Limpa estruturas
         limparHistorico();
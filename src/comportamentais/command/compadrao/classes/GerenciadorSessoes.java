@@ -0,0 +1,293 @@
+package comportamentais.command.compadrao.classes;
+
+import comportamentais.command.compadrao.interfaces.Command;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Gerenciador de sessões de vários jogadores
+ *
+ * SHARDS COM ESCRITOR ÚNICO:
+ * Cada sessão (Jogador, SistemaJogo e GerenciadorComandos próprios) é
+ * fixada, pelo hash do id, a um shard servido por uma única thread. Todos
+ * os comandos, undos e redos da sessão executam nessa thread, na ordem em
+ * que foram enviados, portanto os receivers e o invoker não precisam de
+ * locks. Jogadores de shards diferentes executam em paralelo: a vazão
+ * total cresce com o número de shards (por padrão, um por núcleo).
+ *
+ * MEMÓRIA POR SESSÃO:
+ * Os executores de comandos assíncronos e de ramos de macros são criados
+ * uma vez e compartilhados por todos os GerenciadorComandos das sessões,
+ * e o histórico de eventos de cada SistemaJogo retém poucos eventos
+ * (CAPACIDADE_EVENTOS_SESSAO), para que milhares de sessões não
+ * multipliquem pools e buffers.
+ *
+ * PLACAR PUBLICADO:
+ * Leituras entre jogadores não tocam nas sessões. Periodicamente cada
+ * shard captura suas sessões na própria thread e o resultado é publicado
+ * como um PlacarJogadores imutável, lido sem sincronização.
+ */
+public class GerenciadorSessoes implements AutoCloseable {
+
+    /**
+     * Eventos retidos no histórico do SistemaJogo de cada sessão
+     */
+    public static final int CAPACIDADE_EVENTOS_SESSAO = 32;
+
+    /**
+     * Shard: uma thread e as sessões fixadas a ela
+     */
+    private static final class Shard {
+        final ExecutorService executor;
+        // Acessada somente pela thread do shard
+        final List<SessaoJogador> sessoes = new ArrayList<>();
+
+        Shard(int indice) {
+            this.executor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "shard-sessoes-" + indice);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private final Shard[] shards;
+    // Compartilhados pelos gerenciadores de todas as sessões
+    private final ExecutorService executorAssincrono;
+    private final ExecutorService poolRamosMacro;
+    private final ConcurrentHashMap<String, SessaoJogador> sessoes;
+    private final ScheduledExecutorService publicador;
+    private final AtomicInteger geracaoPlacar;
+    private final LongAdder totalComandos;
+    private volatile PlacarJogadores placar;
+
+    /**
+     * Cria gerenciador com um shard por núcleo
+     *
+     * @param intervaloPlacarMs intervalo entre publicações do placar
+     */
+    public GerenciadorSessoes(long intervaloPlacarMs) {
+        this(Runtime.getRuntime().availableProcessors(), intervaloPlacarMs);
+    }
+
+    /**
+     * @param numeroShards threads que executam os comandos das sessões
+     * @param intervaloPlacarMs intervalo entre publicações do placar
+     */
+    public GerenciadorSessoes(int numeroShards, long intervaloPlacarMs) {
+        if (numeroShards <= 0) {
+            throw new IllegalArgumentException("Número de shards deve ser positivo: " + numeroShards);
+        }
+        if (intervaloPlacarMs <= 0) {
+            throw new IllegalArgumentException("Intervalo do placar deve ser positivo: " + intervaloPlacarMs);
+        }
+        this.shards = new Shard[numeroShards];
+        for (int i = 0; i < numeroShards; i++) {
+            shards[i] = new Shard(i);
+        }
+        this.executorAssincrono = EstrategiaExecutor.POOL_FIXO.criarExecutor();
+        this.poolRamosMacro = GerenciadorComandos.criarPoolRamosMacro();
+        this.sessoes = new ConcurrentHashMap<>();
+        this.geracaoPlacar = new AtomicInteger();
+        this.totalComandos = new LongAdder();
+        this.placar = PlacarJogadores.VAZIO;
+
+        this.publicador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "publicador-placar");
+            thread.setDaemon(true);
+            return thread;
+        });
+        publicador.scheduleAtFixedRate(this::publicarPlacar, intervaloPlacarMs, intervaloPlacarMs, TimeUnit.MILLISECONDS);
+    }
+
+    // ==================== SESSÕES ====================
+
+    /**
+     * Cria sessão para um novo jogador
+     *
+     * A saída de eventos e movimentos no console é desligada: com milhares
+     * de jogadores ela dominaria o tempo de execução.
+     *
+     * @throws IllegalArgumentException se já existir sessão com o id
+     */
+    public SessaoJogador criarSessao(String id, String nome, int x, int y) {
+        int indice = indiceShard(id);
+        Jogador jogador = new Jogador(nome, x, y);
+        SistemaJogo sistema = new SistemaJogo("Sessão " + id, CAPACIDADE_EVENTOS_SESSAO);
+        jogador.setEcoMovimentos(false);
+        sistema.setEcoEventos(false);
+        SessaoJogador sessao = new SessaoJogador(id, indice, jogador, sistema,
+                new GerenciadorComandos(executorAssincrono, poolRamosMacro));
+
+        if (sessoes.putIfAbsent(id, sessao) != null) {
+            throw new IllegalArgumentException("Sessão já existe: " + id);
+        }
+        Shard shard = shards[indice];
+        shard.executor.execute(() -> shard.sessoes.add(sessao));
+        return sessao;
+    }
+
+    /**
+     * Encerra a sessão depois dos comandos já enviados a ela
+     */
+    public CompletableFuture<Void> encerrarSessao(String id) {
+        SessaoJogador sessao = sessoes.remove(id);
+        if (sessao == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Shard shard = shards[sessao.getShard()];
+        return CompletableFuture.runAsync(() -> {
+            shard.sessoes.remove(sessao);
+            sessao.getGerenciador().finalizar();
+        }, shard.executor);
+    }
+
+    // ==================== COMANDOS ====================
+
+    /**
+     * Executa um comando na sessão, na thread do seu shard
+     *
+     * @param fabrica cria o comando a partir da sessão (chamada no shard)
+     * @return futuro com o resultado da execução
+     */
+    public CompletableFuture<Boolean> executar(String id, Function<SessaoJogador, Command> fabrica) {
+        return noShard(id, sessao -> contar(sessao.getGerenciador().executarComando(fabrica.apply(sessao))));
+    }
+
+    /**
+     * Desfaz o último comando da sessão
+     */
+    public CompletableFuture<Boolean> desfazer(String id) {
+        return noShard(id, sessao -> contar(sessao.getGerenciador().desfazerUltimoComando()));
+    }
+
+    /**
+     * Refaz o último comando desfeito da sessão
+     */
+    public CompletableFuture<Boolean> refazer(String id) {
+        return noShard(id, sessao -> contar(sessao.getGerenciador().refazerUltimoComando()));
+    }
+
+    /**
+     * Executa uma operação qualquer sobre a sessão, na thread do seu shard
+     *
+     * É a única forma segura de ler ou alterar a sessão diretamente.
+     */
+    public <T> CompletableFuture<T> noShard(String id, Function<SessaoJogador, T> operacao) {
+        SessaoJogador sessao = sessoes.get(id);
+        if (sessao == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Sessão não encontrada: " + id));
+        }
+        return CompletableFuture.supplyAsync(() -> operacao.apply(sessao), shards[sessao.getShard()].executor);
+    }
+
+    private boolean contar(boolean sucesso) {
+        if (sucesso) {
+            totalComandos.increment();
+        }
+        return sucesso;
+    }
+
+    // ==================== PLACAR ====================
+
+    /**
+     * Último placar publicado (sem bloqueio)
+     */
+    public PlacarJogadores getPlacar() {
+        return placar;
+    }
+
+    /**
+     * Captura todos os shards e publica um novo placar
+     *
+     * Cada shard captura suas sessões entre dois comandos, na própria
+     * thread; shards diferentes são capturados em instantes próximos,
+     * mas não no mesmo instante.
+     */
+    public CompletableFuture<PlacarJogadores> atualizarPlacar() {
+        List<CompletableFuture<List<PlacarJogadores.Entrada>>> capturas = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            capturas.add(CompletableFuture.supplyAsync(() -> {
+                List<PlacarJogadores.Entrada> entradas = new ArrayList<>(shard.sessoes.size());
+                for (SessaoJogador sessao : shard.sessoes) {
+                    entradas.add(sessao.capturar());
+                }
+                return entradas;
+            }, shard.executor));
+        }
+
+        return CompletableFuture.allOf(capturas.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+            List<PlacarJogadores.Entrada> todas = new ArrayList<>(sessoes.size());
+            for (CompletableFuture<List<PlacarJogadores.Entrada>> captura : capturas) {
+                todas.addAll(captura.join());
+            }
+            PlacarJogadores novo = new PlacarJogadores(geracaoPlacar.incrementAndGet(), System.currentTimeMillis(), todas);
+            placar = novo;
+            return novo;
+        });
+    }
+
+    private void publicarPlacar() {
+        try {
+            atualizarPlacar().join();
+        } catch (CompletionException | CancellationException | RejectedExecutionException e) {
+            // Shards encerrados: mantém o último placar publicado
+        }
+    }
+
+    // ==================== CONSULTAS ====================
+
+    /**
+     * Comandos, undos e redos concluídos com sucesso em todas as sessões
+     */
+    public long getTotalComandos() {
+        return totalComandos.sum();
+    }
+
+    public int getNumeroSessoes() {
+        return sessoes.size();
+    }
+
+    public int getNumeroShards() {
+        return shards.length;
+    }
+
+    /**
+     * Encerra publicação do placar, sessões, threads dos shards e executores compartilhados
+     */
+    @Override
+    public void close() {
+        publicador.shutdownNow();
+        for (Shard shard : shards) {
+            shard.executor.execute(() -> {
+                for (SessaoJogador sessao : shard.sessoes) {
+                    sessao.getGerenciador().finalizar();
+                }
+                shard.sessoes.clear();
+            });
+            shard.executor.shutdown();
+        }
+        for (Shard shard : shards) {
+            try {
+                if (!shard.executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    shard.executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                shard.executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        sessoes.clear();
+        executorAssincrono.shutdown();
+        poolRamosMacro.shutdown();
+    }
+
+    private int indiceShard(String id) {
+        int hash = id.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), shards.length);
+    }
+}
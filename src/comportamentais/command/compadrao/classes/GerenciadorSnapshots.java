@@ -0,0 +1,205 @@
+package comportamentais.command.compadrao.classes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Snapshots periódicos com compactação do journal de comandos
+ *
+ * GERAÇÕES:
+ * O diretório guarda uma geração ativa "n":
+ *   snapshot-n.bin  estado completo no início da geração (ausente na geração 0)
+ *   journal-n.bin   comandos executados desde o snapshot
+ *
+ * A cada "intervaloRegistros" registros no journal, um novo snapshot é
+ * gravado (geração n+1), o journal passa a ser journal-(n+1).bin e a
+ * geração anterior é apagada. A recuperação lê um snapshot e reproduz no
+ * máximo um intervalo de comandos: o tempo de recuperação depende do
+ * intervalo, e não da duração da sessão, e o journal não cresce sem limite.
+ *
+ * CHECKPOINT:
+ * O histórico de undo é mantido no snapshot. Comandos anteriores a ele
+ * não estão mais no journal, então um undo/redo desses comandos não pode
+ * ser gravado como registro: nesse caso um novo snapshot é criado logo
+ * depois, já com o efeito do undo/redo. Undo/redo de comandos da geração
+ * atual são gravados normalmente.
+ * O snapshot deve ser criado na thread que executa os comandos, sem
+ * comandos assíncronos em andamento.
+ */
+public class GerenciadorSnapshots implements AutoCloseable {
+
+    private static final Pattern ARQUIVO_GERACAO = Pattern.compile("(journal|snapshot)-(\\d+)\\.bin");
+
+    private final Path diretorio;
+    private final Jogador jogador;
+    private final SistemaJogo sistema;
+    private final GerenciadorComandos gerenciador;
+    private final long intervaloRegistros;
+    private final long janelaCommitMs;
+
+    private int geracao;
+    private JournalComandos journal;
+    // Registros já presentes no journal reaberto (o journal só conta os anexados desde a abertura)
+    private long registrosRecuperados;
+    // Comandos desta geração no histórico de undo e no de redo
+    private int desfaziveisDaGeracao;
+    private int refaziveisDaGeracao;
+
+    /**
+     * Abre a geração ativa do diretório e liga seu journal ao gerenciador
+     *
+     * Para recuperar o estado após uma queda, chame
+     * RecuperacaoJournal.recuperar antes de criar este objeto.
+     *
+     * @param intervaloRegistros registros no journal entre snapshots
+     * @param janelaCommitMs janela de group commit do journal
+     */
+    public GerenciadorSnapshots(Path diretorio, Jogador jogador, SistemaJogo sistema,
+                                GerenciadorComandos gerenciador, long intervaloRegistros,
+                                long janelaCommitMs) throws IOException {
+        if (intervaloRegistros <= 0) {
+            throw new IllegalArgumentException("Intervalo entre snapshots deve ser positivo: " + intervaloRegistros);
+        }
+        this.diretorio = Files.createDirectories(diretorio);
+        this.jogador = jogador;
+        this.sistema = sistema;
+        this.gerenciador = gerenciador;
+        this.intervaloRegistros = intervaloRegistros;
+        this.janelaCommitMs = janelaCommitMs;
+
+        this.geracao = geracaoAtual(diretorio);
+        Path arquivo = arquivoJournal(diretorio, geracao);
+        for (JournalComandos.Registro registro : JournalComandos.ler(arquivo)) {
+            contarOperacao(registro.getOperacao());
+            registrosRecuperados++;
+        }
+        this.journal = new JournalComandos(arquivo, janelaCommitMs);
+        gerenciador.setJournal(journal);
+        gerenciador.setGerenciadorSnapshots(this);
+    }
+
+    /**
+     * Cria snapshot se o journal atual atingiu o intervalo
+     */
+    public synchronized void verificarSnapshot() {
+        if (registrosRecuperados + journal.getTotalRegistrosAnexados() >= intervaloRegistros) {
+            try {
+                criarSnapshot();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Erro ao criar snapshot", e);
+            }
+        }
+    }
+
+    /**
+     * Contabiliza operação que será gravada no journal (chamado pelo gerenciador, com a trava de registro)
+     *
+     * @return false se a operação atinge um comando anterior ao snapshot e
+     *         não pode ser gravada; o chamador deve criar um novo snapshot
+     */
+    synchronized boolean registrarOperacao(JournalComandos.Operacao operacao) {
+        return contarOperacao(operacao);
+    }
+
+    private boolean contarOperacao(JournalComandos.Operacao operacao) {
+        switch (operacao) {
+            case EXECUTAR:
+                // Nova ação invalida os redos
+                desfaziveisDaGeracao++;
+                refaziveisDaGeracao = 0;
+                return true;
+            case DESFAZER:
+                if (desfaziveisDaGeracao == 0) {
+                    return false;
+                }
+                desfaziveisDaGeracao--;
+                refaziveisDaGeracao++;
+                return true;
+            case REFAZER:
+                if (refaziveisDaGeracao == 0) {
+                    return false;
+                }
+                refaziveisDaGeracao--;
+                desfaziveisDaGeracao++;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Grava snapshot, inicia nova geração e apaga a anterior
+     *
+     * A ordem garante que sempre exista uma geração completa em disco:
+     * o snapshot novo é gravado atomicamente antes de a geração antiga
+     * ser apagada.
+     */
+    public synchronized void criarSnapshot() throws IOException {
+        SnapshotJogo snapshot = SnapshotJogo.capturar(jogador, sistema);
+        int novaGeracao = geracao + 1;
+
+        snapshot.gravar(arquivoSnapshot(diretorio, novaGeracao));
+
+        JournalComandos journalAnterior = journal;
+        journal = new JournalComandos(arquivoJournal(diretorio, novaGeracao), janelaCommitMs);
+        gerenciador.setJournal(journal);
+        journalAnterior.close();
+
+        // Checkpoint: o histórico de undo continua, mas nenhum comando dele está no journal novo
+        registrosRecuperados = 0;
+        desfaziveisDaGeracao = 0;
+        refaziveisDaGeracao = 0;
+
+        Files.deleteIfExists(arquivoJournal(diretorio, geracao));
+        Files.deleteIfExists(arquivoSnapshot(diretorio, geracao));
+        geracao = novaGeracao;
+
+        System.out.println("Snapshot criado (geração " + geracao + ") - Turno: " +
+                snapshot.getTurno() + ", Pontuação: " + snapshot.getPontuacao());
+    }
+
+    public int getGeracao() {
+        return geracao;
+    }
+
+    @Override
+    public void close() throws IOException {
+        gerenciador.setGerenciadorSnapshots(null);
+        gerenciador.setJournal(null);
+        journal.close();
+    }
+
+    // ==================== ARQUIVOS DE GERAÇÃO ====================
+
+    /**
+     * Maior geração presente no diretório (0 se vazio)
+     */
+    public static int geracaoAtual(Path diretorio) throws IOException {
+        int maior = 0;
+        if (!Files.isDirectory(diretorio)) {
+            return maior;
+        }
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(diretorio)) {
+            for (Path arquivo : arquivos) {
+                Matcher matcher = ARQUIVO_GERACAO.matcher(arquivo.getFileName().toString());
+                if (matcher.matches()) {
+                    maior = Math.max(maior, Integer.parseInt(matcher.group(2)));
+                }
+            }
+        }
+        return maior;
+    }
+
+    public static Path arquivoJournal(Path diretorio, int geracao) {
+        return diretorio.resolve("journal-" + geracao + ".bin");
+    }
+
+    public static Path arquivoSnapshot(Path diretorio, int geracao) {
+        return diretorio.resolve("snapshot-" + geracao + ".bin");
+    }
+}
@@ -0,0 +1,109 @@
+package comportamentais.command.compadrao.classes;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latências em nanossegundos, sem locks
+ *
+ * FAIXAS LOGARÍTMICAS:
+ * Valores até 7 ns têm faixa própria; acima disso, cada potência de 2 é
+ * dividida em 4 faixas. O erro relativo de um percentil fica abaixo de
+ * 25%, com tamanho fixo (248 contadores) para qualquer valor de long.
+ *
+ * Registrar é O(1) e pode ser chamado por várias threads ao mesmo tempo.
+ */
+public class HistogramaLatencia {
+
+    private static final int FAIXAS = 8 + 60 * 4;
+
+    private final AtomicLongArray contagens = new AtomicLongArray(FAIXAS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder somaNanos = new LongAdder();
+    private final AtomicLong maximoNanos = new AtomicLong();
+
+    /**
+     * Registra uma amostra (valores negativos contam como zero)
+     */
+    public void registrar(long nanos) {
+        long valor = Math.max(0, nanos);
+        contagens.incrementAndGet(faixa(valor));
+        total.increment();
+        somaNanos.add(valor);
+        if (valor > maximoNanos.get()) {
+            maximoNanos.accumulateAndGet(valor, Math::max);
+        }
+    }
+
+    public long getContagem() {
+        return total.sum();
+    }
+
+    public double getMediaNanos() {
+        long contagem = total.sum();
+        return contagem == 0 ? 0.0 : somaNanos.sum() / (double) contagem;
+    }
+
+    public long getMaximoNanos() {
+        return maximoNanos.get();
+    }
+
+    /**
+     * Limite superior da faixa que contém o percentil
+     *
+     * @param percentil valor entre 0 e 100
+     */
+    public long getPercentilNanos(double percentil) {
+        long contagem = 0;
+        long[] copia = new long[FAIXAS];
+        for (int i = 0; i < FAIXAS; i++) {
+            copia[i] = contagens.get(i);
+            contagem += copia[i];
+        }
+        if (contagem == 0) {
+            return 0;
+        }
+
+        long alvo = Math.max(1, (long) Math.ceil(contagem * percentil / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < FAIXAS; i++) {
+            acumulado += copia[i];
+            if (acumulado >= alvo) {
+                return Math.min(limiteSuperior(i), maximoNanos.get());
+            }
+        }
+        return maximoNanos.get();
+    }
+
+    /**
+     * Zera o histograma (amostras concorrentes podem ser perdidas)
+     */
+    public void zerar() {
+        for (int i = 0; i < FAIXAS; i++) {
+            contagens.set(i, 0);
+        }
+        total.reset();
+        somaNanos.reset();
+        maximoNanos.set(0);
+    }
+
+    private static int faixa(long valor) {
+        if (valor < 8) {
+            return (int) valor;
+        }
+        int expoente = 63 - Long.numberOfLeadingZeros(valor);
+        int subfaixa = (int) (valor >>> (expoente - 2)) & 3;
+        return 8 + (expoente - 3) * 4 + subfaixa;
+    }
+
+    private static long limiteSuperior(int faixa) {
+        if (faixa < 8) {
+            return faixa;
+        }
+        int expoente = (faixa - 8) / 4 + 3;
+        int subfaixa = (faixa - 8) % 4;
+        long inferior = (4L + subfaixa) << (expoente - 2);
+        return inferior + (1L << (expoente - 2)) - 1;
+    }
+}
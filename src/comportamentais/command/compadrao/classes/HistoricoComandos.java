@@ -0,0 +1,313 @@
+package comportamentais.command.compadrao.classes;
+
+import comportamentais.command.compadrao.interfaces.Command;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Histórico circular de comandos - estrutura de apoio do INVOKER
+ *
+ * PADRÃO COMMAND - HISTÓRICO UNDO/REDO:
+ * Histórico e pilha de redo compartilham um único buffer circular. Três
+ * sequências monotônicas delimitam as regiões do buffer:
+ *
+ *   base ........ cursor ........ topo
+ *   [ histórico  ][   redo         ]
+ *
+ * - registrar: grava em "cursor", avança cursor e descarta o redo (topo = cursor)
+ * - desfazer:  recua cursor (o comando passa a ser o topo do redo)
+ * - refazer:   avança cursor (o comando volta ao histórico)
+ * - quando o histórico excede a capacidade, a base avança e o mais antigo é sobrescrito
+ *
+ * Todas as operações são O(1), independentemente da capacidade.
+ *
+ * CONCORRÊNCIA:
+ * Buffer, sequências e capacidade são protegidos por um único
+ * ReentrantLock: a gravação de uma posição e o avanço do cursor são
+ * vistos juntos, e redimensionar troca o buffer sem perder registros
+ * concorrentes. O trecho sob o lock só copia referências.
+ */
+public class HistoricoComandos {
+
+    private final ReentrantLock trava;
+    private Command[] posicoes;
+    private long base;
+    private long cursor;
+    private long topo;
+
+    /**
+     * Cria histórico com a capacidade informada
+     *
+     * @param capacidade número máximo de comandos mantidos no histórico
+     */
+    public HistoricoComandos(int capacidade) {
+        validarCapacidade(capacidade);
+        this.trava = new ReentrantLock();
+        this.posicoes = new Command[capacidade];
+    }
+
+    private static void validarCapacidade(int capacidade) {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("Capacidade do histórico deve ser positiva: " + capacidade);
+        }
+    }
+
+    /**
+     * Registra comando executado: entra no topo do histórico e invalida o redo
+     */
+    public void registrar(Command comando) {
+        trava.lock();
+        try {
+            gravar(comando);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Registra um lote de comandos executados em um único passo
+     *
+     * O lote entra inteiro sob uma única aquisição do lock. Se for maior
+     * que a capacidade, apenas os comandos mais recentes permanecem.
+     *
+     * @param comandos comandos na ordem em que foram executados
+     */
+    public void registrarLote(List<Command> comandos) {
+        if (comandos.isEmpty()) {
+            return;
+        }
+        trava.lock();
+        try {
+            int inicio = Math.max(0, comandos.size() - posicoes.length);
+            for (int i = inicio; i < comandos.size(); i++) {
+                gravar(comandos.get(i));
+            }
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Grava no cursor e descarta o redo (com o lock)
+     */
+    private void gravar(Command comando) {
+        // Posições do redo descartado são sobrescritas à medida que o cursor avança
+        posicoes[indice(cursor)] = comando;
+        cursor++;
+        topo = cursor;
+        base = Math.max(base, cursor - posicoes.length);
+    }
+
+    /**
+     * Retorna o comando no topo do histórico sem removê-lo
+     *
+     * @return último comando executado ou null se histórico vazio
+     */
+    public Command ultimoExecutado() {
+        trava.lock();
+        try {
+            return cursor > base ? posicoes[indice(cursor - 1)] : null;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Retorna o comando no topo do redo sem removê-lo
+     *
+     * @return último comando desfeito ou null se não houver redo
+     */
+    public Command ultimoDesfeito() {
+        trava.lock();
+        try {
+            return topo > cursor ? posicoes[indice(cursor)] : null;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Move o topo do histórico para o redo, se atender à condição
+     *
+     * @param condicao condição que o comando precisa atender
+     * @return comando movido ou null se histórico vazio/condição não atendida
+     */
+    public Command moverParaRedo(Predicate<Command> condicao) {
+        trava.lock();
+        try {
+            if (cursor <= base) {
+                return null;
+            }
+            Command comando = posicoes[indice(cursor - 1)];
+            if (!condicao.test(comando)) {
+                return null;
+            }
+            cursor--;
+            return comando;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Move o topo do redo de volta para o histórico
+     *
+     * @return comando movido ou null se não houver redo
+     */
+    public Command moverParaHistorico() {
+        trava.lock();
+        try {
+            if (topo <= cursor) {
+                return null;
+            }
+            return posicoes[indice(cursor++)];
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Reverte moverParaRedo quando o desfazer falha
+     *
+     * @param comando comando que deve estar no topo do redo
+     * @return true se o comando voltou ao histórico
+     */
+    public boolean devolverAoHistorico(Command comando) {
+        trava.lock();
+        try {
+            if (topo <= cursor || posicoes[indice(cursor)] != comando) {
+                return false;
+            }
+            cursor++;
+            return true;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Reverte moverParaHistorico quando o refazer falha
+     *
+     * @param comando comando que deve estar no topo do histórico
+     * @return true se o comando voltou ao redo
+     */
+    public boolean devolverAoRedo(Command comando) {
+        trava.lock();
+        try {
+            if (cursor <= base || posicoes[indice(cursor - 1)] != comando) {
+                return false;
+            }
+            cursor--;
+            return true;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Remove todos os comandos do histórico e do redo
+     */
+    public void limpar() {
+        trava.lock();
+        try {
+            Arrays.fill(posicoes, null);
+            base = topo;
+            cursor = topo;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Altera a capacidade, preservando os comandos mais recentes do histórico e o redo
+     *
+     * Feito sob o mesmo lock dos registros: nenhum registro concorrente se perde.
+     * Se a nova capacidade for menor, os comandos mais antigos do histórico
+     * saem primeiro e depois os mais distantes do redo.
+     *
+     * @param novaCapacidade capacidade do histórico
+     */
+    public void redimensionar(int novaCapacidade) {
+        validarCapacidade(novaCapacidade);
+        trava.lock();
+        try {
+            long novaBase = Math.max(base, cursor - novaCapacidade);
+            long novoTopo = Math.min(topo, novaBase + novaCapacidade);
+            Command[] novas = new Command[novaCapacidade];
+            for (long seq = novaBase; seq < novoTopo; seq++) {
+                novas[(int) (seq % novaCapacidade)] = posicoes[indice(seq)];
+            }
+            posicoes = novas;
+            base = novaBase;
+            topo = novoTopo;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Snapshot do histórico, do mais antigo para o mais recente
+     */
+    public List<Command> getComandosHistorico() {
+        trava.lock();
+        try {
+            return copiar(base, cursor);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Snapshot do redo, do próximo a ser refeito para o mais distante
+     */
+    public List<Command> getComandosRedo() {
+        trava.lock();
+        try {
+            return copiar(cursor, topo);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    private List<Command> copiar(long inicio, long fim) {
+        List<Command> comandos = new ArrayList<>((int) (fim - inicio));
+        for (long seq = inicio; seq < fim; seq++) {
+            comandos.add(posicoes[indice(seq)]);
+        }
+        return comandos;
+    }
+
+    public int getTamanhoHistorico() {
+        trava.lock();
+        try {
+            return (int) (cursor - base);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    public int getTamanhoRedo() {
+        trava.lock();
+        try {
+            return (int) (topo - cursor);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    public int getCapacidade() {
+        trava.lock();
+        try {
+            return posicoes.length;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    private int indice(long sequencia) {
+        return (int) (sequencia % posicoes.length);
+    }
+}
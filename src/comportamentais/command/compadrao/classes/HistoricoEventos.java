@@ -0,0 +1,211 @@
+package comportamentais.command.compadrao.classes;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Histórico de eventos do SistemaJogo em buffer circular de capacidade fixa
+ *
+ * ARMAZENAMENTO ESTRUTURADO:
+ * Cada posição guarda timestamp, tipo, texto opcional (referência já
+ * existente, ex.: chave de estatística) e até quatro argumentos long em
+ * arrays paralelos alocados na construção. Registrar um evento não aloca
+ * e a memória ocupada não cresce com a duração da sessão: ao atingir a
+ * capacidade, o evento mais antigo é sobrescrito.
+ *
+ * FORMATAÇÃO TARDIA:
+ * O texto só é montado em Evento.formatar, chamado ao exibir o histórico.
+ */
+public class HistoricoEventos implements Iterable<HistoricoEventos.Evento> {
+
+    public static final int CAPACIDADE_PADRAO = 1024;
+
+    private static final int ARGUMENTOS = 4;
+
+    private final int capacidade;
+    private final long[] timestamps;
+    private final TipoEvento[] tipos;
+    private final String[] textos;
+    private final long[] argumentos;
+
+    // Sequência do próximo evento e do primeiro evento após a última limpeza
+    private long total;
+    private long inicio;
+
+    public HistoricoEventos() {
+        this(CAPACIDADE_PADRAO);
+    }
+
+    public HistoricoEventos(int capacidade) {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("Capacidade deve ser positiva: " + capacidade);
+        }
+        this.capacidade = capacidade;
+        this.timestamps = new long[capacidade];
+        this.tipos = new TipoEvento[capacidade];
+        this.textos = new String[capacidade];
+        this.argumentos = new long[capacidade * ARGUMENTOS];
+    }
+
+    /**
+     * Registra evento, sobrescrevendo o mais antigo se o buffer estiver cheio
+     */
+    public synchronized void registrar(TipoEvento tipo, String texto, long a0, long a1, long a2, long a3) {
+        int posicao = (int) (total % capacidade);
+        timestamps[posicao] = System.currentTimeMillis();
+        tipos[posicao] = tipo;
+        textos[posicao] = texto;
+        int base = posicao * ARGUMENTOS;
+        argumentos[base] = a0;
+        argumentos[base + 1] = a1;
+        argumentos[base + 2] = a2;
+        argumentos[base + 3] = a3;
+        total++;
+    }
+
+    /**
+     * Descarta todos os eventos; a numeração recomeça em 1
+     */
+    public synchronized void limpar() {
+        inicio = total;
+        Arrays.fill(tipos, null);
+        Arrays.fill(textos, null);
+    }
+
+    /**
+     * Eventos registrados desde a última limpeza, incluindo os sobrescritos
+     */
+    public synchronized long getTotalRegistrados() {
+        return total - inicio;
+    }
+
+    /**
+     * Eventos ainda retidos no buffer
+     */
+    public synchronized int getTamanho() {
+        return (int) Math.min(total - inicio, capacidade);
+    }
+
+    public int getCapacidade() {
+        return capacidade;
+    }
+
+    /**
+     * Percorre os eventos retidos, do mais antigo ao mais recente
+     */
+    @Override
+    public Iterator<Evento> iterator() {
+        return new Iterador(-1);
+    }
+
+    /**
+     * Percorre apenas os últimos "quantidade" eventos retidos
+     */
+    public Iterable<Evento> ultimos(int quantidade) {
+        return () -> new Iterador(Math.max(0, quantidade));
+    }
+
+    private synchronized long primeiraSequencia() {
+        return total - getTamanho();
+    }
+
+    /**
+     * Iterador sem cópia do buffer
+     *
+     * Lê uma posição por vez sob o lock do histórico e devolve sempre o
+     * mesmo objeto Evento, atualizado a cada next(): copie os campos se
+     * precisar guardá-los. Eventos registrados após a criação do iterador
+     * não são visitados; eventos sobrescritos durante a iteração são pulados.
+     */
+    private final class Iterador implements Iterator<Evento> {
+
+        private final Evento atual = new Evento();
+        private final long fim;
+        private long sequencia;
+
+        /**
+         * @param ultimos quantidade de eventos mais recentes, ou negativo para todos
+         */
+        Iterador(int ultimos) {
+            synchronized (HistoricoEventos.this) {
+                this.fim = total;
+                long primeira = primeiraSequencia();
+                this.sequencia = ultimos >= 0 ? Math.max(primeira, total - ultimos) : primeira;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            synchronized (HistoricoEventos.this) {
+                sequencia = Math.max(sequencia, primeiraSequencia());
+                return sequencia < fim;
+            }
+        }
+
+        @Override
+        public Evento next() {
+            synchronized (HistoricoEventos.this) {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int posicao = (int) (sequencia % capacidade);
+                int base = posicao * ARGUMENTOS;
+                atual.numero = sequencia - inicio + 1;
+                atual.timestamp = timestamps[posicao];
+                atual.tipo = tipos[posicao];
+                atual.texto = textos[posicao];
+                atual.a0 = argumentos[base];
+                atual.a1 = argumentos[base + 1];
+                atual.a2 = argumentos[base + 2];
+                atual.a3 = argumentos[base + 3];
+                sequencia++;
+                return atual;
+            }
+        }
+    }
+
+    /**
+     * Visão de um evento do histórico (reutilizada pelo iterador)
+     */
+    public static final class Evento {
+
+        private long numero;
+        private long timestamp;
+        private TipoEvento tipo;
+        private String texto;
+        private long a0;
+        private long a1;
+        private long a2;
+        private long a3;
+
+        /**
+         * Texto completo do evento, montado neste momento
+         */
+        public String formatar() {
+            return "[" + new Date(timestamp) + "] " + tipo.formatar(texto, a0, a1, a2, a3);
+        }
+
+        /** Posição do evento desde a última limpeza (começa em 1) */
+        public long getNumero() { return numero; }
+        public long getTimestamp() { return timestamp; }
+        public TipoEvento getTipo() { return tipo; }
+        public String getTexto() { return texto; }
+
+        public long getArgumento(int indice) {
+            switch (indice) {
+                case 0: return a0;
+                case 1: return a1;
+                case 2: return a2;
+                case 3: return a3;
+                default: throw new IndexOutOfBoundsException("Argumento inválido: " + indice);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return formatar();
+        }
+    }
+}
@@ -25,6 +25,12 @@ public class Jogador {
     private int experiencia;
     private int nivel;
     
+    // Carimbo de versão: muda a cada alteração de estado (ver CacheRefazer)
+    private long versao;
+    
+    // Exibe cada movimento no console (desligar em sessões automatizadas)
+    private volatile boolean ecoMovimentos = true;
+    
     /**
      * Construtor do jogador
      */
@@ -51,7 +57,10 @@ public class Jogador {
      */
     public void moverNorte() {
         y++;
-        System.out.println(nome + " moveu para o norte. Nova posição: (" + x + ", " + y + ")");
+        versao++;
+        if (ecoMovimentos) {
+            System.out.println(nome + " moveu para o norte. Nova posição: (" + x + ", " + y + ")");
+        }
     }
     
     /**
@@ -59,7 +68,10 @@ public class Jogador {
      */
     public void moverSul() {
         y--;
-        System.out.println(nome + " moveu para o sul. Nova posição: (" + x + ", " + y + ")");
+        versao++;
+        if (ecoMovimentos) {
+            System.out.println(nome + " moveu para o sul. Nova posição: (" + x + ", " + y + ")");
+        }
     }
     
     /**
@@ -67,7 +79,10 @@ public class Jogador {
      */
     public void moverLeste() {
         x++;
-        System.out.println(nome + " moveu para o leste. Nova posição: (" + x + ", " + y + ")");
+        versao++;
+        if (ecoMovimentos) {
+            System.out.println(nome + " moveu para o leste. Nova posição: (" + x + ", " + y + ")");
+        }
     }
     
     /**
@@ -75,7 +90,10 @@ public class Jogador {
      */
     public void moverOeste() {
         x--;
-        System.out.println(nome + " moveu para o oeste. Nova posição: (" + x + ", " + y + ")");
+        versao++;
+        if (ecoMovimentos) {
+            System.out.println(nome + " moveu para o oeste. Nova posição: (" + x + ", " + y + ")");
+        }
     }
     
     /**
@@ -87,7 +105,10 @@ public class Jogador {
         int antigoY = this.y;
         this.x = novoX;
         this.y = novoY;
-        System.out.println(nome + " moveu de (" + antigoX + ", " + antigoY + ") para (" + x + ", " + y + ")");
+        versao++;
+        if (ecoMovimentos) {
+            System.out.println(nome + " moveu de (" + antigoX + ", " + antigoY + ") para (" + x + ", " + y + ")");
+        }
     }
     
     // ==================== OPERAÇÕES DE COMBATE ====================
@@ -107,6 +128,7 @@ public class Jogador {
     public int atacarMagico() {
         if (mana >= 15) {
             mana -= 15;
+            versao++;
             int dano = 25 + (nivel * 3);
             System.out.println(nome + " lança magia causando " + dano + " de dano! Mana: " + mana + "/" + manaMaxima);
             return dano;
@@ -122,6 +144,7 @@ public class Jogador {
     public void receberDano(int dano) {
         int vidaAnterior = vida;
         vida = Math.max(0, vida - dano);
+        versao++;
         System.out.println(nome + " recebeu " + dano + " de dano. Vida: " + vida + "/" + vidaMaxima + 
                           " (era " + vidaAnterior + ")");
         
@@ -144,6 +167,7 @@ public class Jogador {
         int vidaAnterior = vida;
         int cura = 30;
         vida = Math.min(vidaMaxima, vida + cura);
+        versao++;
         int curaReal = vida - vidaAnterior;
         
         System.out.println(nome + " usa poção de cura. Vida restaurada: +" + curaReal + 
@@ -163,6 +187,7 @@ public class Jogador {
         int manaAnterior = mana;
         int restauracao = 25;
         mana = Math.min(manaMaxima, mana + restauracao);
+        versao++;
         int restauracaoReal = mana - manaAnterior;
         
         System.out.println(nome + " usa poção de mana. Mana restaurada: +" + restauracaoReal + 
@@ -178,6 +203,7 @@ public class Jogador {
     public boolean ganharExperiencia(int exp) {
         int expAnterior = experiencia;
         experiencia += exp;
+        versao++;
         System.out.println(nome + " ganhou " + exp + " de experiência! Total: " + experiencia);
         
         // Verifica se subiu de nível
@@ -202,6 +228,7 @@ public class Jogador {
         vida = vidaMaxima; // Cura completa ao subir de nível
         manaMaxima += bonusMana;
         mana = manaMaxima; // Restaura mana completa
+        versao++;
         
         System.out.println(nome + " subiu para o nível " + nivel + "!");
         System.out.println("   Vida máxima: +" + bonusVida + " (" + vidaMaxima + ")");
@@ -228,6 +255,7 @@ public class Jogador {
         this.mana = mana;
         this.experiencia = experiencia;
         this.nivel = nivel;
+        versao++;
         
         System.out.println("Estado de " + nome + " restaurado:");
         System.out.println("   Posição: (" + x + ", " + y + ")");
@@ -236,6 +264,65 @@ public class Jogador {
         System.out.println("   Experiência: " + experiencia + " (Nível " + nivel + ")");
     }
     
+    /**
+     * Restaura estado completo, incluindo atributos máximos
+     * (usado na recuperação a partir de snapshot)
+     */
+    public void restaurarEstado(int x, int y, int vida, int vidaMaxima, int mana, int manaMaxima,
+                                int experiencia, int nivel) {
+        this.vidaMaxima = vidaMaxima;
+        this.manaMaxima = manaMaxima;
+        restaurarEstado(x, y, vida, mana, experiencia, nivel);
+    }
+    
+    // ==================== VERSÃO E REDO POR ESTADO ====================
+    
+    /**
+     * Campos copiados por capturarEstado
+     */
+    static final int CAMPOS_ESTADO = 8;
+    
+    /**
+     * Carimbo de versão do estado
+     * 
+     * Muda a cada alteração; duas leituras iguais garantem que o estado
+     * não mudou entre elas. Comparar versões custa O(1), ao contrário de
+     * comparar o estado inteiro.
+     */
+    public long getVersao() { return versao; }
+    
+    /**
+     * Copia o estado para "destino" a partir de "inicio" (sem alocar)
+     */
+    void capturarEstado(int[] destino, int inicio) {
+        destino[inicio] = x;
+        destino[inicio + 1] = y;
+        destino[inicio + 2] = vida;
+        destino[inicio + 3] = vidaMaxima;
+        destino[inicio + 4] = mana;
+        destino[inicio + 5] = manaMaxima;
+        destino[inicio + 6] = experiencia;
+        destino[inicio + 7] = nivel;
+    }
+    
+    /**
+     * Reaplica estado capturado e volta à versão em que foi capturado
+     * 
+     * Usado pelo CacheRefazer: como o estado volta a ser exatamente o da
+     * captura, a versão correspondente também volta a valer.
+     */
+    void reaplicarEstado(int[] origem, int inicio, long versao) {
+        x = origem[inicio];
+        y = origem[inicio + 1];
+        vida = origem[inicio + 2];
+        vidaMaxima = origem[inicio + 3];
+        mana = origem[inicio + 4];
+        manaMaxima = origem[inicio + 5];
+        experiencia = origem[inicio + 6];
+        nivel = origem[inicio + 7];
+        this.versao = versao;
+    }
+    
     /**
      * Exibe status completo do jogador
      */
@@ -289,6 +376,8 @@ public class Jogador {
     // ==================== GETTERS E SETTERS ====================
     
     public String getNome() { return nome; }
+    public boolean isEcoMovimentos() { return ecoMovimentos; }
+    public void setEcoMovimentos(boolean ecoMovimentos) { this.ecoMovimentos = ecoMovimentos; }
     public int getX() { return x; }
     public int getY() { return y; }
     public int getVida() { return vida; }
@@ -299,10 +388,10 @@ public class Jogador {
     public int getNivel() { return nivel; }
     
     // Setters para operações de undo (usados pelos comandos)
-    public void setX(int x) { this.x = x; }
-    public void setY(int y) { this.y = y; }
-    public void setVida(int vida) { this.vida = vida; }
-    public void setMana(int mana) { this.mana = mana; }
-    public void setExperiencia(int experiencia) { this.experiencia = experiencia; }
-    public void setNivel(int nivel) { this.nivel = nivel; }
+    public void setX(int x) { this.x = x; versao++; }
+    public void setY(int y) { this.y = y; versao++; }
+    public void setVida(int vida) { this.vida = vida; versao++; }
+    public void setMana(int mana) { this.mana = mana; versao++; }
+    public void setExperiencia(int experiencia) { this.experiencia = experiencia; versao++; }
+    public void setNivel(int nivel) { this.nivel = nivel; versao++; }
 }
\ No newline at end of file
@@ -0,0 +1,368 @@
+package comportamentais.command.compadrao.classes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Journal de comandos (write-ahead log) - persistência do INVOKER
+ *
+ * PADRÃO COMMAND - LOG DE OPERAÇÕES:
+ * Como comandos são objetos, cada execução, undo e redo pode ser gravada
+ * e, após uma queda, reproduzida para reconstruir Jogador e SistemaJogo.
+ *
+ * FORMATO (binário, somente anexação):
+ *   [int tamanhoCodigo][byte operacao][long timestamp][codigo UTF-8][int crc32]
+ * O arquivo é mapeado em memória em segmentos alinhados de TAMANHO_SEGMENTO.
+ * Um registro nunca cruza segmentos: o espaço que sobra no fim de um
+ * segmento é marcado com tamanhoCodigo = -1. Tamanho 0 (área não escrita)
+ * ou CRC inválido (escrita interrompida) marcam o fim do journal.
+ *
+ * GROUP COMMIT:
+ * Anexar apenas copia o registro para a memória mapeada. Uma thread de
+ * commit força (fsync) os registros pendentes a cada janela de commit,
+ * pagando uma sincronização por lote em vez de uma por comando.
+ * Com janela 0, cada registro é sincronizado ao ser anexado.
+ * Quem precisa de durabilidade imediata usa aguardarPersistencia.
+ */
+public class JournalComandos implements AutoCloseable {
+
+    /**
+     * Operação registrada no journal
+     */
+    public enum Operacao {
+        EXECUTAR, DESFAZER, REFAZER
+    }
+
+    /**
+     * Registro lido do journal
+     */
+    public static final class Registro {
+        private final Operacao operacao;
+        private final long timestamp;
+        private final String codigo;
+
+        Registro(Operacao operacao, long timestamp, String codigo) {
+            this.operacao = operacao;
+            this.timestamp = timestamp;
+            this.codigo = codigo;
+        }
+
+        public Operacao getOperacao() { return operacao; }
+        public long getTimestamp() { return timestamp; }
+        public String getCodigo() { return codigo; }
+    }
+
+    /**
+     * Trecho de um segmento anterior ainda não sincronizado
+     */
+    private static final class TrechoPendente {
+        final MappedByteBuffer segmento;
+        final int de;
+        final int ate;
+
+        TrechoPendente(MappedByteBuffer segmento, int de, int ate) {
+            this.segmento = segmento;
+            this.de = de;
+            this.ate = ate;
+        }
+    }
+
+    static final int TAMANHO_SEGMENTO = 4 * 1024 * 1024;
+    private static final int TAMANHO_CABECALHO = 4 + 1 + 8;
+    private static final int TAMANHO_CRC = 4;
+    private static final int TAMANHO_MAXIMO_CODIGO = 1024;
+    private static final int MARCA_FIM_SEGMENTO = -1;
+
+    private final FileChannel canal;
+    private final long janelaCommitMs;
+    private final ScheduledExecutorService threadCommit;
+
+    // Protegidos por "this"
+    private MappedByteBuffer segmento;
+    private long inicioSegmento;
+    private int inicioPendente;
+    private long sequenciaAnexada;
+    private final List<TrechoPendente> trechosAnteriores = new ArrayList<>();
+
+    // Serializa os fsyncs: a persistência só é publicada em ordem
+    private final Object lockSincronizacao = new Object();
+
+    // Protegido por "lockPersistencia"
+    private final Object lockPersistencia = new Object();
+    private long sequenciaPersistida;
+
+    private volatile boolean aberto = true;
+
+    /**
+     * Abre (ou cria) o journal, posicionando a escrita após o último registro válido
+     *
+     * @param arquivo caminho do journal
+     * @param janelaCommitMs janela de group commit (0 = sincroniza cada registro)
+     */
+    public JournalComandos(Path arquivo, long janelaCommitMs) throws IOException {
+        if (janelaCommitMs < 0) {
+            throw new IllegalArgumentException("Janela de commit não pode ser negativa: " + janelaCommitMs);
+        }
+        this.canal = FileChannel.open(arquivo, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.janelaCommitMs = janelaCommitMs;
+
+        long fim = localizarFim(canal);
+        mapearSegmento(fim - fim % TAMANHO_SEGMENTO);
+        segmento.position((int) (fim - inicioSegmento));
+        inicioPendente = segmento.position();
+
+        if (janelaCommitMs > 0) {
+            threadCommit = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+                Thread thread = new Thread(tarefa, "journal-commit");
+                thread.setDaemon(true);
+                return thread;
+            });
+            threadCommit.scheduleWithFixedDelay(this::sincronizar, janelaCommitMs, janelaCommitMs, TimeUnit.MILLISECONDS);
+        } else {
+            threadCommit = null;
+        }
+    }
+
+    /**
+     * Anexa registro ao journal
+     *
+     * @return sequência do registro, para uso em aguardarPersistencia
+     */
+    public long anexar(Operacao operacao, String codigo) {
+        byte[] bytes = codigo.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length == 0 || bytes.length > TAMANHO_MAXIMO_CODIGO) {
+            throw new IllegalArgumentException("Código de comando inválido para o journal: " + codigo);
+        }
+        long timestamp = System.currentTimeMillis();
+        int tamanhoRegistro = TAMANHO_CABECALHO + bytes.length + TAMANHO_CRC;
+
+        long sequencia;
+        synchronized (this) {
+            if (!aberto) {
+                throw new IllegalStateException("Journal fechado");
+            }
+            if (segmento.remaining() < tamanhoRegistro) {
+                avancarSegmento();
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(operacao.ordinal());
+            crc.update(ByteBuffer.allocate(8).putLong(0, timestamp));
+            crc.update(bytes);
+
+            segmento.putInt(bytes.length);
+            segmento.put((byte) operacao.ordinal());
+            segmento.putLong(timestamp);
+            segmento.put(bytes);
+            segmento.putInt((int) crc.getValue());
+
+            sequencia = ++sequenciaAnexada;
+        }
+
+        if (janelaCommitMs == 0) {
+            sincronizar();
+        }
+        return sequencia;
+    }
+
+    /**
+     * Bloqueia até que o registro esteja persistido em disco
+     */
+    public void aguardarPersistencia(long sequencia) throws InterruptedException {
+        synchronized (lockPersistencia) {
+            while (sequenciaPersistida < sequencia) {
+                if (!aberto) {
+                    throw new IllegalStateException("Journal fechado antes de persistir o registro " + sequencia);
+                }
+                lockPersistencia.wait();
+            }
+        }
+    }
+
+    /**
+     * Força em disco todos os registros anexados até agora (um fsync por lote)
+     */
+    public void sincronizar() {
+        synchronized (lockSincronizacao) {
+            List<TrechoPendente> trechos;
+            long sequencia;
+
+            synchronized (this) {
+                if (inicioPendente == segmento.position() && trechosAnteriores.isEmpty()) {
+                    return;
+                }
+                trechos = new ArrayList<>(trechosAnteriores);
+                trechos.add(new TrechoPendente(segmento, inicioPendente, segmento.position()));
+                trechosAnteriores.clear();
+                inicioPendente = segmento.position();
+                sequencia = sequenciaAnexada;
+            }
+
+            // fsync fora do lock de escrita: escritores continuam anexando
+            for (TrechoPendente trecho : trechos) {
+                if (trecho.ate > trecho.de) {
+                    trecho.segmento.force(trecho.de, trecho.ate - trecho.de);
+                }
+            }
+            publicarPersistencia(sequencia);
+        }
+    }
+
+    private void publicarPersistencia(long sequencia) {
+        synchronized (lockPersistencia) {
+            if (sequencia > sequenciaPersistida) {
+                sequenciaPersistida = sequencia;
+                lockPersistencia.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Marca o fim do segmento atual e mapeia o próximo; o trecho ainda não
+     * sincronizado do segmento atual fica para a próxima sincronização
+     * (chamado com o lock de "this")
+     */
+    private void avancarSegmento() {
+        if (segmento.remaining() >= 4) {
+            segmento.putInt(MARCA_FIM_SEGMENTO);
+        }
+        trechosAnteriores.add(new TrechoPendente(segmento, inicioPendente, segmento.position()));
+
+        mapearSegmento(inicioSegmento + TAMANHO_SEGMENTO);
+        inicioPendente = 0;
+    }
+
+    private void mapearSegmento(long inicio) {
+        try {
+            segmento = canal.map(FileChannel.MapMode.READ_WRITE, inicio, TAMANHO_SEGMENTO);
+            inicioSegmento = inicio;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao mapear segmento do journal", e);
+        }
+    }
+
+    public long getJanelaCommitMs() {
+        return janelaCommitMs;
+    }
+
+    public long getTotalRegistrosAnexados() {
+        synchronized (this) {
+            return sequenciaAnexada;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (threadCommit != null) {
+            threadCommit.shutdown();
+            try {
+                threadCommit.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        sincronizar();
+        synchronized (this) {
+            aberto = false;
+        }
+        synchronized (lockPersistencia) {
+            lockPersistencia.notifyAll();
+        }
+        canal.close();
+    }
+
+    // ==================== LEITURA / RECUPERAÇÃO ====================
+
+    /**
+     * Lê todos os registros válidos do journal
+     *
+     * A leitura para no primeiro registro vazio ou corrompido (escrita
+     * interrompida por queda), descartando apenas o final incompleto.
+     */
+    public static List<Registro> ler(Path arquivo) throws IOException {
+        List<Registro> registros = new ArrayList<>();
+        if (!Files.exists(arquivo)) {
+            return registros;
+        }
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            percorrer(canal, registros);
+        }
+        return registros;
+    }
+
+    /**
+     * Posição logo após o último registro válido
+     */
+    private static long localizarFim(FileChannel canal) throws IOException {
+        return percorrer(canal, null);
+    }
+
+    /**
+     * Percorre os registros válidos, opcionalmente coletando-os
+     *
+     * @return posição logo após o último registro válido
+     */
+    private static long percorrer(FileChannel canal, List<Registro> destino) throws IOException {
+        long tamanhoArquivo = canal.size();
+        long posicao = 0;
+
+        while (posicao < tamanhoArquivo) {
+            long inicioSegmento = posicao - posicao % TAMANHO_SEGMENTO;
+            long tamanhoMapa = Math.min(TAMANHO_SEGMENTO, tamanhoArquivo - inicioSegmento);
+            MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, inicioSegmento, tamanhoMapa);
+            mapa.position((int) (posicao - inicioSegmento));
+
+            while (true) {
+                if (mapa.remaining() < 4) {
+                    posicao = inicioSegmento + TAMANHO_SEGMENTO;
+                    break;
+                }
+                int inicioRegistro = mapa.position();
+                int tamanhoCodigo = mapa.getInt();
+
+                if (tamanhoCodigo == MARCA_FIM_SEGMENTO) {
+                    posicao = inicioSegmento + TAMANHO_SEGMENTO;
+                    break;
+                }
+                if (tamanhoCodigo <= 0 || tamanhoCodigo > TAMANHO_MAXIMO_CODIGO
+                        || mapa.remaining() < TAMANHO_CABECALHO - 4 + tamanhoCodigo + TAMANHO_CRC) {
+                    return inicioSegmento + inicioRegistro;
+                }
+
+                int ordinal = mapa.get();
+                long timestamp = mapa.getLong();
+                byte[] bytes = new byte[tamanhoCodigo];
+                mapa.get(bytes);
+                int crcGravado = mapa.getInt();
+
+                CRC32 crc = new CRC32();
+                crc.update(ordinal);
+                crc.update(ByteBuffer.allocate(8).putLong(0, timestamp));
+                crc.update(bytes);
+
+                if ((int) crc.getValue() != crcGravado || ordinal < 0 || ordinal >= Operacao.values().length) {
+                    return inicioSegmento + inicioRegistro;
+                }
+                if (destino != null) {
+                    destino.add(new Registro(Operacao.values()[ordinal], timestamp,
+                            new String(bytes, StandardCharsets.UTF_8)));
+                }
+            }
+        }
+        return Math.min(posicao, tamanhoArquivo);
+    }
+}
@@ -0,0 +1,351 @@
+package comportamentais.command.compadrao.classes;
+
+import comportamentais.command.compadrao.commands.ComandoAssincrono;
+import comportamentais.command.compadrao.interfaces.Command;
+import comportamentais.command.compadrao.interfaces.MetricasComandosMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Métricas do GerenciadorComandos
+ *
+ * - latência e falhas por tipo de comando em executar, desfazer, refazer
+ *   e execução assíncrona (do envio até a conclusão)
+ * - espera na fila do agendador de prioridade e do executor assíncrono
+ * - ocupação do executor assíncrono
+ *
+ * CUSTO QUANDO DESLIGADO:
+ * Desligadas por padrão. Cada ponto de medição do gerenciador faz apenas
+ * a leitura de um campo volatile (iniciar devolve DESLIGADO) e nenhuma
+ * chamada a System.nanoTime nem atualização de contador.
+ *
+ * ACESSO:
+ * Diretamente (getResumoPorTipo, exibir) ou via JMX, depois de registrarJmx.
+ */
+public class MetricasComandos implements MetricasComandosMXBean {
+
+    /**
+     * Marca devolvida por iniciar quando as métricas estão desligadas
+     */
+    public static final long DESLIGADO = Long.MIN_VALUE;
+
+    public enum Operacao { EXECUTAR, DESFAZER, REFAZER, ASSINCRONO }
+
+    /**
+     * Histograma e falhas de um tipo de comando em uma operação
+     */
+    private static final class MetricasOperacao {
+        final HistogramaLatencia latencia = new HistogramaLatencia();
+        final LongAdder falhas = new LongAdder();
+    }
+
+    private volatile boolean habilitado;
+
+    private final ConcurrentHashMap<Class<?>, MetricasOperacao[]> porTipo;
+    private final HistogramaLatencia esperaAgendador;
+    private final HistogramaLatencia esperaPool;
+
+    // Ocupação do executor assíncrono
+    private final IntSupplier tamanhoPool;
+    private final AtomicInteger tarefasAtivas;
+    private final LongAdder tempoOcupadoNanos;
+    private volatile long inicioJanelaNanos;
+
+    private volatile ObjectName nomeJmx;
+
+    /**
+     * @param tamanhoPool threads do executor assíncrono (0 se não houver tamanho fixo)
+     */
+    public MetricasComandos(IntSupplier tamanhoPool) {
+        this.porTipo = new ConcurrentHashMap<>();
+        this.esperaAgendador = new HistogramaLatencia();
+        this.esperaPool = new HistogramaLatencia();
+        this.tamanhoPool = tamanhoPool;
+        this.tarefasAtivas = new AtomicInteger();
+        this.tempoOcupadoNanos = new LongAdder();
+        this.inicioJanelaNanos = System.nanoTime();
+    }
+
+    // ==================== MEDIÇÃO ====================
+
+    /**
+     * Início de uma medição
+     *
+     * @return instante atual, ou DESLIGADO se as métricas estão desligadas
+     */
+    public long iniciar() {
+        return habilitado ? System.nanoTime() : DESLIGADO;
+    }
+
+    /**
+     * Conclui a medição iniciada em "inicio"
+     *
+     * @param sucesso false para falha (retorno false ou exceção)
+     */
+    public void registrar(Operacao operacao, Command comando, long inicio, boolean sucesso) {
+        if (inicio == DESLIGADO) {
+            return;
+        }
+        MetricasOperacao metricas = metricasDe(comando)[operacao.ordinal()];
+        metricas.latencia.registrar(System.nanoTime() - inicio);
+        if (!sucesso) {
+            metricas.falhas.increment();
+        }
+    }
+
+    /**
+     * Espera de um comando na fila do agendador de prioridade
+     */
+    public void registrarEsperaAgendador(long esperaNanos) {
+        if (habilitado) {
+            esperaAgendador.registrar(esperaNanos);
+        }
+    }
+
+    /**
+     * Envolve tarefa do executor assíncrono para medir espera e ocupação
+     *
+     * @return a própria tarefa se as métricas estão desligadas
+     */
+    public Runnable instrumentar(Runnable tarefa) {
+        if (!habilitado) {
+            return tarefa;
+        }
+        long enfileirada = System.nanoTime();
+        return () -> {
+            long inicio = iniciarTarefa(enfileirada);
+            try {
+                tarefa.run();
+            } finally {
+                concluirTarefa(inicio);
+            }
+        };
+    }
+
+    /**
+     * Versão de instrumentar para tarefas com resultado
+     */
+    public <T> Callable<T> instrumentar(Callable<T> tarefa) {
+        if (!habilitado) {
+            return tarefa;
+        }
+        long enfileirada = System.nanoTime();
+        return () -> {
+            long inicio = iniciarTarefa(enfileirada);
+            try {
+                return tarefa.call();
+            } finally {
+                concluirTarefa(inicio);
+            }
+        };
+    }
+
+    private long iniciarTarefa(long enfileirada) {
+        long inicio = System.nanoTime();
+        esperaPool.registrar(inicio - enfileirada);
+        tarefasAtivas.incrementAndGet();
+        return inicio;
+    }
+
+    private void concluirTarefa(long inicio) {
+        tarefasAtivas.decrementAndGet();
+        tempoOcupadoNanos.add(System.nanoTime() - inicio);
+    }
+
+    private MetricasOperacao[] metricasDe(Command comando) {
+        Class<?> tipo = comando instanceof ComandoAssincrono
+                ? ((ComandoAssincrono) comando).getComando().getClass()
+                : comando.getClass();
+        MetricasOperacao[] metricas = porTipo.get(tipo);
+        if (metricas == null) {
+            metricas = porTipo.computeIfAbsent(tipo, t -> {
+                MetricasOperacao[] novas = new MetricasOperacao[Operacao.values().length];
+                for (int i = 0; i < novas.length; i++) {
+                    novas[i] = new MetricasOperacao();
+                }
+                return novas;
+            });
+        }
+        return metricas;
+    }
+
+    // ==================== CONSULTA (PULL) ====================
+
+    @Override
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Liga/desliga a coleta; ao ligar, a janela de ocupação do pool recomeça
+     */
+    @Override
+    public void setHabilitado(boolean habilitado) {
+        if (habilitado && !this.habilitado) {
+            tempoOcupadoNanos.reset();
+            inicioJanelaNanos = System.nanoTime();
+        }
+        this.habilitado = habilitado;
+    }
+
+    /**
+     * Resumo por tipo de comando e operação, ordenado pela latência média (maior primeiro)
+     */
+    @Override
+    public List<ResumoMetricas> getResumoPorTipo() {
+        List<ResumoMetricas> resumos = new ArrayList<>();
+        for (Map.Entry<Class<?>, MetricasOperacao[]> entrada : porTipo.entrySet()) {
+            String tipo = entrada.getKey().getSimpleName();
+            for (Operacao operacao : Operacao.values()) {
+                MetricasOperacao metricas = entrada.getValue()[operacao.ordinal()];
+                HistogramaLatencia latencia = metricas.latencia;
+                if (latencia.getContagem() == 0) {
+                    continue;
+                }
+                resumos.add(new ResumoMetricas(tipo, operacao.name(), latencia.getContagem(), metricas.falhas.sum(),
+                        latencia.getMediaNanos() / 1e6, latencia.getPercentilNanos(50) / 1e6,
+                        latencia.getPercentilNanos(99) / 1e6, latencia.getMaximoNanos() / 1e6));
+            }
+        }
+        resumos.sort(Comparator.comparingDouble(ResumoMetricas::getMediaMs).reversed());
+        return resumos;
+    }
+
+    @Override
+    public long getTotalOperacoes() {
+        long total = 0;
+        for (MetricasOperacao[] metricas : porTipo.values()) {
+            for (MetricasOperacao operacao : metricas) {
+                total += operacao.latencia.getContagem();
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public long getTotalFalhas() {
+        long total = 0;
+        for (MetricasOperacao[] metricas : porTipo.values()) {
+            for (MetricasOperacao operacao : metricas) {
+                total += operacao.falhas.sum();
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public double getTaxaFalhas() {
+        long total = getTotalOperacoes();
+        return total == 0 ? 0.0 : getTotalFalhas() / (double) total;
+    }
+
+    @Override
+    public double getEsperaAgendadorMediaMs() {
+        return esperaAgendador.getMediaNanos() / 1e6;
+    }
+
+    @Override
+    public double getEsperaAgendadorP99Ms() {
+        return esperaAgendador.getPercentilNanos(99) / 1e6;
+    }
+
+    @Override
+    public double getEsperaPoolMediaMs() {
+        return esperaPool.getMediaNanos() / 1e6;
+    }
+
+    @Override
+    public double getEsperaPoolP99Ms() {
+        return esperaPool.getPercentilNanos(99) / 1e6;
+    }
+
+    @Override
+    public int getTarefasAtivasPool() {
+        return tarefasAtivas.get();
+    }
+
+    @Override
+    public double getMediaTarefasAtivasPool() {
+        long janela = System.nanoTime() - inicioJanelaNanos;
+        return janela <= 0 ? 0.0 : tempoOcupadoNanos.sum() / (double) janela;
+    }
+
+    @Override
+    public double getUtilizacaoPool() {
+        int tamanho = tamanhoPool.getAsInt();
+        return tamanho <= 0 ? Double.NaN : getMediaTarefasAtivasPool() / tamanho;
+    }
+
+    @Override
+    public void zerar() {
+        porTipo.clear();
+        esperaAgendador.zerar();
+        esperaPool.zerar();
+        tempoOcupadoNanos.reset();
+        inicioJanelaNanos = System.nanoTime();
+    }
+
+    /**
+     * Exibe as métricas coletadas
+     */
+    public void exibir() {
+        System.out.println("\n=== MÉTRICAS DE COMANDOS" + (habilitado ? "" : " (desligadas)") + " ===");
+        System.out.printf("%-24s %-10s %8s %7s %9s %9s %9s %9s%n",
+                "Tipo", "Operação", "Total", "Falhas", "Média ms", "p50 ms", "p99 ms", "Máx ms");
+        for (ResumoMetricas resumo : getResumoPorTipo()) {
+            System.out.println(resumo);
+        }
+        System.out.printf("Espera no agendador: média %.3f ms, p99 %.3f ms%n",
+                getEsperaAgendadorMediaMs(), getEsperaAgendadorP99Ms());
+        System.out.printf("Espera no executor assíncrono: média %.3f ms, p99 %.3f ms%n",
+                getEsperaPoolMediaMs(), getEsperaPoolP99Ms());
+        System.out.printf("Executor assíncrono: %d tarefas ativas, média %.2f, utilização %.1f%%%n",
+                getTarefasAtivasPool(), getMediaTarefasAtivasPool(), getUtilizacaoPool() * 100);
+        System.out.println("=" + "=".repeat(35));
+    }
+
+    // ==================== JMX ====================
+
+    /**
+     * Registra este objeto no MBeanServer da plataforma
+     *
+     * Nome: comportamentais.command:type=MetricasComandos,name="nome"
+     */
+    public synchronized void registrarJmx(String nome) {
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("comportamentais.command:type=MetricasComandos,name=" + ObjectName.quote(nome));
+            servidor.registerMBean(this, objectName);
+            nomeJmx = objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Erro ao registrar métricas no JMX: " + nome, e);
+        }
+    }
+
+    /**
+     * Remove o registro JMX, se houver
+     */
+    public synchronized void removerJmx() {
+        ObjectName objectName = nomeJmx;
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            // Já removido
+        }
+        nomeJmx = null;
+    }
+}
@@ -0,0 +1,94 @@
+package comportamentais.command.compadrao.classes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Placar imutável publicado periodicamente pelo GerenciadorSessoes
+ *
+ * Cada shard captura as próprias sessões na sua thread; o placar reúne as
+ * capturas ordenadas por pontuação (maior primeiro). Pode ser lido por
+ * qualquer thread sem sincronização, pois nunca é alterado depois de
+ * publicado.
+ */
+public final class PlacarJogadores {
+
+    public static final PlacarJogadores VAZIO = new PlacarJogadores(0, 0, Collections.emptyList());
+
+    private final long geracao;
+    private final long timestamp;
+    private final List<Entrada> entradas;
+
+    PlacarJogadores(long geracao, long timestamp, List<Entrada> entradas) {
+        List<Entrada> ordenadas = new ArrayList<>(entradas);
+        ordenadas.sort((a, b) -> {
+            int comparacao = Integer.compare(b.pontuacao, a.pontuacao);
+            return comparacao != 0 ? comparacao : a.id.compareTo(b.id);
+        });
+        this.geracao = geracao;
+        this.timestamp = timestamp;
+        this.entradas = Collections.unmodifiableList(ordenadas);
+    }
+
+    /**
+     * Os "quantidade" primeiros colocados
+     */
+    public List<Entrada> getTop(int quantidade) {
+        return entradas.subList(0, Math.min(quantidade, entradas.size()));
+    }
+
+    /**
+     * Exibe os primeiros colocados
+     */
+    public void exibir(int quantidade) {
+        System.out.println("\n=== PLACAR (geração " + geracao + ", " + entradas.size() + " jogadores) ===");
+        int posicao = 1;
+        for (Entrada entrada : getTop(quantidade)) {
+            System.out.println(posicao++ + ". " + entrada);
+        }
+        System.out.println("=" + "=".repeat(35));
+    }
+
+    public long getGeracao() { return geracao; }
+    public long getTimestamp() { return timestamp; }
+    public List<Entrada> getEntradas() { return entradas; }
+
+    /**
+     * Estado de um jogador no momento da captura
+     */
+    public static final class Entrada {
+
+        private final String id;
+        private final String nome;
+        private final int pontuacao;
+        private final int turno;
+        private final int nivel;
+        private final int x;
+        private final int y;
+
+        Entrada(String id, String nome, int pontuacao, int turno, int nivel, int x, int y) {
+            this.id = id;
+            this.nome = nome;
+            this.pontuacao = pontuacao;
+            this.turno = turno;
+            this.nivel = nivel;
+            this.x = x;
+            this.y = y;
+        }
+
+        public String getId() { return id; }
+        public String getNome() { return nome; }
+        public int getPontuacao() { return pontuacao; }
+        public int getTurno() { return turno; }
+        public int getNivel() { return nivel; }
+        public int getX() { return x; }
+        public int getY() { return y; }
+
+        @Override
+        public String toString() {
+            return nome + " (" + id + ") - Pontuação: " + pontuacao + ", Turno: " + turno +
+                   ", Nível: " + nivel + ", Posição: (" + x + ", " + y + ")";
+        }
+    }
+}
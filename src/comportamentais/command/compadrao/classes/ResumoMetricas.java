@@ -0,0 +1,59 @@
+package comportamentais.command.compadrao.classes;
+
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Resumo imutável das métricas de um tipo de comando em uma operação
+ */
+public final class ResumoMetricas {
+
+    private final String tipo;
+    private final String operacao;
+    private final long contagem;
+    private final long falhas;
+    private final double mediaMs;
+    private final double p50Ms;
+    private final double p99Ms;
+    private final double maximoMs;
+
+    public ResumoMetricas(String tipo, String operacao, long contagem, long falhas,
+                          double mediaMs, double p50Ms, double p99Ms, double maximoMs) {
+        this.tipo = tipo;
+        this.operacao = operacao;
+        this.contagem = contagem;
+        this.falhas = falhas;
+        this.mediaMs = mediaMs;
+        this.p50Ms = p50Ms;
+        this.p99Ms = p99Ms;
+        this.maximoMs = maximoMs;
+    }
+
+    /**
+     * Reconstrói o resumo a partir do CompositeData do MXBean (usado por proxies JMX)
+     */
+    public static ResumoMetricas from(CompositeData dados) {
+        return new ResumoMetricas((String) dados.get("tipo"), (String) dados.get("operacao"),
+                (Long) dados.get("contagem"), (Long) dados.get("falhas"),
+                (Double) dados.get("mediaMs"), (Double) dados.get("p50Ms"),
+                (Double) dados.get("p99Ms"), (Double) dados.get("maximoMs"));
+    }
+
+    public String getTipo() { return tipo; }
+    public String getOperacao() { return operacao; }
+    public long getContagem() { return contagem; }
+    public long getFalhas() { return falhas; }
+    public double getMediaMs() { return mediaMs; }
+    public double getP50Ms() { return p50Ms; }
+    public double getP99Ms() { return p99Ms; }
+    public double getMaximoMs() { return maximoMs; }
+
+    public double getTaxaFalhas() {
+        return contagem == 0 ? 0.0 : falhas / (double) contagem;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-24s %-10s %8d %6.1f%% %9.3f %9.3f %9.3f %9.3f",
+                tipo, operacao, contagem, getTaxaFalhas() * 100, mediaMs, p50Ms, p99Ms, maximoMs);
+    }
+}
@@ -0,0 +1,41 @@
+package comportamentais.command.compadrao.classes;
+
+/**
+ * Sessão de um jogador no GerenciadorSessoes
+ *
+ * Agrupa os RECEIVERS (Jogador e SistemaJogo) e o INVOKER
+ * (GerenciadorComandos) de um jogador. A sessão fica fixada a um único
+ * shard: somente a thread desse shard lê ou altera seus objetos, por isso
+ * nenhum deles precisa de sincronização. Fora do shard, use o placar
+ * publicado pelo GerenciadorSessoes.
+ */
+public class SessaoJogador {
+
+    private final String id;
+    private final int shard;
+    private final Jogador jogador;
+    private final SistemaJogo sistema;
+    private final GerenciadorComandos gerenciador;
+
+    SessaoJogador(String id, int shard, Jogador jogador, SistemaJogo sistema, GerenciadorComandos gerenciador) {
+        this.id = id;
+        this.shard = shard;
+        this.jogador = jogador;
+        this.sistema = sistema;
+        this.gerenciador = gerenciador;
+    }
+
+    /**
+     * Retrato imutável da sessão para o placar (chamado na thread do shard)
+     */
+    PlacarJogadores.Entrada capturar() {
+        return new PlacarJogadores.Entrada(id, jogador.getNome(), sistema.getPontuacao(), sistema.getTurno(),
+                jogador.getNivel(), jogador.getX(), jogador.getY());
+    }
+
+    public String getId() { return id; }
+    public int getShard() { return shard; }
+    public Jogador getJogador() { return jogador; }
+    public SistemaJogo getSistema() { return sistema; }
+    public GerenciadorComandos getGerenciador() { return gerenciador; }
+}
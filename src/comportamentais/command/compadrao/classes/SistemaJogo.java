@@ -1,6 +1,9 @@
 package comportamentais.command.compadrao.classes;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Classe SistemaJogo - RECEIVER no padrão Command
@@ -19,42 +22,63 @@ import java.util.*;
  */
 public class SistemaJogo {
     
+    private static final Estatistica[] ESTATISTICAS = Estatistica.values();
+    
     private int pontuacao;
     private int turno;
     private long tempoInicio;
     private boolean jogoAtivo;
     private String nomeJogo;
     
-    // Histórico de eventos para auditoria
-    private List<String> historicoEventos;
-    private Map<String, Integer> estatisticas;
+    // Histórico de eventos para auditoria (buffer circular, formatado só na exibição)
+    private final HistoricoEventos historicoEventos;
+    // Desligado por padrão: o eco formata (String.format) cada evento na hora
+    private volatile boolean ecoEventos = false;
+    
+    // Carimbo de versão: muda a cada alteração de estado (ver CacheRefazer)
+    // Atômico porque incrementarEstatistica pode ser chamado por várias threads
+    private final AtomicLong versao = new AtomicLong();
+    
+    // Estatísticas: contadores primitivos indexados pelo ordinal de Estatistica.
+    // Chaves fora do enum caem na tabela de extras (criadas sob demanda).
+    private final LongAdder[] contadores;
+    private final ConcurrentHashMap<String, LongAdder> contadoresExtras;
+    private final Map<String, Integer> visaoEstatisticas;
     
     /**
      * Construtor do sistema de jogo
      */
     public SistemaJogo(String nomeJogo) {
+        this(nomeJogo, HistoricoEventos.CAPACIDADE_PADRAO);
+    }
+    
+    /**
+     * Construtor com capacidade do histórico de eventos
+     * 
+     * @param capacidadeEventos eventos retidos; os mais antigos são sobrescritos
+     */
+    public SistemaJogo(String nomeJogo, int capacidadeEventos) {
         this.nomeJogo = nomeJogo;
         this.pontuacao = 0;
         this.turno = 0;
         this.tempoInicio = System.currentTimeMillis();
         this.jogoAtivo = true;
-        this.historicoEventos = new ArrayList<>();
-        this.estatisticas = new HashMap<>();
+        this.historicoEventos = new HistoricoEventos(capacidadeEventos);
+        this.contadores = new LongAdder[ESTATISTICAS.length];
+        this.contadoresExtras = new ConcurrentHashMap<>();
+        this.visaoEstatisticas = new VisaoEstatisticas();
         
         inicializarEstatisticas();
-        registrarEvento("Jogo iniciado: " + nomeJogo);
+        historicoEventos.registrar(TipoEvento.JOGO_INICIADO, nomeJogo, 0, 0, 0, 0);
     }
     
     /**
      * Inicializa estatísticas do jogo
      */
     private void inicializarEstatisticas() {
-        estatisticas.put("movimentos", 0);
-        estatisticas.put("ataques", 0);
-        estatisticas.put("itens_usados", 0);
-        estatisticas.put("dano_causado", 0);
-        estatisticas.put("dano_recebido", 0);
-        estatisticas.put("saves_realizados", 0);
+        for (int i = 0; i < contadores.length; i++) {
+            contadores[i] = new LongAdder();
+        }
     }
     
     // ==================== OPERAÇÕES DE PONTUAÇÃO ====================
@@ -68,10 +92,9 @@ public class SistemaJogo {
     public void adicionarPontos(int pontos) {
         int pontuacaoAnterior = this.pontuacao;
         this.pontuacao += pontos;
+        versao.incrementAndGet();
         
-        String evento = "Pontos adicionados: +" + pontos + " (" + pontuacaoAnterior + " → " + this.pontuacao + ")";
-        registrarEvento(evento);
-        System.out.println(evento);
+        registrarEvento(TipoEvento.PONTOS_ADICIONADOS, null, pontos, pontuacaoAnterior, this.pontuacao, 0);
     }
     
     /**
@@ -80,10 +103,9 @@ public class SistemaJogo {
     public void removerPontos(int pontos) {
         int pontuacaoAnterior = this.pontuacao;
         this.pontuacao = Math.max(0, this.pontuacao - pontos);
+        versao.incrementAndGet();
         
-        String evento = "Pontos removidos: -" + pontos + " (" + pontuacaoAnterior + " → " + this.pontuacao + ")";
-        registrarEvento(evento);
-        System.out.println(evento);
+        registrarEvento(TipoEvento.PONTOS_REMOVIDOS, null, pontos, pontuacaoAnterior, this.pontuacao, 0);
     }
     
     /**
@@ -92,10 +114,9 @@ public class SistemaJogo {
     public void setPontuacao(int pontuacao) {
         int pontuacaoAnterior = this.pontuacao;
         this.pontuacao = pontuacao;
+        versao.incrementAndGet();
         
-        String evento = "Pontuação definida: " + pontuacaoAnterior + " → " + pontuacao;
-        registrarEvento(evento);
-        System.out.println(evento);
+        registrarEvento(TipoEvento.PONTUACAO_DEFINIDA, null, pontuacaoAnterior, pontuacao, 0, 0);
     }
     
     // ==================== OPERAÇÕES DE TURNO ====================
@@ -105,9 +126,8 @@ public class SistemaJogo {
      */
     public void proximoTurno() {
         turno++;
-        String evento = "Turno " + turno + " iniciado";
-        registrarEvento(evento);
-        System.out.println(evento);
+        versao.incrementAndGet();
+        registrarEvento(TipoEvento.TURNO_INICIADO, null, turno, 0, 0, 0);
     }
     
     /**
@@ -116,9 +136,8 @@ public class SistemaJogo {
     public void turnoAnterior() {
         if (turno > 0) {
             turno--;
-            String evento = "Voltou para turno " + turno;
-            registrarEvento(evento);
-            System.out.println(evento);
+            versao.incrementAndGet();
+            registrarEvento(TipoEvento.TURNO_VOLTOU, null, turno, 0, 0, 0);
         }
     }
     
@@ -128,43 +147,90 @@ public class SistemaJogo {
     public void setTurno(int turno) {
         int turnoAnterior = this.turno;
         this.turno = turno;
+        versao.incrementAndGet();
         
-        String evento = "Turno definido: " + turnoAnterior + " → " + turno;
-        registrarEvento(evento);
-        System.out.println(evento);
+        registrarEvento(TipoEvento.TURNO_DEFINIDO, null, turnoAnterior, turno, 0, 0);
     }
     
     // ==================== OPERAÇÕES DE ESTATÍSTICAS ====================
     
     /**
      * Incrementa uma estatística
+     * 
+     * Caminho rápido: acesso direto ao contador pelo ordinal, sem busca
+     * por String nem boxing. Seguro para várias threads escrevendo: o
+     * contador é um LongAdder e a versão, atômica. Não registra evento no
+     * histórico, cujo registro é sincronizado e serializaria as threads;
+     * o incremento aparece só no contador.
+     */
+    public void incrementarEstatistica(Estatistica estatistica, int valor) {
+        contadores[estatistica.ordinal()].add(valor);
+        versao.incrementAndGet();
+    }
+    
+    /**
+     * Incrementa uma estatística pela chave textual (registra o evento no histórico)
      */
     public void incrementarEstatistica(String chave, int valor) {
-        int valorAnterior = estatisticas.getOrDefault(chave, 0);
-        estatisticas.put(chave, valorAnterior + valor);
+        contador(chave).add(valor);
+        versao.incrementAndGet();
         
-        String evento = "Estatística " + chave + ": +" + valor + " (" + valorAnterior + " → " + (valorAnterior + valor) + ")";
-        registrarEvento(evento);
-        System.out.println(evento);
+        historicoEventos.registrar(TipoEvento.ESTATISTICA_INCREMENTADA, chave, valor, 0, 0, 0);
     }
     
     /**
      * Define valor específico de uma estatística (usado para undo)
+     * 
+     * Não é atômico em relação a incrementos concorrentes: deve ser
+     * chamado pela thread que executa os comandos.
+     */
+    public void setEstatistica(Estatistica estatistica, int valor) {
+        definir(contadores[estatistica.ordinal()], estatistica.getChave(), valor);
+    }
+    
+    /**
+     * Define valor específico de uma estatística pela chave textual
      */
     public void setEstatistica(String chave, int valor) {
-        int valorAnterior = estatisticas.getOrDefault(chave, 0);
-        estatisticas.put(chave, valor);
+        definir(contador(chave), chave, valor);
+    }
+    
+    private void definir(LongAdder contador, String chave, int valor) {
+        long valorAnterior = contador.sumThenReset();
+        contador.add(valor);
+        versao.incrementAndGet();
         
-        String evento = "Estatística " + chave + " definida: " + valorAnterior + " → " + valor;
-        registrarEvento(evento);
-        System.out.println(evento);
+        registrarEvento(TipoEvento.ESTATISTICA_DEFINIDA, chave, valorAnterior, valor, 0, 0);
     }
     
     /**
      * Obtém valor de uma estatística
      */
+    public int getEstatistica(Estatistica estatistica) {
+        return (int) contadores[estatistica.ordinal()].sum();
+    }
+    
+    /**
+     * Obtém valor de uma estatística pela chave textual
+     */
     public int getEstatistica(String chave) {
-        return estatisticas.getOrDefault(chave, 0);
+        Estatistica estatistica = Estatistica.porChave(chave);
+        if (estatistica != null) {
+            return getEstatistica(estatistica);
+        }
+        LongAdder contador = contadoresExtras.get(chave);
+        return contador == null ? 0 : (int) contador.sum();
+    }
+    
+    /**
+     * Contador da chave: do enum se conhecida, senão da tabela de extras
+     */
+    private LongAdder contador(String chave) {
+        Estatistica estatistica = Estatistica.porChave(chave);
+        if (estatistica != null) {
+            return contadores[estatistica.ordinal()];
+        }
+        return contadoresExtras.computeIfAbsent(chave, k -> new LongAdder());
     }
     
     // ==================== OPERAÇÕES DE SAVE/LOAD ====================
@@ -177,10 +243,8 @@ public class SistemaJogo {
             // Simula operação de save
             Thread.sleep(100); // Simula tempo de I/O
             
-            incrementarEstatistica("saves_realizados", 1);
-            String evento = "Jogo salvo - Turno: " + turno + ", Pontuação: " + pontuacao;
-            registrarEvento(evento);
-            System.out.println(evento);
+            incrementarEstatistica(Estatistica.SAVES_REALIZADOS, 1);
+            registrarEvento(TipoEvento.JOGO_SALVO, null, turno, pontuacao, 0, 0);
             
             return true;
         } catch (InterruptedException e) {
@@ -202,11 +266,9 @@ public class SistemaJogo {
             
             this.turno = turnoSalvo;
             this.pontuacao = pontuacaoSalva;
+            versao.incrementAndGet();
             
-            String evento = "Jogo carregado - Turno: " + turnoAnterior + " → " + turno + 
-                           ", Pontuação: " + pontuacaoAnterior + " → " + pontuacao;
-            registrarEvento(evento);
-            System.out.println(evento);
+            registrarEvento(TipoEvento.JOGO_CARREGADO, null, turnoAnterior, turno, pontuacaoAnterior, pontuacao);
             
             return true;
         } catch (InterruptedException e) {
@@ -215,6 +277,66 @@ public class SistemaJogo {
         }
     }
     
+    /**
+     * Restaura estado completo (usado na recuperação a partir de snapshot)
+     */
+    public void restaurarEstado(int pontuacao, int turno, Map<String, Integer> estatisticas) {
+        this.pontuacao = pontuacao;
+        this.turno = turno;
+        for (LongAdder contador : contadores) {
+            contador.reset();
+        }
+        contadoresExtras.clear();
+        estatisticas.forEach((chave, valor) -> contador(chave).add(valor));
+        versao.incrementAndGet();
+        
+        registrarEvento(TipoEvento.ESTADO_RESTAURADO, null, turno, pontuacao, 0, 0);
+    }
+    
+    // ==================== VERSÃO E REDO POR ESTADO ====================
+    
+    /**
+     * Campos copiados por capturarEstado
+     */
+    static final int CAMPOS_ESTADO = 2 + ESTATISTICAS.length;
+    
+    /**
+     * Carimbo de versão do estado (pontuação, turno, estatísticas, pausa)
+     * 
+     * Muda a cada alteração; duas leituras iguais garantem que o estado
+     * não mudou entre elas.
+     */
+    public long getVersao() { return versao.get(); }
+    
+    /**
+     * Copia pontuação, turno e estatísticas do enum para "destino" (sem alocar)
+     */
+    void capturarEstado(int[] destino, int inicio) {
+        destino[inicio] = pontuacao;
+        destino[inicio + 1] = turno;
+        for (int i = 0; i < contadores.length; i++) {
+            destino[inicio + 2 + i] = (int) contadores[i].sum();
+        }
+    }
+    
+    /**
+     * Reaplica estado capturado e volta à versão em que foi capturado
+     */
+    void reaplicarEstado(int[] origem, int inicio, long versao) {
+        this.pontuacao = origem[inicio];
+        this.turno = origem[inicio + 1];
+        for (int i = 0; i < contadores.length; i++) {
+            int valor = origem[inicio + 2 + i];
+            if (contadores[i].sum() != valor) {
+                contadores[i].reset();
+                contadores[i].add(valor);
+            }
+        }
+        this.versao.set(versao);
+        
+        registrarEvento(TipoEvento.ESTADO_REAPLICADO, null, turno, pontuacao, 0, 0);
+    }
+    
     // ==================== OPERAÇÕES DE CONTROLE ====================
     
     /**
@@ -222,9 +344,8 @@ public class SistemaJogo {
      */
     public void pausarJogo() {
         jogoAtivo = false;
-        String evento = "Jogo pausado";
-        registrarEvento(evento);
-        System.out.println(evento);
+        versao.incrementAndGet();
+        registrarEvento(TipoEvento.JOGO_PAUSADO, null, 0, 0, 0, 0);
     }
     
     /**
@@ -232,9 +353,8 @@ public class SistemaJogo {
      */
     public void resumirJogo() {
         jogoAtivo = true;
-        String evento = "Jogo resumido";
-        registrarEvento(evento);
-        System.out.println(evento);
+        versao.incrementAndGet();
+        registrarEvento(TipoEvento.JOGO_RESUMIDO, null, 0, 0, 0, 0);
     }
     
     /**
@@ -242,11 +362,10 @@ public class SistemaJogo {
      */
     public void finalizarJogo() {
         jogoAtivo = false;
+        versao.incrementAndGet();
         long tempoTotal = System.currentTimeMillis() - tempoInicio;
         
-        String evento = "Jogo finalizado após " + (tempoTotal / 1000) + " segundos";
-        registrarEvento(evento);
-        System.out.println(evento);
+        registrarEvento(TipoEvento.JOGO_FINALIZADO, null, tempoTotal / 1000, 0, 0, 0);
         
         exibirResumoFinal();
     }
@@ -254,12 +373,16 @@ public class SistemaJogo {
     // ==================== OPERAÇÕES DE HISTÓRICO ====================
     
     /**
-     * Registra um evento no histórico
+     * Registra um evento no histórico e, com eco ligado, exibe no console
+     * 
+     * Apenas o tipo e os argumentos são guardados; o texto é montado
+     * para o console ou ao exibir o histórico.
      */
-    private void registrarEvento(String evento) {
-        String timestamp = new Date().toString();
-        String eventoCompleto = "[" + timestamp + "] " + evento;
-        historicoEventos.add(eventoCompleto);
+    private void registrarEvento(TipoEvento tipo, String texto, long a0, long a1, long a2, long a3) {
+        historicoEventos.registrar(tipo, texto, a0, a1, a2, a3);
+        if (ecoEventos) {
+            System.out.println(tipo.formatar(texto, a0, a1, a2, a3));
+        }
     }
     
     /**
@@ -268,19 +391,19 @@ public class SistemaJogo {
     public void exibirHistorico() {
         System.out.println("\n=== HISTÓRICO DE EVENTOS ===");
         
-        if (historicoEventos.isEmpty()) {
+        if (historicoEventos.getTamanho() == 0) {
             System.out.println("Nenhum evento registrado.");
             return;
         }
         
         // Exibe últimos 10 eventos
-        int inicio = Math.max(0, historicoEventos.size() - 10);
-        for (int i = inicio; i < historicoEventos.size(); i++) {
-            System.out.println((i + 1) + ". " + historicoEventos.get(i));
+        for (HistoricoEventos.Evento evento : historicoEventos.ultimos(10)) {
+            System.out.println(evento.getNumero() + ". " + evento.formatar());
         }
         
-        if (historicoEventos.size() > 10) {
-            System.out.println("... (" + (historicoEventos.size() - 10) + " eventos anteriores)");
+        long anteriores = historicoEventos.getTotalRegistrados() - Math.min(10, historicoEventos.getTamanho());
+        if (anteriores > 0) {
+            System.out.println("... (" + anteriores + " eventos anteriores)");
         }
         
         System.out.println("=" + "=".repeat(30));
@@ -290,8 +413,8 @@ public class SistemaJogo {
      * Limpa histórico de eventos
      */
     public void limparHistorico() {
-        historicoEventos.clear();
-        registrarEvento("Histórico limpo");
+        historicoEventos.limpar();
+        historicoEventos.registrar(TipoEvento.HISTORICO_LIMPO, null, 0, 0, 0, 0);
         System.out.println("Histórico de eventos limpo");
     }
     
@@ -311,11 +434,12 @@ public class SistemaJogo {
         System.out.println("Tempo decorrido: " + (tempoDecorrido / 1000) + " segundos");
         
         System.out.println("\nESTATÍSTICAS:");
-        estatisticas.forEach((chave, valor) -> {
+        visaoEstatisticas.forEach((chave, valor) -> {
             System.out.println("   " + formatarChave(chave) + ": " + valor);
         });
         
-        System.out.println("\nEventos registrados: " + historicoEventos.size());
+        System.out.println("\nEventos registrados: " + historicoEventos.getTotalRegistrados() +
+                           " (retidos: " + historicoEventos.getTamanho() + "/" + historicoEventos.getCapacidade() + ")");
         System.out.println("=" + "=".repeat(35));
     }
     
@@ -332,7 +456,7 @@ public class SistemaJogo {
         System.out.println("Tempo total: " + (tempoTotal / 1000) + " segundos");
         
         System.out.println("\nESTATÍSTICAS FINAIS:");
-        estatisticas.forEach((chave, valor) -> {
+        visaoEstatisticas.forEach((chave, valor) -> {
             System.out.println("   " + formatarChave(chave) + ": " + valor);
         });
         
@@ -369,6 +493,98 @@ public class SistemaJogo {
     public int getTurno() { return turno; }
     public boolean isJogoAtivo() { return jogoAtivo; }
     public long getTempoInicio() { return tempoInicio; }
-    public List<String> getHistoricoEventos() { return new ArrayList<>(historicoEventos); }
-    public Map<String, Integer> getEstatisticas() { return new HashMap<>(estatisticas); }
+    public boolean isEcoEventos() { return ecoEventos; }
+    
+    /**
+     * Liga/desliga a exibição de cada evento no console (o registro continua)
+     * Desligado por padrão; os eventos podem ser vistos com exibirHistorico
+     */
+    public void setEcoEventos(boolean ecoEventos) { this.ecoEventos = ecoEventos; }
+    
+    /**
+     * Histórico de eventos, iterável sem cópia
+     */
+    public HistoricoEventos getEventos() { return historicoEventos; }
+    
+    /**
+     * Eventos retidos já formatados (monta uma nova lista a cada chamada)
+     */
+    public List<String> getHistoricoEventos() {
+        List<String> eventos = new ArrayList<>(historicoEventos.getTamanho());
+        for (HistoricoEventos.Evento evento : historicoEventos) {
+            eventos.add(evento.formatar());
+        }
+        return eventos;
+    }
+    
+    /**
+     * Visão somente leitura das estatísticas, sem cópia
+     * 
+     * Os valores são lidos dos contadores no momento do acesso; para um
+     * retrato fixo, copie a visão (ex.: new LinkedHashMap<>(visao)).
+     */
+    public Map<String, Integer> getEstatisticas() { return visaoEstatisticas; }
+    
+    // ==================== VISÃO DAS ESTATÍSTICAS ====================
+    
+    /**
+     * Map somente leitura apoiado nos contadores
+     * 
+     * Itera primeiro as estatísticas do enum, na ordem de declaração,
+     * e depois as chaves extras.
+     */
+    private final class VisaoEstatisticas extends AbstractMap<String, Integer> {
+        
+        private final Set<Map.Entry<String, Integer>> entradas = new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<String, Integer>> iterator() {
+                return new Iterator<>() {
+                    private int indice;
+                    private final Iterator<Map.Entry<String, LongAdder>> extras = contadoresExtras.entrySet().iterator();
+                    
+                    @Override
+                    public boolean hasNext() {
+                        return indice < contadores.length || extras.hasNext();
+                    }
+                    
+                    @Override
+                    public Map.Entry<String, Integer> next() {
+                        if (indice < contadores.length) {
+                            Estatistica estatistica = ESTATISTICAS[indice];
+                            return new AbstractMap.SimpleImmutableEntry<>(estatistica.getChave(),
+                                    (int) contadores[indice++].sum());
+                        }
+                        Map.Entry<String, LongAdder> extra = extras.next();
+                        return new AbstractMap.SimpleImmutableEntry<>(extra.getKey(), (int) extra.getValue().sum());
+                    }
+                };
+            }
+            
+            @Override
+            public int size() {
+                return contadores.length + contadoresExtras.size();
+            }
+        };
+        
+        @Override
+        public Set<Map.Entry<String, Integer>> entrySet() {
+            return entradas;
+        }
+        
+        @Override
+        public Integer get(Object chave) {
+            return chave instanceof String && containsKey(chave) ? getEstatistica((String) chave) : null;
+        }
+        
+        @Override
+        public boolean containsKey(Object chave) {
+            return chave instanceof String &&
+                   (Estatistica.porChave((String) chave) != null || contadoresExtras.containsKey(chave));
+        }
+        
+        @Override
+        public int size() {
+            return entradas.size();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,146 @@
+package comportamentais.command.compadrao.classes;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Snapshot completo do estado de Jogador e SistemaJogo
+ *
+ * PADRÃO COMMAND + MEMENTO:
+ * Em vez de reproduzir todos os comandos desde o início da sessão, a
+ * recuperação parte do snapshot mais recente e reproduz apenas os
+ * comandos gravados depois dele.
+ *
+ * Imutável: pode ser lido por outras threads depois de capturado.
+ */
+public final class SnapshotJogo {
+
+    private static final int MAGICO = 0x534E4150; // "SNAP"
+    private static final int VERSAO = 1;
+
+    private final long timestamp;
+
+    // Jogador
+    private final int x;
+    private final int y;
+    private final int vida;
+    private final int vidaMaxima;
+    private final int mana;
+    private final int manaMaxima;
+    private final int experiencia;
+    private final int nivel;
+
+    // SistemaJogo
+    private final int pontuacao;
+    private final int turno;
+    private final Map<String, Integer> estatisticas;
+
+    private SnapshotJogo(long timestamp, int x, int y, int vida, int vidaMaxima, int mana, int manaMaxima,
+                         int experiencia, int nivel, int pontuacao, int turno, Map<String, Integer> estatisticas) {
+        this.timestamp = timestamp;
+        this.x = x;
+        this.y = y;
+        this.vida = vida;
+        this.vidaMaxima = vidaMaxima;
+        this.mana = mana;
+        this.manaMaxima = manaMaxima;
+        this.experiencia = experiencia;
+        this.nivel = nivel;
+        this.pontuacao = pontuacao;
+        this.turno = turno;
+        this.estatisticas = Collections.unmodifiableMap(new LinkedHashMap<>(estatisticas));
+    }
+
+    /**
+     * Captura o estado atual dos receivers
+     */
+    public static SnapshotJogo capturar(Jogador jogador, SistemaJogo sistema) {
+        return new SnapshotJogo(System.currentTimeMillis(),
+                jogador.getX(), jogador.getY(),
+                jogador.getVida(), jogador.getVidaMaxima(),
+                jogador.getMana(), jogador.getManaMaxima(),
+                jogador.getExperiencia(), jogador.getNivel(),
+                sistema.getPontuacao(), sistema.getTurno(), sistema.getEstatisticas());
+    }
+
+    /**
+     * Aplica o snapshot sobre os receivers
+     */
+    public void restaurar(Jogador jogador, SistemaJogo sistema) {
+        jogador.restaurarEstado(x, y, vida, vidaMaxima, mana, manaMaxima, experiencia, nivel);
+        sistema.restaurarEstado(pontuacao, turno, estatisticas);
+    }
+
+    /**
+     * Grava o snapshot de forma atômica (arquivo temporário + move)
+     */
+    public void gravar(Path arquivo) throws IOException {
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+
+        try (FileOutputStream arquivoSaida = new FileOutputStream(temporario.toFile());
+             DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(arquivoSaida))) {
+            saida.writeInt(MAGICO);
+            saida.writeInt(VERSAO);
+            saida.writeLong(timestamp);
+            saida.writeInt(x);
+            saida.writeInt(y);
+            saida.writeInt(vida);
+            saida.writeInt(vidaMaxima);
+            saida.writeInt(mana);
+            saida.writeInt(manaMaxima);
+            saida.writeInt(experiencia);
+            saida.writeInt(nivel);
+            saida.writeInt(pontuacao);
+            saida.writeInt(turno);
+            saida.writeInt(estatisticas.size());
+            for (Map.Entry<String, Integer> entrada : estatisticas.entrySet()) {
+                saida.writeUTF(entrada.getKey());
+                saida.writeInt(entrada.getValue());
+            }
+            saida.flush();
+            arquivoSaida.getFD().sync();
+        }
+
+        Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Lê snapshot gravado por gravar
+     */
+    public static SnapshotJogo ler(Path arquivo) throws IOException {
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(arquivo)))) {
+            if (entrada.readInt() != MAGICO || entrada.readInt() != VERSAO) {
+                throw new IOException("Arquivo de snapshot inválido: " + arquivo);
+            }
+            long timestamp = entrada.readLong();
+            int x = entrada.readInt();
+            int y = entrada.readInt();
+            int vida = entrada.readInt();
+            int vidaMaxima = entrada.readInt();
+            int mana = entrada.readInt();
+            int manaMaxima = entrada.readInt();
+            int experiencia = entrada.readInt();
+            int nivel = entrada.readInt();
+            int pontuacao = entrada.readInt();
+            int turno = entrada.readInt();
+
+            int quantidade = entrada.readInt();
+            Map<String, Integer> estatisticas = new LinkedHashMap<>();
+            for (int i = 0; i < quantidade; i++) {
+                estatisticas.put(entrada.readUTF(), entrada.readInt());
+            }
+
+            return new SnapshotJogo(timestamp, x, y, vida, vidaMaxima, mana, manaMaxima,
+                    experiencia, nivel, pontuacao, turno, estatisticas);
+        }
+    }
+
+    public long getTimestamp() { return timestamp; }
+    public int getPontuacao() { return pontuacao; }
+    public int getTurno() { return turno; }
+}
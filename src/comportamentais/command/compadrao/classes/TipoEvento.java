@@ -0,0 +1,52 @@
+package comportamentais.command.compadrao.classes;
+
+/**
+ * Tipos de evento registrados pelo SistemaJogo
+ *
+ * O histórico guarda apenas o tipo e os argumentos primitivos de cada
+ * evento; o texto é montado a partir do modelo somente quando o evento
+ * é exibido. Modelos com "%s" recebem o texto do evento (ex.: chave da
+ * estatística) antes dos argumentos numéricos.
+ */
+public enum TipoEvento {
+
+    JOGO_INICIADO("Jogo iniciado: %s"),
+    PONTOS_ADICIONADOS("Pontos adicionados: +%d (%d → %d)"),
+    PONTOS_REMOVIDOS("Pontos removidos: -%d (%d → %d)"),
+    PONTUACAO_DEFINIDA("Pontuação definida: %d → %d"),
+    TURNO_INICIADO("Turno %d iniciado"),
+    TURNO_VOLTOU("Voltou para turno %d"),
+    TURNO_DEFINIDO("Turno definido: %d → %d"),
+    ESTATISTICA_INCREMENTADA("Estatística %s: +%d"),
+    ESTATISTICA_DEFINIDA("Estatística %s definida: %d → %d"),
+    JOGO_SALVO("Jogo salvo - Turno: %d, Pontuação: %d"),
+    JOGO_CARREGADO("Jogo carregado - Turno: %d → %d, Pontuação: %d → %d"),
+    ESTADO_RESTAURADO("Estado restaurado - Turno: %d, Pontuação: %d"),
+    ESTADO_REAPLICADO("Estado reaplicado (redo) - Turno: %d, Pontuação: %d"),
+    JOGO_PAUSADO("Jogo pausado"),
+    JOGO_RESUMIDO("Jogo resumido"),
+    JOGO_FINALIZADO("Jogo finalizado após %d segundos"),
+    HISTORICO_LIMPO("Histórico limpo");
+
+    private final String modelo;
+    private final boolean usaTexto;
+
+    TipoEvento(String modelo) {
+        this.modelo = modelo;
+        this.usaTexto = modelo.contains("%s");
+    }
+
+    /**
+     * Monta o texto do evento (argumentos excedentes são ignorados)
+     */
+    public String formatar(String texto, long a0, long a1, long a2, long a3) {
+        if (usaTexto) {
+            return String.format(modelo, texto, a0, a1, a2, a3);
+        }
+        return String.format(modelo, a0, a1, a2, a3);
+    }
+
+    public String getModelo() {
+        return modelo;
+    }
+}
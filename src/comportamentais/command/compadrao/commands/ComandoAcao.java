@@ -1,7 +1,12 @@
 package comportamentais.command.compadrao.commands;
 
 import comportamentais.command.compadrao.interfaces.Command;
+import comportamentais.command.compadrao.interfaces.ComandoJornalizavel;
+import comportamentais.command.compadrao.interfaces.RefazivelPorEstado;
+import comportamentais.command.compadrao.interfaces.PriorityCommand;
 import comportamentais.command.compadrao.classes.*;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Comandos de ação - CONCRETE COMMAND no padrão Command
@@ -11,23 +16,65 @@ import comportamentais.command.compadrao.classes.*;
  * salvar jogo, etc. Cada comando mantém estado necessário para undo
  * quando possível.
  */
-public abstract class ComandoAcao implements Command {
+public abstract class ComandoAcao implements ComandoJornalizavel, RefazivelPorEstado {
     
     protected Jogador jogador;
     protected SistemaJogo sistema;
     protected long timestamp;
     protected boolean executado = false;
     
+    // Criado no primeiro undo (comandos nunca desfeitos não pagam por ele)
+    private CacheRefazer cacheRefazer;
+    
+    // Mensagens de progresso de executar (desligadas em executarSemEco)
+    protected boolean ecoConsole = true;
+    
     public ComandoAcao(Jogador jogador, SistemaJogo sistema) {
         this.jogador = jogador;
         this.sistema = sistema;
         this.timestamp = System.currentTimeMillis();
     }
     
+    @Override
+    public CacheRefazer getCacheRefazer() {
+        if (cacheRefazer == null) {
+            cacheRefazer = new CacheRefazer(jogador, sistema);
+        }
+        return cacheRefazer;
+    }
+    
+    @Override
+    public void marcarRefeito() {
+        executado = true;
+    }
+    
     @Override
     public long getTimestamp() {
         return timestamp;
     }
+    
+    @Override
+    public boolean executarSemEco() {
+        ecoConsole = false;
+        try {
+            return executar();
+        } finally {
+            ecoConsole = true;
+        }
+    }
+    
+    @Override
+    public List<Object> getReceptores() {
+        return Arrays.asList(jogador, sistema);
+    }
+    
+    /**
+     * Cria comando de ação pelo nome (mesmos nomes de AcaoCommandFactory)
+     * Ponto de entrada público para quem está fora deste arquivo (ex.: RecuperacaoJournal)
+     */
+    public static Command criar(String acao, Jogador jogador, SistemaJogo sistema) {
+        return AcaoCommandFactory.criarComandoAcao(acao, jogador, sistema);
+    }
 }
 
 /**
@@ -55,7 +102,9 @@ class ComandoAtacar extends ComandoAcao {
             return false;
         }
         
-        System.out.println("\nExecutando: " + getDescricao());
+        if (ecoConsole) {
+            System.out.println("\nExecutando: " + getDescricao());
+        }
         
         // Salva estado para undo
         pontuacaoAnterior = sistema.getPontuacao();
@@ -66,12 +115,14 @@ class ComandoAtacar extends ComandoAcao {
         
         // Atualiza sistema
         sistema.adicionarPontos(10);
-        sistema.incrementarEstatistica("ataques", 1);
-        sistema.incrementarEstatistica("dano_causado", danoGerado);
+        sistema.incrementarEstatistica(Estatistica.ATAQUES, 1);
+        sistema.incrementarEstatistica(Estatistica.DANO_CAUSADO, danoGerado);
         sistema.proximoTurno();
         
         executado = true;
-        System.out.println("SUCESSO: Ataque executado com sucesso!");
+        if (ecoConsole) {
+            System.out.println("SUCESSO: Ataque executado com sucesso!");
+        }
         return true;
     }
     
@@ -89,8 +140,8 @@ class ComandoAtacar extends ComandoAcao {
         // Reverte apenas o que é possível
         sistema.setPontuacao(pontuacaoAnterior);
         sistema.setTurno(turnoAnterior);
-        sistema.setEstatistica("ataques", sistema.getEstatistica("ataques") - 1);
-        sistema.setEstatistica("dano_causado", sistema.getEstatistica("dano_causado") - danoGerado);
+        sistema.setEstatistica(Estatistica.ATAQUES, sistema.getEstatistica(Estatistica.ATAQUES) - 1);
+        sistema.setEstatistica(Estatistica.DANO_CAUSADO, sistema.getEstatistica(Estatistica.DANO_CAUSADO) - danoGerado);
         
         executado = false;
         System.out.println("SUCESSO: Comando parcialmente desfeito!");
@@ -106,6 +157,11 @@ class ComandoAtacar extends ComandoAcao {
     public String getDescricao() {
         return jogador.getNome() + " executa ataque";
     }
+    
+    @Override
+    public String getCodigoJournal() {
+        return "acao:atacar";
+    }
 }
 
 /**
@@ -140,7 +196,9 @@ class ComandoAtaqueMagico extends ComandoAcao {
             return false;
         }
         
-        System.out.println("\nExecutando: " + getDescricao());
+        if (ecoConsole) {
+            System.out.println("\nExecutando: " + getDescricao());
+        }
         
         // Salva estado para undo
         pontuacaoAnterior = sistema.getPontuacao();
@@ -155,12 +213,14 @@ class ComandoAtaqueMagico extends ComandoAcao {
             
             // Atualiza sistema
             sistema.adicionarPontos(15);
-            sistema.incrementarEstatistica("ataques", 1);
-            sistema.incrementarEstatistica("dano_causado", danoGerado);
+            sistema.incrementarEstatistica(Estatistica.ATAQUES, 1);
+            sistema.incrementarEstatistica(Estatistica.DANO_CAUSADO, danoGerado);
             sistema.proximoTurno();
             
             executado = true;
-            System.out.println("SUCESSO: Ataque mágico executado com sucesso!");
+            if (ecoConsole) {
+                System.out.println("SUCESSO: Ataque mágico executado com sucesso!");
+            }
             return true;
         } else {
             System.out.println("ERRO: Falha no ataque mágico!");
@@ -186,8 +246,8 @@ class ComandoAtaqueMagico extends ComandoAcao {
         // Reverte sistema
         sistema.setPontuacao(pontuacaoAnterior);
         sistema.setTurno(turnoAnterior);
-        sistema.setEstatistica("ataques", sistema.getEstatistica("ataques") - 1);
-        sistema.setEstatistica("dano_causado", sistema.getEstatistica("dano_causado") - danoGerado);
+        sistema.setEstatistica(Estatistica.ATAQUES, sistema.getEstatistica(Estatistica.ATAQUES) - 1);
+        sistema.setEstatistica(Estatistica.DANO_CAUSADO, sistema.getEstatistica(Estatistica.DANO_CAUSADO) - danoGerado);
         
         executado = false;
         System.out.println("SUCESSO: Ataque mágico desfeito com sucesso!");
@@ -203,6 +263,11 @@ class ComandoAtaqueMagico extends ComandoAcao {
     public String getDescricao() {
         return jogador.getNome() + " executa ataque mágico";
     }
+    
+    @Override
+    public String getCodigoJournal() {
+        return "acao:magia";
+    }
 }
 
 /**
@@ -230,7 +295,9 @@ class ComandoUsarPocaoCura extends ComandoAcao {
             return false;
         }
         
-        System.out.println("\nExecutando: " + getDescricao());
+        if (ecoConsole) {
+            System.out.println("\nExecutando: " + getDescricao());
+        }
         
         // Salva estado para undo
         turnoAnterior = sistema.getTurno();
@@ -241,11 +308,13 @@ class ComandoUsarPocaoCura extends ComandoAcao {
         
         if (curaRealizada > 0) {
             // Atualiza sistema
-            sistema.incrementarEstatistica("itens_usados", 1);
+            sistema.incrementarEstatistica(Estatistica.ITENS_USADOS, 1);
             sistema.proximoTurno();
             
             executado = true;
-            System.out.println(" Poção de cura usada com sucesso!");
+            if (ecoConsole) {
+                System.out.println(" Poção de cura usada com sucesso!");
+            }
             return true;
         } else {
             System.out.println("  Poção não teve efeito (vida já estava máxima)");
@@ -269,7 +338,7 @@ class ComandoUsarPocaoCura extends ComandoAcao {
         
         // Reverte sistema
         sistema.setTurno(turnoAnterior);
-        sistema.setEstatistica("itens_usados", sistema.getEstatistica("itens_usados") - 1);
+        sistema.setEstatistica(Estatistica.ITENS_USADOS, sistema.getEstatistica(Estatistica.ITENS_USADOS) - 1);
         
         executado = false;
         System.out.println("Efeitos da poção revertidos!");
@@ -285,6 +354,11 @@ class ComandoUsarPocaoCura extends ComandoAcao {
     public String getDescricao() {
         return jogador.getNome() + " usa poção de cura";
     }
+    
+    @Override
+    public String getCodigoJournal() {
+        return "acao:cura";
+    }
 }
 
 /**
@@ -312,7 +386,9 @@ class ComandoUsarPocaoMana extends ComandoAcao {
             return false;
         }
         
-        System.out.println("\nExecutando: " + getDescricao());
+        if (ecoConsole) {
+            System.out.println("\nExecutando: " + getDescricao());
+        }
         
         // Salva estado para undo
         turnoAnterior = sistema.getTurno();
@@ -323,11 +399,13 @@ class ComandoUsarPocaoMana extends ComandoAcao {
         
         if (restauracaoRealizada > 0) {
             // Atualiza sistema
-            sistema.incrementarEstatistica("itens_usados", 1);
+            sistema.incrementarEstatistica(Estatistica.ITENS_USADOS, 1);
             sistema.proximoTurno();
             
             executado = true;
-            System.out.println("Poção de mana usada com sucesso!");
+            if (ecoConsole) {
+                System.out.println("Poção de mana usada com sucesso!");
+            }
             return true;
         } else {
             System.out.println("Poção não teve efeito (mana já estava máxima)");
@@ -349,7 +427,7 @@ class ComandoUsarPocaoMana extends ComandoAcao {
         
         // Reverte sistema
         sistema.setTurno(turnoAnterior);
-        sistema.setEstatistica("itens_usados", sistema.getEstatistica("itens_usados") - 1);
+        sistema.setEstatistica(Estatistica.ITENS_USADOS, sistema.getEstatistica(Estatistica.ITENS_USADOS) - 1);
         
         executado = false;
         System.out.println("SUCESSO: Efeitos da poção revertidos!");
@@ -365,17 +443,39 @@ class ComandoUsarPocaoMana extends ComandoAcao {
     public String getDescricao() {
         return jogador.getNome() + " usa poção de mana";
     }
+    
+    @Override
+    public String getCodigoJournal() {
+        return "acao:mana";
+    }
 }
 
 /**
  * Comando para salvar jogo
+ * 
+ * Tem prioridade alta no agendador: um volume grande de movimentos
+ * agendados não deve atrasar o save.
  */
-class ComandoSalvarJogo extends ComandoAcao {
+class ComandoSalvarJogo extends ComandoAcao implements PriorityCommand {
+    
+    private static final int PRIORIDADE_PADRAO = 100;
+    
+    private int prioridade = PRIORIDADE_PADRAO;
     
     public ComandoSalvarJogo(Jogador jogador, SistemaJogo sistema) {
         super(jogador, sistema);
     }
     
+    @Override
+    public int getPrioridade() {
+        return prioridade;
+    }
+    
+    @Override
+    public void setPrioridade(int prioridade) {
+        this.prioridade = prioridade;
+    }
+    
     @Override
     public boolean executar() {
         if (executado) {
@@ -383,14 +483,18 @@ class ComandoSalvarJogo extends ComandoAcao {
             return false;
         }
         
-        System.out.println("\nExecutando: " + getDescricao());
+        if (ecoConsole) {
+            System.out.println("\nExecutando: " + getDescricao());
+        }
         
         // Executa save
         boolean sucesso = sistema.salvarJogo();
         
         if (sucesso) {
             executado = true;
-            System.out.println("SUCESSO: Jogo salvo com sucesso!");
+            if (ecoConsole) {
+                System.out.println("SUCESSO: Jogo salvo com sucesso!");
+            }
             return true;
         } else {
             System.out.println("ERRO: Falha ao salvar jogo!");
@@ -411,10 +515,20 @@ class ComandoSalvarJogo extends ComandoAcao {
         return false; // Operações de I/O não podem ser desfeitas
     }
     
+    @Override
+    public CacheRefazer getCacheRefazer() {
+        return null; // Redo precisa gravar o arquivo de novo
+    }
+    
     @Override
     public String getDescricao() {
         return "Salvar jogo atual";
     }
+    
+    @Override
+    public String getCodigoJournal() {
+        return "acao:salvar";
+    }
 }
 
 /**
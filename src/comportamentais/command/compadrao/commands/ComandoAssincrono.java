@@ -0,0 +1,178 @@
+package comportamentais.command.compadrao.commands;
+
+import comportamentais.command.compadrao.interfaces.AsyncCommand;
+import comportamentais.command.compadrao.interfaces.Command;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Comando assíncrono - CONCRETE COMMAND no padrão Command
+ *
+ * PADRÃO COMMAND + DECORATOR:
+ * Envolve qualquer comando e o torna assíncrono. executarAsync() devolve
+ * um CompletableFuture que pode ser encadeado (thenCompose), combinado
+ * (allOf) ou cancelado, sem bloquear nenhuma thread em Future.get().
+ *
+ * CANCELAMENTO:
+ * - antes de iniciar: o comando não chega a ser executado
+ * - em andamento: a thread de execução é interrompida; comandos que
+ *   bloqueiam em I/O (ex.: salvarJogo) recebem InterruptedException.
+ *   Se o comando ainda assim terminar com sucesso, ele não entra no
+ *   histórico, então os seus efeitos são desfeitos (quando reversível)
+ *
+ * Pode ser estendido por comandos que precisem personalizar a execução.
+ */
+public class ComandoAssincrono implements AsyncCommand {
+
+    protected final Command comando;
+    protected final Executor executor;
+
+    private final AtomicBoolean executando = new AtomicBoolean(false);
+    private volatile CompletableFuture<Boolean> futuroAtual;
+    private Thread threadExecucao; // protegida por "this"
+
+    /**
+     * @param comando comando a ser executado de forma assíncrona
+     * @param executor executor onde o comando será executado
+     */
+    public ComandoAssincrono(Command comando, Executor executor) {
+        this.comando = comando;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> executarAsync() {
+        if (!executando.compareAndSet(false, true)) {
+            System.out.println("AVISO: Comando já está em execução: " + getDescricao());
+            return CompletableFuture.completedFuture(false);
+        }
+
+        CompletableFuture<Boolean> futuro = new CompletableFuture<>();
+        futuroAtual = futuro;
+
+        try {
+            executor.execute(() -> executarNaThread(futuro));
+        } catch (RuntimeException e) {
+            executando.set(false);
+            futuro.completeExceptionally(e);
+        }
+
+        return futuro;
+    }
+
+    /**
+     * Executa o comando na thread do executor, completando o futuro
+     */
+    private void executarNaThread(CompletableFuture<Boolean> futuro) {
+        synchronized (this) {
+            // Cancelado antes de começar; cancelar() também testa o futuro sob "this"
+            if (futuro.isDone()) {
+                executando.set(false);
+                return;
+            }
+            threadExecucao = Thread.currentThread();
+        }
+
+        boolean canceladoAposAplicar = false;
+        try {
+            boolean sucesso = comando.executar();
+            // complete falha se o futuro foi cancelado durante a execução
+            canceladoAposAplicar = !futuro.complete(sucesso) && sucesso;
+        } catch (Throwable e) {
+            futuro.completeExceptionally(e);
+        } finally {
+            synchronized (this) {
+                threadExecucao = null;
+                // Descarta interrupção de um cancelamento tardio
+                Thread.interrupted();
+            }
+            if (canceladoAposAplicar) {
+                reverterCancelado();
+            }
+            executando.set(false);
+        }
+    }
+
+    /**
+     * O comando terminou com sucesso, mas foi cancelado durante a execução
+     * Como não entra no histórico, os efeitos são desfeitos aqui
+     */
+    private void reverterCancelado() {
+        if (!comando.podeSerDesfeito()) {
+            System.out.println("AVISO: Comando cancelado após aplicar efeitos irreversíveis: " + getDescricao());
+            return;
+        }
+        try {
+            if (comando.desfazer()) {
+                System.out.println("Comando cancelado durante a execução; efeitos desfeitos: " + getDescricao());
+            } else {
+                System.out.println("ERRO: Falha ao desfazer comando cancelado: " + getDescricao());
+            }
+        } catch (RuntimeException e) {
+            System.out.println("ERRO ao desfazer comando cancelado: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean cancelar() {
+        CompletableFuture<Boolean> futuro = futuroAtual;
+        if (futuro == null || futuro.isDone()) {
+            return false;
+        }
+
+        boolean cancelado;
+        synchronized (this) {
+            // Sob "this": ou a execução ainda não começou (e verá o cancelamento),
+            // ou threadExecucao já está definida e é interrompida
+            cancelado = futuro.cancel(false);
+            if (cancelado && threadExecucao != null) {
+                threadExecucao.interrupt();
+            }
+        }
+        if (cancelado) {
+            System.out.println("Comando cancelado: " + getDescricao());
+        }
+        return cancelado;
+    }
+
+    @Override
+    public boolean estaExecutando() {
+        return executando.get();
+    }
+
+    @Override
+    public boolean executar() {
+        return comando.executar();
+    }
+
+    @Override
+    public boolean desfazer() {
+        return comando.desfazer();
+    }
+
+    @Override
+    public boolean podeSerDesfeito() {
+        return comando.podeSerDesfeito();
+    }
+
+    @Override
+    public String getDescricao() {
+        return comando.getDescricao();
+    }
+
+    @Override
+    public long getTimestamp() {
+        return comando.getTimestamp();
+    }
+
+    @Override
+    public List<Object> getReceptores() {
+        return comando.getReceptores();
+    }
+
+    public Command getComando() {
+        return comando;
+    }
+}
@@ -0,0 +1,338 @@
+package comportamentais.command.compadrao.commands;
+
+import comportamentais.command.compadrao.interfaces.ComandoJornalizavel;
+import comportamentais.command.compadrao.interfaces.Command;
+import comportamentais.command.compadrao.interfaces.CompositeCommand;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Comando composto (macro) - COMPOSITE + COMMAND
+ *
+ * PADRÃO COMPOSITE + COMMAND:
+ * Agrupa vários comandos e os trata como um único comando: uma única
+ * entrada no histórico, desfeita de uma vez.
+ *
+ * ATOMICIDADE:
+ * - executar: se um subcomando falha, os que já foram executados são
+ *   desfeitos em ordem reversa e o composto falha como um todo
+ * - desfazer: desfaz todos os subcomandos em ordem reversa
+ *
+ * RAMOS INDEPENDENTES:
+ * Subcomandos marcados como independentes (adicionarComandoIndependente)
+ * que estejam em sequência formam um estágio paralelo: são executados
+ * juntos no executor e o estágio termina quando todos terminam. A latência
+ * do estágio passa a ser a do ramo mais lento, e não a soma dos ramos.
+ *
+ * O estágio só executa em paralelo se todos os ramos declaram os seus
+ * receivers (Command.getReceptores), nenhum receiver aparece em dois
+ * ramos e todos os ramos podem ser desfeitos (a falha de um ramo desfaz
+ * os outros). Caso contrário, o estágio executa em sequência.
+ *
+ * Os comandos de movimento e ação declaram (jogador, sistema): pontuação
+ * e turno do SistemaJogo não são seguros para várias threads. Dois ramos
+ * do mesmo jogo sempre executam em sequência; só executam em paralelo
+ * ramos de jogos diferentes (cada jogador com o seu SistemaJogo, ver
+ * BenchmarkMacroParalelo).
+ *
+ * JOURNAL:
+ * O código de journal lista os códigos dos subcomandos (macros aninhados
+ * são achatados); é null se algum subcomando não for jornalizável. Na
+ * recuperação, o macro é recriado com os subcomandos em sequência.
+ *
+ * A thread que executa o macro espera os ramos: o executor dos estágios
+ * não deve ser o mesmo que executa o macro, ou o pool pode esgotar
+ * esperando por si mesmo.
+ */
+public class ComandoComposto implements CompositeCommand, ComandoJornalizavel {
+
+    /**
+     * Tipo do código de journal de um macro: "macro:codigo;codigo;..."
+     */
+    public static final String TIPO_JOURNAL = "macro";
+    public static final String SEPARADOR_JOURNAL = ";";
+
+    private final String descricao;
+    private final Executor executor;
+    private final long timestamp;
+
+    private final List<Command> comandos;
+    private final Set<Command> independentes;
+
+    // Subcomandos executados com sucesso, na ordem de conclusão dos estágios
+    private final List<Command> executados;
+    private boolean executado = false;
+
+    /**
+     * @param descricao descrição do macro
+     * @param executor executor para estágios paralelos, diferente do que executa o macro (null = tudo sequencial)
+     */
+    public ComandoComposto(String descricao, Executor executor) {
+        this.descricao = descricao;
+        this.executor = executor;
+        this.timestamp = System.currentTimeMillis();
+        this.comandos = new ArrayList<>();
+        this.independentes = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.executados = new ArrayList<>();
+    }
+
+    @Override
+    public void adicionarComando(Command comando) {
+        comandos.add(comando);
+    }
+
+    /**
+     * Adiciona subcomando que pode executar em paralelo com os
+     * independentes adjacentes
+     */
+    public void adicionarComandoIndependente(Command comando) {
+        comandos.add(comando);
+        independentes.add(comando);
+    }
+
+    @Override
+    public void removerComando(Command comando) {
+        comandos.remove(comando);
+        independentes.remove(comando);
+    }
+
+    @Override
+    public List<Command> getComandos() {
+        return Collections.unmodifiableList(comandos);
+    }
+
+    @Override
+    public boolean executar() {
+        if (executado) {
+            System.out.println("AVISO: Comando já foi executado!");
+            return false;
+        }
+
+        System.out.println("\nExecutando macro: " + getDescricao());
+        executados.clear();
+
+        for (List<Command> estagio : montarEstagios()) {
+            boolean sucesso = estagio.size() == 1 || executor == null || !podeExecutarEmParalelo(estagio)
+                    ? executarSequencial(estagio)
+                    : executarParalelo(estagio);
+
+            if (!sucesso) {
+                System.out.println("AVISO: Macro falhou - desfazendo " + executados.size() + " comandos já executados");
+                desfazerExecutados();
+                return false;
+            }
+        }
+
+        executado = true;
+        System.out.println("SUCESSO: Macro executado (" + comandos.size() + " comandos)");
+        return true;
+    }
+
+    @Override
+    public boolean desfazer() {
+        if (!executado) {
+            System.out.println("AVISO: Comando não foi executado ainda!");
+            return false;
+        }
+
+        System.out.println("\nDesfazendo macro: " + getDescricao());
+        boolean sucesso = desfazerExecutados();
+
+        executado = false;
+        return sucesso;
+    }
+
+    @Override
+    public boolean podeSerDesfeito() {
+        for (Command comando : comandos) {
+            if (!comando.podeSerDesfeito()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * União dos receivers dos subcomandos, ou null se algum for desconhecido
+     */
+    @Override
+    public List<Object> getReceptores() {
+        List<Object> receptores = new ArrayList<>();
+        for (Command comando : comandos) {
+            List<Object> doComando = comando.getReceptores();
+            if (doComando == null) {
+                return null;
+            }
+            receptores.addAll(doComando);
+        }
+        return receptores;
+    }
+
+    /**
+     * @return "macro:" + códigos dos subcomandos, ou null se algum não puder ser recriado
+     */
+    @Override
+    public String getCodigoJournal() {
+        StringBuilder codigos = new StringBuilder();
+        if (!anexarCodigos(codigos)) {
+            return null;
+        }
+        return TIPO_JOURNAL + ":" + codigos;
+    }
+
+    private boolean anexarCodigos(StringBuilder codigos) {
+        for (Command comando : comandos) {
+            if (comando instanceof ComandoComposto) {
+                if (!((ComandoComposto) comando).anexarCodigos(codigos)) {
+                    return false;
+                }
+                continue;
+            }
+            String codigo = comando instanceof ComandoJornalizavel
+                    ? ((ComandoJornalizavel) comando).getCodigoJournal()
+                    : null;
+            if (codigo == null) {
+                return false;
+            }
+            if (codigos.length() > 0) {
+                codigos.append(SEPARADOR_JOURNAL);
+            }
+            codigos.append(codigo);
+        }
+        return true;
+    }
+
+    @Override
+    public String getDescricao() {
+        return descricao + " (" + comandos.size() + " comandos)";
+    }
+
+    @Override
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Agrupa comandos em estágios: independentes consecutivos formam um
+     * estágio paralelo; os demais formam estágios de um único comando
+     */
+    private List<List<Command>> montarEstagios() {
+        List<List<Command>> estagios = new ArrayList<>();
+        List<Command> paralelo = new ArrayList<>();
+
+        for (Command comando : comandos) {
+            if (independentes.contains(comando)) {
+                paralelo.add(comando);
+                continue;
+            }
+            if (!paralelo.isEmpty()) {
+                estagios.add(paralelo);
+                paralelo = new ArrayList<>();
+            }
+            estagios.add(Collections.singletonList(comando));
+        }
+        if (!paralelo.isEmpty()) {
+            estagios.add(paralelo);
+        }
+        return estagios;
+    }
+
+    /**
+     * Ramos reversíveis, com receivers conhecidos e sem receivers em comum
+     */
+    private boolean podeExecutarEmParalelo(List<Command> estagio) {
+        Set<Object> vistos = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Command comando : estagio) {
+            List<Object> receptores = comando.podeSerDesfeito() ? comando.getReceptores() : null;
+            if (receptores == null) {
+                System.out.println("AVISO: Ramo irreversível ou sem receivers declarados - estágio em sequência: "
+                        + comando.getDescricao());
+                return false;
+            }
+            for (Object receptor : receptores) {
+                if (!vistos.add(receptor)) {
+                    System.out.println("AVISO: Ramos alteram o mesmo receiver - estágio em sequência: "
+                            + comando.getDescricao());
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean executarSequencial(List<Command> estagio) {
+        for (Command comando : estagio) {
+            if (!executarSeguro(comando)) {
+                return false;
+            }
+            executados.add(comando);
+        }
+        return true;
+    }
+
+    /**
+     * Executa o estágio em paralelo e aguarda todos os ramos
+     *
+     * Mesmo com falha, aguarda todos os ramos: os que tiveram sucesso
+     * precisam ser desfeitos junto com o restante do macro. Se o executor
+     * recusar um ramo (ex.: encerrado), os já iniciados são aguardados e o
+     * estágio falha.
+     */
+    private boolean executarParalelo(List<Command> estagio) {
+        List<CompletableFuture<Boolean>> ramos = new ArrayList<>(estagio.size());
+        boolean sucesso = true;
+        try {
+            for (Command comando : estagio) {
+                ramos.add(CompletableFuture.supplyAsync(() -> executarSeguro(comando), executor));
+            }
+        } catch (RejectedExecutionException e) {
+            System.out.println("ERRO: Executor recusou ramo do macro: " + e.getMessage());
+            sucesso = false;
+        }
+
+        for (int i = 0; i < ramos.size(); i++) {
+            if (ramos.get(i).join()) {
+                executados.add(estagio.get(i));
+            } else {
+                sucesso = false;
+            }
+        }
+        return sucesso;
+    }
+
+    private boolean executarSeguro(Command comando) {
+        try {
+            return comando.executar();
+        } catch (Exception e) {
+            System.out.println("ERRO no comando do macro: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Desfaz subcomandos executados em ordem reversa
+     */
+    private boolean desfazerExecutados() {
+        boolean sucesso = true;
+        for (int i = executados.size() - 1; i >= 0; i--) {
+            Command comando = executados.get(i);
+            try {
+                if (!comando.podeSerDesfeito() || !comando.desfazer()) {
+                    System.out.println("AVISO: Não foi possível desfazer: " + comando.getDescricao());
+                    sucesso = false;
+                }
+            } catch (Exception e) {
+                System.out.println("ERRO ao desfazer comando do macro: " + e.getMessage());
+                sucesso = false;
+            }
+        }
+        executados.clear();
+        return sucesso;
+    }
+}
@@ -1,7 +1,11 @@
 package comportamentais.command.compadrao.commands;
 
 import comportamentais.command.compadrao.interfaces.Command;
+import comportamentais.command.compadrao.interfaces.ComandoJornalizavel;
+import comportamentais.command.compadrao.interfaces.RefazivelPorEstado;
 import comportamentais.command.compadrao.classes.*;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Comandos de movimento - CONCRETE COMMAND no padrão Command
@@ -17,7 +21,7 @@ import comportamentais.command.compadrao.classes.*;
  * - Manter estado necessário para undo
  * - Fornecer descrição da operação
  */
-public abstract class ComandoMovimento implements Command {
+public abstract class ComandoMovimento implements ComandoJornalizavel, RefazivelPorEstado {
     
     protected Jogador jogador;
     protected SistemaJogo sistema;
@@ -30,6 +34,12 @@ public abstract class ComandoMovimento implements Command {
     protected int turnoAnterior;
     protected boolean executado = false;
     
+    // Criado no primeiro undo (comandos nunca desfeitos não pagam por ele)
+    private CacheRefazer cacheRefazer;
+    
+    // Mensagens de progresso de executar (desligadas em executarSemEco)
+    protected boolean ecoConsole = true;
+    
     /**
      * Construtor base para comandos de movimento
      */
@@ -63,10 +73,46 @@ public abstract class ComandoMovimento implements Command {
         return true; // Todos os movimentos podem ser desfeitos
     }
     
+    @Override
+    public boolean executarSemEco() {
+        ecoConsole = false;
+        try {
+            return executar();
+        } finally {
+            ecoConsole = true;
+        }
+    }
+    
+    @Override
+    public CacheRefazer getCacheRefazer() {
+        if (cacheRefazer == null) {
+            cacheRefazer = new CacheRefazer(jogador, sistema);
+        }
+        return cacheRefazer;
+    }
+    
+    @Override
+    public void marcarRefeito() {
+        executado = true;
+    }
+    
     @Override
     public long getTimestamp() {
         return timestamp;
     }
+    
+    @Override
+    public List<Object> getReceptores() {
+        return Arrays.asList(jogador, sistema);
+    }
+    
+    /**
+     * Cria comando de movimento pela direção (mesmos nomes de MovimentoCommandFactory)
+     * Ponto de entrada público para quem está fora deste arquivo (ex.: RecuperacaoJournal)
+     */
+    public static Command criar(String direcao, Jogador jogador, SistemaJogo sistema) {
+        return MovimentoCommandFactory.criarComandoMovimento(direcao, jogador, sistema);
+    }
 }
 
 /**
@@ -85,7 +131,9 @@ class ComandoMoverNorte extends ComandoMovimento {
             return false;
         }
         
-        System.out.println("\nExecutando: " + getDescricao());
+        if (ecoConsole) {
+            System.out.println("\nExecutando: " + getDescricao());
+        }
         
         // Salva estado para undo
         salvarEstado();
@@ -93,11 +141,13 @@ class ComandoMoverNorte extends ComandoMovimento {
         // Executa operações no Receiver
         jogador.moverNorte();
         sistema.adicionarPontos(1);
-        sistema.incrementarEstatistica("movimentos", 1);
+        sistema.incrementarEstatistica(Estatistica.MOVIMENTOS, 1);
         sistema.proximoTurno();
         
         executado = true;
-        System.out.println("SUCESSO: Comando executado com sucesso!");
+        if (ecoConsole) {
+            System.out.println("SUCESSO: Comando executado com sucesso!");
+        }
         return true;
     }
     
@@ -122,6 +172,11 @@ class ComandoMoverNorte extends ComandoMovimento {
     public String getDescricao() {
         return "Mover " + jogador.getNome() + " para o norte";
     }
+    
+    @Override
+    public String getCodigoJournal() {
+        return "mover:norte";
+    }
 }
 
 /**
@@ -140,17 +195,21 @@ class ComandoMoverSul extends ComandoMovimento {
             return false;
         }
         
-        System.out.println("\nExecutando: " + getDescricao());
+        if (ecoConsole) {
+            System.out.println("\nExecutando: " + getDescricao());
+        }
         
         salvarEstado();
         
         jogador.moverSul();
         sistema.adicionarPontos(1);
-        sistema.incrementarEstatistica("movimentos", 1);
+        sistema.incrementarEstatistica(Estatistica.MOVIMENTOS, 1);
         sistema.proximoTurno();
         
         executado = true;
-        System.out.println("SUCESSO: Comando executado com sucesso!");
+        if (ecoConsole) {
+            System.out.println("SUCESSO: Comando executado com sucesso!");
+        }
         return true;
     }
     
@@ -174,6 +233,11 @@ class ComandoMoverSul extends ComandoMovimento {
     public String getDescricao() {
         return "Mover " + jogador.getNome() + " para o sul";
     }
+    
+    @Override
+    public String getCodigoJournal() {
+        return "mover:sul";
+    }
 }
 
 /**
@@ -192,17 +256,21 @@ class ComandoMoverLeste extends ComandoMovimento {
             return false;
         }
         
-        System.out.println("\nExecutando: " + getDescricao());
+        if (ecoConsole) {
+            System.out.println("\nExecutando: " + getDescricao());
+        }
         
         salvarEstado();
         
         jogador.moverLeste();
         sistema.adicionarPontos(1);
-        sistema.incrementarEstatistica("movimentos", 1);
+        sistema.incrementarEstatistica(Estatistica.MOVIMENTOS, 1);
         sistema.proximoTurno();
         
         executado = true;
-        System.out.println("SUCESSO: Comando executado com sucesso!");
+        if (ecoConsole) {
+            System.out.println("SUCESSO: Comando executado com sucesso!");
+        }
         return true;
     }
     
@@ -226,6 +294,11 @@ class ComandoMoverLeste extends ComandoMovimento {
     public String getDescricao() {
         return "Mover " + jogador.getNome() + " para o leste";
     }
+    
+    @Override
+    public String getCodigoJournal() {
+        return "mover:leste";
+    }
 }
 
 /**
@@ -244,17 +317,21 @@ class ComandoMoverOeste extends ComandoMovimento {
             return false;
         }
         
-        System.out.println("\nExecutando: " + getDescricao());
+        if (ecoConsole) {
+            System.out.println("\nExecutando: " + getDescricao());
+        }
         
         salvarEstado();
         
         jogador.moverOeste();
         sistema.adicionarPontos(1);
-        sistema.incrementarEstatistica("movimentos", 1);
+        sistema.incrementarEstatistica(Estatistica.MOVIMENTOS, 1);
         sistema.proximoTurno();
         
         executado = true;
-        System.out.println("SUCESSO: Comando executado com sucesso!");
+        if (ecoConsole) {
+            System.out.println("SUCESSO: Comando executado com sucesso!");
+        }
         return true;
     }
     
@@ -278,6 +355,11 @@ class ComandoMoverOeste extends ComandoMovimento {
     public String getDescricao() {
         return "Mover " + jogador.getNome() + " para o oeste";
     }
+    
+    @Override
+    public String getCodigoJournal() {
+        return "mover:oeste";
+    }
 }
 
 /**
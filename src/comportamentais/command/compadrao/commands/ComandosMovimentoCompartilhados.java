@@ -0,0 +1,339 @@
+package comportamentais.command.compadrao.commands;
+
+import comportamentais.command.compadrao.classes.*;
+import comportamentais.command.compadrao.interfaces.Command;
+import comportamentais.command.compadrao.interfaces.ComandoJornalizavel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Comandos de movimento compartilhados (FLYWEIGHT) de um jogador
+ *
+ * PADRÃO COMMAND + FLYWEIGHT:
+ * MovimentoCommandFactory cria um objeto novo (com timestamp e campos de
+ * estado) a cada movimento. Aqui existe um único comando por direção para
+ * cada par Jogador/SistemaJogo; o estado para undo fica fora do comando,
+ * em um registro compacto empilhado em arrays primitivos pré-alocados.
+ * Executar, desfazer e refazer um movimento não alocam objetos.
+ *
+ * PILHA DE DESFAZER:
+ * O INVOKER desfaz comandos em ordem LIFO, portanto os movimentos são
+ * desfeitos na ordem inversa da execução e cada desfazer consome o topo
+ * da pilha. A pilha é circular: deve ter capacidade maior ou igual à do
+ * histórico de comandos, pois movimentos descartados do histórico nunca
+ * serão desfeitos e seus registros podem ser sobrescritos. Criada com o
+ * GerenciadorComandos, a pilha tem a capacidade do histórico e cresce
+ * junto quando o histórico é redimensionado (verificado a cada movimento).
+ *
+ * RESTRIÇÕES:
+ * - Uso na thread que executa os comandos do jogador (como o próprio Jogador)
+ * - Um mesmo comando pode aparecer várias vezes no histórico; não use o
+ *   mesmo comando em ramos paralelos de um ComandoComposto
+ */
+public class ComandosMovimentoCompartilhados {
+
+    public static final int CAPACIDADE_PADRAO = 1024;
+
+    private final Jogador jogador;
+    private final SistemaJogo sistema;
+    // Receivers dos quatro comandos (montado uma vez)
+    private final List<Object> receptores;
+
+    // Registro de undo: posição e placar empacotados em dois longs + direção
+    private long[] posicoes;
+    private long[] placares;
+    private byte[] direcoes;
+    private int capacidade;
+    private int topo;
+    private int tamanho;
+
+    // Invoker cujo histórico define a capacidade (null: capacidade fixa)
+    private final GerenciadorComandos gerenciador;
+
+    // Mensagens de execução/undo no console
+    private volatile boolean ecoConsole = true;
+
+    private final ComandoCompartilhado norte;
+    private final ComandoCompartilhado sul;
+    private final ComandoCompartilhado leste;
+    private final ComandoCompartilhado oeste;
+
+    public ComandosMovimentoCompartilhados(Jogador jogador, SistemaJogo sistema) {
+        this(jogador, sistema, CAPACIDADE_PADRAO);
+    }
+
+    /**
+     * @param capacidade movimentos que podem ser desfeitos (>= capacidade do histórico)
+     */
+    public ComandosMovimentoCompartilhados(Jogador jogador, SistemaJogo sistema, int capacidade) {
+        this(jogador, sistema, capacidade, null);
+    }
+
+    /**
+     * Pilha com a capacidade do histórico do gerenciador, acompanhando seus redimensionamentos
+     *
+     * @param gerenciador invoker que executará os comandos
+     */
+    public ComandosMovimentoCompartilhados(Jogador jogador, SistemaJogo sistema, GerenciadorComandos gerenciador) {
+        this(jogador, sistema, gerenciador.getTamanhoMaximoHistorico(), gerenciador);
+    }
+
+    private ComandosMovimentoCompartilhados(Jogador jogador, SistemaJogo sistema, int capacidade,
+                                            GerenciadorComandos gerenciador) {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("Capacidade deve ser positiva: " + capacidade);
+        }
+        this.jogador = jogador;
+        this.sistema = sistema;
+        this.gerenciador = gerenciador;
+        this.receptores = Collections.unmodifiableList(Arrays.asList(jogador, sistema));
+        this.capacidade = capacidade;
+        this.posicoes = new long[capacidade];
+        this.placares = new long[capacidade];
+        this.direcoes = new byte[capacidade];
+
+        this.norte = new ComandoCompartilhado(Direcao.NORTE);
+        this.sul = new ComandoCompartilhado(Direcao.SUL);
+        this.leste = new ComandoCompartilhado(Direcao.LESTE);
+        this.oeste = new ComandoCompartilhado(Direcao.OESTE);
+    }
+
+    /**
+     * Comando compartilhado da direção (mesmos nomes aceitos por MovimentoCommandFactory)
+     */
+    public Command getComando(String direcao) {
+        switch (direcao.toLowerCase()) {
+            case "norte":
+            case "n":
+            case "up":
+                return norte;
+
+            case "sul":
+            case "s":
+            case "down":
+                return sul;
+
+            case "leste":
+            case "l":
+            case "east":
+            case "right":
+                return leste;
+
+            case "oeste":
+            case "o":
+            case "west":
+            case "left":
+                return oeste;
+
+            default:
+                throw new IllegalArgumentException("Direção inválida: " + direcao);
+        }
+    }
+
+    public Command norte() { return norte; }
+    public Command sul() { return sul; }
+    public Command leste() { return leste; }
+    public Command oeste() { return oeste; }
+
+    /**
+     * Movimentos que ainda podem ser desfeitos
+     */
+    public int getTamanho() {
+        return tamanho;
+    }
+
+    public int getCapacidade() {
+        return capacidade;
+    }
+
+    /**
+     * Liga/desliga as mensagens de execução e undo no console (avisos continuam)
+     */
+    public void setEcoConsole(boolean ecoConsole) {
+        this.ecoConsole = ecoConsole;
+    }
+
+    private void empilhar(Direcao direcao) {
+        if (gerenciador != null) {
+            int capacidadeHistorico = gerenciador.getTamanhoMaximoHistorico();
+            if (capacidadeHistorico > capacidade) {
+                crescer(capacidadeHistorico);
+            }
+        }
+        posicoes[topo] = empacotar(jogador.getX(), jogador.getY());
+        placares[topo] = empacotar(sistema.getPontuacao(), sistema.getTurno());
+        direcoes[topo] = (byte) direcao.ordinal();
+        topo = (topo + 1) % capacidade;
+        tamanho = Math.min(tamanho + 1, capacidade);
+    }
+
+    /**
+     * Realoca a pilha, mantendo os registros do mais antigo para o mais recente
+     */
+    private void crescer(int novaCapacidade) {
+        long[] novasPosicoes = new long[novaCapacidade];
+        long[] novosPlacares = new long[novaCapacidade];
+        byte[] novasDirecoes = new byte[novaCapacidade];
+        int inicio = (topo - tamanho + capacidade) % capacidade;
+        for (int i = 0; i < tamanho; i++) {
+            int origem = (inicio + i) % capacidade;
+            novasPosicoes[i] = posicoes[origem];
+            novosPlacares[i] = placares[origem];
+            novasDirecoes[i] = direcoes[origem];
+        }
+        posicoes = novasPosicoes;
+        placares = novosPlacares;
+        direcoes = novasDirecoes;
+        capacidade = novaCapacidade;
+        topo = tamanho % novaCapacidade;
+    }
+
+    private static long empacotar(int alto, int baixo) {
+        return ((long) alto << 32) | (baixo & 0xFFFFFFFFL);
+    }
+
+    private static int alto(long valor) {
+        return (int) (valor >>> 32);
+    }
+
+    private static int baixo(long valor) {
+        return (int) valor;
+    }
+
+    /**
+     * Direções de movimento - parte intrínseca (imutável) do flyweight
+     */
+    private enum Direcao {
+        NORTE("norte") {
+            @Override
+            void mover(Jogador jogador) { jogador.moverNorte(); }
+        },
+        SUL("sul") {
+            @Override
+            void mover(Jogador jogador) { jogador.moverSul(); }
+        },
+        LESTE("leste") {
+            @Override
+            void mover(Jogador jogador) { jogador.moverLeste(); }
+        },
+        OESTE("oeste") {
+            @Override
+            void mover(Jogador jogador) { jogador.moverOeste(); }
+        };
+
+        private final String nome;
+        private final String codigoJournal;
+
+        Direcao(String nome) {
+            this.nome = nome;
+            this.codigoJournal = "mover:" + nome;
+        }
+
+        abstract void mover(Jogador jogador);
+    }
+
+    /**
+     * Comando de uma direção, sem estado de undo próprio
+     *
+     * Mensagens são montadas na construção para não alocar a cada execução.
+     */
+    private final class ComandoCompartilhado implements ComandoJornalizavel {
+
+        private final Direcao direcao;
+        private final String descricao;
+        private final String mensagemExecutando;
+        private final String mensagemDesfazendo;
+        private long timestamp;
+
+        ComandoCompartilhado(Direcao direcao) {
+            this.direcao = direcao;
+            this.descricao = "Mover " + jogador.getNome() + " para o " + direcao.nome;
+            this.mensagemExecutando = "\nExecutando: " + descricao;
+            this.mensagemDesfazendo = "\nDesfazendo: " + descricao;
+            this.timestamp = System.currentTimeMillis();
+        }
+
+        @Override
+        public boolean executar() {
+            return executar(ecoConsole);
+        }
+
+        @Override
+        public boolean executarSemEco() {
+            return executar(false);
+        }
+
+        private boolean executar(boolean eco) {
+            if (eco) {
+                System.out.println(mensagemExecutando);
+            }
+
+            empilhar(direcao);
+            timestamp = System.currentTimeMillis();
+
+            direcao.mover(jogador);
+            sistema.adicionarPontos(1);
+            sistema.incrementarEstatistica(Estatistica.MOVIMENTOS, 1);
+            sistema.proximoTurno();
+
+            if (eco) {
+                System.out.println("SUCESSO: Comando executado com sucesso!");
+            }
+            return true;
+        }
+
+        @Override
+        public boolean desfazer() {
+            int anterior = (topo - 1 + capacidade) % capacidade;
+            if (tamanho == 0 || direcoes[anterior] != direcao.ordinal()) {
+                System.out.println("AVISO: Comando não foi executado ainda!");
+                return false;
+            }
+
+            boolean eco = ecoConsole;
+            if (eco) {
+                System.out.println(mensagemDesfazendo);
+            }
+
+            topo = anterior;
+            tamanho--;
+            jogador.moverPara(alto(posicoes[anterior]), baixo(posicoes[anterior]));
+            sistema.setPontuacao(alto(placares[anterior]));
+            sistema.setTurno(baixo(placares[anterior]));
+
+            if (eco) {
+                System.out.println("SUCESSO: Comando desfeito com sucesso!");
+            }
+            return true;
+        }
+
+        @Override
+        public boolean podeSerDesfeito() {
+            return true;
+        }
+
+        @Override
+        public String getDescricao() {
+            return descricao;
+        }
+
+        /**
+         * Momento da execução mais recente desta direção
+         */
+        @Override
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        @Override
+        public String getCodigoJournal() {
+            return direcao.codigoJournal;
+        }
+
+        @Override
+        public List<Object> getReceptores() {
+            return receptores;
+        }
+    }
+}
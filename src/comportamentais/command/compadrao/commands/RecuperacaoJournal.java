@@ -0,0 +1,113 @@
+package comportamentais.command.compadrao.commands;
+
+import comportamentais.command.compadrao.classes.*;
+import comportamentais.command.compadrao.interfaces.Command;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Recuperação de estado a partir do journal de comandos
+ *
+ * PADRÃO COMMAND - REPRODUÇÃO (REPLAY):
+ * Recria cada comando gravado a partir do seu código e o reproduz pelo
+ * INVOKER, na mesma ordem de execução/undo/redo. Como os comandos do jogo
+ * são determinísticos, Jogador e SistemaJogo voltam ao estado anterior
+ * à queda.
+ */
+public class RecuperacaoJournal {
+
+    /**
+     * Reproduz o journal sobre os receivers informados
+     *
+     * O gerenciador deve estar configurado como no momento da gravação
+     * (ex.: mesmo tamanho máximo de histórico) para que undo/redo
+     * atinjam os mesmos comandos. O journal do gerenciador é desligado
+     * durante a reprodução, para não duplicar registros.
+     *
+     * @return número de registros reproduzidos
+     */
+    public static int reproduzir(Path arquivo, GerenciadorComandos gerenciador,
+                                 Jogador jogador, SistemaJogo sistema) throws IOException {
+        List<JournalComandos.Registro> registros = JournalComandos.ler(arquivo);
+        System.out.println("\nRecuperando " + registros.size() + " registros do journal...");
+
+        JournalComandos journalAnterior = gerenciador.getJournal();
+        gerenciador.setJournal(null);
+        try {
+            for (JournalComandos.Registro registro : registros) {
+                switch (registro.getOperacao()) {
+                    case EXECUTAR:
+                        gerenciador.executarComando(criarComando(registro.getCodigo(), jogador, sistema));
+                        break;
+                    case DESFAZER:
+                        gerenciador.desfazerUltimoComando();
+                        break;
+                    case REFAZER:
+                        gerenciador.refazerUltimoComando();
+                        break;
+                }
+            }
+        } finally {
+            gerenciador.setJournal(journalAnterior);
+        }
+
+        System.out.println("SUCESSO: Recuperação concluída (" + registros.size() + " registros)");
+        return registros.size();
+    }
+
+    /**
+     * Recupera o estado a partir do diretório de snapshots
+     *
+     * Restaura o snapshot da geração ativa (se houver) e reproduz apenas
+     * o journal dessa geração, ou seja, no máximo um intervalo de comandos.
+     *
+     * @return número de registros reproduzidos
+     */
+    public static int recuperar(Path diretorio, GerenciadorComandos gerenciador,
+                                Jogador jogador, SistemaJogo sistema) throws IOException {
+        int geracao = GerenciadorSnapshots.geracaoAtual(diretorio);
+        Path arquivoSnapshot = GerenciadorSnapshots.arquivoSnapshot(diretorio, geracao);
+
+        if (Files.exists(arquivoSnapshot)) {
+            System.out.println("\nRestaurando snapshot da geração " + geracao + "...");
+            SnapshotJogo.ler(arquivoSnapshot).restaurar(jogador, sistema);
+        }
+
+        return reproduzir(GerenciadorSnapshots.arquivoJournal(diretorio, geracao), gerenciador, jogador, sistema);
+    }
+
+    /**
+     * Recria comando a partir do código gravado no journal
+     *
+     * @param codigo código no formato "tipo:parametro" (macros: "macro:codigo;codigo;...")
+     */
+    public static Command criarComando(String codigo, Jogador jogador, SistemaJogo sistema) {
+        int separador = codigo.indexOf(':');
+        if (separador < 0) {
+            throw new IllegalArgumentException("Código de journal inválido: " + codigo);
+        }
+
+        String tipo = codigo.substring(0, separador);
+        String parametro = codigo.substring(separador + 1);
+
+        switch (tipo) {
+            case "mover":
+                return ComandoMovimento.criar(parametro, jogador, sistema);
+            case "acao":
+                return ComandoAcao.criar(parametro, jogador, sistema);
+            case ComandoComposto.TIPO_JOURNAL:
+                // Subcomandos em sequência: o resultado é o mesmo dos estágios paralelos originais
+                ComandoComposto macro = new ComandoComposto("Macro recuperado do journal", null);
+                for (String subcodigo : parametro.split(ComandoComposto.SEPARADOR_JOURNAL)) {
+                    if (!subcodigo.isEmpty()) {
+                        macro.adicionarComando(criarComando(subcodigo, jogador, sistema));
+                    }
+                }
+                return macro;
+            default:
+                throw new IllegalArgumentException("Tipo de comando desconhecido no journal: " + tipo);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package comportamentais.command.compadrao.interfaces;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Interface para comandos que podem ser executados de forma assíncrona
+ */
+public interface AsyncCommand extends Command {
+    
+    /**
+     * Executa o comando de forma assíncrona
+     * 
+     * @return CompletableFuture representando a execução assíncrona,
+     *         que pode ser encadeado com outros comandos
+     */
+    CompletableFuture<Boolean> executarAsync();
+    
+    /**
+     * Cancela a execução assíncrona
+     * 
+     * @return true se cancelamento foi bem-sucedido
+     */
+    boolean cancelar();
+    
+    /**
+     * Verifica se o comando está sendo executado
+     * 
+     * @return true se comando está em execução
+     */
+    boolean estaExecutando();
+}
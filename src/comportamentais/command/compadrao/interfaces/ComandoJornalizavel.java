@@ -0,0 +1,19 @@
+package comportamentais.command.compadrao.interfaces;
+
+/**
+ * Interface para comandos que podem ser gravados no journal e reproduzidos
+ *
+ * O código identifica o comando de forma suficiente para recriá-lo na
+ * recuperação (ex.: "mover:norte", "acao:atacar"). Comandos sem código
+ * (ad hoc, ou macros com subcomandos ad hoc) não são gravados no journal,
+ * e o INVOKER avisa que a recuperação não os reproduzirá.
+ */
+public interface ComandoJornalizavel extends Command {
+
+    /**
+     * Retorna código usado para recriar o comando na recuperação
+     *
+     * @return código no formato "tipo:parametro", ou null se o comando não pode ser recriado
+     */
+    String getCodigoJournal();
+}
@@ -1,5 +1,7 @@
 package comportamentais.command.compadrao.interfaces;
 
+import java.util.List;
+
 /**
  * Interface Command do padrão Command
  * 
@@ -37,6 +39,21 @@ public interface Command {
      */
     boolean executar();
     
+    /**
+     * Executa o comando sem as mensagens de progresso no console
+     * 
+     * UTILIDADE:
+     * - Modo lote (GerenciadorComandos.executarFilaEmLotes): um único
+     *   resumo por lote em vez de mensagens por comando
+     * 
+     * Avisos e erros continuam impressos. Padrão: igual a executar()
+     * 
+     * @return true se comando foi executado com sucesso, false caso contrário
+     */
+    default boolean executarSemEco() {
+        return executar();
+    }
+    
     /**
      * Desfaz o comando (undo)
      * 
@@ -85,90 +102,18 @@ public interface Command {
      * @return timestamp de criação em milissegundos
      */
     long getTimestamp();
-}
-
-/**
- * Interface para comandos que podem ser agrupados (Composite Command)
- * 
- * PADRÃO COMPOSITE + COMMAND:
- * Permite criar comandos compostos que executam múltiplos comandos
- * como se fossem um único comando.
- */
-interface CompositeCommand extends Command {
-    
-    /**
-     * Adiciona um comando ao grupo
-     * 
-     * @param comando comando a ser adicionado
-     */
-    void adicionarComando(Command comando);
-    
-    /**
-     * Remove um comando do grupo
-     * 
-     * @param comando comando a ser removido
-     */
-    void removerComando(Command comando);
     
     /**
-     * Retorna lista de comandos no grupo
+     * Retorna os receivers que o comando altera
      * 
-     * @return lista de comandos
-     */
-    java.util.List<Command> getComandos();
-}
-
-/**
- * Interface para comandos que podem ser executados de forma assíncrona
- */
-interface AsyncCommand extends Command {
-    
-    /**
-     * Executa o comando de forma assíncrona
-     * 
-     * @return Future representando a execução assíncrona
-     */
-    java.util.concurrent.Future<Boolean> executarAsync();
-    
-    /**
-     * Cancela a execução assíncrona
-     * 
-     * @return true se cancelamento foi bem-sucedido
-     */
-    boolean cancelar();
-    
-    /**
-     * Verifica se o comando está sendo executado
-     * 
-     * @return true se comando está em execução
-     */
-    boolean estaExecutando();
-}
-
-/**
- * Interface para comandos que têm prioridade
- */
-interface PriorityCommand extends Command, Comparable<PriorityCommand> {
-    
-    /**
-     * Retorna prioridade do comando
-     * 
-     * @return prioridade (maior valor = maior prioridade)
-     */
-    int getPrioridade();
-    
-    /**
-     * Define prioridade do comando
+     * UTILIDADE:
+     * - Decidir se comandos podem executar em paralelo (ComandoComposto):
+     *   só comandos sem receivers em comum
      * 
-     * @param prioridade nova prioridade
-     */
-    void setPrioridade(int prioridade);
-    
-    /**
-     * Implementação padrão de comparação por prioridade
+     * @return receivers alterados, ou null se desconhecidos (padrão: o
+     *         comando nunca executa em paralelo com outro)
      */
-    @Override
-    default int compareTo(PriorityCommand other) {
-        return Integer.compare(other.getPrioridade(), this.getPrioridade());
+    default List<Object> getReceptores() {
+        return null;
     }
-}
\ No newline at end of file
+}
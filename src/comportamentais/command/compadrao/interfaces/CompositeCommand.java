@@ -0,0 +1,34 @@
+package comportamentais.command.compadrao.interfaces;
+
+import java.util.List;
+
+/**
+ * Interface para comandos que podem ser agrupados (Composite Command)
+ * 
+ * PADRÃO COMPOSITE + COMMAND:
+ * Permite criar comandos compostos que executam múltiplos comandos
+ * como se fossem um único comando.
+ */
+public interface CompositeCommand extends Command {
+    
+    /**
+     * Adiciona um comando ao grupo
+     * 
+     * @param comando comando a ser adicionado
+     */
+    void adicionarComando(Command comando);
+    
+    /**
+     * Remove um comando do grupo
+     * 
+     * @param comando comando a ser removido
+     */
+    void removerComando(Command comando);
+    
+    /**
+     * Retorna lista de comandos no grupo
+     * 
+     * @return lista de comandos
+     */
+    List<Command> getComandos();
+}
@@ -0,0 +1,50 @@
+package comportamentais.command.compadrao.interfaces;
+
+import comportamentais.command.compadrao.classes.ResumoMetricas;
+import java.util.List;
+
+/**
+ * Interface de gerenciamento (JMX) das métricas do GerenciadorComandos
+ *
+ * Exposta como MXBean: os resumos por tipo de comando aparecem no
+ * JConsole/VisualVM como tabela de CompositeData.
+ */
+public interface MetricasComandosMXBean {
+
+    boolean isHabilitado();
+
+    void setHabilitado(boolean habilitado);
+
+    /**
+     * Latência, contagem e falhas por tipo de comando e operação
+     */
+    List<ResumoMetricas> getResumoPorTipo();
+
+    long getTotalOperacoes();
+
+    long getTotalFalhas();
+
+    double getTaxaFalhas();
+
+    double getEsperaAgendadorMediaMs();
+
+    double getEsperaAgendadorP99Ms();
+
+    double getEsperaPoolMediaMs();
+
+    double getEsperaPoolP99Ms();
+
+    int getTarefasAtivasPool();
+
+    /**
+     * Média de tarefas em execução no executor assíncrono desde a última zeragem
+     */
+    double getMediaTarefasAtivasPool();
+
+    /**
+     * Fração do tempo em que as threads do pool ficaram ocupadas (NaN se o pool não tem tamanho fixo)
+     */
+    double getUtilizacaoPool();
+
+    void zerar();
+}
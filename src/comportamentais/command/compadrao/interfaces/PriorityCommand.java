@@ -0,0 +1,29 @@
+package comportamentais.command.compadrao.interfaces;
+
+/**
+ * Interface para comandos que têm prioridade
+ */
+public interface PriorityCommand extends Command, Comparable<PriorityCommand> {
+    
+    /**
+     * Retorna prioridade do comando
+     * 
+     * @return prioridade (maior valor = maior prioridade)
+     */
+    int getPrioridade();
+    
+    /**
+     * Define prioridade do comando
+     * 
+     * @param prioridade nova prioridade
+     */
+    void setPrioridade(int prioridade);
+    
+    /**
+     * Implementação padrão de comparação por prioridade
+     */
+    @Override
+    default int compareTo(PriorityCommand other) {
+        return Integer.compare(other.getPrioridade(), this.getPrioridade());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package comportamentais.command.compadrao.interfaces;
+
+import comportamentais.command.compadrao.classes.CacheRefazer;
+
+/**
+ * Interface para comandos cujo redo pode reaplicar estado em vez de executar de novo
+ *
+ * O GerenciadorComandos captura o estado antes do undo e, no redo,
+ * reaplica-o se as versões de Jogador e SistemaJogo não mudaram desde
+ * então (ver CacheRefazer). Caso contrário, executa o comando de novo.
+ *
+ * Comandos com efeitos fora de Jogador/SistemaJogo (ex.: arquivos)
+ * devem retornar null em getCacheRefazer.
+ */
+public interface RefazivelPorEstado extends Command {
+
+    /**
+     * @return cache do comando, ou null para sempre executar no redo
+     */
+    CacheRefazer getCacheRefazer();
+
+    /**
+     * Marca o comando como executado após o estado ser reaplicado
+     */
+    void marcarRefeito();
+}
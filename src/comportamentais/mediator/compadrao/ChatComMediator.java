@@ -1,7 +1,12 @@
 package comportamentais.mediator.compadrao;
 
+import comportamentais.mediator.compadrao.classes.CaixaPostal;
 import comportamentais.mediator.compadrao.classes.ChatRoom;
+import comportamentais.mediator.compadrao.classes.EntregaAssincrona;
+import comportamentais.mediator.compadrao.classes.SalaFragmentada;
+import comportamentais.mediator.compadrao.classes.ServidorChat;
 import comportamentais.mediator.compadrao.classes.Usuario;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Sistema de chat COM o padrão Mediator
@@ -46,6 +51,12 @@ public class ChatComMediator {
         
         System.out.println("\n--- DEMONSTRAÇÃO DE FLEXIBILIDADE ---");
         demonstrarFlexibilidade();
+        
+        System.out.println("\n--- ENTREGA ASSÍNCRONA ---");
+        demonstrarEntregaAssincrona();
+        
+        System.out.println("\n--- SERVIDOR COM VÁRIAS SALAS ---");
+        demonstrarServidor();
     }
     
     /**
@@ -84,6 +95,78 @@ public class ChatComMediator {
         System.out.println("Usuários no Chat Social: " + chatSocial.getNumeroUsuarios());
     }
     
+    /**
+     * Um usuário lento não atrasa quem envia
+     * Cada membro tem uma caixa postal; as mensagens são entregues em outras threads
+     */
+    private static void demonstrarEntregaAssincrona() {
+        EntregaAssincrona entrega = new EntregaAssincrona(4, CaixaPostal.PoliticaTransbordo.COALESCER);
+        try (entrega) {
+            ChatRoom chatSuporte = new ChatRoom("Chat Suporte", entrega);
+            
+            Usuario lucia = new Usuario("Lúcia", chatSuporte);
+            Usuario bruno = new Usuario("Bruno", chatSuporte) {
+                @Override
+                public void receberMensagem(String mensagem, Usuario remetente) {
+                    try {
+                        Thread.sleep(100); // conexão lenta
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    super.receberMensagem(mensagem, remetente);
+                }
+            };
+            chatSuporte.adicionarUsuario(lucia);
+            chatSuporte.adicionarUsuario(bruno);
+            
+            long inicio = System.nanoTime();
+            for (int i = 1; i <= 6; i++) {
+                chatSuporte.enviarMensagemPrivada("Atualização " + i + " do chamado", lucia, bruno);
+            }
+            long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+            // Sem caixa postal, seriam 600 ms; com a caixa cheia, as atualizações de Lúcia se juntam
+            System.out.println("Lúcia enviou 6 atualizações em " + duracaoMs + " ms");
+        }
+        // close espera as entregas antes das estatísticas
+        entrega.exibirEstatisticas();
+    }
+    
+    /**
+     * Várias salas no mesmo servidor, cada uma no seu laço de eventos
+     * Um usuário participa de mais de uma sala com o mesmo objeto
+     */
+    private static void demonstrarServidor() {
+        ServidorChat servidor = new ServidorChat(2);
+        try (servidor) {
+            SalaFragmentada salaJava = servidor.sala("Sala Java");
+            SalaFragmentada salaPython = servidor.sala("Sala Python");
+            
+            Usuario ana = new Usuario("Ana", salaJava);
+            Usuario carlos = new Usuario("Carlos", salaJava);
+            Usuario beatriz = new Usuario("Beatriz", salaPython);
+            
+            // Ana está nas duas salas
+            salaJava.adicionarUsuario(ana);
+            salaJava.adicionarUsuario(carlos);
+            salaPython.adicionarUsuario(ana);
+            salaPython.adicionarUsuario(beatriz);
+            // As operações rodam nos laços: espera cada etapa para o console ficar em ordem
+            servidor.descarregar(1, TimeUnit.SECONDS);
+            
+            ana.enviarMensagem("Alguém já usou records?");
+            servidor.descarregar(1, TimeUnit.SECONDS);
+            salaPython.enviarMensagem("E dataclasses?", ana);
+            servidor.descarregar(1, TimeUnit.SECONDS);
+            
+            // Carlos e Beatriz não têm sala em comum: a mensagem vai direto ao fragmento de Beatriz
+            servidor.enviarMensagemPrivada("Oi Beatriz, a Ana falou de você", carlos, beatriz);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // close espera as entregas antes das estatísticas
+        servidor.exibirEstatisticas();
+    }
+    
     /*
      * VANTAGENS DO PADRÃO MEDIATOR:
      * 
@@ -0,0 +1,403 @@
+package comportamentais.mediator.compadrao.benchmark;
+
+import comportamentais.mediator.compadrao.classes.CaixaPostal;
+import comportamentais.mediator.compadrao.classes.ChatRoom;
+import comportamentais.mediator.compadrao.classes.EntregaAssincrona;
+import comportamentais.mediator.compadrao.classes.Usuario;
+import comportamentais.mediator.compadrao.classes.Envelope;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Benchmark das operações de membro do ChatRoom em salas de 10, 1.000 e 100.000 membros
+ *
+ * Para cada tamanho, mede o custo médio (ns por operação) de:
+ * - ENTRAR/SAIR: um usuário novo entra e sai (a sala mantém o tamanho;
+ *   cada mudança copia o vetor de broadcast, por isso menos operações
+ *   acima de 1.000 membros)
+ * - PRIVADA: mensagem privada entre dois membros sorteados
+ * - BROADCAST: mensagem para todos (custo por destinatário)
+ *
+ * Compara com a versão anterior da sala (ArrayList + contains), reproduzida
+ * aqui sem impressão. Os usuários só contam as mensagens recebidas.
+ *
+ * Por fim, compara o broadcast em 100.000 membros entregue na thread do
+ * remetente e em paralelo no pool padrão das salas, e o tempo do remetente
+ * em salas com 1% de membros lentos, com e sem caixas postais.
+ *
+ * ROTATIVIDADE: em 1.000, 10.000 e 100.000 membros, um usuário novo
+ * entra, há um broadcast, ele sai e há outro broadcast; mede o custo da
+ * mudança somado ao do broadcast seguinte, contra o de um broadcast sem
+ * mudança antes.
+ *
+ * SERIALIZAÇÃO: broadcast em 10.000 membros que transformam a mensagem
+ * na linha em UTF-8 (como para enviar pela rede), formatando e codificando
+ * por destinatário ou usando o Envelope codificado uma vez.
+ *
+ * Uso: BenchmarkChatRoom [operacoes]
+ */
+public class BenchmarkChatRoom {
+
+    private static final int[] TAMANHOS = {10, 1_000, 100_000};
+
+    /**
+     * Usuário que só conta as mensagens recebidas
+     */
+    private static class UsuarioContador extends Usuario {
+        long recebidas;
+
+        UsuarioContador(String nome, ChatRoom sala) {
+            super(nome, sala);
+        }
+
+        @Override
+        public void receberMensagem(String mensagem, Usuario remetente) {
+            recebidas++;
+        }
+    }
+
+    /**
+     * Usuário com conexão lenta: 1 ms por mensagem
+     */
+    private static final class UsuarioLento extends UsuarioContador {
+
+        UsuarioLento(String nome, ChatRoom sala) {
+            super(nome, sala);
+        }
+
+        @Override
+        public void receberMensagem(String mensagem, Usuario remetente) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.receberMensagem(mensagem, remetente);
+        }
+    }
+
+    /**
+     * Serializa cada mensagem recebida: formata a linha e codifica em UTF-8
+     */
+    private static final class UsuarioFormatador extends UsuarioContador {
+
+        UsuarioFormatador(String nome, ChatRoom sala) {
+            super(nome, sala);
+        }
+
+        @Override
+        public void receberMensagem(String mensagem, Usuario remetente) {
+            byte[] linha = ("[Bench] " + remetente.getNome() + ": " + mensagem).getBytes(StandardCharsets.UTF_8);
+            recebidas += linha.length;
+        }
+    }
+
+    /**
+     * Usa a linha já codificada do envelope
+     */
+    private static final class UsuarioSerializador extends UsuarioContador {
+
+        UsuarioSerializador(String nome, ChatRoom sala) {
+            super(nome, sala);
+        }
+
+        @Override
+        public void receberEnvelope(Envelope envelope) {
+            ByteBuffer linha = envelope.getConteudo();
+            recebidas += linha.remaining();
+        }
+    }
+
+    /**
+     * Algoritmo original do ChatRoom: lista com contains/remove por equals
+     */
+    private static final class SalaLista {
+        final List<Usuario> usuarios = new ArrayList<>();
+
+        void adicionarUsuario(Usuario usuario) {
+            if (!usuarios.contains(usuario)) {
+                usuarios.add(usuario);
+            }
+        }
+
+        void removerUsuario(Usuario usuario) {
+            usuarios.remove(usuario);
+        }
+
+        void enviarMensagemPrivada(String mensagem, Usuario remetente, Usuario destinatario) {
+            if (usuarios.contains(remetente) && usuarios.contains(destinatario)) {
+                destinatario.receberMensagem(mensagem, remetente);
+            }
+        }
+    }
+
+    // Evita que o JIT descarte o trabalho medido
+    private static long sumidouro;
+
+    public static void main(String[] args) {
+        int operacoes = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        System.out.println("=== BENCHMARK: MEMBROS DO CHATROOM ===");
+        System.out.println("Operações por medida: " + operacoes + " (entrar+sair e lista: "
+                + operacoesReduzidas(100_000, operacoes) + " em 100.000 membros)");
+        System.out.printf("%-10s %-10s %-16s %-16s %-18s%n", "Membros", "Sala", "Entrar+sair (ns)", "Privada (ns)",
+                "Broadcast (ns/dest)");
+
+        // Aquecimento
+        for (int tamanho : TAMANHOS) {
+            medirIndice(tamanho, operacoes / 10, false);
+        }
+        medirLista(1_000, operacoes / 10, false);
+
+        for (int tamanho : TAMANHOS) {
+            medirIndice(tamanho, operacoes, true);
+            medirLista(tamanho, operacoesReduzidas(tamanho, operacoes), true);
+        }
+
+        System.out.println("\nBroadcast em 100.000 membros (paralelismo do pool das salas: "
+                + ChatRoom.getPoolPadrao().getParallelism() + ")");
+        medirBroadcast(100_000, null, operacoes / 10, false);
+        medirBroadcast(100_000, ChatRoom.getPoolPadrao(), operacoes / 10, false);
+        medirBroadcast(100_000, null, operacoes, true);
+        medirBroadcast(100_000, ChatRoom.getPoolPadrao(), operacoes, true);
+
+        System.out.println("\nRemetente com 1% de membros lentos (1 ms por mensagem)");
+        for (int tamanho : new int[] {1_000, 10_000}) {
+            medirRemetente(tamanho, null);
+            try (EntregaAssincrona entrega = new EntregaAssincrona(64, CaixaPostal.PoliticaTransbordo.DESCARTAR_MAIS_ANTIGA)) {
+                medirRemetente(tamanho, entrega);
+            }
+        }
+
+        System.out.println("\nRotatividade (entrada ou saída seguida de broadcast)");
+        for (int tamanho : TAMANHOS) {
+            medirRotatividade(tamanho, operacoes / 10, false);
+        }
+        for (int tamanho : new int[] {1_000, 10_000, 100_000}) {
+            medirRotatividade(tamanho, operacoes, true);
+        }
+
+        System.out.println("\nSerialização em 10.000 membros");
+        medirSerializacao(10_000, false, operacoes / 10, false);
+        medirSerializacao(10_000, true, operacoes / 10, false);
+        medirSerializacao(10_000, false, operacoes, true);
+        medirSerializacao(10_000, true, operacoes, true);
+        System.out.println("(sumidouro " + sumidouro + ")");
+    }
+
+    /**
+     * @param envelope true: usa Envelope.getConteudo; false: formata e codifica por destinatário
+     */
+    private static void medirSerializacao(int tamanho, boolean envelope, int operacoes, boolean exibir) {
+        ChatRoom sala = new ChatRoom("Bench", (ForkJoinPool) null);
+        sala.setEcoConsole(false);
+        UsuarioContador[] membros = new UsuarioContador[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            membros[i] = envelope ? new UsuarioSerializador("membro-" + i, sala) : new UsuarioFormatador("membro-" + i, sala);
+            sala.adicionarUsuario(membros[i]);
+        }
+        int broadcasts = Math.max(20, operacoes / tamanho * 10);
+        long codificacoes = Envelope.getTotalCodificacoes();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < broadcasts; i++) {
+            sala.enviarMensagem("Reunião às 14h na sala de conferências", membros[sorteio(i, tamanho)]);
+        }
+        long duracao = System.nanoTime() - inicio;
+        codificacoes = Envelope.getTotalCodificacoes() - codificacoes;
+
+        for (UsuarioContador membro : membros) {
+            sumidouro += membro.recebidas;
+        }
+        if (exibir) {
+            System.out.printf("%-26s %.1f ns/dest, %d codificações de envelope em %d broadcasts%n",
+                    envelope ? "envelope (uma vez)" : "por destinatário", duracao / ((double) broadcasts * tamanho),
+                    codificacoes, broadcasts);
+        }
+    }
+
+    /**
+     * Broadcast logo depois de cada entrada/saída, comparado ao broadcast sem mudança
+     */
+    private static void medirRotatividade(int tamanho, int operacoes, boolean exibir) {
+        ChatRoom sala = new ChatRoom("Bench", (ForkJoinPool) null);
+        sala.setEcoConsole(false);
+        UsuarioContador[] membros = new UsuarioContador[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            membros[i] = new UsuarioContador("membro-" + i, sala);
+            sala.adicionarUsuario(membros[i]);
+        }
+        int ciclos = Math.max(20, operacoes / tamanho * 10);
+        UsuarioContador[] visitantes = criarVisitantes(ciclos, sala);
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < ciclos; i++) {
+            sala.adicionarUsuario(visitantes[i]);
+            sala.enviarMensagem("todos", membros[sorteio(i, tamanho)]);
+            sala.removerUsuario(visitantes[i]);
+            sala.enviarMensagem("todos", membros[sorteio(i + 1, tamanho)]);
+        }
+        double comMudanca = (System.nanoTime() - inicio) / (2.0 * ciclos);
+
+        inicio = System.nanoTime();
+        for (int i = 0; i < ciclos; i++) {
+            sala.enviarMensagem("todos", membros[sorteio(i, tamanho)]);
+        }
+        double semMudanca = (System.nanoTime() - inicio) / (double) ciclos;
+
+        for (UsuarioContador membro : membros) {
+            sumidouro += membro.recebidas;
+        }
+        if (exibir) {
+            System.out.printf("%-10d mudança+broadcast %.1f us, só broadcast %.1f us%n", tamanho,
+                    comMudanca / 1e3, semMudanca / 1e3);
+        }
+    }
+
+    /**
+     * @param pool null para entregar na thread do remetente
+     */
+    private static void medirBroadcast(int tamanho, ForkJoinPool pool, int operacoes, boolean exibir) {
+        ChatRoom sala = new ChatRoom("Bench", pool);
+        sala.setEcoConsole(false);
+        UsuarioContador[] membros = new UsuarioContador[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            membros[i] = new UsuarioContador("membro-" + i, sala);
+            sala.adicionarUsuario(membros[i]);
+        }
+        int broadcasts = Math.max(20, operacoes / tamanho * 10);
+        long inicio = System.nanoTime();
+        for (int i = 0; i < broadcasts; i++) {
+            sala.enviarMensagem("todos", membros[sorteio(i, tamanho)]);
+        }
+        long duracao = System.nanoTime() - inicio;
+
+        for (UsuarioContador membro : membros) {
+            sumidouro += membro.recebidas;
+        }
+        if (exibir) {
+            System.out.printf("%-10s %.1f ns/dest, %.2f ms por broadcast%n", pool == null ? "serial" : "paralelo",
+                    duracao / ((double) broadcasts * tamanho), duracao / 1e6 / broadcasts);
+        }
+    }
+
+    private static void medirIndice(int tamanho, int operacoes, boolean exibir) {
+        ChatRoom sala = new ChatRoom("Bench");
+        sala.setEcoConsole(false);
+        UsuarioContador[] membros = new UsuarioContador[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            membros[i] = new UsuarioContador("membro-" + i, sala);
+            sala.adicionarUsuario(membros[i]);
+        }
+        UsuarioContador[] visitantes = criarVisitantes(operacoesReduzidas(tamanho, operacoes), sala);
+
+        long inicio = System.nanoTime();
+        for (UsuarioContador visitante : visitantes) {
+            sala.adicionarUsuario(visitante);
+            sala.removerUsuario(visitante);
+        }
+        double entrarSair = (System.nanoTime() - inicio) / (double) visitantes.length;
+
+        inicio = System.nanoTime();
+        for (int i = 0; i < operacoes; i++) {
+            sala.enviarMensagemPrivada("oi", membros[sorteio(i, tamanho)], membros[sorteio(i + 1, tamanho)]);
+        }
+        double privada = (System.nanoTime() - inicio) / (double) operacoes;
+
+        int broadcasts = Math.max(20, operacoes / tamanho);
+        inicio = System.nanoTime();
+        for (int i = 0; i < broadcasts; i++) {
+            sala.enviarMensagem("todos", membros[sorteio(i, tamanho)]);
+        }
+        double broadcast = (System.nanoTime() - inicio) / ((double) broadcasts * tamanho);
+
+        for (UsuarioContador membro : membros) {
+            sumidouro += membro.recebidas;
+        }
+        if (exibir) {
+            System.out.printf("%-10d %-10s %-16.0f %-16.0f %-18.1f%n", tamanho, "índice", entrarSair, privada, broadcast);
+        }
+    }
+
+    /**
+     * Tempo do remetente por broadcast; um membro em cada 100 dorme 1 ms por mensagem
+     * @param entrega caixas postais, ou null para entrega síncrona
+     */
+    private static void medirRemetente(int tamanho, EntregaAssincrona entrega) {
+        ChatRoom sala = new ChatRoom("Bench", entrega);
+        sala.setEcoConsole(false);
+        UsuarioContador[] membros = new UsuarioContador[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            membros[i] = i % 100 == 99 ? new UsuarioLento("lento-" + i, sala) : new UsuarioContador("membro-" + i, sala);
+            sala.adicionarUsuario(membros[i]);
+        }
+
+        int broadcasts = 20;
+        long inicio = System.nanoTime();
+        for (int i = 0; i < broadcasts; i++) {
+            sala.enviarMensagem("todos", membros[1]);
+        }
+        long duracao = System.nanoTime() - inicio;
+
+        for (UsuarioContador membro : membros) {
+            sumidouro += membro.recebidas;
+        }
+        System.out.printf("%-10d %-16s %.3f ms por broadcast%n", tamanho, entrega == null ? "síncrono" : "caixas postais",
+                duracao / 1e6 / broadcasts);
+    }
+
+    private static void medirLista(int tamanho, int operacoes, boolean exibir) {
+        SalaLista sala = new SalaLista();
+        UsuarioContador[] membros = new UsuarioContador[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            membros[i] = new UsuarioContador("membro-" + i, null);
+            // Preenche sem contains: só as operações medidas pagam a busca linear
+            sala.usuarios.add(membros[i]);
+        }
+        UsuarioContador[] visitantes = criarVisitantes(operacoes, null);
+
+        long inicio = System.nanoTime();
+        for (UsuarioContador visitante : visitantes) {
+            sala.adicionarUsuario(visitante);
+            sala.removerUsuario(visitante);
+        }
+        double entrarSair = (System.nanoTime() - inicio) / (double) operacoes;
+
+        inicio = System.nanoTime();
+        for (int i = 0; i < operacoes; i++) {
+            sala.enviarMensagemPrivada("oi", membros[sorteio(i, tamanho)], membros[sorteio(i + 1, tamanho)]);
+        }
+        double privada = (System.nanoTime() - inicio) / (double) operacoes;
+
+        for (UsuarioContador membro : membros) {
+            sumidouro += membro.recebidas;
+        }
+        if (exibir) {
+            System.out.printf("%-10d %-10s %-16.0f %-16.0f %-18s%n", tamanho, "lista", entrarSair, privada, "-");
+        }
+    }
+
+    /**
+     * Lista e entrada/saída (cópia do vetor) são O(n): menos operações acima de 1.000 membros
+     */
+    private static int operacoesReduzidas(int tamanho, int operacoes) {
+        return tamanho <= 1_000 ? operacoes : (int) ((long) operacoes * 1_000 / tamanho);
+    }
+
+    private static UsuarioContador[] criarVisitantes(int quantidade, ChatRoom sala) {
+        UsuarioContador[] visitantes = new UsuarioContador[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            visitantes[i] = new UsuarioContador("visitante-" + i, sala);
+        }
+        return visitantes;
+    }
+
+    /**
+     * Índice pseudoaleatório determinístico em [0, tamanho)
+     */
+    private static int sorteio(int i, int tamanho) {
+        return (int) (((i * 0x9E3779B97F4A7C15L) >>> 33) % tamanho);
+    }
+}
@@ -0,0 +1,173 @@
+package comportamentais.mediator.compadrao.benchmark;
+
+import comportamentais.mediator.compadrao.classes.Envelope;
+import comportamentais.mediator.compadrao.classes.SalaFragmentada;
+import comportamentais.mediator.compadrao.classes.ServidorChat;
+import comportamentais.mediator.compadrao.classes.Usuario;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gerador de carga do ServidorChat: muitas salas pequenas, usuários em várias salas
+ *
+ * Monta o servidor (cada usuário entra em algumas salas sorteadas) e, por
+ * alguns segundos, threads geradoras enviam sem parar a partir de membros
+ * sorteados:
+ * - 80% mensagens para a sala
+ * - 10% privadas dentro da sala
+ * - 10% privadas diretas a um usuário qualquer (em geral de outro fragmento)
+ *
+ * Mede mensagens enviadas e entregues por segundo, do início da carga até
+ * os laços esvaziarem. Os geradores esperam quando há muitas tarefas
+ * pendentes, para a fila não crescer sem limite. Os usuários só contam as
+ * mensagens recebidas.
+ *
+ * Uso: GeradorCargaChat [salas] [usuarios] [salasPorUsuario] [segundos] [geradores] [fragmentos]
+ */
+public class GeradorCargaChat {
+
+    // Tarefas pendentes a partir das quais os geradores esperam
+    private static final long LIMITE_PENDENTES = 100_000;
+    // Envios entre consultas das tarefas pendentes
+    private static final int VERIFICAR_A_CADA = 256;
+
+    /**
+     * Usuário que só conta as mensagens recebidas
+     * Recebe sempre na thread do seu fragmento de casa
+     */
+    private static final class UsuarioContador extends Usuario {
+        long recebidas;
+
+        UsuarioContador(String nome, SalaFragmentada sala) {
+            super(nome, sala);
+        }
+
+        @Override
+        public void receberEnvelope(Envelope envelope) {
+            recebidas++;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int salas = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int usuarios = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        int salasPorUsuario = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        int segundos = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+        int geradores = args.length > 4 ? Integer.parseInt(args[4]) : 2;
+        int fragmentos = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+
+        System.out.println("=== GERADOR DE CARGA: SERVIDOR DE CHAT ===");
+        System.out.println(salas + " salas | " + usuarios + " usuários em " + salasPorUsuario + " salas cada | "
+                + geradores + " geradores | " + fragmentos + " fragmentos | " + segundos + " s");
+
+        try (ServidorChat servidor = new ServidorChat(fragmentos)) {
+            servidor.setEcoConsole(false);
+
+            // ====== MONTAGEM ======
+            SplittableRandom sorteio = new SplittableRandom(42);
+            SalaFragmentada[] porIndice = new SalaFragmentada[salas];
+            for (int s = 0; s < salas; s++) {
+                porIndice[s] = servidor.sala("sala-" + s);
+            }
+            UsuarioContador[] todos = new UsuarioContador[usuarios];
+            int[][] salasDoUsuario = new int[usuarios][salasPorUsuario];
+            int[] tamanhos = new int[salas];
+            for (int u = 0; u < usuarios; u++) {
+                for (int k = 0; k < salasPorUsuario; k++) {
+                    int s = sorteio.nextInt(salas);
+                    salasDoUsuario[u][k] = s;
+                    tamanhos[s]++;
+                }
+                todos[u] = new UsuarioContador("usuario-" + u, porIndice[salasDoUsuario[u][0]]);
+            }
+            // Membros de cada sala, para os geradores sortearem remetentes (repetidos são ignorados pela sala)
+            int[][] membros = new int[salas][];
+            for (int s = 0; s < salas; s++) {
+                membros[s] = new int[tamanhos[s]];
+                tamanhos[s] = 0;
+            }
+
+            long inicio = System.nanoTime();
+            for (int u = 0; u < usuarios; u++) {
+                for (int s : salasDoUsuario[u]) {
+                    membros[s][tamanhos[s]++] = u;
+                    porIndice[s].adicionarUsuario(todos[u]);
+                }
+            }
+            servidor.descarregar(1, TimeUnit.MINUTES);
+            double entradasMs = (System.nanoTime() - inicio) / 1e6;
+            System.out.printf("Entradas: %,d em %.0f ms (%,.0f/s)%n", (long) usuarios * salasPorUsuario, entradasMs,
+                    usuarios * (double) salasPorUsuario / (entradasMs / 1e3));
+
+            // ====== CARGA ======
+            LongAdder enviadas = new LongAdder();
+            LongAdder esperas = new LongAdder();
+            long entreguesAntes = servidor.getEntregues();
+            long fim = System.nanoTime() + TimeUnit.SECONDS.toNanos(segundos);
+            Thread[] threads = new Thread[geradores];
+            for (int g = 0; g < geradores; g++) {
+                SplittableRandom sorteioGerador = sorteio.split();
+                threads[g] = new Thread(() -> gerar(servidor, porIndice, membros, todos, sorteioGerador, fim,
+                        enviadas, esperas), "gerador-carga-" + g);
+            }
+            inicio = System.nanoTime();
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            double envioS = (System.nanoTime() - inicio) / 1e9;
+            servidor.descarregar(1, TimeUnit.MINUTES);
+            double totalS = (System.nanoTime() - inicio) / 1e9;
+
+            long entregues = servidor.getEntregues() - entreguesAntes;
+            System.out.printf("Enviadas: %,d em %.2f s (%,.0f mensagens/s; esvaziou em mais %.0f ms)%n",
+                    enviadas.sum(), envioS, enviadas.sum() / totalS, (totalS - envioS) * 1e3);
+            System.out.printf("Entregues: %,d (%,.0f entregas/s) | Esperas dos geradores: %,d%n",
+                    entregues, entregues / totalS, esperas.sum());
+
+            long recebidas = 0;
+            for (UsuarioContador usuario : todos) {
+                recebidas += usuario.recebidas;
+            }
+            // Depois de descarregar, os contadores dos usuários não mudam mais
+            System.out.println("Recebidas pelos usuários: " + recebidas);
+            servidor.exibirEstatisticas();
+        }
+    }
+
+    /**
+     * Envia até o fim do prazo, a partir de membros sorteados
+     */
+    private static void gerar(ServidorChat servidor, SalaFragmentada[] salas, int[][] membros, Usuario[] todos,
+                              SplittableRandom sorteio, long fim, LongAdder enviadas, LongAdder esperas) {
+        long contagem = 0;
+        while (System.nanoTime() - fim < 0) {
+            int s = sorteio.nextInt(salas.length);
+            int[] daSala = membros[s];
+            if (daSala.length == 0) {
+                continue;
+            }
+            Usuario remetente = todos[daSala[sorteio.nextInt(daSala.length)]];
+            int tipo = sorteio.nextInt(10);
+            if (tipo == 0) {
+                salas[s].enviarMensagemPrivada("privada", remetente, todos[daSala[sorteio.nextInt(daSala.length)]]);
+            } else if (tipo == 1) {
+                servidor.enviarMensagemPrivada("direta", remetente, todos[sorteio.nextInt(todos.length)]);
+            } else {
+                salas[s].enviarMensagem("mensagem", remetente);
+            }
+            contagem++;
+
+            if (contagem % VERIFICAR_A_CADA == 0) {
+                while (servidor.getPendentes() > LIMITE_PENDENTES) {
+                    esperas.increment();
+                    Thread.yield();
+                }
+            }
+        }
+        enviadas.add(contagem);
+    }
+}
@@ -0,0 +1,317 @@
+package comportamentais.mediator.compadrao.classes;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caixa postal de um usuário: fila limitada de mensagens a entregar
+ *
+ * Vários remetentes depositam (qualquer thread); um único consumidor por
+ * vez entrega as mensagens ao usuário, na ordem de depósito, em uma
+ * tarefa do executor da EntregaAssincrona. A tarefa só é agendada quando
+ * a caixa deixa de estar vazia e entrega no máximo LOTE mensagens antes
+ * de dar lugar às outras caixas.
+ *
+ * Um usuário lento acumula mensagens só na própria caixa: o remetente e
+ * os outros usuários não esperam por ele (exceto com BLOQUEAR).
+ *
+ * FILA:
+ * Vetor de envelopes em anel, protegido por um ReentrantLock; o trecho
+ * sob o lock só copia referências. O vetor começa pequeno e dobra até a
+ * capacidade, para que salas grandes não reservem a capacidade inteira
+ * de cada membro. A caixa retém cada envelope depositado e o libera
+ * depois da entrega ou do descarte, inclusive quando a EntregaAssincrona
+ * encerrada recusa a entrega (a caixa é esvaziada antes da exceção).
+ */
+public final class CaixaPostal {
+
+    /**
+     * O que fazer quando a caixa está cheia
+     */
+    public enum PoliticaTransbordo {
+        /** Descarta a mensagem mais antiga da caixa */
+        DESCARTAR_MAIS_ANTIGA,
+        /**
+         * O remetente espera o usuário consumir (contrapressão)
+         * Quem envia de dentro de receberMensagem (em qualquer thread de
+         * entrega, virtual ou não) não espera: descarta a mais antiga. Dois
+         * usuários que respondem um ao outro, ou um usuário que envia para
+         * si mesmo, esperariam cada um pela caixa que só ele esvazia, e
+         * nenhum dos dois voltaria. Em uma thread de ForkJoinPool (broadcast
+         * paralelo), a espera é avisada ao pool (managedBlock), que compensa
+         * com outra thread
+         */
+        BLOQUEAR,
+        /**
+         * Junta a mensagem à última da caixa, se for do mesmo remetente e
+         * tipo (textos separados por quebra de linha) e o texto juntado
+         * não passar de MAXIMO_JUNTADO caracteres; senão descarta a mais antiga
+         * O envelope juntado é só desta caixa e é codificado à parte
+         */
+        COALESCER
+    }
+
+    /**
+     * Máximo de mensagens entregues por vez antes de liberar a thread
+     */
+    public static final int LOTE = 64;
+
+    /**
+     * Tamanho máximo (caracteres) do texto de uma mensagem juntada (COALESCER)
+     * Cada junção copia o texto: sem limite, N junções custariam O(N²)
+     */
+    public static final int MAXIMO_JUNTADO = 4096;
+
+    private static final int TAMANHO_INICIAL = 16;
+
+    // Marca a thread enquanto ela entrega mensagens (dentro de receberMensagem)
+    private static final ThreadLocal<Boolean> EM_ENTREGA = new ThreadLocal<>();
+
+    private final Usuario usuario;
+    private final EntregaAssincrona entrega;
+    private final PoliticaTransbordo politica;
+
+    private final int capacidade;
+    private final ReentrantLock trava;
+    private final Condition temEspaco;
+    private Envelope[] envelopes;
+    private int inicio;
+    private int tamanho;
+    // Há uma tarefa de entrega agendada ou em execução
+    private boolean agendada;
+
+    private final Runnable tarefaEntrega = this::entregarLote;
+
+    CaixaPostal(Usuario usuario, EntregaAssincrona entrega, int capacidade, PoliticaTransbordo politica) {
+        this.usuario = usuario;
+        this.entrega = entrega;
+        this.politica = politica;
+        this.capacidade = capacidade;
+        this.trava = new ReentrantLock();
+        this.temEspaco = trava.newCondition();
+        this.envelopes = new Envelope[Math.min(capacidade, TAMANHO_INICIAL)];
+    }
+
+    // ==================== REMETENTES ====================
+
+    /**
+     * Retém o envelope, deposita e agenda a entrega, se necessário
+     * Com BLOQUEAR, espera enquanto a caixa estiver cheia
+     *
+     * @throws RejectedExecutionException se a EntregaAssincrona foi encerrada
+     *         (a caixa é esvaziada: as mensagens pendentes são descartadas)
+     */
+    public void depositar(Envelope envelope) {
+        envelope.reter();
+        entrega.registrarDeposito();
+        boolean agendar;
+        trava.lock();
+        try {
+            if (tamanho == envelopes.length && envelopes.length < capacidade) {
+                crescer();
+            } else if (tamanho == capacidade && !transbordar(envelope)) {
+                return;
+            }
+            envelopes[(inicio + tamanho) % envelopes.length] = envelope;
+            tamanho++;
+            agendar = !agendada;
+            agendada = true;
+        } finally {
+            trava.unlock();
+        }
+        if (agendar) {
+            agendar();
+        }
+    }
+
+    /**
+     * Agenda a tarefa de entrega; se o executor recusar (encerrado), descarta
+     * o que está na caixa, para que ela não fique presa como agendada
+     */
+    private void agendar() {
+        try {
+            entrega.agendar(tarefaEntrega);
+        } catch (RejectedExecutionException e) {
+            trava.lock();
+            try {
+                while (tamanho > 0) {
+                    descartarMaisAntiga();
+                }
+                agendada = false;
+                temEspaco.signalAll();
+            } finally {
+                trava.unlock();
+            }
+            entrega.registrarCaixaVazia();
+            throw e;
+        }
+    }
+
+    /**
+     * Trata a caixa cheia (com a trava)
+     *
+     * @return true se ainda é preciso inserir a mensagem
+     */
+    private boolean transbordar(Envelope envelope) {
+        switch (politica) {
+            case BLOQUEAR:
+                if (EM_ENTREGA.get() != null) {
+                    descartarMaisAntiga();
+                    return true;
+                }
+                entrega.registrarBloqueio();
+                esperarEspaco();
+                return true;
+            case COALESCER:
+                int ultima = (inicio + tamanho - 1) % envelopes.length;
+                Envelope anterior = envelopes[ultima];
+                if (anterior.podeJuntar(envelope)) {
+                    envelopes[ultima] = anterior.juntar(envelope);
+                    anterior.liberar();
+                    envelope.liberar();
+                    entrega.registrarCoalescida();
+                    return false;
+                }
+                descartarMaisAntiga();
+                return true;
+            default:
+                descartarMaisAntiga();
+                return true;
+        }
+    }
+
+    /**
+     * Espera a caixa ter espaço (com a trava)
+     * Em ForkJoinPool, a espera é avisada ao pool para não prender um trabalhador
+     */
+    private void esperarEspaco() {
+        if (Thread.currentThread() instanceof ForkJoinWorkerThread) {
+            try {
+                ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                    @Override
+                    public boolean block() {
+                        if (tamanho == capacidade) {
+                            temEspaco.awaitUninterruptibly();
+                        }
+                        return tamanho < capacidade;
+                    }
+
+                    @Override
+                    public boolean isReleasable() {
+                        return tamanho < capacidade;
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        while (tamanho == capacidade) {
+            temEspaco.awaitUninterruptibly();
+        }
+    }
+
+    /**
+     * Dobra o vetor (até a capacidade), desfazendo a volta do anel
+     */
+    private void crescer() {
+        Envelope[] novos = new Envelope[(int) Math.min(capacidade, envelopes.length * 2L)];
+        for (int i = 0; i < tamanho; i++) {
+            novos[i] = envelopes[(inicio + i) % envelopes.length];
+        }
+        envelopes = novos;
+        inicio = 0;
+    }
+
+    private void descartarMaisAntiga() {
+        envelopes[inicio].liberar();
+        envelopes[inicio] = null;
+        inicio = (inicio + 1) % envelopes.length;
+        tamanho--;
+        entrega.registrarDescarte();
+    }
+
+    // ==================== CONSUMIDOR ====================
+
+    /**
+     * Entrega até LOTE mensagens; se sobrarem, agenda a continuação
+     */
+    private void entregarLote() {
+        Envelope[] lote = new Envelope[LOTE];
+        int quantidade;
+        trava.lock();
+        try {
+            quantidade = Math.min(tamanho, LOTE);
+            for (int i = 0; i < quantidade; i++) {
+                lote[i] = envelopes[inicio];
+                envelopes[inicio] = null;
+                inicio = (inicio + 1) % envelopes.length;
+            }
+            tamanho -= quantidade;
+            if (quantidade > 0) {
+                temEspaco.signalAll();
+            }
+        } finally {
+            trava.unlock();
+        }
+
+        EM_ENTREGA.set(Boolean.TRUE);
+        try {
+            for (int i = 0; i < quantidade; i++) {
+                try {
+                    usuario.receberEnvelope(lote[i]);
+                    entrega.registrarEntrega();
+                } catch (RuntimeException e) {
+                    // Um usuário com erro não derruba a própria caixa nem a dos outros
+                    entrega.registrarFalha(usuario, e);
+                } finally {
+                    lote[i].liberar();
+                }
+            }
+        } finally {
+            EM_ENTREGA.remove();
+        }
+
+        boolean continuar;
+        trava.lock();
+        try {
+            continuar = tamanho > 0;
+            agendada = continuar;
+        } finally {
+            trava.unlock();
+        }
+        if (continuar) {
+            try {
+                agendar();
+            } catch (RejectedExecutionException e) {
+                // Encerrada durante a entrega: as pendentes já foram descartadas
+            }
+        } else {
+            entrega.registrarCaixaVazia();
+        }
+    }
+
+    // ==================== CONSULTA ====================
+
+    /**
+     * Mensagens depositadas e ainda não entregues
+     */
+    public int getPendentes() {
+        trava.lock();
+        try {
+            return tamanho;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    public int getCapacidade() {
+        return capacidade;
+    }
+
+    public Usuario getUsuario() {
+        return usuario;
+    }
+}
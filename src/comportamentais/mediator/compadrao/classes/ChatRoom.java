@@ -1,34 +1,213 @@
 package comportamentais.mediator.compadrao.classes;
 
 import comportamentais.mediator.compadrao.interfaces.ChatMediator;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Mediator concreto que gerencia a comunicação entre usuários
  * VANTAGEM: Centraliza toda a lógica de comunicação
+ *
+ * ÍNDICE POR NOME:
+ * Os membros ficam em um ConcurrentHashMap pelo nome (a identidade de
+ * Usuario). Entrar, sair e validar mensagens privadas custam O(1), sem
+ * percorrer a sala comparando nomes.
+ *
+ * VETOR PARA BROADCAST (COPY-ON-WRITE):
+ * Mensagens para todos percorrem um vetor imutável com os membros na
+ * ordem de entrada, publicado por referência volatile. Cada entrada ou
+ * saída publica um vetor novo já ordenado: a entrada copia o vetor com o
+ * membro no fim; a saída acha o membro por busca binária na ordem de
+ * entrada e copia o vetor sem ele. Mudanças de membros custam uma cópia
+ * O(n) (serializadas entre si); broadcasts nunca montam nem ordenam
+ * nada. Um broadcast simultâneo a uma entrada/saída pode ou não incluir
+ * esse membro, mas nunca falha.
+ *
+ * ENTREGA PARALELA:
+ * Em salas com MINIMO_PARALELO membros ou mais, o broadcast é dividido
+ * em pedaços entregues no ForkJoinPool (roubo de trabalho); o remetente
+ * também entrega e espera o fim. O pool padrão é próprio das salas
+ * (getPoolPadrao, threads daemon "broadcast-chat-N"), não o commonPool:
+ * receberMensagem é código do usuário e pode bloquear, o que prenderia
+ * as threads de quem mais usa o pool comum (streams paralelos,
+ * CompletableFuture). Cada membro recebe as mensagens de um
+ * mesmo remetente na ordem de envio. Em salas menores a entrega é
+ * serial, na thread do remetente.
+ *
+ * ENVELOPE:
+ * Cada envio (mensagem, privada ou anúncio) cria um único Envelope,
+ * compartilhado por todos os destinatários: quem serializa a mensagem
+ * usa o conteúdo codificado uma vez (Envelope.getConteudo) em vez de
+ * formatar e codificar por destinatário. A sala libera a sua referência
+ * ao fim do envio; as caixas postais, depois de cada entrega.
+ *
+ * ENTREGA ASSÍNCRONA:
+ * Com uma EntregaAssincrona, cada membro ganha uma CaixaPostal e
+ * "entregar" passa a ser depositar na caixa: receberMensagem roda nas
+ * threads da EntregaAssincrona, e um usuário lento não atrasa o remetente
+ * nem os outros membros (mensagens privadas também passam pela caixa).
  */
 public class ChatRoom implements ChatMediator {
     
-    private List<Usuario> usuarios;
-    private String nome;
+    /**
+     * Membro da sala com a sua ordem de entrada
+     */
+    private static final class Membro {
+        final Usuario usuario;
+        final long ordem;
+        // null: entrega síncrona
+        final CaixaPostal caixa;
+        
+        Membro(Usuario usuario, long ordem, CaixaPostal caixa) {
+            this.usuario = usuario;
+            this.ordem = ordem;
+            this.caixa = caixa;
+        }
+        
+        void receber(Envelope envelope) {
+            if (caixa == null) {
+                usuario.receberEnvelope(envelope);
+            } else {
+                caixa.depositar(envelope);
+            }
+        }
+    }
+    
+    /**
+     * Membros a partir dos quais o broadcast é entregue em paralelo
+     */
+    public static final int MINIMO_PARALELO = 2048;
+    
+    // Menor pedaço de entrega de uma tarefa
+    private static final int PEDACO_MINIMO = 512;
+    
+    /**
+     * Entrega de um broadcast a um intervalo do vetor de membros
+     */
+    private static final class Entrega extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        // Tarefas de ForkJoin nunca são serializadas
+        final transient Membro[] membros;
+        final int inicio;
+        final int fim;
+        final int pedaco;
+        final transient Envelope envelope;
+        final transient Membro excluido;
+        
+        Entrega(Membro[] membros, int inicio, int fim, int pedaco, Envelope envelope, Membro excluido) {
+            this.membros = membros;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.pedaco = pedaco;
+            this.envelope = envelope;
+            this.excluido = excluido;
+        }
+        
+        @Override
+        protected void compute() {
+            if (fim - inicio <= pedaco) {
+                entregar(membros, inicio, fim, envelope, excluido);
+                return;
+            }
+            int meio = (inicio + fim) >>> 1;
+            invokeAll(new Entrega(membros, inicio, meio, pedaco, envelope, excluido),
+                    new Entrega(membros, meio, fim, pedaco, envelope, excluido));
+        }
+    }
+    
+    private final ConcurrentHashMap<String, Membro> usuarios;
+    private final String nome;
+    // null: entrega sempre serial
+    private final ForkJoinPool pool;
+    // null: receberMensagem na thread do remetente
+    private final EntregaAssincrona entregaAssincrona;
+    
+    // Ordem de entrada dos membros (alterada só em mudancaMembros)
+    private long sequencia;
+    // Membros na ordem de entrada; substituído inteiro a cada entrada/saída
+    private volatile Membro[] membros;
+    // Serializa as mudanças de membros (mapa e vetor juntos)
+    private final Object mudancaMembros = new Object();
+    
+    // Mensagens de entrada/saída/erro no console
+    private volatile boolean ecoConsole = true;
     
     public ChatRoom(String nome) {
+        this(nome, getPoolPadrao());
+    }
+    
+    /**
+     * Pool padrão da entrega paralela, compartilhado pelas salas
+     * Criado no primeiro uso, com uma thread daemon por núcleo
+     */
+    public static ForkJoinPool getPoolPadrao() {
+        return PoolPadrao.INSTANCIA;
+    }
+    
+    private static final class PoolPadrao {
+        static final ForkJoinPool INSTANCIA = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("broadcast-chat-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+    
+    /**
+     * @param pool pool da entrega paralela em salas grandes, ou null para entregar sempre na thread do remetente
+     */
+    public ChatRoom(String nome, ForkJoinPool pool) {
+        this(nome, pool, null);
+    }
+    
+    /**
+     * @param entregaAssincrona caixas postais dos membros, ou null para entregar na thread do remetente
+     */
+    public ChatRoom(String nome, EntregaAssincrona entregaAssincrona) {
+        this(nome, getPoolPadrao(), entregaAssincrona);
+    }
+    
+    public ChatRoom(String nome, ForkJoinPool pool, EntregaAssincrona entregaAssincrona) {
         this.nome = nome;
-        this.usuarios = new ArrayList<>();
+        this.pool = pool;
+        this.entregaAssincrona = entregaAssincrona;
+        this.usuarios = new ConcurrentHashMap<>();
+        this.membros = new Membro[0];
     }
     
     @Override
     public void adicionarUsuario(Usuario usuario) {
-        if (!usuarios.contains(usuario)) {
-            usuarios.add(usuario);
+        CaixaPostal caixa = entregaAssincrona != null ? entregaAssincrona.criarCaixa(usuario) : null;
+        boolean entrou;
+        synchronized (mudancaMembros) {
+            Membro membro = new Membro(usuario, ++sequencia, caixa);
+            entrou = usuarios.putIfAbsent(usuario.getNome(), membro) == null;
+            if (entrou) {
+                Membro[] atuais = membros;
+                Membro[] novos = Arrays.copyOf(atuais, atuais.length + 1);
+                novos[atuais.length] = membro;
+                membros = novos;
+            }
+        }
+        if (entrou && ecoConsole) {
             System.out.println("[" + nome + "] " + usuario.getNome() + " entrou no chat");
         }
     }
     
     @Override
     public void removerUsuario(Usuario usuario) {
-        if (usuarios.remove(usuario)) {
+        Membro membro;
+        synchronized (mudancaMembros) {
+            membro = usuarios.remove(usuario.getNome());
+            if (membro != null) {
+                membros = semMembro(membros, membro);
+            }
+        }
+        if (membro != null && ecoConsole) {
             System.out.println("[" + nome + "] " + usuario.getNome() + " saiu do chat");
         }
     }
@@ -36,9 +215,32 @@ public class ChatRoom implements ChatMediator {
     @Override
     public void enviarMensagem(String mensagem, Usuario remetente) {
         // VANTAGEM: Lógica de broadcast centralizada no mediator
-        for (Usuario usuario : usuarios) {
-            if (!usuario.equals(remetente)) {
-                usuario.receberMensagem(mensagem, remetente);
+        // Há no máximo um membro com o nome do remetente: compara por referência
+        distribuir(Envelope.mensagem(nome, mensagem, remetente), usuarios.get(remetente.getNome()));
+    }
+    
+    /**
+     * Entrega o envelope a todos os membros (exceto "excluido") e libera a referência da sala
+     */
+    private void distribuir(Envelope envelope, Membro excluido) {
+        try {
+            Membro[] membros = this.membros;
+            if (pool == null || membros.length < MINIMO_PARALELO) {
+                entregar(membros, 0, membros.length, envelope, excluido);
+            } else {
+                // Alguns pedaços por thread, para o roubo de trabalho equilibrar a carga
+                int pedaco = Math.max(PEDACO_MINIMO, membros.length / (pool.getParallelism() * 4));
+                pool.invoke(new Entrega(membros, 0, membros.length, pedaco, envelope, excluido));
+            }
+        } finally {
+            envelope.liberar();
+        }
+    }
+    
+    private static void entregar(Membro[] membros, int inicio, int fim, Envelope envelope, Membro excluido) {
+        for (int i = inicio; i < fim; i++) {
+            if (membros[i] != excluido) {
+                membros[i].receber(envelope);
             }
         }
     }
@@ -46,20 +248,49 @@ public class ChatRoom implements ChatMediator {
     @Override
     public void enviarMensagemPrivada(String mensagem, Usuario remetente, Usuario destinatario) {
         // VANTAGEM: Validação centralizada
-        if (usuarios.contains(remetente) && usuarios.contains(destinatario)) {
-            destinatario.receberMensagem(mensagem, remetente);
-        } else {
+        Membro membroDestinatario = usuarios.get(destinatario.getNome());
+        if (membroDestinatario != null && usuarios.containsKey(remetente.getNome())) {
+            Envelope envelope = Envelope.mensagem(nome, mensagem, remetente);
+            try {
+                membroDestinatario.receber(envelope);
+            } finally {
+                envelope.liberar();
+            }
+        } else if (ecoConsole) {
             System.out.println("ERRO: Um dos usuários não está no chat");
         }
     }
     
+    /**
+     * Cópia do vetor sem o membro, achado por busca binária na ordem de entrada
+     */
+    private static Membro[] semMembro(Membro[] atuais, Membro membro) {
+        int inicio = 0;
+        int fim = atuais.length - 1;
+        while (inicio <= fim) {
+            int meio = (inicio + fim) >>> 1;
+            long ordem = atuais[meio].ordem;
+            if (ordem < membro.ordem) {
+                inicio = meio + 1;
+            } else if (ordem > membro.ordem) {
+                fim = meio - 1;
+            } else {
+                Membro[] novos = new Membro[atuais.length - 1];
+                System.arraycopy(atuais, 0, novos, 0, meio);
+                System.arraycopy(atuais, meio + 1, novos, meio, atuais.length - meio - 1);
+                return novos;
+            }
+        }
+        return atuais;
+    }
+    
     /**
      * VANTAGEM: Funcionalidades adicionais podem ser facilmente adicionadas
      */
     public void listarUsuarios() {
         System.out.println("\n[" + nome + "] Usuários online:");
-        for (Usuario usuario : usuarios) {
-            System.out.println("- " + usuario.getNome());
+        for (Membro membro : membros) {
+            System.out.println("- " + membro.usuario.getNome());
         }
     }
     
@@ -67,10 +298,25 @@ public class ChatRoom implements ChatMediator {
      * VANTAGEM: Novas funcionalidades sem modificar Usuario
      */
     public void enviarAnuncio(String anuncio) {
-        System.out.println("\n[ANÚNCIO do " + nome + "] " + anuncio);
-        for (Usuario usuario : usuarios) {
-            System.out.println(usuario.getNome() + " recebeu anúncio: " + anuncio);
+        if (ecoConsole) {
+            System.out.println("\n[ANÚNCIO do " + nome + "] " + anuncio);
         }
+        distribuir(Envelope.anuncio(nome, anuncio), null);
+    }
+    
+    /**
+     * @return true se há na sala um usuário com este nome
+     */
+    public boolean contemUsuario(String nomeUsuario) {
+        return usuarios.containsKey(nomeUsuario);
+    }
+    
+    /**
+     * Liga/desliga as mensagens de entrada, saída, anúncio e erro no console
+     * Em salas grandes, o console limitaria a vazão
+     */
+    public void setEcoConsole(boolean ecoConsole) {
+        this.ecoConsole = ecoConsole;
     }
     
     public String getNome() {
@@ -80,4 +326,4 @@ public class ChatRoom implements ChatMediator {
     public int getNumeroUsuarios() {
         return usuarios.size();
     }
-}
\ No newline at end of file
+}
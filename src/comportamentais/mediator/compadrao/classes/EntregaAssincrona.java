@@ -0,0 +1,208 @@
+package comportamentais.mediator.compadrao.classes;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Entrega assíncrona de mensagens do chat por caixas postais
+ *
+ * Com uma EntregaAssincrona, o ChatRoom não chama receberMensagem na
+ * thread do remetente: cada membro ganha uma CaixaPostal limitada e as
+ * mensagens são entregues por tarefas deste executor. O envio custa um
+ * depósito por destinatário, independentemente de quanto o usuário demora
+ * para receber.
+ *
+ * As tarefas rodam em threads virtuais, uma por tarefa, que podem
+ * bloquear em I/O sem prender threads de plataforma. Um usuário que envia
+ * ao receber não espera caixa cheia com BLOQUEAR (ver
+ * CaixaPostal.PoliticaTransbordo).
+ *
+ * A mesma EntregaAssincrona pode servir várias salas; os contadores são
+ * a soma de todas as caixas.
+ */
+public class EntregaAssincrona implements AutoCloseable {
+
+    /**
+     * Capacidade padrão de cada caixa postal
+     */
+    public static final int CAPACIDADE_PADRAO = 1024;
+
+    private final ExecutorService executor;
+    private final int capacidade;
+    private final CaixaPostal.PoliticaTransbordo politica;
+
+    private final LongAdder depositadas;
+    private final LongAdder entregues;
+    private final LongAdder descartadas;
+    private final LongAdder coalescidas;
+    private final LongAdder bloqueios;
+    private final LongAdder falhas;
+
+    // Avisado quando uma caixa esvazia (descarregar)
+    private final Object esvaziamento = new Object();
+    private volatile int aguardandoEsvaziar;
+
+    public EntregaAssincrona() {
+        this(CAPACIDADE_PADRAO, CaixaPostal.PoliticaTransbordo.DESCARTAR_MAIS_ANTIGA);
+    }
+
+    /**
+     * @param capacidade mensagens pendentes por usuário
+     * @param politica o que fazer com a caixa cheia
+     */
+    public EntregaAssincrona(int capacidade, CaixaPostal.PoliticaTransbordo politica) {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("Capacidade deve ser positiva: " + capacidade);
+        }
+        this.capacidade = capacidade;
+        this.politica = politica;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.depositadas = new LongAdder();
+        this.entregues = new LongAdder();
+        this.descartadas = new LongAdder();
+        this.coalescidas = new LongAdder();
+        this.bloqueios = new LongAdder();
+        this.falhas = new LongAdder();
+    }
+
+    /**
+     * Cria a caixa postal de um membro
+     */
+    CaixaPostal criarCaixa(Usuario usuario) {
+        return new CaixaPostal(usuario, this, capacidade, politica);
+    }
+
+    void agendar(Runnable tarefa) {
+        executor.execute(tarefa);
+    }
+
+    void registrarDeposito() {
+        depositadas.increment();
+    }
+
+    void registrarEntrega() {
+        entregues.increment();
+    }
+
+    void registrarDescarte() {
+        descartadas.increment();
+    }
+
+    void registrarCoalescida() {
+        coalescidas.increment();
+    }
+
+    void registrarBloqueio() {
+        bloqueios.increment();
+    }
+
+    /**
+     * Uma caixa ficou sem pendentes: acorda quem espera em descarregar
+     */
+    void registrarCaixaVazia() {
+        if (aguardandoEsvaziar > 0) {
+            synchronized (esvaziamento) {
+                esvaziamento.notifyAll();
+            }
+        }
+    }
+
+    void registrarFalha(Usuario usuario, RuntimeException erro) {
+        falhas.increment();
+        System.out.println("ERRO ao entregar mensagem a " + usuario.getNome() + ": " + erro);
+    }
+
+    /**
+     * Espera as caixas esvaziarem (mensagens já depositadas entregues ou descartadas)
+     * Chame depois que os remetentes pararam; é acordado cada vez que uma caixa esvazia
+     *
+     * @return true se esvaziaram dentro do tempo
+     */
+    public boolean descarregar(long tempo, TimeUnit unidade) throws InterruptedException {
+        long limite = System.nanoTime() + unidade.toNanos(tempo);
+        synchronized (esvaziamento) {
+            aguardandoEsvaziar++;
+            try {
+                while (getPendentes() > 0) {
+                    long restante = limite - System.nanoTime();
+                    if (restante <= 0) {
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(esvaziamento, restante);
+                }
+                return true;
+            } finally {
+                aguardandoEsvaziar--;
+            }
+        }
+    }
+
+    /**
+     * Entrega o que está nas caixas (até 1 minuto) e encerra o executor
+     * Depósitos posteriores são rejeitados (RejectedExecutionException)
+     */
+    @Override
+    public void close() {
+        try {
+            descarregar(1, TimeUnit.MINUTES);
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ==================== CONSULTA ====================
+
+    public int getCapacidade() {
+        return capacidade;
+    }
+
+    public CaixaPostal.PoliticaTransbordo getPolitica() {
+        return politica;
+    }
+
+    /**
+     * Mensagens nas caixas, ainda não entregues
+     */
+    public long getPendentes() {
+        return depositadas.sum() - entregues.sum() - falhas.sum() - descartadas.sum() - coalescidas.sum();
+    }
+
+    public long getEntregues() {
+        return entregues.sum();
+    }
+
+    public long getDescartadas() {
+        return descartadas.sum();
+    }
+
+    /**
+     * Mensagens juntadas à anterior do mesmo remetente (COALESCER)
+     */
+    public long getCoalescidas() {
+        return coalescidas.sum();
+    }
+
+    /**
+     * Vezes que um remetente esperou por uma caixa cheia (BLOQUEAR)
+     */
+    public long getBloqueios() {
+        return bloqueios.sum();
+    }
+
+    public long getFalhas() {
+        return falhas.sum();
+    }
+
+    /**
+     * Exibe contadores da entrega
+     */
+    public void exibirEstatisticas() {
+        System.out.println("\n=== ENTREGA ASSÍNCRONA (" + politica + ", " + capacidade + " por caixa) ===");
+        System.out.println("Entregues: " + getEntregues() + " | Descartadas: " + getDescartadas()
+                + " | Coalescidas: " + getCoalescidas() + " | Bloqueios: " + getBloqueios() + " | Falhas: " + getFalhas());
+    }
+}
@@ -0,0 +1,215 @@
+package comportamentais.mediator.compadrao.classes;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mensagem de uma sala, compartilhada por todos os destinatários
+ *
+ * CODIFICADA UMA VEZ:
+ * O ChatRoom cria um envelope por envio (não por destinatário). A linha
+ * da mensagem ("[sala] remetente: texto" ou "[ANÚNCIO do sala] texto") é
+ * codificada em UTF-8 na primeira chamada de getConteudo, em um
+ * ByteBuffer direto de um pool; os demais destinatários recebem visões
+ * somente leitura do mesmo buffer, sem cópia. Quem só usa o texto
+ * (getTexto) não paga a codificação.
+ *
+ * CONTAGEM DE REFERÊNCIAS:
+ * O envelope nasce com uma referência (a do ChatRoom, liberada ao fim do
+ * envio); cada caixa postal retém o envelope até entregá-lo. Quando a
+ * última referência é liberada, o buffer volta ao pool. Um destinatário
+ * que guarde o conteúdo depois de receberEnvelope deve chamar reter() e,
+ * ao terminar, liberar(): visões usadas após a liberação podem ler bytes
+ * de outra mensagem.
+ */
+public final class Envelope {
+
+    /**
+     * Tipo do envio
+     */
+    public enum Tipo {
+        /** Mensagem de um usuário (para todos ou privada) */
+        MENSAGEM,
+        /** Anúncio da sala, sem remetente */
+        ANUNCIO
+    }
+
+    private static final ThreadLocal<CharsetEncoder> CODIFICADOR = ThreadLocal.withInitial(() ->
+            StandardCharsets.UTF_8.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE));
+
+    private static final LongAdder CODIFICACOES = new LongAdder();
+
+    private final Tipo tipo;
+    private final String sala;
+    private final String texto;
+    private final Usuario remetente;
+    private final AtomicInteger referencias;
+
+    // null até a primeira chamada de getConteudo, e de novo após a liberação
+    private volatile ByteBuffer codificado;
+
+    private Envelope(Tipo tipo, String sala, String texto, Usuario remetente) {
+        this.tipo = tipo;
+        this.sala = sala;
+        this.texto = texto;
+        this.remetente = remetente;
+        this.referencias = new AtomicInteger(1);
+    }
+
+    public static Envelope mensagem(String sala, String texto, Usuario remetente) {
+        return new Envelope(Tipo.MENSAGEM, sala, texto, remetente);
+    }
+
+    public static Envelope anuncio(String sala, String texto) {
+        return new Envelope(Tipo.ANUNCIO, sala, texto, null);
+    }
+
+    /**
+     * true se o seguinte é do mesmo remetente e tipo e o texto juntado não
+     * passa de CaixaPostal.MAXIMO_JUNTADO caracteres
+     */
+    boolean podeJuntar(Envelope seguinte) {
+        return remetente == seguinte.remetente && tipo == seguinte.tipo
+                && texto.length() + 1 + seguinte.texto.length() <= CaixaPostal.MAXIMO_JUNTADO;
+    }
+
+    /**
+     * Envelope com os textos deste e do seguinte (mesmo remetente), separados por quebra de linha
+     * Usado pela CaixaPostal com COALESCER; não altera nem libera os originais
+     *
+     * @throws IllegalArgumentException se não podeJuntar (o texto cresceria sem limite)
+     */
+    Envelope juntar(Envelope seguinte) {
+        if (!podeJuntar(seguinte)) {
+            throw new IllegalArgumentException("Envelopes não podem ser juntados: " + this + " / " + seguinte);
+        }
+        return new Envelope(tipo, sala, texto + "\n" + seguinte.texto, remetente);
+    }
+
+    // ==================== CONTEÚDO ====================
+
+    /**
+     * Linha da mensagem em UTF-8 (codificada na primeira chamada)
+     *
+     * @return visão somente leitura, com posição própria, do buffer compartilhado
+     * @throws IllegalStateException se o envelope já foi liberado
+     */
+    public ByteBuffer getConteudo() {
+        ByteBuffer buffer = codificado;
+        if (buffer == null) {
+            buffer = codificar();
+        }
+        if (referencias.get() <= 0) {
+            throw new IllegalStateException("Envelope já liberado");
+        }
+        return buffer.asReadOnlyBuffer();
+    }
+
+    private synchronized ByteBuffer codificar() {
+        if (referencias.get() <= 0) {
+            throw new IllegalStateException("Envelope já liberado");
+        }
+        if (codificado != null) {
+            return codificado;
+        }
+        String linha = toString();
+        CharsetEncoder codificador = CODIFICADOR.get().reset();
+        ByteBuffer buffer = PoolBuffers.obter((int) Math.min(Integer.MAX_VALUE,
+                (long) Math.ceil(linha.length() * (double) codificador.maxBytesPerChar())));
+        codificador.encode(CharBuffer.wrap(linha), buffer, true);
+        codificador.flush(buffer);
+        buffer.flip();
+        CODIFICACOES.increment();
+        codificado = buffer;
+        return buffer;
+    }
+
+    // ==================== REFERÊNCIAS ====================
+
+    /**
+     * Mais uma referência: o envelope continua válido até o liberar correspondente
+     *
+     * @throws IllegalStateException se o envelope já foi liberado
+     */
+    public Envelope reter() {
+        while (true) {
+            int atual = referencias.get();
+            if (atual <= 0) {
+                throw new IllegalStateException("Envelope já liberado");
+            }
+            if (referencias.compareAndSet(atual, atual + 1)) {
+                return this;
+            }
+        }
+    }
+
+    /**
+     * Libera uma referência; na última, o buffer volta ao pool
+     */
+    public void liberar() {
+        int restantes = referencias.decrementAndGet();
+        if (restantes > 0) {
+            return;
+        }
+        if (restantes < 0) {
+            throw new IllegalStateException("Envelope liberado mais vezes que retido");
+        }
+        ByteBuffer buffer;
+        synchronized (this) {
+            buffer = codificado;
+            codificado = null;
+        }
+        if (buffer != null) {
+            PoolBuffers.devolver(buffer);
+        }
+    }
+
+    public int getReferencias() {
+        return referencias.get();
+    }
+
+    // ==================== CONSULTA ====================
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public String getSala() {
+        return sala;
+    }
+
+    public String getTexto() {
+        return texto;
+    }
+
+    /**
+     * Remetente da mensagem, ou null em anúncios
+     */
+    public Usuario getRemetente() {
+        return remetente;
+    }
+
+    /**
+     * Codificações feitas desde o início do programa (todas as salas)
+     */
+    public static long getTotalCodificacoes() {
+        return CODIFICACOES.sum();
+    }
+
+    /**
+     * Linha da mensagem, como codificada em getConteudo
+     */
+    @Override
+    public String toString() {
+        return tipo == Tipo.ANUNCIO
+                ? "[ANÚNCIO do " + sala + "] " + texto
+                : "[" + sala + "] " + remetente.getNome() + ": " + texto;
+    }
+}
@@ -0,0 +1,156 @@
+package comportamentais.mediator.compadrao.classes;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Laço de eventos de um fragmento (shard) do ServidorChat
+ *
+ * Uma thread executa, em ordem, as tarefas enviadas por qualquer thread.
+ * Todo estado confinado ao laço (salas e usuários do fragmento) só é
+ * acessado por essas tarefas, então dispensa locks e coleções
+ * concorrentes.
+ *
+ * FILA:
+ * ConcurrentLinkedQueue (sem locks, vários produtores e um consumidor).
+ * Sem tarefas, a thread estaciona (LockSupport.park) e o produtor que
+ * encontra o laço parado o acorda.
+ *
+ * Tarefas são sempre enfileiradas, inclusive as enviadas da própria
+ * thread do laço (ex.: um usuário que responde dentro de receberEnvelope):
+ * rodá-las na hora executaria código no meio de outra tarefa, que pode
+ * estar percorrendo o estado que elas alteram, e respostas encadeadas
+ * cresceriam a pilha sem limite.
+ *
+ * ENCERRAMENTO:
+ * Depois de encerrar, a thread executa o que já está na fila e termina.
+ * Uma tarefa enviada durante o encerramento é executada ou recusada
+ * (IllegalStateException), nunca perdida.
+ */
+final class LacoEventos implements Runnable {
+
+    private final int indice;
+    private final Thread thread;
+    private final ConcurrentLinkedQueue<Runnable> fila;
+    private final LongAdder enfileiradas;
+    private final LongAdder concluidas;
+
+    private volatile boolean parado;
+    private volatile boolean ativo = true;
+
+    // Só na thread do laço: há código de usuário (receberEnvelope) em execução
+    private boolean entregando;
+
+    LacoEventos(int indice) {
+        this.indice = indice;
+        this.fila = new ConcurrentLinkedQueue<>();
+        this.enfileiradas = new LongAdder();
+        this.concluidas = new LongAdder();
+        this.thread = new Thread(this, "laco-chat-" + indice);
+        this.thread.setDaemon(true);
+    }
+
+    void iniciar() {
+        thread.start();
+    }
+
+    /**
+     * Enfileira a tarefa, mesmo se chamado da thread do laço (roda depois das anteriores)
+     *
+     * @throws IllegalStateException se o laço foi encerrado
+     */
+    void enviar(Runnable tarefa) {
+        if (!ativo) {
+            throw recusada();
+        }
+        enfileiradas.increment();
+        fila.offer(tarefa);
+        // Encerrado durante o envio: se a thread ainda não pegou a tarefa, ela não vai pegar
+        if (!ativo && fila.remove(tarefa)) {
+            enfileiradas.decrement();
+            throw recusada();
+        }
+        if (parado) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private IllegalStateException recusada() {
+        return new IllegalStateException("Laço de eventos encerrado: " + thread.getName());
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            Runnable tarefa = fila.poll();
+            if (tarefa != null) {
+                executarTarefa(tarefa);
+                continue;
+            }
+            if (!ativo) {
+                // Confere a fila depois de ver o encerramento: o que foi enviado antes dele é executado
+                if (fila.isEmpty()) {
+                    return;
+                }
+                continue;
+            }
+            parado = true;
+            // Confere de novo depois de marcar: um produtor que não viu "parado" já deixou a tarefa visível
+            if (fila.isEmpty() && ativo) {
+                LockSupport.park(this);
+            }
+            parado = false;
+        }
+    }
+
+    private void executarTarefa(Runnable tarefa) {
+        try {
+            tarefa.run();
+        } catch (RuntimeException e) {
+            // Uma tarefa com erro não derruba o laço nem as salas do fragmento
+            System.out.println("ERRO no " + thread.getName() + ": " + e);
+        } finally {
+            concluidas.increment();
+        }
+    }
+
+    /**
+     * Executa as tarefas já enfileiradas e encerra a thread
+     */
+    void encerrar() throws InterruptedException {
+        ativo = false;
+        LockSupport.unpark(thread);
+        thread.join();
+    }
+
+    /**
+     * true na thread do laço, fora de código de usuário: uma entrega pode
+     * ser feita na hora sem reentrar em receberEnvelope
+     */
+    boolean podeEntregarNaHora() {
+        return Thread.currentThread() == thread && !entregando;
+    }
+
+    /**
+     * Marca o início/fim de chamadas a receberEnvelope (na thread do laço)
+     */
+    void setEntregando(boolean entregando) {
+        this.entregando = entregando;
+    }
+
+    int getIndice() {
+        return indice;
+    }
+
+    /**
+     * Tarefas enviadas e ainda não concluídas
+     */
+    long getPendentes() {
+        return enfileiradas.sum() - concluidas.sum();
+    }
+
+    long getConcluidas() {
+        return concluidas.sum();
+    }
+}
@@ -0,0 +1,75 @@
+package comportamentais.mediator.compadrao.classes;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool de ByteBuffers diretos para o conteúdo codificado dos envelopes
+ *
+ * Buffers agrupados por tamanho (potências de 2, de 256 bytes a 64 KB).
+ * Os buffers livres somam no máximo MAXIMO_BYTES_LIVRES (de todos os
+ * tamanhos): acima disso, o buffer devolvido é deixado para o GC, e a
+ * memória direta retida pelo pool fica limitada. Pedidos maiores que
+ * 64 KB recebem um buffer comum, fora do pool.
+ */
+final class PoolBuffers {
+
+    private static final int MENOR = 256;
+    private static final int MAIOR = 64 * 1024;
+    private static final long MAXIMO_BYTES_LIVRES = 4L * 1024 * 1024;
+
+    // Índice i: buffers de MENOR << i bytes
+    private static final int TAMANHOS = Integer.numberOfTrailingZeros(MAIOR / MENOR) + 1;
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final ConcurrentLinkedQueue<ByteBuffer>[] LIVRES = new ConcurrentLinkedQueue[TAMANHOS];
+    // Soma das capacidades dos buffers livres
+    private static final AtomicLong BYTES_LIVRES = new AtomicLong();
+
+    static {
+        for (int i = 0; i < TAMANHOS; i++) {
+            LIVRES[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    private PoolBuffers() {
+    }
+
+    /**
+     * @return buffer vazio com pelo menos "capacidade" bytes
+     */
+    static ByteBuffer obter(int capacidade) {
+        if (capacidade > MAIOR) {
+            return ByteBuffer.allocate(capacidade);
+        }
+        int indice = indice(capacidade);
+        ByteBuffer buffer = LIVRES[indice].poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(MENOR << indice);
+        }
+        BYTES_LIVRES.addAndGet(-buffer.capacity());
+        return buffer;
+    }
+
+    /**
+     * Devolve um buffer obtido em obter; ninguém mais pode usá-lo
+     */
+    static void devolver(ByteBuffer buffer) {
+        if (!buffer.isDirect() || buffer.capacity() > MAIOR) {
+            return;
+        }
+        if (BYTES_LIVRES.addAndGet(buffer.capacity()) > MAXIMO_BYTES_LIVRES) {
+            BYTES_LIVRES.addAndGet(-buffer.capacity());
+            return;
+        }
+        buffer.clear();
+        LIVRES[indice(buffer.capacity())].offer(buffer);
+    }
+
+    private static int indice(int capacidade) {
+        if (capacidade <= MENOR) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(capacidade - 1) - Integer.numberOfTrailingZeros(MENOR);
+    }
+}
@@ -0,0 +1,201 @@
+package comportamentais.mediator.compadrao.classes;
+
+import comportamentais.mediator.compadrao.interfaces.ChatMediator;
+import java.util.LinkedHashMap;
+
+/**
+ * Sala hospedada em um ServidorChat
+ *
+ * CONFINADA AO FRAGMENTO:
+ * Cada sala pertence a um laço de eventos (escolhido pelo nome) e só é
+ * alterada por tarefas desse laço: os métodos de ChatMediator apenas
+ * enfileiram a operação e retornam. Por isso os membros ficam em um
+ * LinkedHashMap comum, na ordem de entrada, sem locks nem instantâneos
+ * publicados. As operações de uma mesma thread sobre a sala são
+ * executadas na ordem em que foram chamadas; chamadas feitas de dentro
+ * de receberEnvelope também são enfileiradas, nunca executadas no meio
+ * de outro broadcast.
+ *
+ * ENTREGA NO FRAGMENTO DO DESTINATÁRIO:
+ * Cada usuário também tem um fragmento (o "de casa", pelo nome), e
+ * receberEnvelope só é chamado na thread desse fragmento, qualquer que
+ * seja a sala. Um broadcast agrupa os membros por fragmento e entrega
+ * uma tarefa por grupo (não por membro); o grupo do próprio fragmento da
+ * sala é entregue na hora. Os grupos são remontados no primeiro broadcast
+ * depois de uma entrada/saída e nunca alterados depois de montados, então
+ * as tarefas de outros fragmentos podem percorrê-los sem cópia.
+ */
+public class SalaFragmentada implements ChatMediator {
+
+    private final String nome;
+    private final ServidorChat servidor;
+    private final LacoEventos laco;
+
+    // ==================== ESTADO DO LAÇO ====================
+    // Lido e alterado só na thread do laço
+
+    private final LinkedHashMap<String, Usuario> membros;
+    // Membros agrupados por fragmento de casa; null depois de uma mudança
+    private Usuario[][] grupos;
+    private int[] fragmentosGrupos;
+
+    // Publicado pelo laço para consulta de outras threads
+    private volatile int numeroUsuarios;
+
+    SalaFragmentada(String nome, ServidorChat servidor, LacoEventos laco) {
+        this.nome = nome;
+        this.servidor = servidor;
+        this.laco = laco;
+        this.membros = new LinkedHashMap<>();
+    }
+
+    @Override
+    public void adicionarUsuario(Usuario usuario) {
+        laco.enviar(() -> {
+            if (membros.putIfAbsent(usuario.getNome(), usuario) == null) {
+                alterada();
+                if (servidor.isEcoConsole()) {
+                    System.out.println("[" + nome + "] " + usuario.getNome() + " entrou no chat");
+                }
+            }
+        });
+    }
+
+    @Override
+    public void removerUsuario(Usuario usuario) {
+        laco.enviar(() -> {
+            if (membros.remove(usuario.getNome()) != null) {
+                alterada();
+                if (servidor.isEcoConsole()) {
+                    System.out.println("[" + nome + "] " + usuario.getNome() + " saiu do chat");
+                }
+            }
+        });
+    }
+
+    private void alterada() {
+        grupos = null;
+        fragmentosGrupos = null;
+        numeroUsuarios = membros.size();
+    }
+
+    @Override
+    public void enviarMensagem(String mensagem, Usuario remetente) {
+        Envelope envelope = Envelope.mensagem(nome, mensagem, remetente);
+        enviarOuLiberar(envelope, () -> distribuir(envelope, membros.get(remetente.getNome())));
+    }
+
+    @Override
+    public void enviarMensagemPrivada(String mensagem, Usuario remetente, Usuario destinatario) {
+        Envelope envelope = Envelope.mensagem(nome, mensagem, remetente);
+        enviarOuLiberar(envelope, () -> {
+            try {
+                Usuario membroDestinatario = membros.get(destinatario.getNome());
+                if (membroDestinatario != null && membros.containsKey(remetente.getNome())) {
+                    servidor.encaminhar(servidor.fragmentoDe(membroDestinatario.getNome()),
+                            new Usuario[]{membroDestinatario}, envelope, null);
+                } else if (servidor.isEcoConsole()) {
+                    System.out.println("ERRO: Um dos usuários não está no chat");
+                }
+            } finally {
+                envelope.liberar();
+            }
+        });
+    }
+
+    /**
+     * Anúncio para todos os membros
+     */
+    public void enviarAnuncio(String anuncio) {
+        Envelope envelope = Envelope.anuncio(nome, anuncio);
+        enviarOuLiberar(envelope, () -> {
+            if (servidor.isEcoConsole()) {
+                System.out.println("\n[ANÚNCIO do " + nome + "] " + anuncio);
+            }
+            distribuir(envelope, null);
+        });
+    }
+
+    /**
+     * Passa a tarefa (dona da referência da sala) ao laço; se o laço recusar, libera o envelope
+     */
+    private void enviarOuLiberar(Envelope envelope, Runnable tarefa) {
+        try {
+            laco.enviar(tarefa);
+        } catch (IllegalStateException e) {
+            envelope.liberar();
+            throw e;
+        }
+    }
+
+    /**
+     * Encaminha o envelope a cada grupo de membros (exceto "excluido") e libera a referência da sala
+     * Roda no laço da sala
+     */
+    private void distribuir(Envelope envelope, Usuario excluido) {
+        try {
+            if (grupos == null) {
+                agrupar();
+            }
+            // Locais: os campos podem ser trocados por uma entrada/saída durante a entrega
+            Usuario[][] grupos = this.grupos;
+            int[] fragmentosGrupos = this.fragmentosGrupos;
+            for (int i = 0; i < grupos.length; i++) {
+                servidor.encaminhar(fragmentosGrupos[i], grupos[i], envelope, excluido);
+            }
+        } finally {
+            envelope.liberar();
+        }
+    }
+
+    /**
+     * Monta os grupos por fragmento de casa, mantendo em cada um a ordem de entrada
+     */
+    private void agrupar() {
+        int fragmentos = servidor.getNumeroFragmentos();
+        int[] fragmentoMembro = new int[membros.size()];
+        int[] tamanhos = new int[fragmentos];
+        int naoVazios = 0;
+        int i = 0;
+        for (Usuario usuario : membros.values()) {
+            int fragmento = servidor.fragmentoDe(usuario.getNome());
+            fragmentoMembro[i++] = fragmento;
+            if (tamanhos[fragmento]++ == 0) {
+                naoVazios++;
+            }
+        }
+
+        Usuario[][] novos = new Usuario[naoVazios][];
+        int[] fragmentosNovos = new int[naoVazios];
+        // Posição de cada fragmento em "novos", e quantos membros já foram colocados no grupo
+        int[] posicao = new int[fragmentos];
+        int[] preenchidos = new int[naoVazios];
+        int grupo = 0;
+        for (int fragmento = 0; fragmento < fragmentos; fragmento++) {
+            if (tamanhos[fragmento] > 0) {
+                posicao[fragmento] = grupo;
+                novos[grupo] = new Usuario[tamanhos[fragmento]];
+                fragmentosNovos[grupo] = fragmento;
+                grupo++;
+            }
+        }
+        i = 0;
+        for (Usuario usuario : membros.values()) {
+            int indice = posicao[fragmentoMembro[i++]];
+            novos[indice][preenchidos[indice]++] = usuario;
+        }
+        grupos = novos;
+        fragmentosGrupos = fragmentosNovos;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    /**
+     * Membros depois da última entrada/saída já processada pelo laço
+     */
+    public int getNumeroUsuarios() {
+        return numeroUsuarios;
+    }
+}
@@ -0,0 +1,256 @@
+package comportamentais.mediator.compadrao.classes;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Servidor que hospeda muitas salas (SalaFragmentada) em laços de eventos
+ *
+ * FRAGMENTOS:
+ * O servidor tem um número fixo de laços de eventos, cada um com a sua
+ * thread. Cada sala pertence ao laço escolhido pelo hash do nome e é
+ * alterada só nele; cada usuário tem um laço "de casa", também pelo nome,
+ * onde recebe tudo o que lhe é entregue (mensagens de qualquer sala e
+ * privadas). Salas e usuários não usam locks: o que cruza fragmentos
+ * passa pela fila sem locks do laço de destino.
+ *
+ * Um usuário pode estar em várias salas; o registro de salas é o único
+ * estado compartilhado (ConcurrentHashMap), consultado ao obter uma sala.
+ *
+ * ORDEM:
+ * As operações de uma thread sobre uma sala (entrar, enviar, sair) são
+ * executadas na ordem da chamada, e cada destinatário recebe as mensagens
+ * de um mesmo remetente em uma sala na ordem de envio.
+ */
+public class ServidorChat implements AutoCloseable {
+
+    private final LacoEventos[] lacos;
+    private final ConcurrentHashMap<String, SalaFragmentada> salas;
+
+    private final LongAdder entregues;
+    private final LongAdder falhas;
+
+    // Mensagens de entrada/saída/erro das salas no console
+    private volatile boolean ecoConsole = true;
+
+    /**
+     * Um fragmento por processador
+     */
+    public ServidorChat() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param fragmentos número de laços de eventos (threads)
+     */
+    public ServidorChat(int fragmentos) {
+        if (fragmentos <= 0) {
+            throw new IllegalArgumentException("Número de fragmentos deve ser positivo: " + fragmentos);
+        }
+        this.lacos = new LacoEventos[fragmentos];
+        for (int i = 0; i < fragmentos; i++) {
+            lacos[i] = new LacoEventos(i);
+        }
+        this.salas = new ConcurrentHashMap<>();
+        this.entregues = new LongAdder();
+        this.falhas = new LongAdder();
+        for (LacoEventos laco : lacos) {
+            laco.iniciar();
+        }
+    }
+
+    // ==================== SALAS ====================
+
+    /**
+     * Sala com este nome, criada no primeiro acesso
+     */
+    public SalaFragmentada sala(String nome) {
+        SalaFragmentada sala = salas.get(nome);
+        if (sala != null) {
+            return sala;
+        }
+        return salas.computeIfAbsent(nome, n -> new SalaFragmentada(n, this, lacos[fragmentoDe(n)]));
+    }
+
+    /**
+     * @return a sala, ou null se ainda não foi criada
+     */
+    public SalaFragmentada buscarSala(String nome) {
+        return salas.get(nome);
+    }
+
+    public void entrar(String nomeSala, Usuario usuario) {
+        sala(nomeSala).adicionarUsuario(usuario);
+    }
+
+    public void sair(String nomeSala, Usuario usuario) {
+        sala(nomeSala).removerUsuario(usuario);
+    }
+
+    // ==================== MENSAGENS PRIVADAS ====================
+
+    /**
+     * Mensagem direta entre usuários, sem sala em comum
+     * Entregue no fragmento de casa do destinatário
+     */
+    public void enviarMensagemPrivada(String mensagem, Usuario remetente, Usuario destinatario) {
+        Envelope envelope = Envelope.mensagem("privado", mensagem, remetente);
+        try {
+            encaminhar(fragmentoDe(destinatario.getNome()), new Usuario[]{destinatario}, envelope, null);
+        } finally {
+            envelope.liberar();
+        }
+    }
+
+    // ==================== ENTREGA ====================
+
+    /**
+     * Fragmento de uma sala ou do "de casa" de um usuário
+     */
+    int fragmentoDe(String nome) {
+        int h = nome.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), lacos.length);
+    }
+
+    /**
+     * Entrega o envelope ao grupo (todos do mesmo fragmento de casa), exceto "excluido"
+     * Na thread desse fragmento (fora de receberEnvelope), entrega na hora;
+     * senão, retém o envelope e passa a entrega ao laço do fragmento
+     */
+    void encaminhar(int fragmento, Usuario[] grupo, Envelope envelope, Usuario excluido) {
+        LacoEventos destino = lacos[fragmento];
+        if (destino.podeEntregarNaHora()) {
+            entregar(destino, grupo, envelope, excluido);
+            return;
+        }
+        envelope.reter();
+        try {
+            destino.enviar(() -> {
+                try {
+                    entregar(destino, grupo, envelope, excluido);
+                } finally {
+                    envelope.liberar();
+                }
+            });
+        } catch (IllegalStateException e) {
+            envelope.liberar();
+            throw e;
+        }
+    }
+
+    /**
+     * Entrega na thread do laço; o que os usuários enviarem de dentro de receberEnvelope é enfileirado
+     */
+    private void entregar(LacoEventos laco, Usuario[] grupo, Envelope envelope, Usuario excluido) {
+        int quantidade = 0;
+        laco.setEntregando(true);
+        try {
+            for (Usuario usuario : grupo) {
+                if (usuario == excluido) {
+                    continue;
+                }
+                try {
+                    usuario.receberEnvelope(envelope);
+                    quantidade++;
+                } catch (RuntimeException e) {
+                    // Um usuário com erro não impede a entrega ao resto do grupo
+                    falhas.increment();
+                    System.out.println("ERRO ao entregar mensagem a " + usuario.getNome() + ": " + e);
+                }
+            }
+        } finally {
+            laco.setEntregando(false);
+            entregues.add(quantidade);
+        }
+    }
+
+    // ==================== CICLO DE VIDA ====================
+
+    /**
+     * Espera os laços esvaziarem (tarefas já enviadas executadas)
+     * Chame depois que os remetentes pararam; verifica a cada milissegundo
+     *
+     * @return true se esvaziaram dentro do tempo
+     */
+    public boolean descarregar(long tempo, TimeUnit unidade) throws InterruptedException {
+        long limite = System.nanoTime() + unidade.toNanos(tempo);
+        while (getPendentes() > 0) {
+            if (System.nanoTime() - limite >= 0) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    /**
+     * Executa o que está nos laços (até 1 minuto) e encerra as threads
+     * Operações posteriores são rejeitadas (IllegalStateException)
+     */
+    @Override
+    public void close() {
+        try {
+            descarregar(1, TimeUnit.MINUTES);
+            for (LacoEventos laco : lacos) {
+                laco.encerrar();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ==================== CONSULTA ====================
+
+    /**
+     * Liga/desliga as mensagens de entrada, saída, anúncio e erro das salas no console
+     * Com muitas salas, o console limitaria a vazão
+     */
+    public void setEcoConsole(boolean ecoConsole) {
+        this.ecoConsole = ecoConsole;
+    }
+
+    boolean isEcoConsole() {
+        return ecoConsole;
+    }
+
+    public int getNumeroFragmentos() {
+        return lacos.length;
+    }
+
+    public int getNumeroSalas() {
+        return salas.size();
+    }
+
+    /**
+     * Tarefas enviadas aos laços e ainda não executadas
+     */
+    public long getPendentes() {
+        long pendentes = 0;
+        for (LacoEventos laco : lacos) {
+            pendentes += laco.getPendentes();
+        }
+        return pendentes;
+    }
+
+    public long getEntregues() {
+        return entregues.sum();
+    }
+
+    public long getFalhas() {
+        return falhas.sum();
+    }
+
+    /**
+     * Exibe contadores do servidor e tarefas executadas por fragmento
+     */
+    public void exibirEstatisticas() {
+        System.out.println("\n=== SERVIDOR (" + lacos.length + " fragmentos, " + getNumeroSalas() + " salas) ===");
+        System.out.println("Entregues: " + getEntregues() + " | Falhas: " + getFalhas() + " | Pendentes: " + getPendentes());
+        StringBuilder tarefas = new StringBuilder("Tarefas por fragmento:");
+        for (LacoEventos laco : lacos) {
+            tarefas.append(' ').append(laco.getConcluidas());
+        }
+        System.out.println(tarefas);
+    }
+}
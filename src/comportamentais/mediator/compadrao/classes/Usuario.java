@@ -41,6 +41,20 @@ public class Usuario {
         System.out.println(nome + " recebeu de " + remetente.getNome() + ": " + mensagem);
     }
     
+    /**
+     * Recebe um envio da sala (mensagem ou anúncio)
+     * O envelope é o mesmo para todos os destinatários: sobrescreva para
+     * usar o conteúdo já codificado (getConteudo) em vez de formatar de novo
+     * Padrão: anúncios são impressos; mensagens vão para receberMensagem
+     */
+    public void receberEnvelope(Envelope envelope) {
+        if (envelope.getTipo() == Envelope.Tipo.ANUNCIO) {
+            System.out.println(nome + " recebeu anúncio: " + envelope.getTexto());
+        } else {
+            receberMensagem(envelope.getTexto(), envelope.getRemetente());
+        }
+    }
+    
     public String getNome() {
         return nome;
     }